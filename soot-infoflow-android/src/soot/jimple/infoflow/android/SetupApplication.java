@@ -78,12 +78,15 @@ import soot.jimple.infoflow.entryPointCreators.AndroidEntryPointCreator;
 import soot.jimple.infoflow.handlers.PostAnalysisHandler;
 import soot.jimple.infoflow.handlers.PreAnalysisHandler;
 import soot.jimple.infoflow.handlers.ResultsAvailableHandler;
+import soot.jimple.infoflow.handlers.ResultsAvailableHandler2;
 import soot.jimple.infoflow.handlers.TaintPropagationHandler;
 import soot.jimple.infoflow.ipc.IIPCManager;
 import soot.jimple.infoflow.memory.FlowDroidMemoryWatcher;
 import soot.jimple.infoflow.memory.FlowDroidTimeoutWatcher;
 import soot.jimple.infoflow.memory.IMemoryBoundedSolver;
 import soot.jimple.infoflow.results.InfoflowResults;
+import soot.jimple.infoflow.results.ResultSinkInfo;
+import soot.jimple.infoflow.results.ResultSourceInfo;
 import soot.jimple.infoflow.rifl.RIFLSourceSinkDefinitionProvider;
 import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
 import soot.jimple.infoflow.solver.memory.IMemoryManager;
@@ -143,12 +146,14 @@ public class SetupApplication {
 
 	/**
 	 * Class for aggregating the data flow results obtained through multiple
-	 * runs of the data flow solver.
+	 * runs of the data flow solver. Single results are passed on to the
+	 * handlers of the {@link SetupApplication} while the analysis is still
+	 * running. The final results are delivered once all runs are done.
 	 * 
 	 * @author Steven Arzt
 	 *
 	 */
-	private static class MultiRunResultAggregator implements ResultsAvailableHandler {
+	private class MultiRunResultAggregator implements ResultsAvailableHandler2 {
 
 		private final InfoflowResults aggregatedResults = new InfoflowResults();
 		private InfoflowResults lastResults = null;
@@ -161,6 +166,15 @@ public class SetupApplication {
 			this.lastICFG = cfg;
 		}
 
+		@Override
+		public boolean onSingleResultAvailable(ResultSourceInfo source, ResultSinkInfo sink) {
+			boolean continueAnalysis = true;
+			for (ResultsAvailableHandler handler : resultsAvailableHandlers)
+				if (handler instanceof ResultsAvailableHandler2)
+					continueAnalysis &= ((ResultsAvailableHandler2) handler).onSingleResultAvailable(source, sink);
+			return continueAnalysis;
+		}
+
 		/**
 		 * Gets all data flow results aggregated so far
 		 * 
@@ -64,6 +64,8 @@ public class MainClass {
 	private static final String OPTION_NO_EXCEPTIONAL_FLOWS = "ne";
 	private static final String OPTION_NO_TYPE_CHECKING = "nt";
 	private static final String OPTION_REFLECTION = "r";
+	private static final String OPTION_SINK_REACHABILITY = "sr";
+	private static final String OPTION_PRECOMPUTE_CFGS = "pc";
 
 	// Taint wrapper
 	private static final String OPTION_TAINT_WRAPPER = "tw";
@@ -72,6 +74,7 @@ public class MainClass {
 	// Individual settings
 	private static final String OPTION_ACCESS_PATH_LENGTH = "al";
 	private static final String OPTION_FLOW_INSENSITIVE_ALIASING = "af";
+	private static final String OPTION_MUST_ALIAS_CACHE_SIZE = "mac";
 	private static final String OPTION_COMPUTE_PATHS = "cp";
 	private static final String OPTION_ONE_SOURCE = "os";
 	private static final String OPTION_ONE_COMPONENT = "ot";
@@ -82,6 +85,9 @@ public class MainClass {
 	private static final String OPTION_MAX_CALLBACKS_COMPONENT = "mc";
 	private static final String OPTION_MAX_CALLBACKS_DEPTH = "md";
 	private static final String OPTION_PATH_SPECIFIC_RESULTS = "ps";
+	private static final String OPTION_PATH_BUILDING_THREADS = "pt";
+	private static final String OPTION_MAX_PATHS_PER_SINK = "mps";
+	private static final String OPTION_SPILL_PREDECESSOR_GRAPH = "spg";
 
 	// Inter-component communication
 	private static final String OPTION_ICC_MODEL = "im";
@@ -131,6 +137,10 @@ public class MainClass {
 		options.addOption(OPTION_NO_TYPE_CHECKING, "notypechecking", false,
 				"Disable type checking during taint propagation");
 		options.addOption(OPTION_REFLECTION, "enablereflection", false, "Enable support for reflective method calls");
+		options.addOption(OPTION_SINK_REACHABILITY, "sinkreachability", false,
+				"Do not propagate taints in methods from which no sink can be reached");
+		options.addOption(OPTION_PRECOMPUTE_CFGS, "precomputecfgs", false,
+				"Build the control flow graphs of all reachable methods in parallel before the data flow analysis");
 
 		// Taint wrapper
 		options.addOption(OPTION_TAINT_WRAPPER, "taintwrapper", true,
@@ -141,6 +151,8 @@ public class MainClass {
 		options.addOption(OPTION_ACCESS_PATH_LENGTH, "aplength", true, "Maximum access path length");
 		options.addOption(OPTION_FLOW_INSENSITIVE_ALIASING, "aliasflowins", false,
 				"Use a flow-insensitive alias analysis");
+		options.addOption(OPTION_MUST_ALIAS_CACHE_SIZE, "mustaliascachesize", true,
+				"Keep the must-alias results of at most the given number of methods in memory, or of all methods if 0");
 		options.addOption(OPTION_COMPUTE_PATHS, "paths", false,
 				"Compute the taint propagation paths and not just source-to-sink connections. This is a shorthand notation for -pr fast.");
 		options.addOption(OPTION_LOG_SOURCES_SINKS, "logsourcesandsinks", false,
@@ -161,6 +173,12 @@ public class MainClass {
 				"Merge all dex files in the given APK file into one analysis target");
 		options.addOption(OPTION_PATH_SPECIFIC_RESULTS, "pathspecificresults", false,
 				"Report different results for same source/sink pairs if they differ in their propagation paths");
+		options.addOption(OPTION_PATH_BUILDING_THREADS, "pathbuildingthreads", true,
+				"Use the given number of threads for the MEMOIZING path reconstruction algorithm");
+		options.addOption(OPTION_MAX_PATHS_PER_SINK, "maxpathspersink", true,
+				"Report at most the given number of paths per source and sink with the SHORTESTFIRST path builder");
+		options.addOption(OPTION_SPILL_PREDECESSOR_GRAPH, "spillpredecessorgraph", false,
+				"Write the predecessor graph of the taint abstractions to disk and reconstruct the paths from there");
 
 		// Inter-component communication
 		options.addOption(OPTION_ICC_MODEL, "iccmodel", true,
@@ -174,11 +192,11 @@ public class MainClass {
 		options.addOption(OPTION_LAYOUT_MODE, "layoutmode", true,
 				"Mode for considerung layout controls as sources (NONE, PWD, ALL)");
 		options.addOption(OPTION_PATH_RECONSTRUCTION_ALGO, "pathalgo", true,
-				"Use the specified algorithm for computing result paths (CONTEXTSENSITIVE, CONTEXTINSENSITIVE, SOURCESONLY)");
+				"Use the specified algorithm for computing result paths (CONTEXTSENSITIVE, CONTEXTINSENSITIVE, SOURCESONLY, MEMOIZING, SHORTESTFIRST)");
 		options.addOption(OPTION_CALLBACK_ANALYZER, "callbackanalyzer", true,
 				"Use the specified callback analyzer (DEFAULT, FAST)");
 		options.addOption(OPTION_DATA_FLOW_SOLVER, "dataflowsolver", true,
-				"Use the specified data flow solver (HEROS, CONTEXTFLOWSENSITIVE, FLOWINSENSITIVE)");
+				"Use the specified data flow solver (HEROS, CONTEXTFLOWSENSITIVE, FLOWINSENSITIVE, GARBAGECOLLECTING)");
 		options.addOption(OPTION_ALIAS_ALGO, "aliasalgo", true,
 				"Use the specified aliasing algorithm (NONE, FLOWSENSITIVE, PTSBASED, LAZY)");
 		options.addOption(OPTION_CODE_ELIMINATION_MODE, "codeelimination", true,
@@ -397,6 +415,10 @@ public class MainClass {
 			return PathBuildingAlgorithm.ContextInsensitive;
 		else if (pathAlgo.equalsIgnoreCase("SOURCESONLY"))
 			return PathBuildingAlgorithm.ContextInsensitiveSourceFinder;
+		else if (pathAlgo.equalsIgnoreCase("MEMOIZING"))
+			return PathBuildingAlgorithm.Memoizing;
+		else if (pathAlgo.equalsIgnoreCase("SHORTESTFIRST"))
+			return PathBuildingAlgorithm.ShortestPathFirst;
 		else {
 			System.err.println(String.format("Invalid path reconstruction algorithm: %s", pathAlgo));
 			throw new AbortAnalysisException();
@@ -419,6 +441,8 @@ public class MainClass {
 			return DataFlowSolver.ContextFlowSensitive;
 		else if (solver.equalsIgnoreCase("FLOWINSENSITIVE"))
 			return DataFlowSolver.FlowInsensitive;
+		else if (solver.equalsIgnoreCase("GARBAGECOLLECTING"))
+			return DataFlowSolver.GarbageCollecting;
 		else {
 			System.err.println(String.format("Invalid data flow solver: %s", solver));
 			throw new AbortAnalysisException();
@@ -549,6 +573,10 @@ public class MainClass {
 			config.setEnableTypeChecking(false);
 		if (cmd.hasOption(OPTION_REFLECTION))
 			config.setEnableRefection(true);
+		if (cmd.hasOption(OPTION_SINK_REACHABILITY))
+			config.setSinkReachabilityPruning(true);
+		if (cmd.hasOption(OPTION_PRECOMPUTE_CFGS))
+			config.getSolverConfiguration().setPrecomputeMethodData(true);
 
 		// Individual settings
 		{
@@ -558,6 +586,11 @@ public class MainClass {
 		}
 		if (cmd.hasOption(OPTION_FLOW_INSENSITIVE_ALIASING))
 			config.setFlowSensitiveAliasing(false);
+		{
+			int mustAliasCacheSize = getIntOption(cmd, OPTION_MUST_ALIAS_CACHE_SIZE);
+			if (mustAliasCacheSize >= 0)
+				config.setMustAliasCacheSize(mustAliasCacheSize);
+		}
 		if (cmd.hasOption(OPTION_COMPUTE_PATHS))
 			config.getPathConfiguration().setPathReconstructionMode(PathReconstructionMode.Fast);
 		if (cmd.hasOption(OPTION_ONE_SOURCE))
@@ -566,6 +599,8 @@ public class MainClass {
 			config.setOneComponentAtATime(true);
 		if (cmd.hasOption(OPTION_SEQUENTIAL_PATHS))
 			config.getPathConfiguration().setSequentialPathProcessing(true);
+		if (cmd.hasOption(OPTION_SPILL_PREDECESSOR_GRAPH))
+			config.getPathConfiguration().setSpillPredecessorGraph(true);
 		if (cmd.hasOption(OPTION_LOG_SOURCES_SINKS))
 			config.setLogSourcesAndSinks(true);
 		if (cmd.hasOption(OPTION_MERGE_DEX_FILES))
@@ -584,6 +619,16 @@ public class MainClass {
 			if (maxDepth >= 0)
 				config.getCallbackConfig().setMaxAnalysisCallbackDepth(maxDepth);
 		}
+		{
+			int pathThreads = getIntOption(cmd, OPTION_PATH_BUILDING_THREADS);
+			if (pathThreads > 0)
+				config.getPathConfiguration().setPathBuildingParallelism(pathThreads);
+		}
+		{
+			int maxPathsPerSink = getIntOption(cmd, OPTION_MAX_PATHS_PER_SINK);
+			if (maxPathsPerSink >= 0)
+				config.getPathConfiguration().setMaxPathsPerSink(maxPathsPerSink);
+		}
 
 		// Inter-component communication
 		if (cmd.hasOption(OPTION_ICC_NO_PURIFY))
@@ -0,0 +1,86 @@
+package soot.jimple.infoflow.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.InfoflowConfiguration;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.data.AccessPath;
+import soot.jimple.infoflow.data.AccessPathFactory;
+
+/**
+ * Micro benchmarks for deriving, hashing and comparing abstractions
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AbstractionBenchmark {
+
+	private Abstraction source;
+	private AccessPath derivedAP;
+	private Stmt derivedStmt;
+
+	private Abstraction equalAbs1;
+	private Abstraction equalAbs2;
+	private Abstraction otherAbs;
+
+	@Setup
+	public void setup() {
+		BenchmarkScene scene = new BenchmarkScene(3, 3);
+		AccessPathFactory factory = new AccessPathFactory(new InfoflowConfiguration());
+
+		AccessPath sourceAP = factory.createAccessPath(scene.getLocals()[0], scene.getFields(), true);
+		source = new Abstraction(null, sourceAP, scene.getStmts()[0], null, false, false);
+
+		derivedAP = factory.createAccessPath(scene.getLocals()[1], scene.getFields(), true);
+		derivedStmt = scene.getStmts()[1];
+
+		// Two distinct, but equal objects
+		equalAbs1 = source.deriveNewAbstraction(derivedAP, derivedStmt);
+		equalAbs2 = source.deriveNewAbstraction(derivedAP, derivedStmt);
+		otherAbs = source.deriveNewAbstraction(
+				factory.createAccessPath(scene.getLocals()[2], scene.getFields(), true), scene.getStmts()[2]);
+	}
+
+	@Benchmark
+	public Abstraction deriveNewAbstraction() {
+		return source.deriveNewAbstraction(derivedAP, derivedStmt);
+	}
+
+	@Benchmark
+	public int deriveAndHashCode() {
+		// The hash code is cached inside the abstraction, so we need a fresh
+		// object to measure the computation
+		return source.deriveNewAbstraction(derivedAP, derivedStmt).hashCode();
+	}
+
+	@Benchmark
+	public int cachedHashCode() {
+		return equalAbs1.hashCode();
+	}
+
+	@Benchmark
+	public boolean equalsSame() {
+		return equalAbs1.equals(equalAbs2);
+	}
+
+	@Benchmark
+	public boolean equalsDifferent() {
+		return equalAbs1.equals(otherAbs);
+	}
+
+}
@@ -0,0 +1,70 @@
+package soot.jimple.infoflow.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.Local;
+import soot.SootField;
+import soot.jimple.infoflow.InfoflowConfiguration;
+import soot.jimple.infoflow.data.AccessPath;
+import soot.jimple.infoflow.data.AccessPathFactory;
+
+/**
+ * Micro benchmarks for creating access paths
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AccessPathBenchmark {
+
+	@Param({ "0", "1", "3", "5" })
+	private int fieldCount;
+
+	@Param({ "false", "true" })
+	private boolean hashCons;
+
+	private AccessPathFactory factory;
+	private Local local;
+	private SootField[] fields;
+
+	@Setup
+	public void setup() {
+		BenchmarkScene scene = new BenchmarkScene(5, 1);
+		InfoflowConfiguration config = new InfoflowConfiguration();
+		config.setHashConsAccessPaths(hashCons);
+		factory = new AccessPathFactory(config);
+		local = scene.getLocals()[0];
+		fields = fieldCount == 0 ? null : Arrays.copyOf(scene.getFields(), fieldCount);
+	}
+
+	@Benchmark
+	public AccessPath createAccessPath() {
+		return factory.createAccessPath(local, fields, true);
+	}
+
+	@Benchmark
+	public AccessPath createAccessPathNoSubFields() {
+		return factory.createAccessPath(local, fields, false);
+	}
+
+	@Benchmark
+	public boolean createAndCompare() {
+		return factory.createAccessPath(local, fields, true).equals(factory.createAccessPath(local, fields, true));
+	}
+
+}
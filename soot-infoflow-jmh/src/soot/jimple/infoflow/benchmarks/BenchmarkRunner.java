@@ -0,0 +1,43 @@
+package soot.jimple.infoflow.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for running the FlowDroid benchmarks. All command-line options of
+ * JMH are supported. Unless specified otherwise, the results are written to
+ * "jmh-result.json" in JSON format, so that they can be compared across
+ * FlowDroid versions.
+ *
+ * The paths to the benchmark targets are taken from the system properties
+ * "flowdroid.appPath" and "flowdroid.libPath" and are passed on to the forked
+ * benchmark JVMs.
+ */
+public class BenchmarkRunner {
+
+	public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOptions);
+		if (!cmdOptions.getResultFormat().hasValue())
+			builder.resultFormat(ResultFormatType.JSON);
+		if (!cmdOptions.getResult().hasValue())
+			builder.result(DEFAULT_RESULT_FILE);
+
+		// Pass the target locations on to the forked JVMs
+		for (String property : new String[] { "flowdroid.appPath", "flowdroid.libPath" }) {
+			String value = System.getProperty(property);
+			if (value != null)
+				builder.jvmArgsAppend("-D" + property + "=" + value);
+		}
+
+		new Runner(builder.build()).run();
+	}
+
+}
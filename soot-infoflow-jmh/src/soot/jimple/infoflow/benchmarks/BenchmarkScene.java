@@ -0,0 +1,136 @@
+package soot.jimple.infoflow.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import soot.G;
+import soot.Local;
+import soot.Modifier;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.jimple.Jimple;
+import soot.jimple.Stmt;
+import soot.options.Options;
+
+/**
+ * Minimal Soot scene for the micro benchmarks. The scene contains a single
+ * synthetic class with a chain of reference fields and some locals of that
+ * type, which is enough for building access paths and abstractions without
+ * running a full analysis.
+ *
+ * The locations of the benchmark targets can be configured using the system
+ * properties "flowdroid.appPath" and "flowdroid.libPath". By default, the
+ * compiled test classes of the soot-infoflow module and the runtime library of
+ * the current JVM are used.
+ */
+public class BenchmarkScene {
+
+	public static final String TARGET_CLASS = "soot.jimple.infoflow.benchmarks.Target";
+
+	private final SootClass targetClass;
+	private final SootField[] fields;
+	private final Local[] locals;
+	private final Stmt[] stmts;
+
+	/**
+	 * Creates a new scene. This resets all global Soot state.
+	 *
+	 * @param fieldCount
+	 *            The number of fields to create in the synthetic class
+	 * @param localCount
+	 *            The number of locals and statements to create
+	 */
+	public BenchmarkScene(int fieldCount, int localCount) {
+		G.reset();
+		Options.v().set_soot_classpath(getLibPath());
+		Options.v().set_allow_phantom_refs(true);
+		Options.v().set_output_format(Options.output_format_none);
+		Scene.v().loadNecessaryClasses();
+
+		targetClass = new SootClass(TARGET_CLASS, Modifier.PUBLIC);
+		targetClass.setSuperclass(Scene.v().getObjectType().getSootClass());
+		Scene.v().addClass(targetClass);
+		targetClass.setApplicationClass();
+
+		RefType targetType = targetClass.getType();
+		fields = new SootField[fieldCount];
+		for (int i = 0; i < fieldCount; i++) {
+			fields[i] = Scene.v().makeSootField("f" + i, targetType, Modifier.PUBLIC);
+			targetClass.addField(fields[i]);
+		}
+
+		locals = new Local[localCount];
+		stmts = new Stmt[localCount];
+		for (int i = 0; i < localCount; i++) {
+			locals[i] = Jimple.v().newLocal("l" + i, targetType);
+			stmts[i] = Jimple.v().newAssignStmt(locals[i], locals[i > 0 ? i - 1 : 0]);
+		}
+		Scene.v().getOrMakeFastHierarchy();
+	}
+
+	public SootClass getTargetClass() {
+		return targetClass;
+	}
+
+	public SootField[] getFields() {
+		return fields;
+	}
+
+	public Local[] getLocals() {
+		return locals;
+	}
+
+	public Stmt[] getStmts() {
+		return stmts;
+	}
+
+	/**
+	 * Gets the class path containing the benchmark targets
+	 *
+	 * @return The class path containing the benchmark targets
+	 */
+	public static String getAppPath() {
+		String appPath = System.getProperty("flowdroid.appPath");
+		if (appPath != null && !appPath.isEmpty())
+			return appPath;
+
+		try {
+			File f = new File(".." + File.separator + "soot-infoflow");
+			return f.getCanonicalPath() + File.separator + "build" + File.separator + "classes" + File.pathSeparator
+					+ f.getCanonicalPath() + File.separator + "build" + File.separator + "testclasses";
+		} catch (IOException e) {
+			throw new RuntimeException("Could not determine application path", e);
+		}
+	}
+
+	/**
+	 * Gets the class path with the libraries for the benchmark targets
+	 *
+	 * @return The class path with the libraries for the benchmark targets
+	 */
+	public static String getLibPath() {
+		String libPath = System.getProperty("flowdroid.libPath");
+		if (libPath != null && !libPath.isEmpty())
+			return libPath;
+		return System.getProperty("java.home") + File.separator + "lib" + File.separator + "rt.jar";
+	}
+
+	/**
+	 * Gets the class path with the libraries for the benchmark targets
+	 * including the servlet libraries required by securibench
+	 *
+	 * @return The library path for securibench
+	 */
+	public static String getSecuribenchLibPath() {
+		try {
+			File lib = new File(".." + File.separator + "soot-infoflow" + File.separator + "lib");
+			return getLibPath() + File.pathSeparator + lib.getCanonicalPath() + File.separator + "j2ee.jar"
+					+ File.pathSeparator + lib.getCanonicalPath() + File.separator + "cos.jar";
+		} catch (IOException e) {
+			throw new RuntimeException("Could not determine library path", e);
+		}
+	}
+
+}
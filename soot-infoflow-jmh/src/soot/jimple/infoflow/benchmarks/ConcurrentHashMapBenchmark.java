@@ -0,0 +1,87 @@
+package soot.jimple.infoflow.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.jimple.infoflow.collect.MyConcurrentHashMap;
+import soot.jimple.infoflow.collect.MyConcurrentHashMap.IValueFactory;
+
+/**
+ * Micro benchmarks for the concurrent hash map used throughout the solvers.
+ * The key range controls the ratio between hits and insertions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentHashMapBenchmark {
+
+	private static final IValueFactory<Object> valueFactory = new IValueFactory<Object>() {
+
+		@Override
+		public Object createValue() {
+			return new Object();
+		}
+
+	};
+
+	@Param({ "1024", "1048576" })
+	private int keyRange;
+
+	private MyConcurrentHashMap<Integer, Object> map;
+	private Integer[] keys;
+
+	@Setup(Level.Iteration)
+	public void setup() {
+		map = new MyConcurrentHashMap<>();
+		keys = new Integer[keyRange];
+		for (int i = 0; i < keyRange; i++)
+			keys[i] = i;
+	}
+
+	@Benchmark
+	public Object putIfAbsentElseGet(KeyIndex index) {
+		return map.putIfAbsentElseGet(keys[index.next(keyRange)], index.value);
+	}
+
+	@Benchmark
+	public Object putIfAbsentElseGetFactory(KeyIndex index) {
+		return map.putIfAbsentElseGet(keys[index.next(keyRange)], valueFactory);
+	}
+
+	/**
+	 * Per-thread pseudo-random sequence of keys
+	 */
+	@State(Scope.Thread)
+	public static class KeyIndex {
+
+		private final Object value = new Object();
+		private int seed = (int) Thread.currentThread().getId() * 0x9E3779B9;
+
+		public int next(int bound) {
+			// xorshift
+			seed ^= seed << 13;
+			seed ^= seed >>> 17;
+			seed ^= seed << 5;
+			return (seed & Integer.MAX_VALUE) % bound;
+		}
+
+	}
+
+}
@@ -0,0 +1,83 @@
+package soot.jimple.infoflow.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.jimple.infoflow.InfoflowConfiguration;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.data.AccessPath;
+import soot.jimple.infoflow.data.AccessPathFactory;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager.PathDataErasureMode;
+
+/**
+ * Micro benchmark for the FlowDroid memory manager. Every invocation hands a
+ * fresh abstraction to the memory manager, whose access path is equal to one
+ * of a small set of access paths and can thus be replaced by the cached one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(4)
+public class MemoryManagerBenchmark {
+
+	private static final int ACCESS_PATHS = 64;
+
+	@Param({ "EraseNothing", "KeepOnlyContextData", "EraseAll" })
+	private PathDataErasureMode erasureMode;
+
+	private FlowDroidMemoryManager memoryManager;
+	private Abstraction source;
+	private AccessPath[] accessPaths;
+	private BenchmarkScene scene;
+
+	@Setup
+	public void setup() {
+		scene = new BenchmarkScene(3, ACCESS_PATHS);
+		AccessPathFactory factory = new AccessPathFactory(new InfoflowConfiguration());
+		memoryManager = new FlowDroidMemoryManager(false, erasureMode);
+
+		accessPaths = new AccessPath[ACCESS_PATHS];
+		for (int i = 0; i < ACCESS_PATHS; i++)
+			accessPaths[i] = factory.createAccessPath(scene.getLocals()[i], scene.getFields(), true);
+		source = new Abstraction(null, accessPaths[0], scene.getStmts()[0], null, false, false);
+	}
+
+	@Benchmark
+	public Abstraction handleMemoryObject(ThreadIndex index) {
+		int i = index.next(ACCESS_PATHS);
+		Abstraction abs = source.deriveNewAbstraction(accessPaths[i].clone(), scene.getStmts()[i]);
+		return memoryManager.handleMemoryObject(abs);
+	}
+
+	/**
+	 * Per-thread position in the list of access paths
+	 */
+	@State(Scope.Thread)
+	public static class ThreadIndex {
+
+		private int index = 0;
+
+		public int next(int bound) {
+			index = (index + 1) % bound;
+			return index;
+		}
+
+	}
+
+}
@@ -0,0 +1,116 @@
+package soot.jimple.infoflow.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.InfoflowConfiguration;
+import soot.jimple.infoflow.config.ConfigSecuriBench;
+import soot.jimple.infoflow.entryPointCreators.DefaultEntryPointCreator;
+import soot.jimple.infoflow.results.InfoflowResults;
+
+/**
+ * Macro benchmarks that run the data flow analysis end to end on securibench
+ * micro targets. The sources, sinks and entry point creation are the same as
+ * in the securibench JUnit suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SecuribenchBenchmark {
+
+	private static final List<String> sources = Arrays.asList(
+			"<javax.servlet.ServletRequest: java.lang.String getParameter(java.lang.String)>",
+			"<javax.servlet.http.HttpServletRequest: java.lang.String getParameter(java.lang.String)>",
+			"<javax.servlet.ServletRequest: java.lang.String[] getParameterValues(java.lang.String)>",
+			"<javax.servlet.http.HttpServletRequest: java.lang.String[] getParameterValues(java.lang.String)>",
+			"<javax.servlet.ServletRequest: java.util.Map getParameterMap()>",
+			"<javax.servlet.http.HttpServletRequest: java.util.Map getParameterMap()>",
+			"<javax.servlet.ServletConfig: java.lang.String getInitParameter(java.lang.String)>",
+			"<soot.jimple.infoflow.test.securibench.supportClasses.DummyServletConfig: java.lang.String getInitParameter(java.lang.String)>",
+			"<javax.servlet.ServletConfig: java.util.Enumeration getInitParameterNames()>",
+			"<javax.servlet.ServletContext: java.lang.String getInitParameter(java.lang.String)>",
+			"<javax.servlet.http.HttpServletRequest: javax.servlet.http.Cookie[] getCookies()>",
+			"<javax.servlet.http.HttpServletRequest: java.lang.String getHeader(java.lang.String)>",
+			"<javax.servlet.http.HttpServletRequest: java.util.Enumeration getHeaders(java.lang.String)>",
+			"<javax.servlet.http.HttpServletRequest: java.util.Enumeration getHeaderNames()>",
+			"<javax.servlet.ServletRequest: java.lang.String getProtocol()>",
+			"<javax.servlet.http.HttpServletRequest: java.lang.String getProtocol()>",
+			"<javax.servlet.ServletRequest: java.lang.String getScheme()>",
+			"<javax.servlet.http.HttpServletRequest: java.lang.String getScheme()>",
+			"<javax.servlet.http.HttpServletRequest: java.lang.String getAuthType()>",
+			"<javax.servlet.http.HttpServletRequest: java.lang.String getQueryString()>",
+			"<javax.servlet.http.HttpServletRequest: java.lang.String getRemoteUser()>",
+			"<javax.servlet.http.HttpServletRequest: java.lang.StringBuffer getRequestURL()>",
+			"<javax.servlet.http.HttpServletRequest: javax.servlet.ServletInputStream getInputStream()>",
+			"<javax.servlet.ServletRequest: javax.servlet.ServletInputStream getInputStream()>",
+			"<com.oreilly.servlet.MultipartRequest: java.lang.String getParameter(java.lang.String)>");
+
+	private static final List<String> sinks = Arrays.asList("<java.io.PrintWriter: void println(java.lang.String)>",
+			"<java.io.PrintWriter: void println(java.lang.Object)>",
+			"<java.sql.Connection: java.sql.PreparedStatement prepareStatement(java.lang.String)>",
+			"<java.sql.Statement: boolean execute(java.lang.String)>",
+			"<java.sql.Statement: int executeUpdate(java.lang.String)>",
+			"<java.sql.Statement: int executeUpdate(java.lang.String,int)>",
+			"<java.sql.Statement: int executeUpdate(java.lang.String,java.lang.String[])>",
+			"<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>",
+			"<javax.servlet.http.HttpServletResponse: void sendRedirect(java.lang.String)>",
+			"<java.io.File: void <init>(java.lang.String)>", "<java.io.FileWriter: void <init>(java.lang.String)>",
+			"<java.io.FileInputStream: void <init>(java.lang.String)>");
+
+	private static final List<String> substClasses = Arrays.asList(
+			"soot.jimple.infoflow.test.securibench.supportClasses.DummyHttpRequest",
+			"soot.jimple.infoflow.test.securibench.supportClasses.DummyHttpResponse");
+
+	@Param({ "securibench.micro.basic.Basic1", "securibench.micro.basic.Basic10",
+			"securibench.micro.aliasing.Aliasing2", "securibench.micro.arrays.Arrays5",
+			"securibench.micro.collections.Collections3", "securibench.micro.inter.Inter4" })
+	private String targetClass;
+
+	private String appPath;
+	private String libPath;
+
+	@Setup
+	public void setup() {
+		appPath = BenchmarkScene.getAppPath();
+		libPath = BenchmarkScene.getSecuribenchLibPath();
+	}
+
+	@Benchmark
+	public InfoflowResults analyze() {
+		soot.G.reset();
+
+		DefaultEntryPointCreator entryPointCreator = new DefaultEntryPointCreator(Collections.singletonList("<"
+				+ targetClass
+				+ ": void doGet(javax.servlet.http.HttpServletRequest,javax.servlet.http.HttpServletResponse)>"));
+		entryPointCreator.setSubstituteCallParams(true);
+		entryPointCreator.setSubstituteClasses(substClasses);
+
+		Infoflow infoflow = new Infoflow();
+		infoflow.setSootConfig(new ConfigSecuriBench());
+		InfoflowConfiguration config = infoflow.getConfig();
+		config.setInspectSinks(false);
+		config.setHotMethodReportSize(0);
+
+		infoflow.computeInfoflow(appPath, libPath, entryPointCreator, sources, sinks);
+		return infoflow.getResults();
+	}
+
+}
@@ -0,0 +1,85 @@
+package soot.jimple.infoflow.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.InfoflowConfiguration;
+import soot.jimple.infoflow.config.ConfigForTest;
+import soot.jimple.infoflow.results.InfoflowResults;
+
+/**
+ * Macro benchmarks that run the data flow analysis end to end on the test
+ * targets of the soot-infoflow JUnit suite. Every invocation performs a
+ * complete analysis including call graph construction with a fixed
+ * configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TestCodeBenchmark {
+
+	private static final List<String> sources = Arrays.asList(
+			"<soot.jimple.infoflow.test.android.AccountManager: java.lang.String getPassword()>",
+			"<soot.jimple.infoflow.test.android.AccountManager: java.lang.String[] getUserData(java.lang.String)>",
+			"<soot.jimple.infoflow.test.android.TelephonyManager: java.lang.String getDeviceId()>",
+			"<soot.jimple.infoflow.test.android.TelephonyManager: int getIMEI()>",
+			"<soot.jimple.infoflow.test.android.TelephonyManager: int getIMSI()>",
+			"<soot.jimple.infoflow.test.android.Bundle: java.lang.Object get(java.lang.String)>",
+			"<soot.jimple.infoflow.test.android.LocationManager: double getLongitude()>",
+			"<soot.jimple.infoflow.test.android.LocationManager: soot.jimple.infoflow.test.android.Location getLastKnownLocation()>");
+
+	private static final List<String> sinks = Arrays.asList(
+			"<soot.jimple.infoflow.test.android.ConnectionManager: void publish(java.lang.String)>",
+			"<soot.jimple.infoflow.test.android.ConnectionManager: void publish(int)>",
+			"<soot.jimple.infoflow.test.android.ConnectionManager: void publish(boolean)>",
+			"<soot.jimple.infoflow.test.android.ConnectionManager: void publish(java.lang.Double)>");
+
+	@Param({ "<soot.jimple.infoflow.test.ListTestCode: void writeReadTest()>",
+			"<soot.jimple.infoflow.test.MapTestCode: void writeReadPos0Test()>",
+			"<soot.jimple.infoflow.test.HeapTestCode: void doubleAliasTest()>",
+			"<soot.jimple.infoflow.test.HeapTestCode: void contextTest1()>",
+			"<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>" })
+	private String entryPoint;
+
+	private String appPath;
+	private String libPath;
+
+	@Setup
+	public void setup() {
+		appPath = BenchmarkScene.getAppPath();
+		libPath = BenchmarkScene.getLibPath();
+	}
+
+	@Benchmark
+	public InfoflowResults analyze() {
+		soot.G.reset();
+
+		Infoflow infoflow = new Infoflow("", false, null);
+		infoflow.setSootConfig(new ConfigForTest());
+		InfoflowConfiguration config = infoflow.getConfig();
+		config.setAccessPathLength(5);
+		config.setHotMethodReportSize(0);
+
+		infoflow.computeInfoflow(appPath, libPath, Collections.singletonList(entryPoint), sources, sinks);
+		return infoflow.getResults();
+	}
+
+}
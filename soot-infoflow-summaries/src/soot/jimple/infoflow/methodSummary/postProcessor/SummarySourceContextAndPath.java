@@ -25,6 +25,7 @@ import soot.jimple.ReturnStmt;
 import soot.jimple.Stmt;
 import soot.jimple.infoflow.InfoflowConfiguration.PathConfiguration;
 import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.collect.ConsList;
 import soot.jimple.infoflow.data.Abstraction;
 import soot.jimple.infoflow.data.AccessPath;
 import soot.jimple.infoflow.data.AccessPathFactory.BasePair;
@@ -79,11 +80,9 @@ class SummarySourceContextAndPath extends SourceContextAndPath {
 
 		// Extend the call stack
 		if (abs.getCorrespondingCallSite() != null && abs.getCorrespondingCallSite() != abs.getCurrentStmt()) {
-			if (scap.callStack == null)
-				scap.callStack = new ArrayList<Stmt>();
-			else if (!scap.callStack.isEmpty() && scap.callStack.get(0) == abs.getCorrespondingCallSite())
+			if (scap.callStack != null && scap.callStack.getLast() == abs.getCorrespondingCallSite())
 				return null;
-			scap.callStack.add(0, abs.getCorrespondingCallSite());
+			scap.callStack = ConsList.append(scap.callStack, abs.getCorrespondingCallSite());
 		}
 
 		// Compute the next access path
@@ -474,10 +473,9 @@ class SummarySourceContextAndPath extends SourceContextAndPath {
 	public synchronized SummarySourceContextAndPath clone() {
 		final SummarySourceContextAndPath scap = new SummarySourceContextAndPath(manager, getAccessPath(), getStmt(),
 				curAP, isAlias, depth, new ArrayList<>(callees), getUserData());
-		if (callStack != null)
-			scap.callStack = new ArrayList<Stmt>(callStack);
-		if (path != null)
-			scap.path = new ArrayList<Abstraction>(path);
+		scap.callStack = callStack;
+		scap.path = path;
+		scap.pathHashes = pathHashes;
 		return scap;
 	}
 
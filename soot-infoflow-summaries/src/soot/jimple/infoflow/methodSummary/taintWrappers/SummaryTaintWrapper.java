@@ -49,6 +49,7 @@ import soot.jimple.infoflow.methodSummary.data.summary.MethodFlow;
 import soot.jimple.infoflow.methodSummary.data.summary.MethodSummaries;
 import soot.jimple.infoflow.methodSummary.data.summary.SourceSinkType;
 import soot.jimple.infoflow.solver.IFollowReturnsPastSeedsHandler;
+import soot.jimple.infoflow.taintWrappers.IFingerprintableTaintWrapper;
 import soot.jimple.infoflow.taintWrappers.ITaintPropagationWrapper;
 import soot.jimple.infoflow.util.ByReferenceBoolean;
 import soot.jimple.infoflow.util.SootMethodRepresentationParser;
@@ -59,12 +60,13 @@ import soot.util.MultiMap;
 
 /**
  * Taint wrapper implementation that applies method summaries created by
- * StubDroid
+ * StubDroid. Methods whose summaries contain gaps cannot be fingerprinted,
+ * because the flows through the gaps depend on the application code.
  * 
  * @author Steven Arzt
  *
  */
-public class SummaryTaintWrapper implements ITaintPropagationWrapper {
+public class SummaryTaintWrapper implements IFingerprintableTaintWrapper {
 	private InfoflowManager manager;
 	private AtomicInteger wrapperHits = new AtomicInteger();
 	private AtomicInteger wrapperMisses = new AtomicInteger();
@@ -1695,6 +1697,70 @@ public class SummaryTaintWrapper implements ITaintPropagationWrapper {
 		return false;
 	}
 
+	@Override
+	public String getRuleFingerprint(SootMethod method) {
+		// We apply the summaries of all possible callees, so we need to
+		// describe the declaring class, its interfaces, and all implementors
+		final String subSig = method.getSubSignature();
+		Set<SootClass> classes = new HashSet<>();
+		classes.add(method.getDeclaringClass());
+		classes.addAll(method.getDeclaringClass().getInterfaces());
+		if (hierarchy != null)
+			for (SootMethod implementor : getAllImplementors(method))
+				classes.add(implementor.getDeclaringClass());
+
+		List<String> rules = new ArrayList<>();
+		for (SootClass sc : classes) {
+			final String className = sc.getName();
+			rules.add(className + ":" + flows.supportsClass(className));
+
+			MethodSummaries summaries = flows.getMethodFlows(className, subSig);
+			if (summaries == null)
+				continue;
+
+			// Flows through gaps lead into application code that is not part
+			// of the description
+			if (summaries.getAllGaps() != null && !summaries.getAllGaps().isEmpty())
+				return null;
+
+			if (summaries.getAllFlows() != null)
+				for (MethodFlow flow : summaries.getAllFlows())
+					rules.add(className + ":flow:" + getSourceSinkFingerprint(flow.source()) + "->"
+							+ getSourceSinkFingerprint(flow.sink()) + ";" + flow.sink().taintSubFields() + ";"
+							+ flow.isAlias() + ";" + flow.getTypeChecking() + ";" + flow.getCutSubFields());
+			if (summaries.getAllClears() != null)
+				for (MethodClear clear : summaries.getAllClears())
+					rules.add(className + ":clear:" + getSourceSinkFingerprint(clear.getClearDefinition()));
+		}
+		Collections.sort(rules);
+
+		// If we have a fallback wrapper, its rules are part of ours
+		StringBuilder sb = new StringBuilder(rules.toString());
+		if (fallbackWrapper != null) {
+			if (!(fallbackWrapper instanceof IFingerprintableTaintWrapper))
+				return null;
+			String fallbackRules = ((IFingerprintableTaintWrapper) fallbackWrapper).getRuleFingerprint(method);
+			if (fallbackRules == null)
+				return null;
+			sb.append(";fallback:").append(fallbackRules);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Describes the given source, sink, or clear definition in a way that is
+	 * stable across analysis runs
+	 * 
+	 * @param definition
+	 *            The definition to describe
+	 * @return The description of the given definition
+	 */
+	private String getSourceSinkFingerprint(AbstractFlowSinkSource definition) {
+		return definition.getType() + " " + definition.getParameterIndex() + " " + definition.getBaseType() + " "
+				+ Arrays.toString(definition.getAccessPath()) + " "
+				+ Arrays.toString(definition.getAccessPathTypes());
+	}
+
 	@Override
 	public boolean supportsCallee(Stmt callSite) {
 		if (!callSite.containsInvokeExpr())
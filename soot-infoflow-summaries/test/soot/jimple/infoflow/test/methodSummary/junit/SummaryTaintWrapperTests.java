@@ -2,6 +2,9 @@ package soot.jimple.infoflow.test.methodSummary.junit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -23,11 +26,14 @@ import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import soot.Scene;
+import soot.SootMethod;
 import soot.jimple.infoflow.Infoflow;
 import soot.jimple.infoflow.InfoflowConfiguration;
 import soot.jimple.infoflow.config.IInfoflowConfig;
 import soot.jimple.infoflow.entryPointCreators.DefaultEntryPointCreator;
 import soot.jimple.infoflow.methodSummary.data.provider.EagerSummaryProvider;
+import soot.jimple.infoflow.methodSummary.taintWrappers.SummaryTaintWrapper;
 import soot.jimple.infoflow.methodSummary.taintWrappers.TaintWrapperFactory;
 import soot.jimple.infoflow.results.InfoflowResults;
 import soot.jimple.infoflow.taintWrappers.ITaintPropagationWrapper;
@@ -219,6 +225,26 @@ public class SummaryTaintWrapperTests {
 		assertFalse(provider.hasLoadingErrors());
 	}
 
+	@Test(timeout = 30000)
+	public void ruleFingerprint() {
+		testFlowForMethod("<soot.jimple.infoflow.test.methodSummary.ApiClassClient: void flow1()>");
+
+		SummaryTaintWrapper wrapper = (SummaryTaintWrapper) summaryWrapper;
+		SootMethod getter = Scene.v()
+				.getMethod("<soot.jimple.infoflow.test.methodSummary.ApiClass: java.lang.String getStringField()>");
+		SootMethod setter = Scene.v().getMethod(
+				"<soot.jimple.infoflow.test.methodSummary.ApiClass: void setStringField(java.lang.String)>");
+		String getterRules = wrapper.getRuleFingerprint(getter);
+		assertNotNull(getterRules);
+		assertEquals(getterRules, wrapper.getRuleFingerprint(getter));
+		assertNotEquals(getterRules, wrapper.getRuleFingerprint(setter));
+
+		// Flows through gaps depend on the application code
+		SootMethod gapMethod = Scene.v().getMethod("<soot.jimple.infoflow.test.methodSummary.ApiClass: "
+				+ "java.lang.String makeString(soot.jimple.infoflow.test.methodSummary.IGapClass,java.lang.String)>");
+		assertNull(wrapper.getRuleFingerprint(gapMethod));
+	}
+
 	private void testFlowForMethod(String m) {
 		Infoflow iFlow = null;
 		try {
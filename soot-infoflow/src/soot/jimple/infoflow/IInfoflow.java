@@ -13,6 +13,7 @@ package soot.jimple.infoflow;
 import java.util.Collection;
 import java.util.List;
 
+import soot.jimple.Stmt;
 import soot.jimple.infoflow.config.IInfoflowConfig;
 import soot.jimple.infoflow.data.pathBuilders.IPathBuilderFactory;
 import soot.jimple.infoflow.entryPointCreators.IEntryPointCreator;
@@ -150,6 +151,18 @@ public interface IInfoflow {
 	public void computeInfoflow(String appPath, String libPath, String entryPoint,
 			ISourceSinkManager sourcesSinks);
 
+	/**
+	 * Computes the information flow into a single sink statement. In contrast
+	 * to the other methods, this method does not set up Soot or build a
+	 * callgraph, but runs on the current Scene, e.g., after a previous call to
+	 * computeInfoflow(). Only the backward slice of the given sink is
+	 * analyzed, which makes this method suitable for interactive point
+	 * queries.
+	 * @param sink The sink statement for which to compute the incoming flows
+	 * @param sourcesSinks manager class for identifying sources and sinks in the source code
+	 */
+	public void computeInfoflowForSink(Stmt sink, ISourceSinkManager sourcesSinks);
+
 	/**
 	 * getResults returns the results found by the analysis
 	 * @return the results
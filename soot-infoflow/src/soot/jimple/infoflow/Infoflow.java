@@ -9,8 +9,11 @@
  ******************************************************************************/
 package soot.jimple.infoflow;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -24,6 +27,8 @@ import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheStats;
+
 import soot.G;
 import soot.MethodOrMethodContext;
 import soot.PackManager;
@@ -32,10 +37,13 @@ import soot.Scene;
 import soot.SootMethod;
 import soot.Unit;
 import soot.jimple.Stmt;
+import soot.jimple.infoflow.InfoflowConfiguration.AliasingAlgorithm;
 import soot.jimple.infoflow.InfoflowConfiguration.CallgraphAlgorithm;
 import soot.jimple.infoflow.InfoflowConfiguration.CodeEliminationMode;
 import soot.jimple.infoflow.InfoflowConfiguration.DataFlowSolver;
+import soot.jimple.infoflow.InfoflowConfiguration.JumpFunctionStorage;
 import soot.jimple.infoflow.InfoflowConfiguration.PathConfiguration;
+import soot.jimple.infoflow.InfoflowConfiguration.SchedulingStrategy;
 import soot.jimple.infoflow.InfoflowConfiguration.SolverConfiguration;
 import soot.jimple.infoflow.aliasing.Aliasing;
 import soot.jimple.infoflow.aliasing.FlowSensitiveAliasStrategy;
@@ -44,12 +52,16 @@ import soot.jimple.infoflow.aliasing.LazyAliasingStrategy;
 import soot.jimple.infoflow.aliasing.NullAliasStrategy;
 import soot.jimple.infoflow.aliasing.PtsBasedAliasStrategy;
 import soot.jimple.infoflow.cfg.BiDirICFGFactory;
+import soot.jimple.infoflow.cfg.ModRefSummaries;
 import soot.jimple.infoflow.codeOptimization.DeadCodeEliminator;
 import soot.jimple.infoflow.codeOptimization.ICodeOptimizer;
 import soot.jimple.infoflow.data.Abstraction;
 import soot.jimple.infoflow.data.AbstractionAtSink;
 import soot.jimple.infoflow.data.AccessPathFactory;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager;
 import soot.jimple.infoflow.data.FlowDroidMemoryManager.PathDataErasureMode;
+import soot.jimple.infoflow.data.PredecessorGraphSpill;
+import soot.jimple.infoflow.data.SpillingMemoryManager;
 import soot.jimple.infoflow.data.pathBuilders.BatchPathBuilder;
 import soot.jimple.infoflow.data.pathBuilders.DefaultPathBuilderFactory;
 import soot.jimple.infoflow.data.pathBuilders.IAbstractionPathBuilder;
@@ -62,6 +74,8 @@ import soot.jimple.infoflow.handlers.TaintPropagationHandler;
 import soot.jimple.infoflow.memory.FlowDroidMemoryWatcher;
 import soot.jimple.infoflow.memory.FlowDroidTimeoutWatcher;
 import soot.jimple.infoflow.memory.IMemoryBoundedSolver;
+import soot.jimple.infoflow.memory.IMemoryDegradable;
+import soot.jimple.infoflow.memory.IMemoryReclaimable;
 import soot.jimple.infoflow.memory.ISolverTerminationReason;
 import soot.jimple.infoflow.memory.reasons.AbortRequestedReason;
 import soot.jimple.infoflow.memory.reasons.OutOfMemoryReason;
@@ -70,6 +84,9 @@ import soot.jimple.infoflow.problems.BackwardsInfoflowProblem;
 import soot.jimple.infoflow.problems.InfoflowProblem;
 import soot.jimple.infoflow.problems.TaintPropagationResults;
 import soot.jimple.infoflow.problems.TaintPropagationResults.OnTaintPropagationResultAdded;
+import soot.jimple.infoflow.query.SinkQuerySourceSinkManager;
+import soot.jimple.infoflow.query.SinkReachability;
+import soot.jimple.infoflow.query.SinkSlice;
 import soot.jimple.infoflow.results.InfoflowResults;
 import soot.jimple.infoflow.results.ResultSinkInfo;
 import soot.jimple.infoflow.results.ResultSourceInfo;
@@ -78,15 +95,23 @@ import soot.jimple.infoflow.solver.PredecessorShorteningMode;
 import soot.jimple.infoflow.solver.cfg.BackwardsInfoflowCFG;
 import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
 import soot.jimple.infoflow.solver.cfg.InfoflowCFG;
+import soot.jimple.infoflow.solver.endSummaries.EndSummaryCache;
+import soot.jimple.infoflow.solver.endSummaries.MappedSummaryStore;
 import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
 import soot.jimple.infoflow.solver.executors.SetPoolExecutor;
+import soot.jimple.infoflow.solver.executors.WorkStealingExecutor;
+import soot.jimple.infoflow.solver.jumpFunctions.DefaultJumpFunctionStoreFactory;
+import soot.jimple.infoflow.solver.jumpFunctions.IJumpFunctionStoreFactory;
+import soot.jimple.infoflow.solver.jumpFunctions.PrimitiveJumpFunctionStoreFactory;
 import soot.jimple.infoflow.solver.memory.DefaultMemoryManagerFactory;
 import soot.jimple.infoflow.solver.memory.IMemoryManager;
 import soot.jimple.infoflow.solver.memory.IMemoryManagerFactory;
+import soot.jimple.infoflow.solver.profiling.SolverProfile;
 import soot.jimple.infoflow.sourcesSinks.manager.IOneSourceAtATimeManager;
 import soot.jimple.infoflow.sourcesSinks.manager.ISourceSinkManager;
 import soot.jimple.infoflow.util.SootMethodRepresentationParser;
 import soot.jimple.infoflow.util.SystemClassHandler;
+import soot.jimple.toolkits.callgraph.CallGraph;
 import soot.jimple.toolkits.callgraph.ReachableMethods;
 import soot.options.Options;
 
@@ -115,6 +140,10 @@ public class Infoflow extends AbstractInfoflow {
 
 	protected SootMethod dummyMainMethod = null;
 
+	private SinkSlice sinkSlice = null;
+	private IInfoflowCFG queryICFG = null;
+	private CallGraph queryCallGraph = null;
+
 	/**
 	 * Creates a new instance of the InfoFlow class for analyzing plain Java
 	 * code without any references to APKs or the Android SDK.
@@ -212,6 +241,53 @@ public class Infoflow extends AbstractInfoflow {
 		runAnalysis(sourcesSinks, seeds);
 	}
 
+	@Override
+	public void computeInfoflowForSink(Stmt sink, ISourceSinkManager sourcesSinks) {
+		if (sourcesSinks == null) {
+			logger.error("Sources are empty!");
+			return;
+		}
+		if (!Scene.v().hasCallGraph()) {
+			logger.error("Sink queries require an existing callgraph");
+			return;
+		}
+		if (hierarchy == null)
+			hierarchy = Scene.v().getOrMakeFastHierarchy();
+
+		// Only the part of the program from which the sink can be reached is
+		// relevant
+		long beforeSlice = System.nanoTime();
+		IInfoflowCFG iCfg = getQueryICFG();
+		SinkSlice slice = new SinkSlice(iCfg, sink);
+		logger.info("Backward slice of sink {} contains {} statements in {} methods, took {} seconds", sink,
+				slice.size(), slice.getMethods().size(), (System.nanoTime() - beforeSlice) / 1E9);
+
+		// Run the analysis
+		this.sinkSlice = slice;
+		try {
+			runAnalysis(new SinkQuerySourceSinkManager(sourcesSinks, slice), null);
+		} finally {
+			this.sinkSlice = null;
+		}
+	}
+
+	/**
+	 * Gets the interprocedural control flow graph for sink queries. The graph
+	 * is kept between queries as long as the callgraph does not change, so
+	 * that queries on a warm Scene do not need to rebuild it.
+	 * 
+	 * @return The interprocedural control flow graph for sink queries
+	 */
+	private IInfoflowCFG getQueryICFG() {
+		CallGraph cg = Scene.v().getCallGraph();
+		if (queryICFG == null || queryCallGraph != cg) {
+			queryICFG = icfgFactory.buildBiDirICFG(config.getCallgraphAlgorithm(),
+					config.getEnableExceptionTracking());
+			queryCallGraph = cg;
+		}
+		return queryICFG;
+	}
+
 	/**
 	 * Releases the callgraph and all intermediate objects associated with it
 	 */
@@ -258,27 +334,35 @@ public class Infoflow extends AbstractInfoflow {
 			}
 			memoryWatcher = new FlowDroidMemoryWatcher(results);
 
-			// Build the callgraph
-			long beforeCallgraph = System.nanoTime();
-			constructCallgraph();
-			logger.info("Callgraph construction took " + (System.nanoTime() - beforeCallgraph) / 1E9 + " seconds");
+			// Sink queries run on the existing callgraph and must not change
+			// the code
+			if (sinkSlice == null) {
+				// Build the callgraph
+				long beforeCallgraph = System.nanoTime();
+				constructCallgraph();
+				logger.info(
+						"Callgraph construction took " + (System.nanoTime() - beforeCallgraph) / 1E9 + " seconds");
+			}
 
 			// Initialize the source sink manager
 			if (sourcesSinks != null)
 				sourcesSinks.initialize();
 
-			// Perform constant propagation and remove dead code
-			if (config.getCodeEliminationMode() != CodeEliminationMode.NoCodeElimination) {
-				long currentMillis = System.nanoTime();
-				eliminateDeadCode(sourcesSinks);
-				logger.info("Dead code elimination took " + (System.nanoTime() - currentMillis) / 1E9 + " seconds");
-			}
+			if (sinkSlice == null) {
+				// Perform constant propagation and remove dead code
+				if (config.getCodeEliminationMode() != CodeEliminationMode.NoCodeElimination) {
+					long currentMillis = System.nanoTime();
+					eliminateDeadCode(sourcesSinks);
+					logger.info(
+							"Dead code elimination took " + (System.nanoTime() - currentMillis) / 1E9 + " seconds");
+				}
 
-			// After constant value propagation, we might find more call edges
-			// for reflective method calls
-			if (config.getEnableReflection()) {
-				releaseCallgraph();
-				constructCallgraph();
+				// After constant value propagation, we might find more call
+				// edges for reflective method calls
+				if (config.getEnableReflection()) {
+					releaseCallgraph();
+					constructCallgraph();
+				}
 			}
 
 			if (config.getCallgraphAlgorithm() != CallgraphAlgorithm.OnDemand)
@@ -292,8 +376,16 @@ public class Infoflow extends AbstractInfoflow {
 				pathBuilderFactory = new DefaultPathBuilderFactory(config.getPathConfiguration());
 
 			logger.info("Starting Taint Analysis");
-			IInfoflowCFG iCfg = icfgFactory.buildBiDirICFG(config.getCallgraphAlgorithm(),
-					config.getEnableExceptionTracking());
+			IInfoflowCFG iCfg = sinkSlice != null ? getQueryICFG()
+					: icfgFactory.buildBiDirICFG(config.getCallgraphAlgorithm(), config.getEnableExceptionTracking());
+
+			// Build the control flow graphs before the solver threads need them
+			if (config.getSolverConfiguration().getPrecomputeMethodData())
+				precomputeMethodData(iCfg);
+
+			// Summarize the static field accesses and side effects of the
+			// methods once for all consumers
+			ModRefSummaries modRefSummaries = createModRefSummaries(iCfg);
 
 			// Check whether we need to run with one source at a time
 			IOneSourceAtATimeManager oneSourceAtATime = config.getOneSourceAtATime() && sourcesSinks != null
@@ -305,6 +397,11 @@ public class Infoflow extends AbstractInfoflow {
 				oneSourceAtATime.resetCurrentSource();
 			boolean hasMoreSources = oneSourceAtATime == null || oneSourceAtATime.hasNextSource();
 
+			// Keep the instrumentation data of all solvers for the final
+			// report
+			List<SolverProfile> forwardProfiles = new ArrayList<>();
+			List<SolverProfile> backwardProfiles = new ArrayList<>();
+
 			while (hasMoreSources) {
 				// Fetch the next source
 				if (oneSourceAtATime != null)
@@ -316,13 +413,36 @@ public class Infoflow extends AbstractInfoflow {
 
 				// Initialize the memory manager
 				IMemoryManager<Abstraction, Unit> memoryManager = createMemoryManager();
+				if (memoryManager instanceof IMemoryReclaimable)
+					memoryWatcher.addReclaimable((IMemoryReclaimable) memoryManager);
+				if (iCfg instanceof IMemoryDegradable)
+					memoryWatcher.addDegradable((IMemoryDegradable) iCfg);
 
 				// Initialize the data flow manager
 				manager = new InfoflowManager(config, null, iCfg, sourcesSinks, taintWrapper, hierarchy,
 						new AccessPathFactory(config));
+				manager.setSinkSlice(sinkSlice);
+				manager.setModRefSummaries(modRefSummaries);
+
+				// Write the predecessor graph to disk if requested
+				PredecessorGraphSpill predecessorGraphSpill = createPredecessorGraphSpill();
+				IMemoryManager<Abstraction, Unit> solverMemoryManager = memoryManager;
+				if (predecessorGraphSpill != null) {
+					// The abstraction cache hashes the predecessor links that
+					// the spill drops from the heap
+					if (memoryManager instanceof FlowDroidMemoryManager
+							&& ((FlowDroidMemoryManager) memoryManager).getUseAbstractionCache()) {
+						logger.warn("The abstraction cache cannot be used when spilling the predecessor graph, "
+								+ "disabling it");
+						((FlowDroidMemoryManager) memoryManager).setUseAbstractionCache(false);
+					}
+					manager.setPredecessorGraphSpill(predecessorGraphSpill);
+					solverMemoryManager = new SpillingMemoryManager(memoryManager, predecessorGraphSpill);
+				}
 
 				// Initialize the alias analysis
-				IAliasingStrategy aliasingStrategy = createAliasAnalysis(sourcesSinks, iCfg, executor, memoryManager);
+				IAliasingStrategy aliasingStrategy = createAliasAnalysis(sourcesSinks, iCfg, executor,
+						solverMemoryManager);
 
 				// Get the zero fact
 				Abstraction zeroValue = aliasingStrategy.getSolver() != null
@@ -346,7 +466,7 @@ public class Infoflow extends AbstractInfoflow {
 
 				memoryWatcher.addSolver((IMemoryBoundedSolver) forwardSolver);
 
-				forwardSolver.setMemoryManager(memoryManager);
+				forwardSolver.setMemoryManager(solverMemoryManager);
 				// forwardSolver.setEnableMergePointChecking(true);
 
 				forwardProblem.setTaintPropagationHandler(taintPropagationHandler);
@@ -370,6 +490,7 @@ public class Infoflow extends AbstractInfoflow {
 				}
 
 				InterruptableExecutor resultExecutor = null;
+				IAbstractionPathBuilder builder = null;
 				try {
 					// Print our configuration
 					if (config.getFlowSensitiveAliasing() && !aliasingStrategy.isFlowSensitive())
@@ -385,8 +506,15 @@ public class Infoflow extends AbstractInfoflow {
 					int sinkCount = 0;
 					logger.info("Looking for sources and sinks...");
 
-					for (SootMethod sm : getMethodsForSeeds(iCfg))
-						sinkCount += scanMethodForSourcesSinks(sourcesSinks, forwardProblem, sm);
+					// We only need the sink statements for pruning the taint
+					// propagation
+					Set<Stmt> sinkStmts = config.getSinkReachabilityPruning() ? new HashSet<Stmt>() : null;
+
+					// For sink queries, all sources must be inside the slice
+					Collection<SootMethod> seedMethods = sinkSlice != null ? sinkSlice.getMethods()
+							: getMethodsForSeeds(iCfg);
+					for (SootMethod sm : seedMethods)
+						sinkCount += scanMethodForSourcesSinks(sourcesSinks, forwardProblem, sm, sinkStmts);
 
 					// We optionally also allow additional seeds to be specified
 					if (additionalSeeds != null)
@@ -412,6 +540,10 @@ public class Infoflow extends AbstractInfoflow {
 					logger.info("Source lookup done, found {} sources and {} sinks.",
 							forwardProblem.getInitialSeeds().size(), sinkCount);
 
+					// Find out from which methods we can reach a sink at all
+					if (sinkStmts != null)
+						manager.setSinkReachability(createSinkReachability(iCfg, sinkStmts));
+
 					// Initialize the taint wrapper if we have one
 					if (taintWrapper != null)
 						taintWrapper.initialize(manager);
@@ -423,7 +555,7 @@ public class Infoflow extends AbstractInfoflow {
 					resultExecutor = createExecutor(numThreads, false);
 
 					// Create the path builder
-					final IAbstractionPathBuilder builder = new BatchPathBuilder(manager,
+					builder = new BatchPathBuilder(manager,
 							pathBuilderFactory.createPathBuilder(manager, resultExecutor));
 
 					// If we want incremental result reporting, we have to
@@ -431,8 +563,26 @@ public class Infoflow extends AbstractInfoflow {
 					if (config.getIncrementalResultReporting())
 						initializeIncrementalResultReporting(propagationResults, builder);
 
-					forwardSolver.solve();
+					// Re-use the summaries of library methods from earlier runs
+					EndSummaryCache endSummaryCache = createEndSummaryCache(forwardProblem);
+					if (endSummaryCache != null) {
+						forwardSolver.setEndSummaryCache(endSummaryCache);
+						if (aliasingStrategy.getSolver() != null)
+							aliasingStrategy.getSolver().setEndSummaryCache(endSummaryCache);
+					}
+
+					try {
+						forwardSolver.solve();
+					} finally {
+						// Do not leave the mapped cache file open if the
+						// solver fails
+						if (endSummaryCache != null)
+							endSummaryCache.close();
+					}
 					maxMemoryConsumption = Math.max(maxMemoryConsumption, getUsedMemory());
+					forwardProfiles.add(forwardSolver.getProfile());
+					if (aliasingStrategy.getSolver() != null)
+						backwardProfiles.add(aliasingStrategy.getSolver().getProfile());
 
 					// Not really nice, but sometimes Heros returns before all
 					// executor tasks are actually done. This way, we give it a
@@ -466,6 +616,13 @@ public class Infoflow extends AbstractInfoflow {
 					// another one
 					removeEntailedAbstractions(res);
 
+					// The paths are reconstructed from the spill, so the
+					// abstractions at the sinks need not keep their
+					// predecessors alive
+					if (predecessorGraphSpill != null && res != null)
+						for (AbstractionAtSink abs : res)
+							predecessorGraphSpill.detach(abs.getAbstraction());
+
 					// Shut down the native call handler
 					if (nativeCallHandler != null)
 						nativeCallHandler.shutdown();
@@ -476,6 +633,14 @@ public class Infoflow extends AbstractInfoflow {
 									: aliasingStrategy.getSolver().getPropagationCount(),
 							res == null ? 0 : res.size());
 
+					// Report on the must-alias cache
+					{
+						CacheStats mustAliasStats = aliasing.getMustAliasCacheStats();
+						logger.info("Must-alias cache: {} hits, {} misses, {} evictions, {} seconds in analyses",
+								mustAliasStats.hitCount(), mustAliasStats.missCount(), mustAliasStats.evictionCount(),
+								mustAliasStats.totalLoadTime() / 1E9);
+					}
+
 					// Update the statistics
 					{
 						ISolverTerminationReason reason = ((IMemoryBoundedSolver) forwardSolver).getTerminationReason();
@@ -498,6 +663,8 @@ public class Infoflow extends AbstractInfoflow {
 					if (timeoutWatcher != null)
 						timeoutWatcher.stop();
 					memoryWatcher.removeSolver((IMemoryBoundedSolver) forwardSolver);
+					if (memoryManager instanceof IMemoryReclaimable)
+						memoryWatcher.removeReclaimable((IMemoryReclaimable) memoryManager);
 					forwardSolver.cleanup();
 					forwardSolver = null;
 					forwardProblem = null;
@@ -511,7 +678,10 @@ public class Infoflow extends AbstractInfoflow {
 
 					if (config.getIncrementalResultReporting())
 						res = null;
-					iCfg.purge();
+
+					// Keep the ICFG warm for further sink queries
+					if (sinkSlice == null)
+						iCfg.purge();
 
 					// Clean up the manager. Make sure to free objects, even if
 					// the manager is still held by other objects
@@ -584,6 +754,8 @@ public class Infoflow extends AbstractInfoflow {
 					// Terminate the executor
 					if (resultExecutor != null)
 						resultExecutor.shutdown();
+					if (builder != null)
+						builder.shutdown();
 
 					// Make sure to stop the watcher thread
 					if (timeoutWatcher != null)
@@ -597,6 +769,15 @@ public class Infoflow extends AbstractInfoflow {
 					// Shut down the memory watcher
 					memoryWatcher.close();
 
+					// Remove the spill files
+					if (predecessorGraphSpill != null) {
+						try {
+							predecessorGraphSpill.close();
+						} catch (IOException e) {
+							logger.error("Could not close the predecessor graph spill", e);
+						}
+					}
+
 					// Get rid of all the stuff that's still floating around in
 					// memory
 					forwardProblem = null;
@@ -643,6 +824,8 @@ public class Infoflow extends AbstractInfoflow {
 			if (config.getWriteOutputFiles())
 				PackManager.v().writeOutput();
 
+			writeSolverProfiles(forwardProfiles, backwardProfiles);
+
 			maxMemoryConsumption = Math.max(maxMemoryConsumption, getUsedMemory());
 			System.out.println("Maximum memory consumption: " + maxMemoryConsumption / 1E6 + " MB");
 		} catch (Exception ex) {
@@ -654,6 +837,27 @@ public class Infoflow extends AbstractInfoflow {
 		}
 	}
 
+	/**
+	 * Writes the instrumentation data collected by the data flow solvers to the
+	 * log, including the methods in which the solvers have processed the most
+	 * edges
+	 * 
+	 * @param forwardProfiles
+	 *            The instrumentation data of the forward solvers
+	 * @param backwardProfiles
+	 *            The instrumentation data of the backward alias solvers
+	 */
+	private void writeSolverProfiles(List<SolverProfile> forwardProfiles, List<SolverProfile> backwardProfiles) {
+		final int reportSize = config.getHotMethodReportSize();
+		if (reportSize <= 0 || !logger.isInfoEnabled())
+			return;
+
+		for (SolverProfile profile : forwardProfiles)
+			logger.info("Profile of the forward solver:\n{}", profile.getReport(reportSize));
+		for (SolverProfile profile : backwardProfiles)
+			logger.info("Profile of the backward solver:\n{}", profile.getReport(reportSize));
+	}
+
 	/**
 	 * Initializes the mechanism for incremental result reporting
 	 * 
@@ -669,26 +873,30 @@ public class Infoflow extends AbstractInfoflow {
 		// Create the path builder
 		memoryWatcher.addSolver(builder);
 		this.results = new InfoflowResults();
-		propagationResults.addResultAvailableHandler(new OnTaintPropagationResultAdded() {
+
+		// Register the result handler only once. Otherwise, every new abstraction
+		// at a sink would add another handler and we would report all subsequent
+		// results multiple times.
+		builder.addResultAvailableHandler(new OnPathBuilderResultAvailable() {
 
 			@Override
-			public boolean onResultAvailable(AbstractionAtSink abs) {
-				builder.addResultAvailableHandler(new OnPathBuilderResultAvailable() {
-
-					@Override
-					public void onResultAvailable(ResultSourceInfo source, ResultSinkInfo sink) {
-						// Notify our external handlers
-						for (ResultsAvailableHandler handler : onResultsAvailable) {
-							if (handler instanceof ResultsAvailableHandler2) {
-								ResultsAvailableHandler2 handler2 = (ResultsAvailableHandler2) handler;
-								handler2.onSingleResultAvailable(source, sink);
-							}
-						}
-						results.addResult(sink, source);
+			public void onResultAvailable(ResultSourceInfo source, ResultSinkInfo sink) {
+				// Notify our external handlers
+				for (ResultsAvailableHandler handler : onResultsAvailable) {
+					if (handler instanceof ResultsAvailableHandler2) {
+						ResultsAvailableHandler2 handler2 = (ResultsAvailableHandler2) handler;
+						handler2.onSingleResultAvailable(source, sink);
 					}
+				}
+				results.addResult(sink, source);
+			}
 
-				});
+		});
+
+		propagationResults.addResultAvailableHandler(new OnTaintPropagationResultAdded() {
 
+			@Override
+			public boolean onResultAvailable(AbstractionAtSink abs) {
 				// Compute the result paths
 				builder.computeTaintPaths(Collections.singleton(abs));
 				return true;
@@ -706,12 +914,21 @@ public class Infoflow extends AbstractInfoflow {
 			throw new RuntimeException("Static field tracking must be disabled " + "if the access path length is zero");
 		if (config.getAccessPathLength() < 0)
 			throw new RuntimeException("The access path length may not be negative");
+		if (config.getSolverConfiguration().getDataFlowSolver() == DataFlowSolver.GarbageCollecting
+				&& config.getSolverConfiguration().getJumpFunctionStorage() != JumpFunctionStorage.Default)
+			throw new RuntimeException("The garbage-collecting solver only supports the default jump function storage");
 		if (config.getSolverConfiguration().getDataFlowSolver() == DataFlowSolver.FlowInsensitive) {
 			config.setFlowSensitiveAliasing(false);
 			config.setEnableTypeChecking(false);
 			logger.warn("Disabled flow-sensitive aliasing because we are running with "
 					+ "a flow-insensitive data flow solver");
 		}
+		if (config.getSolverConfiguration().getSparsePropagation()
+				&& config.getPathConfiguration().getPathReconstructionMode().reconstructPaths()) {
+			config.getSolverConfiguration().setSparsePropagation(false);
+			logger.warn("Disabled sparse propagation because the skipped statements "
+					+ "would be missing from the reconstructed paths");
+		}
 	}
 
 	/**
@@ -762,6 +979,7 @@ public class Infoflow extends AbstractInfoflow {
 		case FlowSensitive:
 			backwardsManager = new InfoflowManager(config, null, new BackwardsInfoflowCFG(iCfg), sourcesSinks,
 					taintWrapper, hierarchy, manager.getAccessPathFactory());
+			backwardsManager.setModRefSummaries(manager.getModRefSummaries());
 			backProblem = new BackwardsInfoflowProblem(backwardsManager);
 
 			// We need to create the right data flow solver
@@ -774,6 +992,9 @@ public class Infoflow extends AbstractInfoflow {
 				backSolver = new soot.jimple.infoflow.solver.fastSolver.flowInsensitive.InfoflowSolver(backProblem,
 						executor);
 				break;
+			case GarbageCollecting:
+				backSolver = new soot.jimple.infoflow.solver.gcSolver.InfoflowSolver(backProblem, executor);
+				break;
 			default:
 				throw new RuntimeException("Unsupported data flow solver");
 			}
@@ -784,6 +1005,8 @@ public class Infoflow extends AbstractInfoflow {
 			// backSolver.setEnableMergePointChecking(true);
 			backSolver.setMaxJoinPointAbstractions(solverConfig.getMaxJoinPointAbstractions());
 			backSolver.setMaxCalleesPerCallSite(solverConfig.getMaxCalleesPerCallSite());
+			backSolver.setJumpFunctionStoreFactory(createJumpFunctionStoreFactory(executor));
+			backSolver.setEdgeBatchSize(solverConfig.getEdgeBatchSize());
 			backSolver.setSolverId(false);
 			backProblem.setTaintPropagationHandler(backwardsPropagationHandler);
 			backProblem.setTaintWrapper(taintWrapper);
@@ -841,6 +1064,110 @@ public class Infoflow extends AbstractInfoflow {
 			return PredecessorShorteningMode.AlwaysShorten;
 	}
 
+	/**
+	 * Computes the control flow graphs and the other per-method data of the
+	 * interprocedural control flow graph for all reachable methods before the
+	 * data flow analysis starts
+	 * 
+	 * @param iCfg
+	 *            The interprocedural control flow graph
+	 */
+	private void precomputeMethodData(IInfoflowCFG iCfg) {
+		// Without a callgraph, we do not know the reachable methods
+		if (config.getCallgraphAlgorithm() == CallgraphAlgorithm.OnDemand || !Scene.v().hasCallGraph())
+			return;
+		if (!(iCfg instanceof InfoflowCFG)) {
+			logger.warn("Precomputing method data is not supported by the interprocedural control flow graph");
+			return;
+		}
+
+		// Postdominators are only required for implicit flows
+		((InfoflowCFG) iCfg).precomputeMethodData(getReachableMethods(),
+				config.getImplicitFlowMode().trackControlFlowDependencies(), config.getMaxThreadNum());
+	}
+
+	/**
+	 * Creates the mod/ref summaries that tell which static fields the methods
+	 * read and write, and whether they have side effects
+	 * 
+	 * @param iCfg
+	 *            The interprocedural control flow graph
+	 * @return The mod/ref summaries
+	 */
+	private ModRefSummaries createModRefSummaries(IInfoflowCFG iCfg) {
+		// Share the summaries with the control flow graph
+		ModRefSummaries summaries = iCfg instanceof InfoflowCFG ? ((InfoflowCFG) iCfg).getModRefSummaries()
+				: new ModRefSummaries();
+		summaries.setNumThreads(config.getMaxThreadNum());
+
+		// The solvers only query the summaries for static fields. Without a
+		// callgraph, we do not know the reachable methods and leave it to the
+		// queries to compute the summaries on demand.
+		if (config.getEnableStaticFieldTracking() && config.getCallgraphAlgorithm() != CallgraphAlgorithm.OnDemand
+				&& Scene.v().hasCallGraph())
+			summaries.computeSummaries(getReachableMethods());
+		return summaries;
+	}
+
+	/**
+	 * Gets all methods that are reachable in the callgraph
+	 * 
+	 * @return The reachable methods
+	 */
+	private List<SootMethod> getReachableMethods() {
+		List<SootMethod> methods = new ArrayList<>();
+		ReachableMethods reachableMethods = Scene.v().getReachableMethods();
+		reachableMethods.update();
+		for (Iterator<MethodOrMethodContext> iter = reachableMethods.listener(); iter.hasNext();)
+			methods.add(iter.next().method());
+		return methods;
+	}
+
+	/**
+	 * Computes the index that tells from which methods a sink can be reached
+	 * 
+	 * @param iCfg
+	 *            The interprocedural control flow graph
+	 * @param sinkStmts
+	 *            The sinks in the program
+	 * @return The sink reachability index, or null if taints cannot be pruned
+	 *         safely with the current configuration
+	 */
+	private SinkReachability createSinkReachability(IInfoflowCFG iCfg, Set<Stmt> sinkStmts) {
+		// Flow-insensitive aliases are valid before the statement at which
+		// they were found, which may be reachable from a sink even if the
+		// statement is not
+		if (config.getAliasingAlgorithm() == AliasingAlgorithm.FlowSensitive && !config.getFlowSensitiveAliasing()) {
+			logger.warn("Sink reachability pruning is not supported with flow-insensitive aliasing");
+			return null;
+		}
+
+		long beforeReachability = System.nanoTime();
+		SinkReachability reachability = new SinkReachability(iCfg, sinkStmts);
+		logger.info("Sink reachability index computed in {} seconds, {} methods can reach a sink",
+				(System.nanoTime() - beforeReachability) / 1E9, reachability.size());
+		return reachability;
+	}
+
+	/**
+	 * Creates the spill into which the predecessor graph of the taint
+	 * abstractions is written during the data flow analysis
+	 * 
+	 * @return The predecessor graph spill, or null if the predecessor graph
+	 *         shall only be kept on the heap
+	 */
+	private PredecessorGraphSpill createPredecessorGraphSpill() {
+		if (!config.getPathConfiguration().getSpillPredecessorGraph()
+				|| !pathBuilderFactory.supportsPathReconstruction())
+			return null;
+		try {
+			return new PredecessorGraphSpill();
+		} catch (IOException e) {
+			logger.error("Could not create the predecessor graph spill, keeping the graph in memory", e);
+			return null;
+		}
+	}
+
 	/**
 	 * Creates the memory manager that helps reduce the memory consumption of
 	 * the data flow analysis
@@ -867,7 +1194,7 @@ public class Infoflow extends AbstractInfoflow {
 	 *            The implementation of the forward problem
 	 * @return The solver that solves the forward taint analysis problem
 	 */
-	private IInfoflowSolver createForwardSolver(InterruptableExecutor executor, InfoflowProblem forwardProblem) {
+	protected IInfoflowSolver createForwardSolver(InterruptableExecutor executor, InfoflowProblem forwardProblem) {
 		// Depending on the configured solver algorithm, we have to create a
 		// different solver object
 		IInfoflowSolver forwardSolver;
@@ -882,6 +1209,18 @@ public class Infoflow extends AbstractInfoflow {
 			forwardSolver = new soot.jimple.infoflow.solver.fastSolver.flowInsensitive.InfoflowSolver(forwardProblem,
 					executor);
 			break;
+		case GarbageCollecting: {
+			logger.info("Using garbage-collecting solver");
+			soot.jimple.infoflow.solver.gcSolver.InfoflowSolver gcSolver = new soot.jimple.infoflow.solver.gcSolver.InfoflowSolver(
+					forwardProblem, executor);
+
+			// Without an alias analysis, no other solver injects edges into the
+			// forward solver, so a collected context never produces new end
+			// summaries
+			gcSolver.setRetainIncomingEdges(config.getAliasingAlgorithm() != AliasingAlgorithm.None);
+			forwardSolver = gcSolver;
+			break;
+		}
 		default:
 			throw new RuntimeException("Unsupported data flow solver");
 		}
@@ -892,10 +1231,86 @@ public class Infoflow extends AbstractInfoflow {
 				.setPredecessorShorteningMode(pathConfigToShorteningMode(manager.getConfig().getPathConfiguration()));
 		forwardSolver.setMaxJoinPointAbstractions(solverConfig.getMaxJoinPointAbstractions());
 		forwardSolver.setMaxCalleesPerCallSite(solverConfig.getMaxCalleesPerCallSite());
+		forwardSolver.setJumpFunctionStoreFactory(createJumpFunctionStoreFactory(executor));
+		forwardSolver.setEdgeBatchSize(solverConfig.getEdgeBatchSize());
 
 		return forwardSolver;
 	}
 
+	/**
+	 * Creates the factory for the data structures in which the IFDS solvers
+	 * store their jump functions
+	 * 
+	 * @param executor
+	 *            The executor in which the solver runs its tasks
+	 * @return The factory for the jump function stores
+	 */
+	private IJumpFunctionStoreFactory createJumpFunctionStoreFactory(InterruptableExecutor executor) {
+		JumpFunctionStorage storage = config.getSolverConfiguration().getJumpFunctionStorage();
+		switch (storage) {
+		case Default:
+			return new DefaultJumpFunctionStoreFactory();
+		case Primitive:
+			return new PrimitiveJumpFunctionStoreFactory(executor.getCorePoolSize(), false);
+		case OffHeap:
+			return new PrimitiveJumpFunctionStoreFactory(executor.getCorePoolSize(), true);
+		default:
+			throw new RuntimeException("Unsupported jump function storage: " + storage);
+		}
+	}
+
+	/**
+	 * Creates the cache that persists the end summaries of library methods
+	 * across analysis runs
+	 * 
+	 * @param forwardProblem
+	 *            The implementation of the forward problem
+	 * @return The end summary cache, or null if end summaries shall not be
+	 *         persisted
+	 */
+	protected EndSummaryCache createEndSummaryCache(InfoflowProblem forwardProblem) {
+		SolverConfiguration solverConfig = config.getSolverConfiguration();
+		String cacheFile = solverConfig.getEndSummaryCacheFile();
+		if (cacheFile == null || cacheFile.isEmpty())
+			return null;
+
+		// We can only detect summaries that depend on the calling context if
+		// alias queries are handled by a separate IFDS solver
+		if (config.getAliasingAlgorithm() != AliasingAlgorithm.FlowSensitive
+				&& config.getAliasingAlgorithm() != AliasingAlgorithm.None) {
+			logger.warn("Persisted end summaries are not supported with the {} aliasing algorithm",
+					config.getAliasingAlgorithm());
+			return null;
+		}
+		if (config.getImplicitFlowMode().trackControlFlowDependencies()) {
+			logger.warn("Persisted end summaries are not supported with implicit flows");
+			return null;
+		}
+
+		MappedSummaryStore store;
+		try {
+			store = new MappedSummaryStore(new File(cacheFile), solverConfig.getMaxEndSummaryCacheSize());
+		} catch (IOException e) {
+			logger.error("Could not open end summary cache {}", cacheFile, e);
+			return null;
+		}
+		final EndSummaryCache endSummaryCache = new EndSummaryCache(manager, store);
+
+		// Results are not part of the end summaries, so methods that contain
+		// sinks must always be analyzed
+		final IInfoflowCFG icfg = manager.getICFG();
+		forwardProblem.getResults().addResultAvailableHandler(new OnTaintPropagationResultAdded() {
+
+			@Override
+			public boolean onResultAvailable(AbstractionAtSink abs) {
+				endSummaryCache.markImpure(icfg.getMethodOf(abs.getSinkStmt()));
+				return true;
+			}
+
+		});
+		return endSummaryCache;
+	}
+
 	/**
 	 * Gets the memory used by FlowDroid at the moment
 	 * 
@@ -915,6 +1330,9 @@ public class Infoflow extends AbstractInfoflow {
 	private void eliminateDeadCode(ISourceSinkManager sourcesSinks) {
 		InfoflowManager dceManager = new InfoflowManager(config, null, new InfoflowCFG(), null, null, null,
 				new AccessPathFactory(config));
+		ModRefSummaries modRefSummaries = new ModRefSummaries(dceManager, sourcesSinks, taintWrapper);
+		modRefSummaries.setNumThreads(config.getMaxThreadNum());
+		dceManager.setModRefSummaries(modRefSummaries);
 
 		ICodeOptimizer dce = new DeadCodeEliminator();
 		dce.initialize(config);
@@ -933,9 +1351,14 @@ public class Infoflow extends AbstractInfoflow {
 	 */
 	private InterruptableExecutor createExecutor(int numThreads, boolean allowSetSemantics) {
 		if (allowSetSemantics) {
-			return new SetPoolExecutor(
-					config.getMaxThreadNum() == -1 ? numThreads : Math.min(config.getMaxThreadNum(), numThreads),
-					Integer.MAX_VALUE, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+			// The work-stealing scheduler relies on the solver's jump functions
+			// for avoiding duplicate edges
+			int maxThreads = config.getMaxThreadNum() == -1 ? numThreads
+					: Math.min(config.getMaxThreadNum(), numThreads);
+			if (config.getSolverConfiguration().getSchedulingStrategy() == SchedulingStrategy.WorkStealing)
+				return new WorkStealingExecutor(maxThreads, 30, TimeUnit.SECONDS);
+			return new SetPoolExecutor(maxThreads, Integer.MAX_VALUE, 30, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>());
 		} else {
 			return new InterruptableExecutor(
 					config.getMaxThreadNum() == -1 ? numThreads : Math.min(config.getMaxThreadNum(), numThreads),
@@ -1018,10 +1441,13 @@ public class Infoflow extends AbstractInfoflow {
 	 *            The InfoflowProblem in which to register the sources as seeds
 	 * @param m
 	 *            The method to scan for sources and sinks
+	 * @param sinkStmts
+	 *            The set that receives the sinks found in this method, or null
+	 *            if the sinks shall only be counted
 	 * @return The number of sinks found in this method
 	 */
 	private int scanMethodForSourcesSinks(final ISourceSinkManager sourcesSinks, InfoflowProblem forwardProblem,
-			SootMethod m) {
+			SootMethod m, Set<Stmt> sinkStmts) {
 		if (getConfig().getLogSourcesAndSinks() && collectedSources == null) {
 			collectedSources = new HashSet<>();
 			collectedSinks = new HashSet<>();
@@ -1047,6 +1473,8 @@ public class Infoflow extends AbstractInfoflow {
 				}
 				if (sourcesSinks.getSinkInfo(s, manager, null) != null) {
 					sinkCount++;
+					if (sinkStmts != null)
+						sinkStmts.add(s);
 					if (getConfig().getLogSourcesAndSinks())
 						collectedSinks.add(s);
 					logger.debug("Sink found: {}", u);
@@ -1121,6 +1549,16 @@ public class Infoflow extends AbstractInfoflow {
 		return this.maxMemoryConsumption;
 	}
 
+	/**
+	 * Gets the memory watcher of the current or last analysis run
+	 * 
+	 * @return The memory watcher if the analysis has been started, otherwise
+	 *         null
+	 */
+	protected FlowDroidMemoryWatcher getMemoryWatcher() {
+		return this.memoryWatcher;
+	}
+
 	/**
 	 * Gets the concrete set of sources that have been collected in preparation
 	 * for the taint analysis. This method will return null if source and sink
@@ -78,7 +78,54 @@ public class InfoflowConfiguration {
 		/**
 		 * Use a context-sensitive, but flow-insensitive solver
 		 */
-		FlowInsensitive
+		FlowInsensitive,
+
+		/**
+		 * Use a flow- and context-sensitive solver that evicts jump functions
+		 * once they are no longer needed
+		 */
+		GarbageCollecting
+	}
+
+	/**
+	 * Enumeration containing the strategies for distributing the IFDS edges
+	 * over the worker threads of the data flow solver
+	 */
+	public static enum SchedulingStrategy {
+		/**
+		 * Use a single shared work queue for all worker threads
+		 */
+		Default,
+
+		/**
+		 * Use one work queue per worker thread and let idle workers steal tasks
+		 * from the other queues. Edges of the same method are preferably
+		 * processed by the same worker.
+		 */
+		WorkStealing
+	}
+
+	/**
+	 * Enumeration containing the data structures in which the data flow solver
+	 * can store its jump functions
+	 */
+	public static enum JumpFunctionStorage {
+		/**
+		 * Store the jump functions as path edge objects in a concurrent hash map
+		 */
+		Default,
+
+		/**
+		 * Store the jump functions as integer ids in a hash table of primitive
+		 * longs on the Java heap
+		 */
+		Primitive,
+
+		/**
+		 * Store the jump functions as integer ids in a hash table of primitive
+		 * longs in direct memory outside of the Java heap
+		 */
+		OffHeap
 	}
 
 	/**
@@ -183,6 +230,22 @@ public class InfoflowConfiguration {
 		 * source-to-sink connections, but no paths.
 		 */
 		ContextInsensitiveSourceFinder,
+		/**
+		 * Context-sensitive path reconstruction approach that computes the
+		 * paths to every abstraction only once and shares them between all
+		 * sinks. Runs on its own thread pool, see
+		 * {@link PathConfiguration#setPathBuildingParallelism(int)}.
+		 */
+		Memoizing,
+		/**
+		 * Context-sensitive path reconstruction approach that explores the
+		 * predecessors of every abstraction at a sink in the order of the path
+		 * length and only reports a given number of paths between the sink and
+		 * each of its sources, see
+		 * {@link PathConfiguration#setMaxPathsPerSink(int)}. Use this algorithm
+		 * if the shortest paths are sufficient.
+		 */
+		ShortestPathFirst,
 		/**
 		 * An empty implementation that not reconstruct any paths and always
 		 * returns an empty set. For internal use only.
@@ -207,6 +270,9 @@ public class InfoflowConfiguration {
 		private int maxPathsPerAbstraction = 15;
 		private long pathReconstructionTimeout = 0;
 		private int pathReconstructionBatchSize = 5;
+		private int pathBuildingParallelism = -1;
+		private int maxPathsPerSink = 1;
+		private boolean spillPredecessorGraph = false;
 
 		/**
 		 * Copies the settings of the given configuration into this
@@ -224,6 +290,9 @@ public class InfoflowConfiguration {
 			this.maxPathsPerAbstraction = pathConfig.maxPathsPerAbstraction;
 			this.pathReconstructionTimeout = pathConfig.pathReconstructionTimeout;
 			this.pathReconstructionBatchSize = pathConfig.pathReconstructionBatchSize;
+			this.pathBuildingParallelism = pathConfig.pathBuildingParallelism;
+			this.maxPathsPerSink = pathConfig.maxPathsPerSink;
+			this.spillPredecessorGraph = pathConfig.spillPredecessorGraph;
 		}
 
 		/**
@@ -429,6 +498,88 @@ public class InfoflowConfiguration {
 			this.pathReconstructionBatchSize = pathReconstructionBatchSize;
 		}
 
+		/**
+		 * Gets the number of threads that the path reconstruction shall use.
+		 * This setting only applies to path builders that have their own thread
+		 * pool, such as {@link PathBuildingAlgorithm#Memoizing}.
+		 * 
+		 * @return The number of threads for path reconstruction, or a
+		 *         non-positive value to use one thread per processor
+		 */
+		public int getPathBuildingParallelism() {
+			return pathBuildingParallelism;
+		}
+
+		/**
+		 * Sets the number of threads that the path reconstruction shall use.
+		 * This setting only applies to path builders that have their own thread
+		 * pool, such as {@link PathBuildingAlgorithm#Memoizing}.
+		 * 
+		 * @param pathBuildingParallelism
+		 *            The number of threads for path reconstruction, or a
+		 *            non-positive value to use one thread per processor
+		 */
+		public void setPathBuildingParallelism(int pathBuildingParallelism) {
+			this.pathBuildingParallelism = pathBuildingParallelism;
+		}
+
+		/**
+		 * Gets the maximum number of paths that shall be reconstructed between a
+		 * single sink and each of its sources. Every source that reaches the
+		 * sink is still reported. This setting only applies to path builders
+		 * that find the shortest paths first, such as
+		 * {@link PathBuildingAlgorithm#ShortestPathFirst}.
+		 * 
+		 * @return The maximum number of paths per sink and source, or a
+		 *         non-positive value for no limit
+		 */
+		public int getMaxPathsPerSink() {
+			return maxPathsPerSink;
+		}
+
+		/**
+		 * Sets the maximum number of paths that shall be reconstructed between a
+		 * single sink and each of its sources. Every source that reaches the
+		 * sink is still reported. This setting only applies to path builders
+		 * that find the shortest paths first, such as
+		 * {@link PathBuildingAlgorithm#ShortestPathFirst}.
+		 * 
+		 * @param maxPathsPerSink
+		 *            The maximum number of paths per sink and source, or a
+		 *            non-positive value for no limit
+		 */
+		public void setMaxPathsPerSink(int maxPathsPerSink) {
+			this.maxPathsPerSink = maxPathsPerSink;
+		}
+
+		/**
+		 * Gets whether the predecessor graph of the taint abstractions shall be
+		 * written to memory-mapped files on disk during the data flow analysis.
+		 * The paths are then reconstructed from these files, and the
+		 * predecessor links can be dropped from the heap.
+		 * 
+		 * @return True if the predecessor graph shall be spilled to disk,
+		 *         otherwise false
+		 */
+		public boolean getSpillPredecessorGraph() {
+			return spillPredecessorGraph;
+		}
+
+		/**
+		 * Sets whether the predecessor graph of the taint abstractions shall be
+		 * written to memory-mapped files on disk during the data flow analysis.
+		 * The paths are then reconstructed from these files, and the
+		 * predecessor links can be dropped from the heap. This option has no
+		 * effect if the path building algorithm does not reconstruct paths.
+		 * 
+		 * @param spillPredecessorGraph
+		 *            True if the predecessor graph shall be spilled to disk,
+		 *            otherwise false
+		 */
+		public void setSpillPredecessorGraph(boolean spillPredecessorGraph) {
+			this.spillPredecessorGraph = spillPredecessorGraph;
+		}
+
 		@Override
 		public int hashCode() {
 			final int prime = 31;
@@ -436,11 +587,14 @@ public class InfoflowConfiguration {
 			result = prime * result + maxCallStackSize;
 			result = prime * result + maxPathLength;
 			result = prime * result + maxPathsPerAbstraction;
+			result = prime * result + maxPathsPerSink;
 			result = prime * result + ((pathBuildingAlgorithm == null) ? 0 : pathBuildingAlgorithm.hashCode());
+			result = prime * result + pathBuildingParallelism;
 			result = prime * result + pathReconstructionBatchSize;
 			result = prime * result + ((pathReconstructionMode == null) ? 0 : pathReconstructionMode.hashCode());
 			result = prime * result + (int) (pathReconstructionTimeout ^ (pathReconstructionTimeout >>> 32));
 			result = prime * result + (sequentialPathProcessing ? 1231 : 1237);
+			result = prime * result + (spillPredecessorGraph ? 1231 : 1237);
 			return result;
 		}
 
@@ -459,8 +613,12 @@ public class InfoflowConfiguration {
 				return false;
 			if (maxPathsPerAbstraction != other.maxPathsPerAbstraction)
 				return false;
+			if (maxPathsPerSink != other.maxPathsPerSink)
+				return false;
 			if (pathBuildingAlgorithm != other.pathBuildingAlgorithm)
 				return false;
+			if (pathBuildingParallelism != other.pathBuildingParallelism)
+				return false;
 			if (pathReconstructionBatchSize != other.pathReconstructionBatchSize)
 				return false;
 			if (pathReconstructionMode != other.pathReconstructionMode)
@@ -469,6 +627,8 @@ public class InfoflowConfiguration {
 				return false;
 			if (sequentialPathProcessing != other.sequentialPathProcessing)
 				return false;
+			if (spillPredecessorGraph != other.spillPredecessorGraph)
+				return false;
 			return true;
 		}
 
@@ -639,6 +799,13 @@ public class InfoflowConfiguration {
 		private DataFlowSolver dataFlowSolver = DataFlowSolver.ContextFlowSensitive;
 		private int maxJoinPointAbstractions = 10;
 		private int maxCalleesPerCallSite = 10;
+		private SchedulingStrategy schedulingStrategy = SchedulingStrategy.Default;
+		private JumpFunctionStorage jumpFunctionStorage = JumpFunctionStorage.Default;
+		private boolean sparsePropagation = false;
+		private String endSummaryCacheFile = null;
+		private long maxEndSummaryCacheSize = 256 * 1024 * 1024;
+		private int edgeBatchSize = 1;
+		private boolean precomputeMethodData = false;
 
 		/**
 		 * Copies the settings of the given configuration into this
@@ -651,6 +818,13 @@ public class InfoflowConfiguration {
 			this.dataFlowSolver = solverConfig.dataFlowSolver;
 			this.maxJoinPointAbstractions = solverConfig.maxJoinPointAbstractions;
 			this.maxCalleesPerCallSite = solverConfig.maxCalleesPerCallSite;
+			this.schedulingStrategy = solverConfig.schedulingStrategy;
+			this.jumpFunctionStorage = solverConfig.jumpFunctionStorage;
+			this.sparsePropagation = solverConfig.sparsePropagation;
+			this.endSummaryCacheFile = solverConfig.endSummaryCacheFile;
+			this.maxEndSummaryCacheSize = solverConfig.maxEndSummaryCacheSize;
+			this.edgeBatchSize = solverConfig.edgeBatchSize;
+			this.precomputeMethodData = solverConfig.precomputeMethodData;
 		}
 
 		/**
@@ -740,13 +914,192 @@ public class InfoflowConfiguration {
 			this.maxJoinPointAbstractions = singleJointAbstraction ? 1 : 10;
 		}
 
+		/**
+		 * Gets the strategy that defines how the IFDS edges are distributed
+		 * over the worker threads of the data flow solver
+		 * 
+		 * @return The scheduling strategy for the data flow solver
+		 */
+		public SchedulingStrategy getSchedulingStrategy() {
+			return this.schedulingStrategy;
+		}
+
+		/**
+		 * Sets the strategy that defines how the IFDS edges are distributed
+		 * over the worker threads of the data flow solver
+		 * 
+		 * @param schedulingStrategy
+		 *            The scheduling strategy for the data flow solver
+		 */
+		public void setSchedulingStrategy(SchedulingStrategy schedulingStrategy) {
+			this.schedulingStrategy = schedulingStrategy;
+		}
+
+		/**
+		 * Gets the data structure in which the data flow solver stores its jump
+		 * functions
+		 * 
+		 * @return The storage for the jump functions of the data flow solver
+		 */
+		public JumpFunctionStorage getJumpFunctionStorage() {
+			return this.jumpFunctionStorage;
+		}
+
+		/**
+		 * Sets the data structure in which the data flow solver stores its jump
+		 * functions. The garbage-collecting solver evicts its jump functions by
+		 * context and only supports the default storage.
+		 * 
+		 * @param jumpFunctionStorage
+		 *            The storage for the jump functions of the data flow solver
+		 */
+		public void setJumpFunctionStorage(JumpFunctionStorage jumpFunctionStorage) {
+			this.jumpFunctionStorage = jumpFunctionStorage;
+		}
+
+		/**
+		 * Gets whether the data flow solver shall directly propagate taints on
+		 * locals to the next statement that uses or redefines the local
+		 * instead of visiting every statement in between
+		 * 
+		 * @return True if sparse propagation is enabled, otherwise false
+		 */
+		public boolean getSparsePropagation() {
+			return this.sparsePropagation;
+		}
+
+		/**
+		 * Sets whether the data flow solver shall directly propagate taints on
+		 * locals to the next statement that uses or redefines the local
+		 * instead of visiting every statement in between. Note that taint
+		 * propagation handlers are not notified about the statements that are
+		 * skipped. The skipped statements would also be missing from the
+		 * reconstructed paths, so sparse propagation is turned off if paths are
+		 * reconstructed.
+		 * 
+		 * @param sparsePropagation
+		 *            True to enable sparse propagation, otherwise false
+		 */
+		public void setSparsePropagation(boolean sparsePropagation) {
+			this.sparsePropagation = sparsePropagation;
+		}
+
+		/**
+		 * Gets the file in which the end summaries of library methods are
+		 * persisted across analysis runs
+		 * 
+		 * @return The file for persisting end summaries, or null if end
+		 *         summaries shall not be persisted
+		 */
+		public String getEndSummaryCacheFile() {
+			return this.endSummaryCacheFile;
+		}
+
+		/**
+		 * Sets the file in which the end summaries of library methods are
+		 * persisted across analysis runs. If the file already contains a
+		 * summary for a method and context, the data flow solver does not
+		 * descend into the method again. Only summaries that do not depend on
+		 * the calling context, e.g., through alias queries or sinks, are
+		 * persisted.
+		 * 
+		 * @param endSummaryCacheFile
+		 *            The file for persisting end summaries, or null to disable
+		 *            the persistent summary cache
+		 */
+		public void setEndSummaryCacheFile(String endSummaryCacheFile) {
+			this.endSummaryCacheFile = endSummaryCacheFile;
+		}
+
+		/**
+		 * Gets the maximum size of the end summary cache file in bytes
+		 * 
+		 * @return The maximum size of the end summary cache file in bytes
+		 */
+		public long getMaxEndSummaryCacheSize() {
+			return this.maxEndSummaryCacheSize;
+		}
+
+		/**
+		 * Sets the maximum size of the end summary cache file in bytes. If the
+		 * cache grows beyond this size, the least recently used summaries are
+		 * evicted.
+		 * 
+		 * @param maxEndSummaryCacheSize
+		 *            The maximum size of the end summary cache file in bytes
+		 */
+		public void setMaxEndSummaryCacheSize(long maxEndSummaryCacheSize) {
+			this.maxEndSummaryCacheSize = maxEndSummaryCacheSize;
+		}
+
+		/**
+		 * Gets the maximum number of edges with the same target statement that
+		 * the data flow solver processes together in a single task
+		 * 
+		 * @return The maximum number of edges per batch
+		 */
+		public int getEdgeBatchSize() {
+			return this.edgeBatchSize;
+		}
+
+		/**
+		 * Sets the maximum number of edges with the same target statement that
+		 * the data flow solver processes together in a single task. Batching
+		 * reduces the number of tasks and flow function lookups on statements
+		 * that are reached by many taints.
+		 * 
+		 * @param edgeBatchSize
+		 *            The maximum number of edges per batch, or 1 to process
+		 *            every edge in its own task
+		 */
+		public void setEdgeBatchSize(int edgeBatchSize) {
+			this.edgeBatchSize = edgeBatchSize;
+		}
+
+		/**
+		 * Gets whether the control flow graphs and the other per-method data
+		 * of the interprocedural control flow graph shall be computed for all
+		 * reachable methods before the data flow analysis starts
+		 * 
+		 * @return True if the per-method data shall be precomputed in
+		 *         parallel, false if it shall be computed on demand by the
+		 *         solver
+		 */
+		public boolean getPrecomputeMethodData() {
+			return this.precomputeMethodData;
+		}
+
+		/**
+		 * Sets whether the control flow graphs and the other per-method data
+		 * of the interprocedural control flow graph shall be computed for all
+		 * reachable methods before the data flow analysis starts. This avoids
+		 * stalls in the solver threads when a method is reached for the first
+		 * time. The option has no effect if the callgraph is constructed on
+		 * demand.
+		 * 
+		 * @param precomputeMethodData
+		 *            True if the per-method data shall be precomputed in
+		 *            parallel, false if it shall be computed on demand by the
+		 *            solver
+		 */
+		public void setPrecomputeMethodData(boolean precomputeMethodData) {
+			this.precomputeMethodData = precomputeMethodData;
+		}
+
 		@Override
 		public int hashCode() {
 			final int prime = 31;
 			int result = 1;
 			result = prime * result + ((dataFlowSolver == null) ? 0 : dataFlowSolver.hashCode());
+			result = prime * result + edgeBatchSize;
+			result = prime * result + ((endSummaryCacheFile == null) ? 0 : endSummaryCacheFile.hashCode());
+			result = prime * result + ((jumpFunctionStorage == null) ? 0 : jumpFunctionStorage.hashCode());
 			result = prime * result + maxCalleesPerCallSite;
 			result = prime * result + maxJoinPointAbstractions;
+			result = prime * result + (int) (maxEndSummaryCacheSize ^ (maxEndSummaryCacheSize >>> 32));
+			result = prime * result + (precomputeMethodData ? 1231 : 1237);
+			result = prime * result + ((schedulingStrategy == null) ? 0 : schedulingStrategy.hashCode());
+			result = prime * result + (sparsePropagation ? 1231 : 1237);
 			return result;
 		}
 
@@ -761,10 +1114,27 @@ public class InfoflowConfiguration {
 			SolverConfiguration other = (SolverConfiguration) obj;
 			if (dataFlowSolver != other.dataFlowSolver)
 				return false;
+			if (edgeBatchSize != other.edgeBatchSize)
+				return false;
+			if (endSummaryCacheFile == null) {
+				if (other.endSummaryCacheFile != null)
+					return false;
+			} else if (!endSummaryCacheFile.equals(other.endSummaryCacheFile))
+				return false;
+			if (jumpFunctionStorage != other.jumpFunctionStorage)
+				return false;
 			if (maxCalleesPerCallSite != other.maxCalleesPerCallSite)
 				return false;
 			if (maxJoinPointAbstractions != other.maxJoinPointAbstractions)
 				return false;
+			if (maxEndSummaryCacheSize != other.maxEndSummaryCacheSize)
+				return false;
+			if (precomputeMethodData != other.precomputeMethodData)
+				return false;
+			if (schedulingStrategy != other.schedulingStrategy)
+				return false;
+			if (sparsePropagation != other.sparsePropagation)
+				return false;
 			return true;
 		}
 
@@ -773,23 +1143,27 @@ public class InfoflowConfiguration {
 	private int accessPathLength = 5;
 	private boolean useRecursiveAccessPaths = true;
 	private boolean useThisChainReduction = true;
+	private boolean hashConsAccessPaths = false;
 	private static boolean pathAgnosticResults = true;
 	private static boolean oneResultPerAccessPath = false;
 	private static boolean mergeNeighbors = false;
 
 	private int stopAfterFirstKFlows = 0;
+	private boolean sinkReachabilityPruning = false;
 	private ImplicitFlowMode implicitFlowMode = ImplicitFlowMode.NoImplicitFlows;
 	private boolean enableStaticFields = true;
 	private boolean enableExceptions = true;
 	private boolean enableArrays = true;
 	private boolean enableArraySizeTainting = true;
 	private boolean flowSensitiveAliasing = true;
+	private int mustAliasCacheSize = 10000;
 	private boolean enableTypeChecking = true;
 	private boolean ignoreFlowsInSystemPackages = false;
 	private boolean excludeSootLibraryClasses = false;
 	private int maxThreadNum = -1;
 	private boolean writeOutputFiles = false;
 	private boolean logSourcesAndSinks = false;
+	private int hotMethodReportSize = 10;
 	private boolean enableReflection = false;
 
 	private boolean inspectSources = false;
@@ -818,20 +1192,24 @@ public class InfoflowConfiguration {
 		this.accessPathLength = config.accessPathLength;
 		this.useRecursiveAccessPaths = config.useRecursiveAccessPaths;
 		this.useThisChainReduction = config.useThisChainReduction;
+		this.hashConsAccessPaths = config.hashConsAccessPaths;
 
 		this.stopAfterFirstKFlows = config.stopAfterFirstKFlows;
+		this.sinkReachabilityPruning = config.sinkReachabilityPruning;
 		this.implicitFlowMode = config.implicitFlowMode;
 		this.enableStaticFields = config.enableStaticFields;
 		this.enableExceptions = config.enableExceptions;
 		this.enableArrays = config.enableArrays;
 		this.enableArraySizeTainting = config.enableArraySizeTainting;
 		this.flowSensitiveAliasing = config.flowSensitiveAliasing;
+		this.mustAliasCacheSize = config.mustAliasCacheSize;
 		this.enableTypeChecking = config.enableTypeChecking;
 		this.ignoreFlowsInSystemPackages = config.ignoreFlowsInSystemPackages;
 		this.excludeSootLibraryClasses = config.excludeSootLibraryClasses;
 		this.maxThreadNum = config.maxThreadNum;
 		this.writeOutputFiles = config.writeOutputFiles;
 		this.logSourcesAndSinks = config.logSourcesAndSinks;
+		this.hotMethodReportSize = config.hotMethodReportSize;
 		this.enableReflection = config.enableReflection;
 
 		this.pathConfiguration.merge(config.pathConfiguration);
@@ -970,6 +1348,29 @@ public class InfoflowConfiguration {
 		this.useRecursiveAccessPaths = useRecursiveAccessPaths;
 	}
 
+	/**
+	 * Gets whether access paths shall be hash-consed. In that case, the fields
+	 * of all access paths are stored in a shared prefix tree and equal access
+	 * paths are always the same object.
+	 * 
+	 * @return True if access paths shall be hash-consed, otherwise false
+	 */
+	public boolean getHashConsAccessPaths() {
+		return hashConsAccessPaths;
+	}
+
+	/**
+	 * Sets whether access paths shall be hash-consed. In that case, the fields
+	 * of all access paths are stored in a shared prefix tree and equal access
+	 * paths are always the same object.
+	 * 
+	 * @param hashConsAccessPaths
+	 *            True if access paths shall be hash-consed, otherwise false
+	 */
+	public void setHashConsAccessPaths(boolean hashConsAccessPaths) {
+		this.hashConsAccessPaths = hashConsAccessPaths;
+	}
+
 	/**
 	 * Gets whether access paths pointing to outer objects using this$n shall be
 	 * reduced, e.g. whether we shall propagate a.data instead of
@@ -1037,6 +1438,32 @@ public class InfoflowConfiguration {
 		return stopAfterFirstKFlows == 1;
 	}
 
+	/**
+	 * Sets whether taints shall be killed in methods from which no sink can be
+	 * reached anymore, neither in the method itself, nor in its callees, nor
+	 * after returning to its callers. The analysis computes a reachability
+	 * index over the call graph before the taint propagation starts.
+	 * 
+	 * @param sinkReachabilityPruning
+	 *            True if taints shall be killed in methods from which no sink
+	 *            can be reached, otherwise false
+	 */
+	public void setSinkReachabilityPruning(boolean sinkReachabilityPruning) {
+		this.sinkReachabilityPruning = sinkReachabilityPruning;
+	}
+
+	/**
+	 * Gets whether taints shall be killed in methods from which no sink can be
+	 * reached anymore, neither in the method itself, nor in its callees, nor
+	 * after returning to its callers
+	 * 
+	 * @return True if taints shall be killed in methods from which no sink can
+	 *         be reached, otherwise false
+	 */
+	public boolean getSinkReachabilityPruning() {
+		return sinkReachabilityPruning;
+	}
+
 	/**
 	 * Sets whether the implementations of source methods shall be analyzed as
 	 * well
@@ -1148,6 +1575,32 @@ public class InfoflowConfiguration {
 		return flowSensitiveAliasing;
 	}
 
+	/**
+	 * Sets the maximum number of methods for which the results of the local
+	 * must-alias analysis are kept in memory. If more methods are queried, the
+	 * least recently used results are evicted.
+	 * 
+	 * @param mustAliasCacheSize
+	 *            The maximum number of methods for which must-alias results are
+	 *            cached, or a value smaller than 1 to keep the results for all
+	 *            methods
+	 */
+	public void setMustAliasCacheSize(int mustAliasCacheSize) {
+		this.mustAliasCacheSize = mustAliasCacheSize;
+	}
+
+	/**
+	 * Gets the maximum number of methods for which the results of the local
+	 * must-alias analysis are kept in memory
+	 * 
+	 * @return The maximum number of methods for which must-alias results are
+	 *         cached, or a value smaller than 1 if the results for all methods
+	 *         are kept
+	 */
+	public int getMustAliasCacheSize() {
+		return mustAliasCacheSize;
+	}
+
 	/**
 	 * Sets whether the solver shall track taints of thrown exception objects
 	 * 
@@ -1393,6 +1846,31 @@ public class InfoflowConfiguration {
 		this.logSourcesAndSinks = logSourcesAndSinks;
 	}
 
+	/**
+	 * Gets the number of methods that shall be listed in the hot method report
+	 * that is written after the data flow analysis. This report contains the
+	 * methods in which the solvers have processed the most edges.
+	 * 
+	 * @return The number of methods to list in the hot method report, or 0 if
+	 *         no report shall be written
+	 */
+	public int getHotMethodReportSize() {
+		return hotMethodReportSize;
+	}
+
+	/**
+	 * Sets the number of methods that shall be listed in the hot method report
+	 * that is written after the data flow analysis. This report contains the
+	 * methods in which the solvers have processed the most edges.
+	 * 
+	 * @param hotMethodReportSize
+	 *            The number of methods to list in the hot method report, or 0
+	 *            if no report shall be written
+	 */
+	public void setHotMethodReportSize(int hotMethodReportSize) {
+		this.hotMethodReportSize = hotMethodReportSize;
+	}
+
 	/**
 	 * Gets whether reflective method calls shall be supported
 	 * 
@@ -1591,17 +2069,21 @@ public class InfoflowConfiguration {
 		result = prime * result + (enableTypeChecking ? 1231 : 1237);
 		result = prime * result + (excludeSootLibraryClasses ? 1231 : 1237);
 		result = prime * result + (flowSensitiveAliasing ? 1231 : 1237);
+		result = prime * result + (hashConsAccessPaths ? 1231 : 1237);
 		result = prime * result + (ignoreFlowsInSystemPackages ? 1231 : 1237);
 		result = prime * result + ((implicitFlowMode == null) ? 0 : implicitFlowMode.hashCode());
 		result = prime * result + (incrementalResultReporting ? 1231 : 1237);
 		result = prime * result + (inspectSinks ? 1231 : 1237);
 		result = prime * result + (inspectSources ? 1231 : 1237);
 		result = prime * result + (logSourcesAndSinks ? 1231 : 1237);
+		result = prime * result + hotMethodReportSize;
+		result = prime * result + mustAliasCacheSize;
 		result = prime * result + maxThreadNum;
 		result = prime * result + (oneSourceAtATime ? 1231 : 1237);
 		result = prime * result + ((pathConfiguration == null) ? 0 : pathConfiguration.hashCode());
 		result = prime * result + ((outputConfiguration == null) ? 0 : outputConfiguration.hashCode());
 		result = prime * result + ((solverConfiguration == null) ? 0 : solverConfiguration.hashCode());
+		result = prime * result + (sinkReachabilityPruning ? 1231 : 1237);
 		result = prime * result + stopAfterFirstKFlows;
 		result = prime * result + (taintAnalysisEnabled ? 1231 : 1237);
 		result = prime * result + (useRecursiveAccessPaths ? 1231 : 1237);
@@ -1645,6 +2127,8 @@ public class InfoflowConfiguration {
 			return false;
 		if (flowSensitiveAliasing != other.flowSensitiveAliasing)
 			return false;
+		if (hashConsAccessPaths != other.hashConsAccessPaths)
+			return false;
 		if (ignoreFlowsInSystemPackages != other.ignoreFlowsInSystemPackages)
 			return false;
 		if (implicitFlowMode != other.implicitFlowMode)
@@ -1657,6 +2141,10 @@ public class InfoflowConfiguration {
 			return false;
 		if (logSourcesAndSinks != other.logSourcesAndSinks)
 			return false;
+		if (hotMethodReportSize != other.hotMethodReportSize)
+			return false;
+		if (mustAliasCacheSize != other.mustAliasCacheSize)
+			return false;
 		if (maxThreadNum != other.maxThreadNum)
 			return false;
 		if (oneSourceAtATime != other.oneSourceAtATime)
@@ -1676,6 +2164,8 @@ public class InfoflowConfiguration {
 				return false;
 		} else if (!solverConfiguration.equals(other.solverConfiguration))
 			return false;
+		if (sinkReachabilityPruning != other.sinkReachabilityPruning)
+			return false;
 		if (stopAfterFirstKFlows != other.stopAfterFirstKFlows)
 			return false;
 		if (taintAnalysisEnabled != other.taintAnalysisEnabled)
@@ -1,8 +1,12 @@
 package soot.jimple.infoflow;
 
 import soot.FastHierarchy;
+import soot.jimple.infoflow.cfg.ModRefSummaries;
 import soot.jimple.infoflow.data.AccessPathFactory;
+import soot.jimple.infoflow.data.PredecessorGraphSpill;
 import soot.jimple.infoflow.memory.IMemoryBoundedSolver;
+import soot.jimple.infoflow.query.SinkReachability;
+import soot.jimple.infoflow.query.SinkSlice;
 import soot.jimple.infoflow.solver.IInfoflowSolver;
 import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
 import soot.jimple.infoflow.sourcesSinks.manager.ISourceSinkManager;
@@ -26,6 +30,10 @@ public class InfoflowManager {
 	private final TypeUtils typeUtils;
 	private final FastHierarchy hierarchy;
 	private final AccessPathFactory accessPathFactory;
+	private SinkSlice sinkSlice = null;
+	private PredecessorGraphSpill predecessorGraphSpill = null;
+	private SinkReachability sinkReachability = null;
+	private ModRefSummaries modRefSummaries = null;
 
 	InfoflowManager(InfoflowConfiguration config, IInfoflowSolver forwardSolver, IInfoflowCFG icfg,
 			ISourceSinkManager sourceSinkManager, ITaintPropagationWrapper taintWrapper, FastHierarchy hierarchy,
@@ -124,6 +132,92 @@ public class InfoflowManager {
 		return this.accessPathFactory;
 	}
 
+	/**
+	 * Sets the backward slice of the sink that is queried in demand-driven mode
+	 * 
+	 * @param sinkSlice
+	 *            The backward slice of the queried sink, or null if the
+	 *            analysis is not running in demand-driven mode
+	 */
+	void setSinkSlice(SinkSlice sinkSlice) {
+		this.sinkSlice = sinkSlice;
+	}
+
+	/**
+	 * Gets the backward slice of the sink that is queried in demand-driven mode
+	 * 
+	 * @return The backward slice of the queried sink, or null if the analysis
+	 *         is not running in demand-driven mode
+	 */
+	public SinkSlice getSinkSlice() {
+		return this.sinkSlice;
+	}
+
+	/**
+	 * Sets the index that tells from which methods a sink can be reached
+	 * 
+	 * @param sinkReachability
+	 *            The sink reachability index, or null if taints shall not be
+	 *            pruned based on sink reachability
+	 */
+	void setSinkReachability(SinkReachability sinkReachability) {
+		this.sinkReachability = sinkReachability;
+	}
+
+	/**
+	 * Gets the index that tells from which methods a sink can be reached
+	 * 
+	 * @return The sink reachability index, or null if taints shall not be
+	 *         pruned based on sink reachability
+	 */
+	public SinkReachability getSinkReachability() {
+		return this.sinkReachability;
+	}
+
+	/**
+	 * Sets the spill into which the predecessor graph of the taint abstractions
+	 * is written during the data flow analysis
+	 * 
+	 * @param predecessorGraphSpill
+	 *            The predecessor graph spill, or null if the predecessor graph
+	 *            is only kept on the heap
+	 */
+	void setPredecessorGraphSpill(PredecessorGraphSpill predecessorGraphSpill) {
+		this.predecessorGraphSpill = predecessorGraphSpill;
+	}
+
+	/**
+	 * Gets the spill into which the predecessor graph of the taint abstractions
+	 * is written during the data flow analysis
+	 * 
+	 * @return The predecessor graph spill, or null if the predecessor graph is
+	 *         only kept on the heap
+	 */
+	public PredecessorGraphSpill getPredecessorGraphSpill() {
+		return this.predecessorGraphSpill;
+	}
+
+	/**
+	 * Sets the mod/ref summaries that tell which static fields the methods read
+	 * and write, and whether they have side effects
+	 * 
+	 * @param modRefSummaries
+	 *            The mod/ref summaries
+	 */
+	void setModRefSummaries(ModRefSummaries modRefSummaries) {
+		this.modRefSummaries = modRefSummaries;
+	}
+
+	/**
+	 * Gets the mod/ref summaries that tell which static fields the methods read
+	 * and write, and whether they have side effects
+	 * 
+	 * @return The mod/ref summaries, or null if none have been computed
+	 */
+	public ModRefSummaries getModRefSummaries() {
+		return this.modRefSummaries;
+	}
+
 	/**
 	 * Checks whether the analysis has been aborted
 	 * 
@@ -4,10 +4,11 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 
-import heros.solver.IDESolver;
 import soot.ArrayType;
 import soot.Local;
 import soot.PrimType;
@@ -27,9 +28,8 @@ import soot.jimple.infoflow.InfoflowManager;
 import soot.jimple.infoflow.data.Abstraction;
 import soot.jimple.infoflow.data.AccessPath;
 import soot.jimple.infoflow.data.AccessPathFactory.BasePair;
+import soot.jimple.infoflow.solver.IInfoflowSolver;
 import soot.jimple.infoflow.util.TypeUtils;
-import soot.jimple.toolkits.pointer.LocalMustAliasAnalysis;
-import soot.jimple.toolkits.pointer.StrongLocalMustAliasAnalysis;
 import soot.toolkits.graph.UnitGraph;
 
 /**
@@ -45,18 +45,27 @@ public class Aliasing {
 
 	private final Set<SootMethod> excludedFromMustAliasAnalysis = new HashSet<>();
 
-	protected final LoadingCache<SootMethod, LocalMustAliasAnalysis> strongAliasAnalysis = IDESolver.DEFAULT_CACHE_BUILDER
-			.build(new CacheLoader<SootMethod, LocalMustAliasAnalysis>() {
-				@Override
-				public LocalMustAliasAnalysis load(SootMethod method) throws Exception {
-					return new StrongLocalMustAliasAnalysis((UnitGraph) manager.getICFG().getOrCreateUnitGraph(method));
-				}
-			});
+	protected final LoadingCache<SootMethod, MustAliasClasses> strongAliasAnalysis;
 
 	public Aliasing(IAliasingStrategy aliasingStrategy, InfoflowManager manager) {
 		this.aliasingStrategy = aliasingStrategy;
 		this.implicitFlowAliasingStrategy = new ImplicitFlowAliasStrategy(manager);
 		this.manager = manager;
+
+		// We keep a bounded number of compact must-alias results. Soft values
+		// would be cleared under memory pressure, forcing us to re-run the
+		// analysis over and over again. A size of zero would not cache anything
+		// at all, so we take it to mean that the cache is unbounded.
+		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
+		final int cacheSize = manager.getConfig().getMustAliasCacheSize();
+		if (cacheSize > 0)
+			cacheBuilder.maximumSize(cacheSize);
+		this.strongAliasAnalysis = cacheBuilder.build(new CacheLoader<SootMethod, MustAliasClasses>() {
+			@Override
+			public MustAliasClasses load(SootMethod method) throws Exception {
+				return new MustAliasClasses((UnitGraph) manager.getICFG().getOrCreateUnitGraph(method));
+			}
+		});
 	}
 
 	/**
@@ -87,12 +96,23 @@ public class Aliasing {
 		// full alias analysis algorithm. Otherwise, we use a global
 		// non-flow-sensitive approximation.
 		if (!d1.getAccessPath().isEmpty()) {
+			recordAliasQuery();
 			aliasingStrategy.computeAliasTaints(d1, src, targetValue, taintSet, method, newAbs);
 		} else if (targetValue instanceof InstanceFieldRef) {
+			recordAliasQuery();
 			implicitFlowAliasingStrategy.computeAliasTaints(d1, src, targetValue, taintSet, method, newAbs);
 		}
 	}
 
+	/**
+	 * Records an alias query in the profile of the forward solver
+	 */
+	private void recordAliasQuery() {
+		IInfoflowSolver forwardSolver = manager.getForwardSolver();
+		if (forwardSolver != null)
+			forwardSolver.getProfile().recordAliasQuery();
+	}
+
 	/**
 	 * Matches the given access path against the given array of fields
 	 * 
@@ -291,8 +311,8 @@ public class Aliasing {
 			return false;
 
 		// Query the must-alias analysis
-		LocalMustAliasAnalysis lmaa = strongAliasAnalysis.getUnchecked(method);
-		return lmaa.mustAlias(val1, position, val2, position);
+		MustAliasClasses classes = strongAliasAnalysis.getUnchecked(method);
+		return classes.mustAlias(val1, val2, position);
 	}
 
 	/**
@@ -423,4 +443,15 @@ public class Aliasing {
 		return aliasingStrategy;
 	}
 
+	/**
+	 * Gets the statistics of the cache that holds the results of the local
+	 * must-alias analysis
+	 * 
+	 * @return The hits, misses, evictions, and load times of the must-alias
+	 *         cache
+	 */
+	public CacheStats getMustAliasCacheStats() {
+		return strongAliasAnalysis.stats();
+	}
+
 }
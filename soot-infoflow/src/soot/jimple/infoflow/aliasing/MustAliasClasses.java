@@ -0,0 +1,185 @@
+package soot.jimple.infoflow.aliasing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import soot.Local;
+import soot.RefLikeType;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.pointer.LocalMustAliasAnalysis;
+import soot.jimple.toolkits.pointer.StrongLocalMustAliasAnalysis;
+import soot.toolkits.graph.UnitGraph;
+
+/**
+ * Compact representation of the results of a strong local must-alias analysis
+ * for a single method. For every statement, each local of a reference type is
+ * assigned the id of its must-alias equivalence class before that statement.
+ * Two locals must alias at a statement if and only if they have the same class
+ * id there. Statements and locals are numbered densely, so that the class ids
+ * of all statements fit into a single array. The underlying analysis is only
+ * required while building this representation and can be garbage collected
+ * afterwards.
+ */
+public class MustAliasClasses {
+
+	/**
+	 * Class id for locals that do not must-alias any other local
+	 */
+	private static final int NO_CLASS = -1;
+
+	private final Map<Local, Integer> localIndices = new HashMap<>();
+	private final Map<Unit, Integer> unitIndices = new HashMap<>();
+	private int[] rowOffsets = null;
+	private int[] classIds = null;
+
+	/**
+	 * Creates a new instance of the {@link MustAliasClasses} class and runs the
+	 * strong local must-alias analysis on the given graph
+	 *
+	 * @param graph
+	 *            The unit graph of the method to analyze
+	 */
+	public MustAliasClasses(UnitGraph graph) {
+		this(new StrongLocalMustAliasAnalysis(graph), graph);
+	}
+
+	/**
+	 * Creates a new instance of the {@link MustAliasClasses} class from the
+	 * results of an existing local must-alias analysis
+	 *
+	 * @param lmaa
+	 *            The local must-alias analysis that was run on the given graph
+	 * @param graph
+	 *            The unit graph of the method
+	 */
+	public MustAliasClasses(LocalMustAliasAnalysis lmaa, UnitGraph graph) {
+		// Only locals of reference types can alias
+		List<Local> locals = new ArrayList<>();
+		for (Local l : graph.getBody().getLocals())
+			if (l.getType() instanceof RefLikeType) {
+				localIndices.put(l, locals.size());
+				locals.add(l);
+			}
+		if (locals.isEmpty())
+			return;
+
+		// Consecutive statements frequently share the same partition, so we
+		// store the row only once for them
+		final int numLocals = locals.size();
+		Map<Object, Boolean> validNumbers = new HashMap<>();
+		rowOffsets = new int[graph.size()];
+		int[] ids = new int[numLocals * 16];
+		int size = 0;
+		for (Unit u : graph) {
+			int unitIndex = unitIndices.size();
+			unitIndices.put(u, unitIndex);
+
+			int[] row = computeClasses(lmaa, (Stmt) u, locals, validNumbers);
+			if (size > 0 && isSameRow(ids, size - numLocals, row))
+				rowOffsets[unitIndex] = size - numLocals;
+			else {
+				if (size + numLocals > ids.length)
+					ids = Arrays.copyOf(ids, Math.max(ids.length * 2, size + numLocals));
+				System.arraycopy(row, 0, ids, size, numLocals);
+				rowOffsets[unitIndex] = size;
+				size += numLocals;
+			}
+		}
+		classIds = Arrays.copyOf(ids, size);
+	}
+
+	/**
+	 * Partitions the given locals into must-alias classes at the given
+	 * statement. Locals are in the same class if the analysis has assigned them
+	 * the same value number.
+	 *
+	 * @param lmaa
+	 *            The local must-alias analysis
+	 * @param stmt
+	 *            The statement before which to partition the locals
+	 * @param locals
+	 *            The locals to partition
+	 * @param validNumbers
+	 *            Cache that records for every value number whether the analysis
+	 *            considers locals with this number as aliases at all
+	 * @return An array with the class id for each local, in the order of the
+	 *         given list
+	 */
+	private int[] computeClasses(LocalMustAliasAnalysis lmaa, Stmt stmt, List<Local> locals,
+			Map<Object, Boolean> validNumbers) {
+		Map<Value, ?> flow = lmaa.getFlowBefore(stmt);
+		Map<Object, Integer> numberClasses = new HashMap<>();
+		int[] row = new int[locals.size()];
+		int numClasses = 0;
+		for (int i = 0; i < locals.size(); i++) {
+			Local local = locals.get(i);
+			Object number = flow.get(local);
+			Integer classId = numberClasses.get(number);
+			if (classId == null) {
+				// Locals with an unknown value do not even alias themselves. The
+				// strong analysis additionally rejects the numbers of values that
+				// are created in loops. Neither depends on the statement.
+				Boolean valid = validNumbers.get(number);
+				if (valid == null) {
+					valid = lmaa.mustAlias(local, stmt, local, stmt);
+					validNumbers.put(number, valid);
+				}
+				classId = valid ? numClasses++ : NO_CLASS;
+				numberClasses.put(number, classId);
+			}
+			row[i] = classId;
+		}
+		return row;
+	}
+
+	/**
+	 * Checks whether the row at the given offset contains the same class ids as
+	 * the given row
+	 *
+	 * @param ids
+	 *            The array with the class ids of all rows
+	 * @param offset
+	 *            The offset of the row to compare
+	 * @param row
+	 *            The row to compare with
+	 * @return True if both rows are equal, otherwise false
+	 */
+	private static boolean isSameRow(int[] ids, int offset, int[] row) {
+		for (int i = 0; i < row.length; i++)
+			if (ids[offset + i] != row[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Checks whether the two given locals must point to the same object before
+	 * the given statement
+	 *
+	 * @param val1
+	 *            The first local
+	 * @param val2
+	 *            The second local
+	 * @param position
+	 *            The statement at which to check for an aliasing relationship
+	 * @return True if the two locals must always point to the same runtime
+	 *         object, otherwise false
+	 */
+	public boolean mustAlias(Local val1, Local val2, Unit position) {
+		if (classIds == null)
+			return false;
+		Integer unitIdx = unitIndices.get(position);
+		Integer idx1 = localIndices.get(val1);
+		Integer idx2 = localIndices.get(val2);
+		if (unitIdx == null || idx1 == null || idx2 == null)
+			return false;
+		int offset = rowOffsets[unitIdx];
+		int class1 = classIds[offset + idx1];
+		return class1 != NO_CLASS && class1 == classIds[offset + idx2];
+	}
+
+}
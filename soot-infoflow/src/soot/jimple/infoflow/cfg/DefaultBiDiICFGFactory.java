@@ -15,6 +15,7 @@ import soot.dexpler.DalvikThrowAnalysis;
 import soot.jimple.infoflow.InfoflowConfiguration.CallgraphAlgorithm;
 import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
 import soot.jimple.infoflow.solver.cfg.InfoflowCFG;
+import soot.jimple.infoflow.solver.cfg.SnapshotInfoflowCFG;
 import soot.jimple.toolkits.ide.icfg.BiDiInterproceduralCFG;
 import soot.jimple.toolkits.ide.icfg.JimpleBasedInterproceduralCFG;
 import soot.jimple.toolkits.ide.icfg.OnTheFlyJimpleBasedICFG;
@@ -33,6 +34,7 @@ public class DefaultBiDiICFGFactory implements BiDirICFGFactory {
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	protected boolean isAndroid = false;
+	protected boolean useSnapshot = false;
 
 	@Override
 	public IInfoflowCFG buildBiDirICFG(CallgraphAlgorithm callgraphAlgorithm, boolean enableExceptions) {
@@ -56,6 +58,15 @@ public class DefaultBiDiICFGFactory implements BiDirICFGFactory {
 
 		BiDiInterproceduralCFG<Unit, SootMethod> baseCFG = getBaseCFG(enableExceptions);
 
+		// Freeze the ICFG into arrays if requested
+		if (useSnapshot) {
+			long beforeSnapshot = System.nanoTime();
+			SnapshotInfoflowCFG cfg = new SnapshotInfoflowCFG(baseCFG);
+			logger.info("ICFG snapshot with {} statements and {} methods took {} seconds", cfg.getUnitCount(),
+					cfg.getMethodCount(), (System.nanoTime() - beforeSnapshot) / 1E9);
+			return cfg;
+		}
+
 		return new InfoflowCFG(baseCFG);
 	}
 
@@ -90,4 +101,18 @@ public class DefaultBiDiICFGFactory implements BiDirICFGFactory {
 		this.isAndroid = isAndroid;
 	}
 
+	/**
+	 * Sets whether the ICFG shall be frozen into an immutable array-based
+	 * snapshot right after it has been created. The snapshot answers the
+	 * queries of the data flow solvers without any hash map lookups in Soot.
+	 * This option has no effect with the on-demand callgraph algorithm.
+	 * 
+	 * @param useSnapshot
+	 *            True if the ICFG shall be frozen into a snapshot, otherwise
+	 *            false
+	 */
+	public void setUseSnapshot(boolean useSnapshot) {
+		this.useSnapshot = useSnapshot;
+	}
+
 }
@@ -0,0 +1,744 @@
+package soot.jimple.infoflow.cfg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Local;
+import soot.Scene;
+import soot.SootField;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.ArrayRef;
+import soot.jimple.AssignStmt;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.FieldRef;
+import soot.jimple.InvokeStmt;
+import soot.jimple.NewExpr;
+import soot.jimple.ParameterRef;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.Stmt;
+import soot.jimple.ThisRef;
+import soot.jimple.ThrowStmt;
+import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.sourcesSinks.manager.ISourceSinkManager;
+import soot.jimple.infoflow.taintWrappers.ITaintPropagationWrapper;
+import soot.jimple.infoflow.util.SystemClassHandler;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.options.Options;
+
+/**
+ * Mod/ref summaries of the methods in the callgraph. For every method, we
+ * record which static fields the method or one of its transitive callees reads
+ * and writes, and whether they write to the heap, read from the "this" object,
+ * or call a sink.
+ *
+ * The method bodies are scanned in parallel. The results are then propagated
+ * bottom-up over the strongly connected components of the callgraph, where
+ * components that do not call each other are processed in parallel. Methods
+ * that were not part of the initial computation are summarized on demand in
+ * the thread that asks for them.
+ * Android stub methods that only throw an exception never run in practice and
+ * are treated as if they had no effects at all.
+ */
+public class ModRefSummaries {
+
+	private static final Logger logger = LoggerFactory.getLogger(ModRefSummaries.class);
+
+	/**
+	 * The number of methods below which a scan task is no longer split up
+	 */
+	private static final int SCAN_BATCH_SIZE = 16;
+
+	private static final int FLAG_HEAP_WRITE = 1;
+	private static final int FLAG_WRAPPED_CALL = 2;
+	private static final int FLAG_THIS_READ = 4;
+	private static final int FLAG_SINK_CALL = 8;
+
+	/**
+	 * The summary of a method. Summaries are never changed after they have been
+	 * published.
+	 */
+	private static class Summary {
+
+		private int flags = 0;
+		private final BitSet staticReads = new BitSet();
+		private final BitSet staticWrites = new BitSet();
+
+		private void merge(Summary other) {
+			flags |= other.flags;
+			staticReads.or(other.staticReads);
+			staticWrites.or(other.staticWrites);
+		}
+
+	}
+
+	private static final Summary EMPTY_SUMMARY = new Summary();
+
+	/**
+	 * A method that is being summarized
+	 */
+	private static class MethodNode {
+
+		private final SootMethod method;
+		private final Summary bodySummary = new Summary();
+		private final Set<SootMethod> callees = new HashSet<>();
+
+		// State for finding the strongly connected components
+		private int index = -1;
+		private int lowLink = -1;
+		private boolean onStack = false;
+		private Iterator<SootMethod> calleeIterator = null;
+		private Component component = null;
+
+		public MethodNode(SootMethod method) {
+			this.method = method;
+		}
+
+	}
+
+	/**
+	 * A strongly connected component of the callgraph
+	 */
+	private static class Component {
+
+		private final List<MethodNode> members = new ArrayList<>();
+		private final Set<Component> callers = new HashSet<>();
+		private final AtomicInteger pendingCallees = new AtomicInteger();
+
+	}
+
+	private final InfoflowManager manager;
+	private final ISourceSinkManager sourceSinkManager;
+	private final ITaintPropagationWrapper taintWrapper;
+	private int numThreads = -1;
+
+	private final Map<SootMethod, Summary> summaries = new ConcurrentHashMap<>();
+	private final Map<SootField, Integer> fieldIds = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new instance of the {@link ModRefSummaries} class that does not
+	 * record calls to sinks or to methods that are handled by a taint wrapper
+	 */
+	public ModRefSummaries() {
+		this(null, null, null);
+	}
+
+	/**
+	 * Creates a new instance of the {@link ModRefSummaries} class
+	 *
+	 * @param manager
+	 *            The data flow manager to pass to the source/sink manager
+	 * @param sourceSinkManager
+	 *            The source/sink manager for finding calls to sinks, or null if
+	 *            calls to sinks shall not be recorded
+	 * @param taintWrapper
+	 *            The taint wrapper for finding calls to wrapped methods, or null
+	 *            if such calls shall not be recorded
+	 */
+	public ModRefSummaries(InfoflowManager manager, ISourceSinkManager sourceSinkManager,
+			ITaintPropagationWrapper taintWrapper) {
+		this.manager = manager;
+		this.sourceSinkManager = sourceSinkManager;
+		this.taintWrapper = taintWrapper;
+	}
+
+	/**
+	 * Gets the source/sink manager that is used for finding calls to sinks
+	 *
+	 * @return The source/sink manager, or null if calls to sinks are not
+	 *         recorded
+	 */
+	public ISourceSinkManager getSourceSinkManager() {
+		return this.sourceSinkManager;
+	}
+
+	/**
+	 * Gets the taint wrapper that is used for finding calls to wrapped methods
+	 *
+	 * @return The taint wrapper, or null if calls to wrapped methods are not
+	 *         recorded
+	 */
+	public ITaintPropagationWrapper getTaintWrapper() {
+		return this.taintWrapper;
+	}
+
+	/**
+	 * Sets the number of threads to use for computing the summaries
+	 *
+	 * @param numThreads
+	 *            The number of threads to use, or a value smaller than 1 to use
+	 *            one thread per available processor
+	 */
+	public void setNumThreads(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Task that scans the bodies of a range of methods, and splits itself up if
+	 * the range is too large
+	 */
+	private class MethodScanTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -3178395846017722417L;
+
+		private final List<MethodNode> nodes;
+		private final int from;
+		private final int to;
+
+		public MethodScanTask(List<MethodNode> nodes, int from, int to) {
+			this.nodes = nodes;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= SCAN_BATCH_SIZE) {
+				for (int i = from; i < to; i++)
+					scanMethod(nodes.get(i));
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			invokeAll(new MethodScanTask(nodes, from, mid), new MethodScanTask(nodes, mid, to));
+		}
+
+	}
+
+	/**
+	 * Task that summarizes a component once all components that it calls have
+	 * been summarized, and then schedules the callers that are ready
+	 */
+	private class ComponentTask implements Runnable {
+
+		private final Component component;
+		private final ForkJoinPool pool;
+		private final CountDownLatch doneLatch;
+		private final AtomicReference<Throwable> error;
+
+		public ComponentTask(Component component, ForkJoinPool pool, CountDownLatch doneLatch,
+				AtomicReference<Throwable> error) {
+			this.component = component;
+			this.pool = pool;
+			this.doneLatch = doneLatch;
+			this.error = error;
+		}
+
+		@Override
+		public void run() {
+			try {
+				summarizeComponent(component);
+			} catch (Throwable t) {
+				error.compareAndSet(null, t);
+			} finally {
+				// The callers must run even if we failed, otherwise we would
+				// never finish
+				for (Component caller : component.callers)
+					if (caller.pendingCallees.decrementAndGet() == 0)
+						pool.execute(new ComponentTask(caller, pool, doneLatch, error));
+				doneLatch.countDown();
+			}
+		}
+
+	}
+
+	/**
+	 * Computes the summaries for the given methods and their transitive callees
+	 * in parallel. Methods that have already been summarized are not computed
+	 * again.
+	 *
+	 * @param methods
+	 *            The methods for which to compute the summaries
+	 */
+	public void computeSummaries(Collection<SootMethod> methods) {
+		long beforeSummaries = System.nanoTime();
+		Set<SootMethod> initialMethods = new LinkedHashSet<>();
+		for (SootMethod sm : methods)
+			if (isUnsummarized(sm, Collections.<SootMethod, MethodNode>emptyMap()))
+				initialMethods.add(sm);
+		if (initialMethods.isEmpty())
+			return;
+
+		ForkJoinPool pool = new ForkJoinPool(numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors());
+		int methodCount;
+		try {
+			methodCount = summarize(initialMethods, pool);
+		} finally {
+			pool.shutdown();
+		}
+
+		logger.info("Mod/ref summaries for {} methods computed in {} seconds", methodCount,
+				(System.nanoTime() - beforeSummaries) / 1E9);
+	}
+
+	/**
+	 * Computes the summaries for the given methods and their transitive callees
+	 *
+	 * @param initialMethods
+	 *            The methods for which to compute the summaries. None of these
+	 *            methods may have been summarized before.
+	 * @param pool
+	 *            The pool in which to run the tasks, or null to compute the
+	 *            summaries in the current thread
+	 * @return The number of methods that were summarized
+	 */
+	private int summarize(Collection<SootMethod> initialMethods, ForkJoinPool pool) {
+		// Scan the methods and their callees wave by wave
+		Map<SootMethod, MethodNode> nodes = new HashMap<>();
+		List<SootMethod> wave = new ArrayList<>(initialMethods);
+		while (!wave.isEmpty()) {
+			List<MethodNode> waveNodes = new ArrayList<>(wave.size());
+			for (SootMethod sm : wave) {
+				MethodNode node = new MethodNode(sm);
+				nodes.put(sm, node);
+				waveNodes.add(node);
+			}
+			if (pool == null) {
+				for (MethodNode node : waveNodes)
+					scanMethod(node);
+			} else
+				pool.invoke(new MethodScanTask(waveNodes, 0, waveNodes.size()));
+
+			Set<SootMethod> nextWave = new LinkedHashSet<>();
+			for (MethodNode node : waveNodes)
+				for (SootMethod callee : node.callees)
+					if (isUnsummarized(callee, nodes))
+						nextWave.add(callee);
+			wave = new ArrayList<>(nextWave);
+		}
+
+		// Propagate the summaries through the callgraph. The components are
+		// ordered such that every component comes after its callees.
+		List<Component> components = findComponents(nodes);
+		if (pool == null) {
+			for (Component component : components)
+				summarizeComponent(component);
+		} else
+			summarizeComponents(components, nodes, pool);
+		return nodes.size();
+	}
+
+	/**
+	 * Checks whether we still need to compute the summary for the given method
+	 *
+	 * @param method
+	 *            The method to check
+	 * @param nodes
+	 *            The methods that are currently being summarized
+	 * @return True if the summary for the given method must still be computed,
+	 *         otherwise false
+	 */
+	private boolean isUnsummarized(SootMethod method, Map<SootMethod, MethodNode> nodes) {
+		return method != null && method.hasActiveBody() && !summaries.containsKey(method)
+				&& !nodes.containsKey(method);
+	}
+
+	/**
+	 * Gets the numeric ID of the given static field
+	 *
+	 * @param field
+	 *            The field for which to get the ID
+	 * @return The ID of the given field
+	 */
+	private int getFieldId(SootField field) {
+		Integer id = fieldIds.get(field);
+		if (id == null) {
+			synchronized (fieldIds) {
+				id = fieldIds.get(field);
+				if (id == null) {
+					id = fieldIds.size();
+					fieldIds.put(field, id);
+				}
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Scans the body of the given method. Callees are only recorded, but not
+	 * scanned.
+	 *
+	 * @param node
+	 *            The method to scan
+	 */
+	private void scanMethod(MethodNode node) {
+		final SootMethod method = node.method;
+		final Summary summary = node.bodySummary;
+		if (isAndroidStub(method))
+			return;
+
+		Local thisLocal = method.isStatic() ? null : method.getActiveBody().getThisLocal();
+		for (Unit u : method.getActiveBody().getUnits()) {
+			Stmt s = (Stmt) u;
+			if (s instanceof AssignStmt) {
+				AssignStmt assign = (AssignStmt) s;
+				Value leftOp = assign.getLeftOp();
+				Value rightOp = assign.getRightOp();
+				if (leftOp instanceof StaticFieldRef)
+					summary.staticWrites.set(getFieldId(((StaticFieldRef) leftOp).getField()));
+				if (leftOp instanceof FieldRef || leftOp instanceof ArrayRef)
+					summary.flags |= FLAG_HEAP_WRITE;
+				if (rightOp instanceof StaticFieldRef)
+					summary.staticReads.set(getFieldId(((StaticFieldRef) rightOp).getField()));
+			}
+
+			// If this method calls another method for which we have a taint
+			// wrapper, we need to conservatively assume that the taint wrapper
+			// can do anything
+			if (taintWrapper != null && taintWrapper.supportsCallee(s))
+				summary.flags |= FLAG_WRAPPED_CALL;
+
+			if (thisLocal != null && (summary.flags & FLAG_THIS_READ) == 0)
+				for (ValueBox vb : s.getUseBoxes())
+					if (vb.getValue() == thisLocal) {
+						summary.flags |= FLAG_THIS_READ;
+						break;
+					}
+
+			if (s.containsInvokeExpr()) {
+				if (sourceSinkManager != null && sourceSinkManager.getSinkInfo(s, manager, null) != null)
+					summary.flags |= FLAG_SINK_CALL;
+
+				// Record the callees
+				for (Iterator<Edge> edgeIt = Scene.v().getCallGraph().edgesOutOf(u); edgeIt.hasNext();) {
+					SootMethod callee = edgeIt.next().tgt();
+					if (callee.hasActiveBody())
+						node.callees.add(callee);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the given method is an Android library stub that only
+	 * throws an exception
+	 *
+	 * @param method
+	 *            The method to check
+	 * @return True if the given method is an Android library stub, false
+	 *         otherwise
+	 */
+	public boolean isAndroidStub(SootMethod method) {
+		if (!(Options.v().src_prec() == Options.src_prec_apk && method.getDeclaringClass().isLibraryClass()
+				&& SystemClassHandler.isClassInSystemPackage(method.getDeclaringClass().getName())))
+			return false;
+
+		// Check whether there is only a single throw statement
+		for (Unit u : method.getActiveBody().getUnits()) {
+			if (u instanceof DefinitionStmt) {
+				DefinitionStmt defStmt = (DefinitionStmt) u;
+				if (!(defStmt.getRightOp() instanceof ThisRef) && !(defStmt.getRightOp() instanceof ParameterRef)
+						&& !(defStmt.getRightOp() instanceof NewExpr))
+					return false;
+			} else if (u instanceof InvokeStmt) {
+				InvokeStmt stmt = (InvokeStmt) u;
+
+				// Check for exception constructor invocations
+				SootMethod callee = stmt.getInvokeExpr().getMethod();
+				if (!callee.getSubSignature().equals("void <init>(java.lang.String)"))
+					// Check for super class constructor invocation
+					if (!(method.getDeclaringClass().hasSuperclass()
+							&& callee.getDeclaringClass() == method.getDeclaringClass().getSuperclass()
+							&& callee.getName().equals("<init>")))
+						return false;
+			} else if (!(u instanceof ThrowStmt))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the strongly connected components of the callgraph between the given
+	 * methods using Tarjan's algorithm
+	 *
+	 * @param nodes
+	 *            The methods to partition into components
+	 * @return The components in the order in which they were finished, i.e.,
+	 *         every component comes after all components it calls into
+	 */
+	private List<Component> findComponents(Map<SootMethod, MethodNode> nodes) {
+		List<Component> components = new ArrayList<>();
+		int index = 0;
+		Deque<MethodNode> componentStack = new ArrayDeque<>();
+		Deque<MethodNode> dfsStack = new ArrayDeque<>();
+
+		for (MethodNode root : nodes.values()) {
+			if (root.index >= 0)
+				continue;
+
+			index = visitNode(root, index, componentStack, dfsStack);
+			while (!dfsStack.isEmpty()) {
+				MethodNode curNode = dfsStack.peek();
+				if (curNode.calleeIterator.hasNext()) {
+					// Callees that are not in the map have been summarized
+					// before
+					MethodNode calleeNode = nodes.get(curNode.calleeIterator.next());
+					if (calleeNode == null)
+						continue;
+
+					if (calleeNode.index < 0)
+						index = visitNode(calleeNode, index, componentStack, dfsStack);
+					else if (calleeNode.onStack)
+						curNode.lowLink = Math.min(curNode.lowLink, calleeNode.index);
+				} else {
+					dfsStack.pop();
+					curNode.calleeIterator = null;
+					if (!dfsStack.isEmpty()) {
+						MethodNode parentNode = dfsStack.peek();
+						parentNode.lowLink = Math.min(parentNode.lowLink, curNode.lowLink);
+					}
+
+					// Collect the component
+					if (curNode.lowLink == curNode.index) {
+						Component component = new Component();
+						MethodNode member;
+						do {
+							member = componentStack.pop();
+							member.onStack = false;
+							member.component = component;
+							component.members.add(member);
+						} while (member != curNode);
+						components.add(component);
+					}
+				}
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Starts the depth-first search in the given method
+	 *
+	 * @param node
+	 *            The method to visit
+	 * @param index
+	 *            The next free depth-first index
+	 * @param componentStack
+	 *            The stack of methods that have not yet been assigned to a
+	 *            component
+	 * @param dfsStack
+	 *            The stack of the depth-first search
+	 * @return The next free depth-first index after the visit
+	 */
+	private int visitNode(MethodNode node, int index, Deque<MethodNode> componentStack, Deque<MethodNode> dfsStack) {
+		node.index = index;
+		node.lowLink = index;
+		node.onStack = true;
+		node.calleeIterator = node.callees.iterator();
+		componentStack.push(node);
+		dfsStack.push(node);
+		return index + 1;
+	}
+
+	/**
+	 * Summarizes the given components in parallel. A component is only
+	 * summarized once all components it calls into are done.
+	 *
+	 * @param components
+	 *            The components to summarize
+	 * @param nodes
+	 *            The methods in the components
+	 * @param pool
+	 *            The pool in which to run the tasks
+	 */
+	private void summarizeComponents(List<Component> components, Map<SootMethod, MethodNode> nodes,
+			ForkJoinPool pool) {
+		// Build the dependencies between the components
+		for (Component component : components) {
+			Set<Component> calleeComponents = new HashSet<>();
+			for (MethodNode member : component.members)
+				for (SootMethod callee : member.callees) {
+					MethodNode calleeNode = nodes.get(callee);
+					if (calleeNode != null && calleeNode.component != component)
+						calleeComponents.add(calleeNode.component);
+				}
+			component.pendingCallees.set(calleeComponents.size());
+			for (Component calleeComponent : calleeComponents)
+				calleeComponent.callers.add(component);
+		}
+
+		// Start with the components that do not call any other component
+		CountDownLatch doneLatch = new CountDownLatch(components.size());
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		for (Component component : components)
+			if (component.pendingCallees.get() == 0)
+				pool.execute(new ComponentTask(component, pool, doneLatch, error));
+
+		try {
+			doneLatch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while computing the mod/ref summaries", e);
+		}
+		if (error.get() != null)
+			throw new RuntimeException("Could not compute the mod/ref summaries", error.get());
+	}
+
+	/**
+	 * Computes the summary of the given component and publishes it for all of
+	 * its methods. All components that this component calls into must already
+	 * be done.
+	 *
+	 * @param component
+	 *            The component to summarize
+	 */
+	private void summarizeComponent(Component component) {
+		Summary summary = new Summary();
+		for (MethodNode member : component.members) {
+			summary.merge(member.bodySummary);
+			for (SootMethod callee : member.callees) {
+				Summary calleeSummary = summaries.get(callee);
+				if (calleeSummary != null)
+					summary.merge(calleeSummary);
+			}
+		}
+
+		for (MethodNode member : component.members)
+			summaries.put(member.method, summary);
+	}
+
+	/**
+	 * Gets the summary for the given method, and computes it if necessary
+	 *
+	 * @param method
+	 *            The method for which to get the summary
+	 * @return The summary of the given method
+	 */
+	private Summary getSummary(SootMethod method) {
+		// Without a body, we cannot say much
+		if (!method.hasActiveBody())
+			return EMPTY_SUMMARY;
+
+		Summary summary = summaries.get(method);
+		if (summary == null) {
+			// Another thread might compute the same summary at the same time,
+			// which is fine, because both threads arrive at the same result
+			summarize(Collections.singleton(method), null);
+			summary = summaries.get(method);
+		}
+		return summary == null ? EMPTY_SUMMARY : summary;
+	}
+
+	/**
+	 * Checks whether the given method or one of its transitive callees writes
+	 * to the heap or calls a method that is handled by the taint wrapper
+	 *
+	 * @param method
+	 *            The method to check
+	 * @return True if the given method or one of its transitive callees has side
+	 *         effects, otherwise false
+	 */
+	public boolean hasSideEffects(SootMethod method) {
+		return (getSummary(method).flags & (FLAG_HEAP_WRITE | FLAG_WRAPPED_CALL)) != 0;
+	}
+
+	/**
+	 * Checks whether the given method or one of its transitive callees uses its
+	 * "this" object
+	 *
+	 * @param method
+	 *            The method to check
+	 * @return True if the given method or one of its transitive callees uses its
+	 *         "this" object, otherwise false
+	 */
+	public boolean readsThis(SootMethod method) {
+		return (getSummary(method).flags & FLAG_THIS_READ) != 0;
+	}
+
+	/**
+	 * Checks whether the given method or one of its transitive callees calls a
+	 * sink. This information is only available if the summaries were created
+	 * with a source/sink manager.
+	 *
+	 * @param method
+	 *            The method to check
+	 * @return True if the given method or one of its transitive callees calls a
+	 *         sink, otherwise false
+	 */
+	public boolean callsSink(SootMethod method) {
+		return (getSummary(method).flags & FLAG_SINK_CALL) != 0;
+	}
+
+	/**
+	 * Checks whether the given method or one of its transitive callees reads the
+	 * given static field
+	 *
+	 * @param method
+	 *            The method to check
+	 * @param field
+	 *            The static field to look for
+	 * @return True if the given method or one of its transitive callees reads
+	 *         the given static field, otherwise false
+	 */
+	public boolean isStaticFieldRead(SootMethod method, SootField field) {
+		Summary summary = getSummary(method);
+		Integer id = fieldIds.get(field);
+		return id != null && summary.staticReads.get(id);
+	}
+
+	/**
+	 * Checks whether the given method or one of its transitive callees writes
+	 * the given static field
+	 *
+	 * @param method
+	 *            The method to check
+	 * @param field
+	 *            The static field to look for
+	 * @return True if the given method or one of its transitive callees writes
+	 *         the given static field, otherwise false
+	 */
+	public boolean isStaticFieldWritten(SootMethod method, SootField field) {
+		Summary summary = getSummary(method);
+		Integer id = fieldIds.get(field);
+		return id != null && summary.staticWrites.get(id);
+	}
+
+	/**
+	 * Checks whether the given method or one of its transitive callees reads or
+	 * writes the given static field
+	 *
+	 * @param method
+	 *            The method to check
+	 * @param field
+	 *            The static field to look for
+	 * @return True if the given method or one of its transitive callees reads or
+	 *         writes the given static field, otherwise false
+	 */
+	public boolean isStaticFieldUsed(SootMethod method, SootField field) {
+		Summary summary = getSummary(method);
+		Integer id = fieldIds.get(field);
+		return id != null && (summary.staticReads.get(id) || summary.staticWrites.get(id));
+	}
+
+	/**
+	 * Gets the number of methods for which summaries have been computed
+	 *
+	 * @return The number of summarized methods
+	 */
+	public int size() {
+		return summaries.size();
+	}
+
+}
@@ -72,6 +72,7 @@ public class DeadCodeEliminator implements ICodeOptimizer {
 				config.getCodeEliminationMode() == CodeEliminationMode.RemoveSideEffectFreeCode
 						&& config.getImplicitFlowMode() != ImplicitFlowMode.AllImplicitFlows);
 		ipcvp.setExcludeSystemClasses(config.getIgnoreFlowsInSystemPackages());
+		ipcvp.setNumThreads(config.getMaxThreadNum());
 		ipcvp.transform();
 
 		// Get rid of all dead code
@@ -6,10 +6,15 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,30 +37,27 @@ import soot.Trap;
 import soot.Type;
 import soot.Unit;
 import soot.Value;
-import soot.ValueBox;
 import soot.VoidType;
 import soot.dexpler.DalvikThrowAnalysis;
 import soot.javaToJimple.LocalGenerator;
-import soot.jimple.ArrayRef;
 import soot.jimple.AssignStmt;
 import soot.jimple.Constant;
-import soot.jimple.DefinitionStmt;
-import soot.jimple.FieldRef;
 import soot.jimple.IdentityStmt;
 import soot.jimple.IfStmt;
 import soot.jimple.IntConstant;
 import soot.jimple.InvokeExpr;
 import soot.jimple.InvokeStmt;
 import soot.jimple.Jimple;
-import soot.jimple.NewExpr;
 import soot.jimple.ParameterRef;
 import soot.jimple.ReturnStmt;
 import soot.jimple.Stmt;
 import soot.jimple.ThisRef;
 import soot.jimple.ThrowStmt;
 import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.cfg.ModRefSummaries;
 import soot.jimple.infoflow.entryPointCreators.BaseEntryPointCreator;
 import soot.jimple.infoflow.entryPointCreators.IEntryPointCreator;
+import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
 import soot.jimple.infoflow.sourcesSinks.manager.ISourceSinkManager;
 import soot.jimple.infoflow.taintWrappers.ITaintPropagationWrapper;
 import soot.jimple.infoflow.util.SystemClassHandler;
@@ -77,7 +79,11 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 	private final ITaintPropagationWrapper taintWrapper;
 	private boolean removeSideEffectFreeMethods = true;
 	private boolean excludeSystemClasses = true;
+	private int numThreads = -1;
+	private ModRefSummaries modRefSummaries = null;
 
+	// Facts that we learn while transforming the code. They take precedence
+	// over the mod/ref summaries.
 	protected final Map<SootMethod, Boolean> methodSideEffects = new ConcurrentHashMap<>();
 	protected final Map<SootMethod, Boolean> methodSinks = new ConcurrentHashMap<>();
 	protected final Map<SootMethod, Boolean> methodFieldReads = new ConcurrentHashMap<>();
@@ -85,8 +91,142 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 	protected SootClass exceptionClass = null;
 	protected final Map<SootClass, SootMethod> exceptionThrowers = new HashMap<>();
 
-	private final List<SootMethod> propagationWorklist = new ArrayList<>();
-	private final Set<Pair<SootMethod, Integer>> propagatedParameters = new HashSet<>();
+	private final Set<SootMethod> propagationWorklist = new LinkedHashSet<>();
+	private final Set<Pair<SootMethod, Integer>> propagatedParameters = Collections
+			.newSetFromMap(new ConcurrentHashMap<Pair<SootMethod, Integer>, Boolean>());
+
+	/**
+	 * A change to the callgraph. The callgraph is not thread-safe, so the
+	 * changes are applied once a batch of propagation steps has been committed.
+	 */
+	private static class CallGraphUpdate {
+
+		private final Unit oldUnit;
+		private final Unit newUnit;
+
+		/**
+		 * Creates a new callgraph update
+		 * 
+		 * @param oldUnit
+		 *            The call site whose outgoing edges shall be changed
+		 * @param newUnit
+		 *            The call site that shall receive the outgoing edges, or null
+		 *            to remove the edges
+		 */
+		public CallGraphUpdate(Unit oldUnit, Unit newUnit) {
+			this.oldUnit = oldUnit;
+			this.newUnit = newUnit;
+		}
+
+		public void apply() {
+			if (!Scene.v().hasCallGraph())
+				return;
+			if (newUnit == null)
+				Scene.v().getCallGraph().removeAllEdgesOutOf(oldUnit);
+			else
+				Scene.v().getCallGraph().swapEdgesOutOf(oldUnit, newUnit);
+		}
+
+	}
+
+	/**
+	 * The processing of one method from the worklist. A step is planned first,
+	 * without changing the program, so that we know which method bodies it reads
+	 * and writes. Steps that do not interfere with each other are committed in
+	 * parallel. Their effects on the worklist and the callgraph are applied in
+	 * worklist order afterwards, so that we obtain the same code as if we had
+	 * processed one method after the other.
+	 */
+	private class PropagationStep {
+
+		private final SootMethod method;
+		private Constant[] parameterValues = null;
+		private final Set<SootMethod> readMethods = new HashSet<>();
+		private final Set<SootMethod> writtenMethods = new HashSet<>();
+		private boolean serial = false;
+
+		private final List<SootMethod> addedMethods = new ArrayList<>();
+		private final List<CallGraphUpdate> callGraphUpdates = new ArrayList<>();
+
+		public PropagationStep(SootMethod method) {
+			this.method = method;
+		}
+
+		/**
+		 * Computes which method bodies this step reads and may write
+		 */
+		public void plan() {
+			final IInfoflowCFG icfg = manager.getICFG();
+			final Collection<Unit> callSites = icfg.getCallersOf(method);
+
+			// The constants come from the call sites, and the return value goes
+			// back into them
+			readMethods.add(method);
+			List<SootMethod> assignCallers = new ArrayList<>();
+			for (Unit callSite : callSites) {
+				SootMethod caller = icfg.getMethodOf(callSite);
+				if (caller != null) {
+					readMethods.add(caller);
+					if (callSite instanceof AssignStmt)
+						assignCallers.add(caller);
+				}
+			}
+
+			if (method.getParameterCount() > 0) {
+				parameterValues = getConstantParameters(method, callSites);
+				if (parameterValues != null)
+					writtenMethods.add(method);
+			}
+
+			// New constant parameters may also lead to a constant return value
+			if (typeSupportsConstants(method.getReturnType())
+					&& (parameterValues != null || getConstantReturnValue(method) != null)) {
+				writtenMethods.addAll(assignCallers);
+
+				// Removing a call that may throw an exception creates a global
+				// exception thrower, so we must not do this in parallel
+				if (!hasSideEffectsOrCallsSink(method))
+					for (SootMethod caller : assignCallers)
+						if (!caller.getActiveBody().getTraps().isEmpty())
+							serial = true;
+			}
+		}
+
+		/**
+		 * Applies this step to the method bodies
+		 */
+		public void commit() {
+			// Propagate constants from caller into callee
+			if (parameterValues != null)
+				propagateConstantsIntoCallee(this);
+
+			// Propagate constant return values from callee to caller
+			if (typeSupportsConstants(method.getReturnType()))
+				propagateReturnValueIntoCallers(this);
+		}
+
+		/**
+		 * Checks whether this step can be committed together with the steps that
+		 * read and write the given method bodies
+		 * 
+		 * @param batchReads
+		 *            The methods that the other steps read
+		 * @param batchWrites
+		 *            The methods that the other steps write
+		 * @return True if this step does not interfere with the other steps,
+		 *         otherwise false
+		 */
+		public boolean isIndependentOf(Set<SootMethod> batchReads, Set<SootMethod> batchWrites) {
+			for (SootMethod sm : writtenMethods)
+				if (batchReads.contains(sm))
+					return false;
+			for (SootMethod sm : readMethods)
+				if (batchWrites.contains(sm))
+					return false;
+			return true;
+		}
+
+	}
 
 	/**
 	 * Creates a new instance of the {@link InterproceduralConstantValuePropagator}
@@ -150,6 +290,18 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 		this.excludeSystemClasses = excludeSystemClasses;
 	}
 
+	/**
+	 * Sets the number of threads to use for computing the side effects of the
+	 * methods
+	 * 
+	 * @param numThreads
+	 *            The number of threads to use, or a value smaller than 1 to use
+	 *            one thread per available processor
+	 */
+	public void setNumThreads(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
 	/**
 	 * Checks whether optimizations are possible for the given method and, if so,
 	 * adds it to the global worklist
@@ -167,10 +319,8 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 		if (excludeSystemClasses && SystemClassHandler.isClassInSystemPackage(sm.getDeclaringClass().getName()))
 			return;
 
-		if (sm.getReturnType() != VoidType.v() || sm.getParameterCount() > 0) {
-			if (!propagationWorklist.contains(sm))
-				propagationWorklist.add(sm);
-		}
+		if (sm.getReturnType() != VoidType.v() || sm.getParameterCount() > 0)
+			propagationWorklist.add(sm);
 	}
 
 	@Override
@@ -183,22 +333,30 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 
 		// Collect all application methods that take parameters or return values
 		// and place them in the initial worklist.
+		List<SootMethod> reachableMethods = new ArrayList<>();
 		for (QueueReader<MethodOrMethodContext> rdr = Scene.v().getReachableMethods().listener(); rdr.hasNext();) {
 			MethodOrMethodContext mom = rdr.next();
 			SootMethod sm = mom.method();
 			checkAndAddMethod(sm);
+			if (sm != null && sm.hasActiveBody())
+				reachableMethods.add(sm);
 		}
 
-		while (!propagationWorklist.isEmpty()) {
-			SootMethod sm = propagationWorklist.remove(0);
-
-			// Propagate constants from caller into callee
-			if (sm.getParameterCount() > 0)
-				propagateConstantsIntoCallee(sm);
-
-			// Propagate constant return values from callee to caller
-			if (typeSupportsConstants(sm.getReturnType()))
-				propagateReturnValueIntoCallers(sm);
+		// Compute the side effects of all methods once. Removing calls to
+		// side-effect free methods later on cannot introduce new side effects,
+		// so the results remain valid while we transform the code.
+		modRefSummaries = getModRefSummaries();
+		modRefSummaries.computeSummaries(reachableMethods);
+
+		// Process the worklist in batches of independent steps
+		final int parallelism = numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors();
+		ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		try {
+			while (!propagationWorklist.isEmpty())
+				runPropagationBatch(pool, pool == null ? 1 : parallelism * 4);
+		} finally {
+			if (pool != null)
+				pool.shutdown();
 		}
 
 		// Check for calls we can remove altogether
@@ -265,7 +423,7 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 						removeCallSite(s, sm);
 				}
 			}
-			logger.info("Removed %d call edges", callEdgesRemoved);
+			logger.info("Removed {} call edges", callEdgesRemoved);
 		}
 
 		// If we introduced a new class, we have to reset the hierarchy
@@ -276,6 +434,113 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 		}
 	}
 
+	/**
+	 * Processes the next batch of methods from the head of the worklist
+	 * 
+	 * @param pool
+	 *            The pool in which to run the steps, or null to run them in the
+	 *            current thread
+	 * @param maxBatchSize
+	 *            The maximum number of methods to process in this batch
+	 */
+	private void runPropagationBatch(ForkJoinPool pool, int maxBatchSize) {
+		List<PropagationStep> steps = new ArrayList<>(maxBatchSize);
+		for (SootMethod sm : propagationWorklist) {
+			steps.add(new PropagationStep(sm));
+			if (steps.size() >= maxBatchSize)
+				break;
+		}
+		runSteps(pool, steps, false);
+
+		// Take the longest prefix of steps that do not interfere. Later steps are
+		// planned again once this batch has been committed.
+		List<PropagationStep> batch = new ArrayList<>(steps.size());
+		Set<SootMethod> batchReads = new HashSet<>();
+		Set<SootMethod> batchWrites = new HashSet<>();
+		for (PropagationStep step : steps) {
+			if (!batch.isEmpty() && (step.serial || !step.isIndependentOf(batchReads, batchWrites)))
+				break;
+			batch.add(step);
+			batchReads.addAll(step.readMethods);
+			batchWrites.addAll(step.writtenMethods);
+			if (step.serial)
+				break;
+		}
+		runSteps(pool, batch, true);
+
+		// Apply the remaining effects in worklist order
+		for (PropagationStep step : batch) {
+			propagationWorklist.remove(step.method);
+			for (CallGraphUpdate update : step.callGraphUpdates)
+				update.apply();
+			for (SootMethod sm : step.addedMethods)
+				checkAndAddMethod(sm);
+		}
+	}
+
+	/**
+	 * Plans or commits the given propagation steps
+	 * 
+	 * @param pool
+	 *            The pool in which to run the steps, or null to run them in the
+	 *            current thread
+	 * @param steps
+	 *            The steps to run
+	 * @param commit
+	 *            True to commit the steps, false to plan them
+	 */
+	private void runSteps(ForkJoinPool pool, List<PropagationStep> steps, final boolean commit) {
+		if (pool == null || steps.size() == 1) {
+			for (PropagationStep step : steps) {
+				if (commit)
+					step.commit();
+				else
+					step.plan();
+			}
+			return;
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<>(steps.size());
+		for (final PropagationStep step : steps)
+			tasks.add(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					if (commit)
+						step.commit();
+					else
+						step.plan();
+					return null;
+				}
+
+			});
+		for (Future<Void> future : pool.invokeAll(tasks)) {
+			try {
+				future.get();
+			} catch (InterruptedException | ExecutionException ex) {
+				throw new RuntimeException("Could not propagate constants", ex);
+			}
+		}
+	}
+
+	/**
+	 * Gets the mod/ref summaries to use. We reuse the summaries of the data flow
+	 * manager if they were built with the same source/sink manager and taint
+	 * wrapper.
+	 * 
+	 * @return The mod/ref summaries
+	 */
+	private ModRefSummaries getModRefSummaries() {
+		ModRefSummaries summaries = manager.getModRefSummaries();
+		if (summaries != null && summaries.getSourceSinkManager() == sourceSinkManager
+				&& summaries.getTaintWrapper() == taintWrapper)
+			return summaries;
+
+		summaries = new ModRefSummaries(manager, sourceSinkManager, taintWrapper);
+		summaries.setNumThreads(numThreads);
+		return summaries;
+	}
+
 	/**
 	 * Gets the number of non-constant arguments to the given method call
 	 * 
@@ -375,13 +640,14 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 	}
 
 	/**
-	 * Propagates the return value of the given method into all of its callers if
-	 * the value is constant
+	 * Gets the constant value that the given method returns on all of its exits
 	 * 
 	 * @param sm
-	 *            The method whose value to propagate
+	 *            The method whose return value to get
+	 * @return The constant return value, or null if the method does not always
+	 *         return the same constant
 	 */
-	private void propagateReturnValueIntoCallers(SootMethod sm) {
+	private Constant getConstantReturnValue(SootMethod sm) {
 		// We need to make sure that all exit nodes agree on the same
 		// constant value
 		Constant value = null;
@@ -392,12 +658,25 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 
 			ReturnStmt retStmt = (ReturnStmt) retSite;
 			if (!(retStmt.getOp() instanceof Constant))
-				return;
+				return null;
 
 			if (value != null && retStmt.getOp() != value)
-				return;
+				return null;
 			value = (Constant) retStmt.getOp();
 		}
+		return value;
+	}
+
+	/**
+	 * Propagates the return value of the method of the given step into all of its
+	 * callers if the value is constant
+	 * 
+	 * @param step
+	 *            The step that processes the method whose value to propagate
+	 */
+	private void propagateReturnValueIntoCallers(PropagationStep step) {
+		final SootMethod sm = step.method;
+		final Constant value = getConstantReturnValue(sm);
 
 		// Propagate the return value into the callers
 		if (value != null)
@@ -443,12 +722,11 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 						caller.getActiveBody().getUnits().swapWith(assign, assignConst);
 						if (excludedMethods == null || !excludedMethods.contains(caller)) {
 							ConstantPropagatorAndFolder.v().transform(caller.getActiveBody());
-							checkAndAddMethod(caller);
+							step.addedMethods.add(caller);
 						}
 
 						// Fix the callgraph
-						if (Scene.v().hasCallGraph())
-							Scene.v().getCallGraph().removeAllEdgesOutOf(assign);
+						step.callGraphUpdates.add(new CallGraphUpdate(assign, null));
 					} else {
 						// We have side effects, so we need to keep the method
 						// call. Change
@@ -456,7 +734,7 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 						caller.getActiveBody().getUnits().insertAfter(assignConst, assign);
 						if (excludedMethods == null || !excludedMethods.contains(caller)) {
 							ConstantPropagatorAndFolder.v().transform(caller.getActiveBody());
-							checkAndAddMethod(caller);
+							step.addedMethods.add(caller);
 						}
 						caller.getActiveBody().getUnits().remove(assignConst);
 
@@ -464,8 +742,7 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 						caller.getActiveBody().getUnits().swapWith(assign, inv);
 
 						// Fix the callgraph
-						if (Scene.v().hasCallGraph())
-							Scene.v().getCallGraph().swapEdgesOutOf(assign, inv);
+						step.callGraphUpdates.add(new CallGraphUpdate(assign, inv));
 					}
 				}
 	}
@@ -559,220 +836,49 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 	 *         side-effects or calls a sink method, otherwise false.
 	 */
 	private boolean hasSideEffectsOrCallsSink(SootMethod method) {
-		return hasSideEffectsOrCallsSink(method, new HashSet<SootMethod>());
-	}
-
-	/**
-	 * Checks whether the given method or one of its transitive callees has
-	 * side-effects or calls a sink method
-	 * 
-	 * @param method
-	 *            The method to check
-	 * @param runList
-	 *            A set to receive all methods that have already been processed
-	 * @param cache
-	 *            The cache in which to store the results
-	 * @return True if the given method or one of its transitive callees has
-	 *         side-effects or calls a sink method, otherwise false.
-	 */
-	private boolean hasSideEffectsOrCallsSink(SootMethod method, Set<SootMethod> runList) {
 		// Without a body, we cannot say much
 		if (!method.hasActiveBody())
 			return false;
 
-		// Do we already have an entry?
-		Boolean hasSideEffects = methodSideEffects.get(method);
-		if (hasSideEffects != null)
-			return hasSideEffects;
-
-		Boolean hasSink = methodSinks.get(method);
-		if (hasSink != null)
-			return hasSink;
-
-		// Do not process the same method twice
-		if (!runList.add(method))
-			return false;
-
-		// If this is an Android stub method that just throws a stub exception,
-		// this will never happen in practice and can be removed
-		if (methodIsAndroidStub(method)) {
-			methodSideEffects.put(method, false);
-			return false;
-		}
-
-		// Scan for references to this variable
-		for (Unit u : method.getActiveBody().getUnits()) {
-			if (u instanceof AssignStmt) {
-				AssignStmt assign = (AssignStmt) u;
-				if (assign.getLeftOp() instanceof FieldRef || assign.getLeftOp() instanceof ArrayRef) {
-					methodSideEffects.put(method, true);
-					return true;
-				}
-			}
-
-			Stmt s = (Stmt) u;
-
-			// If this method calls another method for which we have a taint
-			// wrapper, we need to conservatively assume that the taint wrapper
-			// can do anything
-			if (taintWrapper != null && taintWrapper.supportsCallee(s)) {
-				methodSideEffects.put(method, true);
-				return true;
-			}
-
-			if (s.containsInvokeExpr()) {
-				// If this method calls a sink, we need to keep it
-				if (sourceSinkManager != null && sourceSinkManager.getSinkInfo((Stmt) u, manager, null) != null) {
-					methodSinks.put(method, true);
-					return true;
-				}
-
-				// Check the callees
-				for (Iterator<Edge> edgeIt = Scene.v().getCallGraph().edgesOutOf(u); edgeIt.hasNext();) {
-					Edge e = edgeIt.next();
-					if (hasSideEffectsOrCallsSink(e.getTgt().method(), runList))
-						return true;
-				}
-			}
-		}
-
-		// Variable is not read
-		methodSideEffects.put(method, false);
-		return false;
+		if (Boolean.TRUE.equals(methodSideEffects.get(method)) || Boolean.TRUE.equals(methodSinks.get(method)))
+			return true;
+		return modRefSummaries.hasSideEffects(method) || modRefSummaries.callsSink(method);
 	}
 
 	/**
 	 * Checks whether the given method or one of its transitive callees has
-	 * side-effects or calls a sink method
+	 * side-effects or reads from its "this" object
 	 * 
 	 * @param method
 	 *            The method to check
 	 * @return True if the given method or one of its transitive callees has
-	 *         side-effects or calls a sink method, otherwise false.
+	 *         side-effects or reads from its "this" object, otherwise false.
 	 */
 	private boolean hasSideEffectsOrReadsThis(SootMethod method) {
-		return hasSideEffectsOrReadsThis(method, new HashSet<SootMethod>());
-	}
-
-	/**
-	 * Checks whether the given method or one of its transitive callees has
-	 * side-effects or calls a sink method
-	 * 
-	 * @param method
-	 *            The method to check
-	 * @param runList
-	 *            A set to receive all methods that have already been processed
-	 * @param cache
-	 *            The cache in which to store the results
-	 * @return True if the given method or one of its transitive callees has
-	 *         side-effects or calls a sink method, otherwise false.
-	 */
-	private boolean hasSideEffectsOrReadsThis(SootMethod method, Set<SootMethod> runList) {
 		// Without a body, we cannot say much
 		if (!method.hasActiveBody())
 			return false;
 
-		// Do we already have an entry?
-		Boolean hasSideEffects = methodSideEffects.get(method);
-		if (hasSideEffects != null)
-			return hasSideEffects;
-
-		// Do not process the same method twice
-		if (!runList.add(method))
-			return false;
-
-		// If this is an Android stub method that just throws a stub exception,
-		// this will never happen in practice and can be removed
-		if (methodIsAndroidStub(method)) {
-			methodSideEffects.put(method, false);
-			return false;
-		}
-
-		// Scan for references to this variable
-		Local thisLocal = method.isStatic() ? null : method.getActiveBody().getThisLocal();
-		for (Unit u : method.getActiveBody().getUnits()) {
-			if (u instanceof AssignStmt) {
-				AssignStmt assign = (AssignStmt) u;
-				if (assign.getLeftOp() instanceof FieldRef || assign.getLeftOp() instanceof ArrayRef) {
-					methodSideEffects.put(method, true);
-					return true;
-				}
-			}
-
-			Stmt s = (Stmt) u;
-
-			// If this statement uses the "this" local, we have to
-			// conservatively assume that is can read data
-			if (thisLocal != null)
-				for (ValueBox vb : s.getUseBoxes())
-					if (vb.getValue() == thisLocal)
-						return true;
-
-			if (s.containsInvokeExpr()) {
-				// Check the callees
-				for (Iterator<Edge> edgeIt = Scene.v().getCallGraph().edgesOutOf(u); edgeIt.hasNext();) {
-					Edge e = edgeIt.next();
-					if (hasSideEffectsOrReadsThis(e.getTgt().method(), runList))
-						return true;
-				}
-			}
-		}
-
-		// Variable is not read
-		methodSideEffects.put(method, false);
-		return false;
-	}
-
-	/**
-	 * Checks whether the given method is a library stub method
-	 * 
-	 * @param method
-	 *            The method to check
-	 * @return True if the given method is an Android library stub, false otherwise
-	 */
-	private boolean methodIsAndroidStub(SootMethod method) {
-		if (!(Options.v().src_prec() == Options.src_prec_apk
-				&& method.getDeclaringClass().isLibraryClass()
-				&& SystemClassHandler.isClassInSystemPackage(method.getDeclaringClass().getName())))
-			return false;
-
-		// Check whether there is only a single throw statement
-		for (Unit u : method.getActiveBody().getUnits()) {
-			if (u instanceof DefinitionStmt) {
-				DefinitionStmt defStmt = (DefinitionStmt) u;
-				if (!(defStmt.getRightOp() instanceof ThisRef)
-						&& !(defStmt.getRightOp() instanceof ParameterRef)
-						&& !(defStmt.getRightOp() instanceof NewExpr))
-					return false;
-			} else if (u instanceof InvokeStmt) {
-				InvokeStmt stmt = (InvokeStmt) u;
-
-				// Check for exception constructor invocations
-				SootMethod callee = stmt.getInvokeExpr().getMethod();
-				if (!callee.getSubSignature().equals("void <init>(java.lang.String)"))
-					// Check for super class constructor invocation
-					if (!(method.getDeclaringClass().hasSuperclass()
-							&& callee.getDeclaringClass() == method.getDeclaringClass().getSuperclass()
-							&& callee.getName().equals("<init>")))
-						return false;
-			} else if (!(u instanceof ThrowStmt))
-				return false;
-		}
-		return true;
+		if (Boolean.TRUE.equals(methodSideEffects.get(method)) || Boolean.TRUE.equals(methodFieldReads.get(method)))
+			return true;
+		return modRefSummaries.hasSideEffects(method) || modRefSummaries.readsThis(method);
 	}
 
 	/**
 	 * Checks whether all call sites for a specific callee agree on the same
-	 * constant value for one or more arguments. If so, these constant values are
-	 * propagated into the callee.
+	 * constant value for one or more arguments
 	 * 
 	 * @param sm
 	 *            The method for which to look for call sites.
+	 * @param callSites
+	 *            The call sites of the given method
+	 * @return The constant values of the parameters that have not been propagated
+	 *         into the callee yet, with null for all other parameters, or null if
+	 *         there is no such parameter
 	 */
-	private void propagateConstantsIntoCallee(SootMethod sm) {
-		Collection<Unit> callSites = manager.getICFG().getCallersOf(sm);
+	private Constant[] getConstantParameters(SootMethod sm, Collection<Unit> callSites) {
 		if (callSites.isEmpty())
-			return;
+			return null;
 
 		boolean[] isConstant = new boolean[sm.getParameterCount()];
 		Constant[] values = new Constant[sm.getParameterCount()];
@@ -819,35 +925,56 @@ public class InterproceduralConstantValuePropagator extends SceneTransformer {
 			}
 		}
 
-		if (hasCallSites) {
-			// Get the constant parameters
-			List<Unit> inserted = null;
-			for (int i = 0; i < isConstant.length; i++) {
-				if (isConstant[i] && propagatedParameters.add(new Pair<>(sm, i))) {
-					// Propagate the constant into the callee
-					Local paramLocal = sm.getActiveBody().getParameterLocal(i);
-					Unit point = getFirstNonIdentityStmt(sm);
-					Unit assignConst = Jimple.v().newAssignStmt(paramLocal, values[i]);
-					sm.getActiveBody().getUnits().insertBefore(assignConst, point);
-
-					if (inserted == null)
-						inserted = new ArrayList<Unit>();
-					inserted.add(assignConst);
-				}
-			}
+		if (!hasCallSites)
+			return null;
 
-			// Propagate the constant inside the callee
-			if (inserted != null) {
-				ConstantPropagatorAndFolder.v().transform(sm.getActiveBody());
-				for (Unit u : inserted)
-					sm.getActiveBody().getUnits().remove(u);
+		// Get the constant parameters
+		Constant[] newValues = null;
+		for (int i = 0; i < isConstant.length; i++) {
+			if (isConstant[i] && values[i] != null && !propagatedParameters.contains(new Pair<>(sm, i))) {
+				if (newValues == null)
+					newValues = new Constant[isConstant.length];
+				newValues[i] = values[i];
+			}
+		}
+		return newValues;
+	}
 
-				// This might lead to more opportunities of constant propagation
-				for (Unit u : sm.getActiveBody().getUnits())
-					for (SootMethod callee : manager.getICFG().getCalleesOfCallAt(u))
-						checkAndAddMethod(callee);
+	/**
+	 * Propagates the constant parameter values that the given step has found into
+	 * the callee
+	 * 
+	 * @param step
+	 *            The step that processes the callee
+	 */
+	private void propagateConstantsIntoCallee(PropagationStep step) {
+		final SootMethod sm = step.method;
+		List<Unit> inserted = null;
+		for (int i = 0; i < step.parameterValues.length; i++) {
+			if (step.parameterValues[i] != null && propagatedParameters.add(new Pair<>(sm, i))) {
+				// Propagate the constant into the callee
+				Local paramLocal = sm.getActiveBody().getParameterLocal(i);
+				Unit point = getFirstNonIdentityStmt(sm);
+				Unit assignConst = Jimple.v().newAssignStmt(paramLocal, step.parameterValues[i]);
+				sm.getActiveBody().getUnits().insertBefore(assignConst, point);
+
+				if (inserted == null)
+					inserted = new ArrayList<Unit>();
+				inserted.add(assignConst);
 			}
 		}
+
+		// Propagate the constant inside the callee
+		if (inserted != null) {
+			ConstantPropagatorAndFolder.v().transform(sm.getActiveBody());
+			for (Unit u : inserted)
+				sm.getActiveBody().getUnits().remove(u);
+
+			// This might lead to more opportunities of constant propagation
+			for (Unit u : sm.getActiveBody().getUnits())
+				for (SootMethod callee : manager.getICFG().getCalleesOfCallAt(u))
+					step.addedMethods.add(callee);
+		}
 	}
 
 	/**
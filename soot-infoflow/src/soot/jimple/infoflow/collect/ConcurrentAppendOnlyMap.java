@@ -0,0 +1,377 @@
+package soot.jimple.infoflow.collect;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import soot.jimple.infoflow.collect.MyConcurrentHashMap.IValueFactory;
+
+/**
+ * Lock-free hash map to which entries can only be added, but never removed.
+ * The map is a hash trie of small flat arrays. Every level of the trie
+ * consumes a few bits of the hash code. A slot either is empty, holds an
+ * entry, or points to the array of the next level. Inserting a new key only
+ * requires a single compare-and-swap operation. If two keys compete for the
+ * same slot, the existing entry is pushed down into a new array on the next
+ * level. Keys with identical hash codes are chained in a lock-free list.
+ *
+ * Iterators operate on a snapshot of the map. They see all entries that have
+ * been added before the iterator was created and may or may not see entries
+ * that are added concurrently. They never throw a
+ * {@link java.util.ConcurrentModificationException}.
+ *
+ * Neither keys nor values may be null. Values can be replaced, but entries
+ * cannot be removed. The map can only be cleared when no other thread accesses
+ * it.
+ */
+public class ConcurrentAppendOnlyMap<K, V> extends AbstractMap<K, V> {
+
+	private static final int BITS = 4;
+	private static final int WIDTH = 1 << BITS;
+	private static final int MASK = WIDTH - 1;
+
+	/**
+	 * The maximum depth of the trie. The last level may use fewer bits.
+	 */
+	private static final int MAX_DEPTH = (32 + BITS - 1) / BITS;
+
+	/**
+	 * A single key-value-pair in the map
+	 */
+	private static final class Node<K, V> implements Entry<K, V> {
+
+		@SuppressWarnings("rawtypes")
+		private static final AtomicReferenceFieldUpdater<Node, Node> NEXT_UPDATER = AtomicReferenceFieldUpdater
+				.newUpdater(Node.class, Node.class, "next");
+
+		private final int hash;
+		private final K key;
+		private volatile V value;
+
+		/**
+		 * The next node with exactly the same hash code
+		 */
+		private volatile Node<K, V> next = null;
+
+		private Node(int hash, K key, V value) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			throw new UnsupportedOperationException("Entries of an append-only map cannot be modified");
+		}
+
+		@Override
+		public int hashCode() {
+			return key.hashCode() ^ value.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Entry))
+				return false;
+			Entry<?, ?> other = (Entry<?, ?>) obj;
+			return key.equals(other.getKey()) && value.equals(other.getValue());
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
+
+	}
+
+	private volatile AtomicReferenceArray<Object> root = new AtomicReferenceArray<>(WIDTH);
+
+	private static int spread(int h) {
+		// The upper levels of the trie use the lower bits, so we need to mix
+		// in the higher ones
+		h ^= (h >>> 16);
+		h *= 0x85EBCA6B;
+		return h ^ (h >>> 13);
+	}
+
+	/**
+	 * Inserts the given key into the map if it is not already contained
+	 *
+	 * @param key
+	 *            The key to insert
+	 * @param value
+	 *            The value to associate with the key if the key is new
+	 * @param replace
+	 *            True if the value of an existing entry shall be replaced with
+	 *            the given value, otherwise false
+	 * @return The value previously associated with the key, or null if the key
+	 *         is new
+	 */
+	@SuppressWarnings("unchecked")
+	private V insert(K key, V value, boolean replace) {
+		if (key == null || value == null)
+			throw new NullPointerException();
+
+		final int h = spread(key.hashCode());
+		Node<K, V> newNode = null;
+		AtomicReferenceArray<Object> array = root;
+		int shift = 0;
+		while (true) {
+			final int idx = (h >>> shift) & MASK;
+			Object cur = array.get(idx);
+			if (cur == null) {
+				if (newNode == null)
+					newNode = new Node<>(h, key, value);
+				if (array.compareAndSet(idx, null, newNode))
+					return null;
+			} else if (cur instanceof Node) {
+				Node<K, V> node = (Node<K, V>) cur;
+				if (node.hash == h) {
+					// Walk the chain of keys with the same hash code
+					while (true) {
+						if (node.key == key || node.key.equals(key)) {
+							V oldValue = node.value;
+							if (replace)
+								node.value = value;
+							return oldValue;
+						}
+						Node<K, V> next = node.next;
+						if (next == null) {
+							if (newNode == null)
+								newNode = new Node<>(h, key, value);
+							if (Node.NEXT_UPDATER.compareAndSet(node, null, newNode))
+								return null;
+							next = node.next;
+						}
+						node = next;
+					}
+				}
+
+				// Push the existing entry down one level. Since the hash codes
+				// differ, we run out of bits before we run out of levels.
+				AtomicReferenceArray<Object> child = new AtomicReferenceArray<>(WIDTH);
+				child.set((node.hash >>> (shift + BITS)) & MASK, node);
+				if (array.compareAndSet(idx, node, child)) {
+					array = child;
+					shift += BITS;
+				}
+			} else {
+				array = (AtomicReferenceArray<Object>) cur;
+				shift += BITS;
+			}
+		}
+	}
+
+	@Override
+	public V put(K key, V value) {
+		return insert(key, value, true);
+	}
+
+	/**
+	 * Associates the given key with the given value if the key is not already
+	 * contained in the map
+	 *
+	 * @param key
+	 *            The key to insert
+	 * @param value
+	 *            The value to associate with the key
+	 * @return The value that was associated with the key before, or null if the
+	 *         key is new
+	 */
+	public V putIfAbsent(K key, V value) {
+		return insert(key, value, false);
+	}
+
+	/**
+	 * Puts the new key/value-pair if no mapping for the given key was in the in
+	 * the map before, otherwise it returns the existing mapping.
+	 *
+	 * @param key
+	 *            The key to check and put if it is not already in the map
+	 * @param valueFactory
+	 *            The factory that creates the value to put into the map on
+	 *            demand
+	 * @return The old value if one was present in the map for the given key,
+	 *         otherwise, the newly registered value
+	 */
+	public V putIfAbsentElseGet(K key, IValueFactory<V> valueFactory) {
+		V oldVal = get(key);
+		if (oldVal != null)
+			return oldVal;
+
+		// Another thread may have created the value in the meantime, but
+		// that's ok
+		V value = valueFactory.createValue();
+		oldVal = insert(key, value, false);
+		return oldVal == null ? value : oldVal;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		if (key == null)
+			return null;
+
+		final int h = spread(key.hashCode());
+		AtomicReferenceArray<Object> array = root;
+		int shift = 0;
+		while (true) {
+			Object cur = array.get((h >>> shift) & MASK);
+			if (cur == null)
+				return null;
+			if (cur instanceof Node) {
+				for (Node<K, V> node = (Node<K, V>) cur; node != null && node.hash == h; node = node.next)
+					if (node.key == key || node.key.equals(key))
+						return node.value;
+				return null;
+			}
+			array = (AtomicReferenceArray<Object>) cur;
+			shift += BITS;
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		// Entries are never removed, so every non-empty slot leads to at least
+		// one entry
+		AtomicReferenceArray<Object> array = root;
+		for (int i = 0; i < WIDTH; i++)
+			if (array.get(i) != null)
+				return false;
+		return true;
+	}
+
+	@Override
+	public int size() {
+		int size = 0;
+		for (Iterator<Entry<K, V>> it = new EntryIterator(); it.hasNext(); it.next())
+			size++;
+		return size;
+	}
+
+	/**
+	 * Removes all entries from this map. This method must not be called while
+	 * other threads access the map.
+	 */
+	@Override
+	public void clear() {
+		root = new AtomicReferenceArray<>(WIDTH);
+	}
+
+	@Override
+	public V remove(Object key) {
+		throw new UnsupportedOperationException("Entries cannot be removed from an append-only map");
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<Entry<K, V>>() {
+
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return ConcurrentAppendOnlyMap.this.size();
+			}
+
+			@Override
+			public boolean isEmpty() {
+				return ConcurrentAppendOnlyMap.this.isEmpty();
+			}
+
+		};
+	}
+
+	/**
+	 * Iterator over the entries in the map. Every slot is read only once, so an
+	 * entry that is concurrently pushed down into a deeper level is never
+	 * returned twice.
+	 */
+	private class EntryIterator implements Iterator<Entry<K, V>> {
+
+		@SuppressWarnings("unchecked")
+		private final AtomicReferenceArray<Object>[] arrays = new AtomicReferenceArray[MAX_DEPTH + 1];
+		private final int[] indices = new int[MAX_DEPTH + 1];
+		private int depth = 0;
+		private Node<K, V> nextNode = null;
+
+		private EntryIterator() {
+			arrays[0] = root;
+			indices[0] = -1;
+			advance();
+		}
+
+		/**
+		 * Moves the iterator to the next entry
+		 */
+		@SuppressWarnings("unchecked")
+		private void advance() {
+			// Continue in the current collision chain
+			if (nextNode != null) {
+				nextNode = nextNode.next;
+				if (nextNode != null)
+					return;
+			}
+
+			while (depth >= 0) {
+				if (++indices[depth] >= WIDTH) {
+					depth--;
+					continue;
+				}
+				Object cur = arrays[depth].get(indices[depth]);
+				if (cur instanceof Node) {
+					nextNode = (Node<K, V>) cur;
+					return;
+				} else if (cur != null) {
+					depth++;
+					arrays[depth] = (AtomicReferenceArray<Object>) cur;
+					indices[depth] = -1;
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextNode != null;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (nextNode == null)
+				throw new NoSuchElementException();
+
+			Node<K, V> node = nextNode;
+			advance();
+			return node;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("Entries cannot be removed from an append-only map");
+		}
+
+	}
+
+}
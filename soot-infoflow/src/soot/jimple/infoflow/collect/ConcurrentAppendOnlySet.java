@@ -0,0 +1,49 @@
+package soot.jimple.infoflow.collect;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+/**
+ * Lock-free hash set to which elements can only be added, but never removed.
+ * Iterators operate on a snapshot of the set. See
+ * {@link ConcurrentAppendOnlyMap} for details.
+ */
+public class ConcurrentAppendOnlySet<E> extends AbstractSet<E> {
+
+	private final ConcurrentAppendOnlyMap<E, Boolean> delegate = new ConcurrentAppendOnlyMap<>();
+
+	@Override
+	public boolean add(E e) {
+		return delegate.putIfAbsent(e, Boolean.TRUE) == null;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return delegate.containsKey(o);
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return delegate.keySet().iterator();
+	}
+
+	@Override
+	public int size() {
+		return delegate.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return delegate.isEmpty();
+	}
+
+	/**
+	 * Removes all elements from this set. This method must not be called while
+	 * other threads access the set.
+	 */
+	@Override
+	public void clear() {
+		delegate.clear();
+	}
+
+}
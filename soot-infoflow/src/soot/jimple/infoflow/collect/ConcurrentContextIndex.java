@@ -0,0 +1,123 @@
+package soot.jimple.infoflow.collect;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import soot.jimple.infoflow.collect.MyConcurrentHashMap.IValueFactory;
+
+/**
+ * Concurrent two-level index that maps pairs of a method and a context to
+ * values. In contrast to a map with pair keys, looking up a value does not
+ * allocate any objects. The contexts of a method are stored in a lock-free
+ * {@link ConcurrentAppendOnlyMap}, i.e., values can be added and reset, but
+ * not removed.
+ *
+ * @param <M>
+ *            The type of the methods
+ * @param <C>
+ *            The type of the contexts
+ * @param <V>
+ *            The type of the values
+ */
+public class ConcurrentContextIndex<M, C, V> {
+
+	private final ConcurrentHashMap<M, ConcurrentAppendOnlyMap<C, V>> index = new ConcurrentHashMap<>();
+	private final IValueFactory<V> valueFactory;
+
+	/**
+	 * Creates a new index
+	 *
+	 * @param valueFactory
+	 *            The factory that creates the values for new pairs of method and
+	 *            context
+	 */
+	public ConcurrentContextIndex(IValueFactory<V> valueFactory) {
+		this.valueFactory = valueFactory;
+	}
+
+	/**
+	 * Gets the value for the given method and context
+	 *
+	 * @param method
+	 *            The method
+	 * @param context
+	 *            The context
+	 * @return The value for the given method and context, or null if there is
+	 *         no such value
+	 */
+	public V get(M method, C context) {
+		ConcurrentAppendOnlyMap<C, V> contexts = index.get(method);
+		return contexts == null ? null : contexts.get(context);
+	}
+
+	/**
+	 * Gets the value for the given method and context. If there is no such
+	 * value, a new one is created.
+	 *
+	 * @param method
+	 *            The method
+	 * @param context
+	 *            The context
+	 * @return The value for the given method and context
+	 */
+	public V getOrCreate(M method, C context) {
+		ConcurrentAppendOnlyMap<C, V> contexts = index.get(method);
+		if (contexts == null) {
+			contexts = new ConcurrentAppendOnlyMap<>();
+			ConcurrentAppendOnlyMap<C, V> oldContexts = index.putIfAbsent(method, contexts);
+			if (oldContexts != null)
+				contexts = oldContexts;
+		}
+		return contexts.putIfAbsentElseGet(context, valueFactory);
+	}
+
+	/**
+	 * Replaces the value for the given method and context with a new, empty
+	 * one. Threads that still hold the old value may continue to use it, but
+	 * their changes are no longer visible through this index.
+	 *
+	 * @param method
+	 *            The method
+	 * @param context
+	 *            The context
+	 * @return The old value for the given method and context, or null if there
+	 *         was no such value
+	 */
+	public V reset(M method, C context) {
+		ConcurrentAppendOnlyMap<C, V> contexts = index.get(method);
+		if (contexts == null || !contexts.containsKey(context))
+			return null;
+		return contexts.put(context, valueFactory.createValue());
+	}
+
+	/**
+	 * Gets all methods for which this index contains values
+	 *
+	 * @return The methods for which this index contains values
+	 */
+	public Set<M> getMethods() {
+		return index.keySet();
+	}
+
+	/**
+	 * Gets the values of all contexts of the given method
+	 *
+	 * @param method
+	 *            The method
+	 * @return The values of all contexts of the given method, or null if the
+	 *         index contains no context for the given method
+	 */
+	public Map<C, V> getContexts(M method) {
+		return index.get(method);
+	}
+
+	/**
+	 * Removes all values from this index. This method must not be called while
+	 * other threads access the index.
+	 */
+	public void clear() {
+		index.clear();
+	}
+
+}
@@ -0,0 +1,189 @@
+package soot.jimple.infoflow.collect;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable singly-linked list. Prepending an element creates a new list that
+ * shares all existing elements with the old one, so many lists that have a
+ * common tail only store this tail once. The empty list is represented by
+ * <code>null</code>.
+ *
+ * @param <E>
+ *            The type of the elements in the list
+ */
+public final class ConsList<E> implements Iterable<E> {
+
+	private final E head;
+	private final ConsList<E> tail;
+	private final int size;
+
+	/**
+	 * The hash code of a {@link java.util.List} that contains the elements of
+	 * this list in reverse order, i.e., from the last element to the head
+	 */
+	private final int hashCode;
+
+	private ConsList(E head, ConsList<E> tail) {
+		this.head = head;
+		this.tail = tail;
+		this.size = tail == null ? 1 : tail.size + 1;
+		this.hashCode = 31 * (tail == null ? 1 : tail.hashCode) + (head == null ? 0 : head.hashCode());
+	}
+
+	/**
+	 * Creates a new list that consists of the given head element followed by the
+	 * given list
+	 *
+	 * @param head
+	 *            The first element of the new list
+	 * @param tail
+	 *            The remaining elements of the new list, or null if the new list
+	 *            shall only contain the head element
+	 * @return The new list
+	 */
+	public static <E> ConsList<E> prepend(E head, ConsList<E> tail) {
+		return new ConsList<E>(head, tail);
+	}
+
+	/**
+	 * Creates a new list that consists of the given list followed by the given
+	 * element. In contrast to {@link #prepend(Object, ConsList)}, this operation
+	 * needs to copy the complete list.
+	 *
+	 * @param list
+	 *            The elements at the start of the new list, or null if the new
+	 *            list shall only contain the given element
+	 * @param last
+	 *            The last element of the new list
+	 * @return The new list
+	 */
+	public static <E> ConsList<E> append(ConsList<E> list, E last) {
+		ConsList<E> newList = new ConsList<E>(last, null);
+		if (list != null) {
+			List<E> elements = list.toList();
+			for (int i = elements.size() - 1; i >= 0; i--)
+				newList = new ConsList<E>(elements.get(i), newList);
+		}
+		return newList;
+	}
+
+	/**
+	 * Gets the first element of this list
+	 *
+	 * @return The first element of this list
+	 */
+	public E getHead() {
+		return this.head;
+	}
+
+	/**
+	 * Gets this list without its first element
+	 *
+	 * @return The list without its first element, or null if this list only
+	 *         contains a single element
+	 */
+	public ConsList<E> getTail() {
+		return this.tail;
+	}
+
+	/**
+	 * Gets the last element of this list
+	 *
+	 * @return The last element of this list
+	 */
+	public E getLast() {
+		ConsList<E> cur = this;
+		while (cur.tail != null)
+			cur = cur.tail;
+		return cur.head;
+	}
+
+	/**
+	 * Gets the number of elements in this list
+	 *
+	 * @return The number of elements in this list
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Copies the elements of this list into a new mutable list, starting with
+	 * the head
+	 *
+	 * @return A new mutable list with the elements of this list
+	 */
+	public List<E> toList() {
+		List<E> list = new ArrayList<>(size);
+		for (E e : this)
+			list.add(e);
+		return list;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+
+			private ConsList<E> cur = ConsList.this;
+
+			@Override
+			public boolean hasNext() {
+				return cur != null;
+			}
+
+			@Override
+			public E next() {
+				if (cur == null)
+					throw new NoSuchElementException();
+				E e = cur.head;
+				cur = cur.tail;
+				return e;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+		};
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null || getClass() != obj.getClass())
+			return false;
+
+		ConsList<?> other = (ConsList<?>) obj;
+		if (size != other.size || hashCode != other.hashCode)
+			return false;
+
+		// Shared tails are only compared once
+		ConsList<?> cur = this;
+		while (cur != null && cur != other) {
+			if (cur.head == null) {
+				if (other.head != null)
+					return false;
+			} else if (!cur.head.equals(other.head))
+				return false;
+			cur = cur.tail;
+			other = other.tail;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return toList().toString();
+	}
+
+}
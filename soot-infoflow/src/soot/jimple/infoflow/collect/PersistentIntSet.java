@@ -0,0 +1,113 @@
+package soot.jimple.infoflow.collect;
+
+/**
+ * Immutable set of integers. Adding an element creates a new set that shares
+ * most of its structure with the old one. The set is organized as a trie over
+ * the bits of the elements, so both adding an element and checking for an
+ * element take a constant number of steps, regardless of the size of the set.
+ * The empty set is represented by <code>null</code>.
+ */
+public final class PersistentIntSet {
+
+	private static final int BITS_PER_LEVEL = 5;
+	private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+	/**
+	 * The shift of the last level. On this level, the bitmap directly records
+	 * the elements.
+	 */
+	private static final int LAST_SHIFT = 30;
+
+	private final Node root;
+	private final int size;
+
+	private static final class Node {
+
+		private final int bitmap;
+		private final Node[] children;
+
+		private Node(int bitmap, Node[] children) {
+			this.bitmap = bitmap;
+			this.children = children;
+		}
+
+	}
+
+	private PersistentIntSet(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Creates a new set that contains the elements of the given set and the
+	 * given element
+	 *
+	 * @param set
+	 *            The set to extend, or null to create a set with only the given
+	 *            element
+	 * @param value
+	 *            The element to add
+	 * @return The new set. If the given set already contains the given element,
+	 *         the given set is returned as-is.
+	 */
+	public static PersistentIntSet add(PersistentIntSet set, int value) {
+		if (set == null)
+			return new PersistentIntSet(add(null, 0, value), 1);
+		if (set.contains(value))
+			return set;
+		return new PersistentIntSet(add(set.root, 0, value), set.size + 1);
+	}
+
+	private static Node add(Node node, int shift, int value) {
+		final int bit = 1 << ((value >>> shift) & LEVEL_MASK);
+		final int bitmap = node == null ? 0 : node.bitmap;
+		if (shift == LAST_SHIFT)
+			return new Node(bitmap | bit, null);
+
+		// Children are stored densely in the order of their bits
+		final int idx = Integer.bitCount(bitmap & (bit - 1));
+		final Node[] children;
+		if ((bitmap & bit) != 0) {
+			children = node.children.clone();
+			children[idx] = add(children[idx], shift + BITS_PER_LEVEL, value);
+		} else {
+			final int len = node == null ? 0 : node.children.length;
+			children = new Node[len + 1];
+			if (node != null) {
+				System.arraycopy(node.children, 0, children, 0, idx);
+				System.arraycopy(node.children, idx, children, idx + 1, len - idx);
+			}
+			children[idx] = add(null, shift + BITS_PER_LEVEL, value);
+		}
+		return new Node(bitmap | bit, children);
+	}
+
+	/**
+	 * Checks whether this set contains the given element
+	 *
+	 * @param value
+	 *            The element to look for
+	 * @return True if this set contains the given element, otherwise false
+	 */
+	public boolean contains(int value) {
+		Node node = root;
+		for (int shift = 0;; shift += BITS_PER_LEVEL) {
+			final int bit = 1 << ((value >>> shift) & LEVEL_MASK);
+			if ((node.bitmap & bit) == 0)
+				return false;
+			if (shift == LAST_SHIFT)
+				return true;
+			node = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+		}
+	}
+
+	/**
+	 * Gets the number of elements in this set
+	 *
+	 * @return The number of elements in this set
+	 */
+	public int size() {
+		return this.size;
+	}
+
+}
@@ -37,13 +37,42 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 
 	private static boolean flowSensitiveAliasing = true;
 
+	/**
+	 * taint is thrown by an exception (is set to false when it reaches the
+	 * catch-Stmt)
+	 */
+	private static final int FLAG_EXCEPTION_THROWN = 1;
+	private static final int FLAG_IMPLICIT = 1 << 1;
+
+	/**
+	 * Only valid for inactive abstractions. Specifies whether an access paths
+	 * has been cut during alias analysis.
+	 */
+	private static final int FLAG_DEPENDS_ON_CUT_AP = 1 << 2;
+
+	/**
+	 * Data that only few abstractions need. It is kept in a separate object
+	 * that is only allocated on demand to keep the abstractions small.
+	 */
+	private static class SideData {
+
+		/**
+		 * The postdominators we need to pass in order to leave the current
+		 * conditional branch. Do not use the synchronized Stack class here to
+		 * avoid deadlocks.
+		 */
+		private List<UnitContainer> postdominators = null;
+		private Set<Abstraction> neighbors = null;
+		private AtomicBitSet pathFlags = null;
+
+	}
+
 	/**
 	 * the access path contains the currently tainted variable or field
 	 */
 	private AccessPath accessPath;
 
 	private Abstraction predecessor = null;
-	private Set<Abstraction> neighbors = null;
 	private Stmt currentStmt = null;
 	private Stmt correspondingCallSite = null;
 
@@ -53,28 +82,19 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 	 * Unit/Stmt which activates the taint when the abstraction passes it
 	 */
 	private Unit activationUnit = null;
-	/**
-	 * taint is thrown by an exception (is set to false when it reaches the
-	 * catch-Stmt)
-	 */
-	private boolean exceptionThrown = false;
+
+	private volatile SideData sideData = null;
+	private int flags = 0;
 	private int hashCode = 0;
 
 	/**
-	 * The postdominators we need to pass in order to leave the current
-	 * conditional branch. Do not use the synchronized Stack class here to avoid
-	 * deadlocks.
+	 * The ID of this abstraction in the predecessor graph spill, or zero if the
+	 * abstraction has not been spilled. A negative value means that the
+	 * abstraction has been spilled and its predecessor link has been dropped
+	 * from the heap afterwards. The spill reads this value without holding the
+	 * lock on the abstraction.
 	 */
-	private List<UnitContainer> postdominators = null;
-	private boolean isImplicit = false;
-
-	/**
-	 * Only valid for inactive abstractions. Specifies whether an access paths
-	 * has been cut during alias analysis.
-	 */
-	private boolean dependsOnCutAP = false;
-
-	private AtomicBitSet pathFlags = null;
+	private volatile int spillId = 0;
 
 	public Abstraction(SourceSinkDefinition definition, AccessPath sourceVal, Stmt sourceStmt, Object userData,
 			boolean exceptionThrown, boolean isImplicit) {
@@ -86,10 +106,8 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 		this.sourceContext = sourceContext;
 		this.accessPath = apToTaint;
 		this.activationUnit = null;
-		this.exceptionThrown = exceptionThrown;
-
-		this.neighbors = null;
-		this.isImplicit = isImplicit;
+		setFlag(FLAG_EXCEPTION_THROWN, exceptionThrown);
+		setFlag(FLAG_IMPLICIT, isImplicit);
 		this.currentStmt = sourceContext == null ? null : sourceContext.getStmt();
 	}
 
@@ -105,23 +123,20 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 	protected Abstraction(AccessPath p, Abstraction original) {
 		if (original == null) {
 			sourceContext = null;
-			exceptionThrown = false;
 			activationUnit = null;
-			isImplicit = false;
+			flags = 0;
 		} else {
 			sourceContext = original.sourceContext;
-			exceptionThrown = original.exceptionThrown;
 			activationUnit = original.activationUnit;
 			assert activationUnit == null || flowSensitiveAliasing;
 
-			postdominators = original.postdominators == null ? null
-					: new ArrayList<UnitContainer>(original.postdominators);
+			List<UnitContainer> originalPostdominators = original.getPostdominators();
+			if (originalPostdominators != null)
+				setPostdominators(new ArrayList<UnitContainer>(originalPostdominators));
 
-			dependsOnCutAP = original.dependsOnCutAP;
-			isImplicit = original.isImplicit;
+			flags = original.flags;
 		}
 		accessPath = p;
-		neighbors = null;
 		currentStmt = null;
 	}
 
@@ -139,27 +154,28 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 		if (a == null)
 			return null;
 
-		a.postdominators = null;
+		a.setPostdominators(null);
 		a.activationUnit = activationUnit;
-		a.dependsOnCutAP |= a.getAccessPath().isCutOffApproximation();
+		if (a.getAccessPath().isCutOffApproximation())
+			a.setFlag(FLAG_DEPENDS_ON_CUT_AP, true);
 		return a;
 	}
 
 	public Abstraction deriveNewAbstraction(AccessPath p, Stmt currentStmt) {
-		return deriveNewAbstraction(p, currentStmt, isImplicit);
+		return deriveNewAbstraction(p, currentStmt, isImplicit());
 	}
 
 	public Abstraction deriveNewAbstraction(AccessPath p, Stmt currentStmt, boolean isImplicit) {
 		// If the new abstraction looks exactly like the current one, there is
 		// no need to create a new object
-		if (this.accessPath.equals(p) && this.currentStmt == currentStmt && this.isImplicit == isImplicit)
+		if (this.accessPath.equals(p) && this.currentStmt == currentStmt && this.isImplicit() == isImplicit)
 			return this;
 
 		Abstraction abs = deriveNewAbstractionMutable(p, currentStmt);
 		if (abs == null)
 			return null;
 
-		abs.isImplicit = isImplicit;
+		abs.setFlag(FLAG_IMPLICIT, isImplicit);
 		return abs;
 	}
 
@@ -179,9 +195,9 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 		abs.currentStmt = currentStmt;
 
 		if (!abs.getAccessPath().isEmpty())
-			abs.postdominators = null;
-		if (!abs.isAbstractionActive())
-			abs.dependsOnCutAP = abs.dependsOnCutAP || p.isCutOffApproximation();
+			abs.setPostdominators(null);
+		if (!abs.isAbstractionActive() && p.isCutOffApproximation())
+			abs.setFlag(FLAG_DEPENDS_ON_CUT_AP, true);
 
 		abs.sourceContext = null;
 		return abs;
@@ -200,7 +216,7 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 
 		abs.currentStmt = throwStmt;
 		abs.sourceContext = null;
-		abs.exceptionThrown = true;
+		abs.setFlag(FLAG_EXCEPTION_THROWN, true);
 		return abs;
 	}
 
@@ -213,12 +229,12 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 	 * @return The newly derived abstraction
 	 */
 	public final Abstraction deriveNewAbstractionOnCatch(AccessPath ap) {
-		assert this.exceptionThrown;
+		assert getExceptionThrown();
 		Abstraction abs = deriveNewAbstractionMutable(ap, null);
 		if (abs == null)
 			return null;
 
-		abs.exceptionThrown = false;
+		abs.setFlag(FLAG_EXCEPTION_THROWN, false);
 		return abs;
 	}
 
@@ -227,7 +243,7 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 	}
 
 	public boolean isImplicit() {
-		return isImplicit;
+		return (flags & FLAG_IMPLICIT) != 0;
 	}
 
 	@Override
@@ -261,12 +277,13 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 	 *         false
 	 */
 	public boolean getExceptionThrown() {
-		return this.exceptionThrown;
+		return (flags & FLAG_EXCEPTION_THROWN) != 0;
 	}
 
 	public final Abstraction deriveConditionalAbstractionEnter(UnitContainer postdom, Stmt conditionalUnit) {
 		assert this.isAbstractionActive();
 
+		List<UnitContainer> postdominators = getPostdominators();
 		if (postdominators != null && postdominators.contains(postdom))
 			return this;
 
@@ -274,10 +291,11 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 		if (abs == null)
 			return null;
 
-		if (abs.postdominators == null)
-			abs.postdominators = Collections.singletonList(postdom);
+		List<UnitContainer> absPostdominators = abs.getPostdominators();
+		if (absPostdominators == null)
+			abs.setPostdominators(Collections.singletonList(postdom));
 		else
-			abs.postdominators.add(0, postdom);
+			absPostdominators.add(0, postdom);
 		return abs;
 	}
 
@@ -291,25 +309,27 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 
 		// Postdominators are only kept intraprocedurally in order to not
 		// mess up the summary functions with caller-side information
-		abs.postdominators = null;
+		abs.setPostdominators(null);
 
 		return abs;
 	}
 
 	public final Abstraction dropTopPostdominator() {
+		List<UnitContainer> postdominators = getPostdominators();
 		if (postdominators == null || postdominators.isEmpty())
 			return this;
 
 		Abstraction abs = clone();
 		abs.sourceContext = null;
-		abs.postdominators.remove(0);
+		abs.getPostdominators().remove(0);
 		return abs;
 	}
 
 	public UnitContainer getTopPostdominator() {
+		List<UnitContainer> postdominators = getPostdominators();
 		if (postdominators == null || postdominators.isEmpty())
 			return null;
-		return this.postdominators.get(0);
+		return postdominators.get(0);
 	}
 
 	public boolean isTopPostdominator(Unit u) {
@@ -330,7 +350,6 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 	public Abstraction clone() {
 		Abstraction abs = new Abstraction(accessPath, this);
 		abs.predecessor = this;
-		abs.neighbors = null;
 		abs.currentStmt = null;
 		abs.correspondingCallSite = null;
 
@@ -381,16 +400,14 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 				return false;
 		} else if (!activationUnit.equals(other.activationUnit))
 			return false;
-		if (this.exceptionThrown != other.exceptionThrown)
+		if (this.flags != other.flags)
 			return false;
+		List<UnitContainer> postdominators = getPostdominators();
+		List<UnitContainer> otherPostdominators = other.getPostdominators();
 		if (postdominators == null) {
-			if (other.postdominators != null)
+			if (otherPostdominators != null)
 				return false;
-		} else if (!postdominators.equals(other.postdominators))
-			return false;
-		if (this.dependsOnCutAP != other.dependsOnCutAP)
-			return false;
-		if (this.isImplicit != other.isImplicit)
+		} else if (!postdominators.equals(otherPostdominators))
 			return false;
 		return true;
 	}
@@ -407,10 +424,9 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 		result = prime * result + ((sourceContext == null) ? 0 : sourceContext.hashCode());
 		result = prime * result + ((accessPath == null) ? 0 : accessPath.hashCode());
 		result = prime * result + ((activationUnit == null) ? 0 : activationUnit.hashCode());
-		result = prime * result + (exceptionThrown ? 1231 : 1237);
+		result = prime * result + flags;
+		List<UnitContainer> postdominators = getPostdominators();
 		result = prime * result + ((postdominators == null) ? 0 : postdominators.hashCode());
-		result = prime * result + (dependsOnCutAP ? 1231 : 1237);
-		result = prime * result + (isImplicit ? 1231 : 1237);
 		this.hashCode = result;
 
 		return this.hashCode;
@@ -444,7 +460,7 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 	}
 
 	public boolean dependsOnCutAP() {
-		return dependsOnCutAP;
+		return (flags & FLAG_DEPENDS_ON_CUT_AP) != 0;
 	}
 
 	@Override
@@ -453,7 +469,8 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 	}
 
 	public Set<Abstraction> getNeighbors() {
-		return this.neighbors;
+		SideData sd = sideData;
+		return sd == null ? null : sd.neighbors;
 	}
 
 	public Stmt getCurrentStmt() {
@@ -461,35 +478,50 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 	}
 
 	@Override
-	public void addNeighbor(Abstraction originalAbstraction) {
+	public boolean addNeighbor(Abstraction originalAbstraction) {
 		// We should not register ourselves as a neighbor
 		if (originalAbstraction == this)
-			return;
+			return false;
 
 		// We should not add identical nodes as neighbors
-		if (this.predecessor == originalAbstraction.predecessor && this.currentStmt == originalAbstraction.currentStmt
-				&& this.predecessor == originalAbstraction.predecessor)
-			return;
+		if (hasSamePredecessor(originalAbstraction) && this.currentStmt == originalAbstraction.currentStmt)
+			return false;
 
 		synchronized (this) {
+			SideData sd = getOrCreateSideData();
+			Set<Abstraction> neighbors = sd.neighbors;
 			if (neighbors == null)
-				neighbors = Sets.newIdentityHashSet();
+				sd.neighbors = neighbors = Sets.newIdentityHashSet();
 			else if (InfoflowConfiguration.getMergeNeighbors()) {
 				// Check if we already have an identical neighbor
 				for (Abstraction nb : neighbors) {
 					if (nb == originalAbstraction)
-						return;
-					if (originalAbstraction.predecessor == nb.predecessor
+						return false;
+					if (originalAbstraction.hasSamePredecessor(nb)
 							&& originalAbstraction.currentStmt == nb.currentStmt
 							&& originalAbstraction.correspondingCallSite == nb.correspondingCallSite) {
-						return;
+						return false;
 					}
 				}
 			}
-			this.neighbors.add(originalAbstraction);
+			return neighbors.add(originalAbstraction);
 		}
 	}
 
+	/**
+	 * Checks whether this abstraction has the same predecessor as the given
+	 * one. If the predecessor link of either abstraction has been dropped, we
+	 * cannot tell, and conservatively assume different predecessors.
+	 * 
+	 * @param other
+	 *            The abstraction to compare with
+	 * @return True if both abstractions have the same predecessor, otherwise
+	 *         false
+	 */
+	private boolean hasSamePredecessor(Abstraction other) {
+		return this.predecessor == other.predecessor && this.spillId >= 0 && other.spillId >= 0;
+	}
+
 	public void setCorrespondingCallSite(Stmt callSite) {
 		this.correspondingCallSite = callSite;
 	}
@@ -531,14 +563,18 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 	 *         registered before, otherwise false
 	 */
 	public boolean registerPathFlag(int id, int maxSize) {
+		SideData sd = sideData;
+		AtomicBitSet pathFlags = sd == null ? null : sd.pathFlags;
 		if (pathFlags == null || pathFlags.size() < maxSize) {
 			synchronized (this) {
+				sd = getOrCreateSideData();
+				pathFlags = sd.pathFlags;
 				if (pathFlags == null) {
 					// Make sure that the field is set only after the
 					// constructor
 					// is done and the object is fully usable
-					AtomicBitSet pf = new AtomicBitSet(maxSize);
-					pathFlags = pf;
+					pathFlags = new AtomicBitSet(maxSize);
+					sd.pathFlags = pathFlags;
 				} else if (pathFlags.size() < maxSize) {
 					AtomicBitSet pf = new AtomicBitSet(maxSize);
 					for (int i = 0; i < pathFlags.size(); i++) {
@@ -546,6 +582,7 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 							pf.set(i);
 					}
 					pathFlags = pf;
+					sd.pathFlags = pf;
 				}
 			}
 		}
@@ -558,7 +595,6 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 
 		Abstraction abs = clone();
 		abs.predecessor = null;
-		abs.neighbors = null;
 		abs.sourceContext = sourceContext;
 		abs.currentStmt = this.currentStmt;
 		return abs;
@@ -576,9 +612,133 @@ public class Abstraction implements Cloneable, FastSolverLinkedNode<Abstraction,
 		this.currentStmt = currentStmt;
 	}
 
+	/**
+	 * For internal use by the predecessor graph spill only. Gets the ID of this
+	 * abstraction in the spill.
+	 * 
+	 * @return The ID of this abstraction in the spill, or zero if the
+	 *         abstraction has not been spilled yet
+	 */
+	int getSpillId() {
+		return spillId < 0 ? -spillId : spillId;
+	}
+
+	/**
+	 * For internal use by the predecessor graph spill only. Sets the ID of this
+	 * abstraction in the spill.
+	 * 
+	 * @param spillId
+	 *            The ID of this abstraction in the spill
+	 */
+	void setSpillId(int spillId) {
+		this.spillId = spillId;
+	}
+
+	/**
+	 * For internal use by the predecessor graph spill only. Drops the links to
+	 * the predecessor and the neighbors of this abstraction once they have
+	 * been written to the spill, so that the garbage collector can reclaim
+	 * them.
+	 * 
+	 * @param dropNeighbors
+	 *            True if the neighbors shall be dropped as well, false to only
+	 *            drop the predecessor
+	 */
+	void dropSpilledLinks(boolean dropNeighbors) {
+		if (spillId == 0)
+			throw new IllegalStateException("Abstraction has not been spilled");
+		if (spillId > 0)
+			spillId = -spillId;
+		predecessor = null;
+		if (dropNeighbors) {
+			synchronized (this) {
+				SideData sd = sideData;
+				if (sd != null) {
+					sd.neighbors = null;
+					releaseSideDataIfEmpty(sd);
+				}
+			}
+		}
+	}
+
+	/**
+	 * For internal use by the predecessor graph spill only. Checks whether the
+	 * predecessor link of this abstraction has been dropped.
+	 * 
+	 * @return True if the predecessor link has been dropped, otherwise false
+	 */
+	boolean hasDroppedPredecessor() {
+		return spillId < 0;
+	}
+
 	@Override
 	public int getNeighborCount() {
+		Set<Abstraction> neighbors = getNeighbors();
 		return neighbors == null ? 0 : neighbors.size();
 	}
 
+	/**
+	 * Gets whether this abstraction has allocated the optional object for
+	 * postdominators, neighbors, and path flags
+	 * 
+	 * @return True if this abstraction has the optional side data, otherwise
+	 *         false
+	 */
+	public boolean hasSideData() {
+		return sideData != null;
+	}
+
+	private void setFlag(int flag, boolean value) {
+		if (value)
+			flags |= flag;
+		else
+			flags &= ~flag;
+	}
+
+	private SideData getOrCreateSideData() {
+		SideData sd = sideData;
+		if (sd == null) {
+			synchronized (this) {
+				sd = sideData;
+				if (sd == null) {
+					sd = new SideData();
+					sideData = sd;
+				}
+			}
+		}
+		return sd;
+	}
+
+	private List<UnitContainer> getPostdominators() {
+		SideData sd = sideData;
+		return sd == null ? null : sd.postdominators;
+	}
+
+	private void setPostdominators(List<UnitContainer> postdominators) {
+		if (postdominators == null) {
+			if (sideData != null) {
+				synchronized (this) {
+					SideData sd = sideData;
+					if (sd != null) {
+						sd.postdominators = null;
+						releaseSideDataIfEmpty(sd);
+					}
+				}
+			}
+		} else
+			getOrCreateSideData().postdominators = postdominators;
+	}
+
+	/**
+	 * Drops the side data of this abstraction if it does not hold any data
+	 * anymore. The caller must hold the lock on this abstraction.
+	 * 
+	 * @param sd
+	 *            The current side data of this abstraction
+	 */
+	private void releaseSideDataIfEmpty(SideData sd) {
+		if (sd.postdominators == null && sd.neighbors == null && sd.pathFlags == null)
+			sideData = null;
+	}
+
 }
@@ -53,6 +53,18 @@ public class AccessPath implements Cloneable {
 
 	private final boolean canHaveImmutableAliases;
 
+	/**
+	 * The interned field chain if this access path was created by a
+	 * hash-consing factory, otherwise null
+	 */
+	private final FieldChain fieldChain;
+
+	/**
+	 * True if this access path is the unique representative of its value in
+	 * the table of its field chain
+	 */
+	private boolean interned = false;
+
 	private int hashCode = 0;
 
 	/**
@@ -72,6 +84,7 @@ public class AccessPath implements Cloneable {
 		this.cutOffApproximation = false;
 		this.arrayTaintType = ArrayTaintType.ContentsAndLength;
 		this.canHaveImmutableAliases = false;
+		this.fieldChain = null;
 	}
 
 	AccessPath(Local val, SootField[] appendingFields, Type valType, Type[] appendingFieldTypes, boolean taintSubFields,
@@ -84,6 +97,20 @@ public class AccessPath implements Cloneable {
 		this.cutOffApproximation = isCutOffApproximation;
 		this.arrayTaintType = arrayTaintType;
 		this.canHaveImmutableAliases = canHaveImmutableAliases;
+		this.fieldChain = null;
+	}
+
+	AccessPath(Local val, FieldChain fieldChain, Type valType, boolean taintSubFields, boolean isCutOffApproximation,
+			ArrayTaintType arrayTaintType, boolean canHaveImmutableAliases) {
+		this.value = val;
+		this.fields = fieldChain.getFields();
+		this.baseType = valType;
+		this.fieldTypes = fieldChain.getTypes();
+		this.taintSubFields = taintSubFields;
+		this.cutOffApproximation = isCutOffApproximation;
+		this.arrayTaintType = arrayTaintType;
+		this.canHaveImmutableAliases = canHaveImmutableAliases;
+		this.fieldChain = fieldChain;
 	}
 
 	/**
@@ -165,8 +192,13 @@ public class AccessPath implements Cloneable {
 
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((fields == null) ? 0 : Arrays.hashCode(fields));
-		result = prime * result + ((fieldTypes == null) ? 0 : Arrays.hashCode(fieldTypes));
+		if (fieldChain != null) {
+			result = prime * result + ((fields == null) ? 0 : fieldChain.getFieldsHash());
+			result = prime * result + ((fieldTypes == null) ? 0 : fieldChain.getTypesHash());
+		} else {
+			result = prime * result + ((fields == null) ? 0 : Arrays.hashCode(fields));
+			result = prime * result + ((fieldTypes == null) ? 0 : Arrays.hashCode(fieldTypes));
+		}
 		result = prime * result + ((value == null) ? 0 : value.hashCode());
 		result = prime * result + ((baseType == null) ? 0 : baseType.hashCode());
 		result = prime * result + (this.taintSubFields ? 1 : 0);
@@ -185,15 +217,27 @@ public class AccessPath implements Cloneable {
 
 		AccessPath other = (AccessPath) obj;
 
+		// Interned access paths from the same table are only equal to
+		// themselves, and interned field chains can be compared by reference
+		final boolean sameTable = fieldChain != null && other.fieldChain != null
+				&& fieldChain.getTable() == other.fieldChain.getTable();
+		if (sameTable && interned && other.interned)
+			return false;
+
 		if (value == null) {
 			if (other.value != null)
 				return false;
 		} else if (!value.equals(other.value))
 			return false;
-		if (!Arrays.equals(fields, other.fields))
-			return false;
-		if (!Arrays.equals(fieldTypes, other.fieldTypes))
-			return false;
+		if (sameTable) {
+			if (fieldChain != other.fieldChain)
+				return false;
+		} else {
+			if (!Arrays.equals(fields, other.fields))
+				return false;
+			if (!Arrays.equals(fieldTypes, other.fieldTypes))
+				return false;
+		}
 
 		if (this.taintSubFields != other.taintSubFields)
 			return false;
@@ -254,8 +298,9 @@ public class AccessPath implements Cloneable {
 
 	@Override
 	public AccessPath clone() {
-		// The empty access path is a singleton
-		if (this == emptyAccessPath)
+		// The empty access path is a singleton, and so are interned access
+		// paths
+		if (this == emptyAccessPath || interned)
 			return this;
 
 		AccessPath a = new AccessPath(value, fields, baseType, fieldTypes, taintSubFields, cutOffApproximation,
@@ -315,6 +360,11 @@ public class AccessPath implements Cloneable {
 		if (fields == null || fields.length == 0)
 			return this;
 
+		// Interned access paths share the prefix of their field chain
+		if (fieldChain != null)
+			return fieldChain.getTable().intern(new AccessPath(value, fieldChain.getParent(), baseType,
+					taintSubFields, cutOffApproximation, arrayTaintType, canHaveImmutableAliases));
+
 		final SootField[] newFields;
 		final Type[] newTypes;
 		if (fields.length > 1) {
@@ -407,6 +457,35 @@ public class AccessPath implements Cloneable {
 		return canHaveImmutableAliases;
 	}
 
+	/**
+	 * Gets whether this access path is the unique representative of its value
+	 * in a hash-consing {@link AccessPathFactory}. Such access paths need not
+	 * be cached again.
+	 * 
+	 * @return True if this access path is interned, otherwise false
+	 */
+	public boolean isInterned() {
+		return this.interned;
+	}
+
+	/**
+	 * Marks this access path as the unique representative of its value in the
+	 * table of its field chain
+	 */
+	void setInterned() {
+		this.interned = true;
+	}
+
+	/**
+	 * Gets the interned field chain of this access path
+	 * 
+	 * @return The interned field chain of this access path, or null if this
+	 *         access path was not created by a hash-consing factory
+	 */
+	FieldChain getFieldChain() {
+		return this.fieldChain;
+	}
+
 	/**
 	 * Creates the access path that is used in the zero abstraction
 	 * @return The access path that is used in the zero abstraction
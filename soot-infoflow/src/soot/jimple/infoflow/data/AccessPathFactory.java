@@ -24,6 +24,7 @@ import soot.jimple.infoflow.util.TypeUtils;
 public class AccessPathFactory {
 
 	private final InfoflowConfiguration config;
+	private final AccessPathTable accessPathTable;
 
 	/**
 	 * Specialized pair class for field bases
@@ -97,6 +98,7 @@ public class AccessPathFactory {
 	 */
 	public AccessPathFactory(InfoflowConfiguration config) {
 		this.config = config;
+		this.accessPathTable = config.getHashConsAccessPaths() ? new AccessPathTable() : null;
 	}
 
 	private MyConcurrentHashMap<Type, Set<BasePair>> baseRegister = new MyConcurrentHashMap<Type, Set<BasePair>>();
@@ -124,6 +126,24 @@ public class AccessPathFactory {
 	public AccessPath createAccessPath(Value val, SootField[] appendingFields, Type valType, Type[] appendingFieldTypes,
 			boolean taintSubFields, boolean cutFirstField, boolean reduceBases, ArrayTaintType arrayTaintType,
 			boolean canHaveImmutableAliases) {
+		return createAccessPath(val, appendingFields, valType, appendingFieldTypes, null, taintSubFields,
+				cutFirstField, reduceBases, arrayTaintType, canHaveImmutableAliases);
+	}
+
+	/**
+	 * Creates a new access path
+	 * 
+	 * @param appendingChain
+	 *            The interned chain whose arrays are passed as appendingFields
+	 *            and appendingFieldTypes, or null if the arrays do not belong to
+	 *            a chain. If the fields do not change, the access path is built
+	 *            from this chain without copying any arrays.
+	 * @see #createAccessPath(Value, SootField[], Type, Type[], boolean, boolean,
+	 *      boolean, ArrayTaintType, boolean)
+	 */
+	private AccessPath createAccessPath(Value val, SootField[] appendingFields, Type valType,
+			Type[] appendingFieldTypes, FieldChain appendingChain, boolean taintSubFields, boolean cutFirstField,
+			boolean reduceBases, ArrayTaintType arrayTaintType, boolean canHaveImmutableAliases) {
 		// Make sure that the base object is valid
 		assert (val == null && appendingFields != null && appendingFields.length > 0)
 				|| AccessPath.canContainValue(val);
@@ -145,6 +165,7 @@ public class AccessPathFactory {
 		Type baseType;
 		SootField[] fields;
 		Type[] fieldTypes;
+		FieldChain fieldChain;
 		boolean cutOffApproximation;
 
 		// Get the base object, field and type
@@ -162,15 +183,27 @@ public class AccessPathFactory {
 			}
 
 			// Handle the fields
-			fields = new SootField[(appendingFields == null ? 0 : appendingFields.length) + 1];
-			fields[0] = ref.getField();
-			if (appendingFields != null)
-				System.arraycopy(appendingFields, 0, fields, 1, appendingFields.length);
-
-			fieldTypes = new Type[(appendingFieldTypes == null ? 0 : appendingFieldTypes.length) + 1];
-			fieldTypes[0] = valType != null ? valType : fields[0].getType();
-			if (appendingFieldTypes != null)
-				System.arraycopy(appendingFieldTypes, 0, fieldTypes, 1, appendingFieldTypes.length);
+			final int appendingLength = appendingFields == null ? 0 : appendingFields.length;
+			final Type firstFieldType = valType != null ? valType : ref.getField().getType();
+			if (accessPathTable != null && appendingLength < config.getAccessPathLength()) {
+				// Build the interned chain directly, so that we only allocate
+				// new arrays if we have never seen these fields before
+				fieldChain = accessPathTable.getEmptyChain().getChild(ref.getField(), firstFieldType)
+						.append(appendingFields, appendingFieldTypes, appendingLength);
+				fields = fieldChain.getFields();
+				fieldTypes = fieldChain.getTypes();
+			} else {
+				fieldChain = null;
+				fields = new SootField[appendingLength + 1];
+				fields[0] = ref.getField();
+				if (appendingFields != null)
+					System.arraycopy(appendingFields, 0, fields, 1, appendingFields.length);
+
+				fieldTypes = new Type[(appendingFieldTypes == null ? 0 : appendingFieldTypes.length) + 1];
+				fieldTypes[0] = firstFieldType;
+				if (appendingFieldTypes != null)
+					System.arraycopy(appendingFieldTypes, 0, fieldTypes, 1, appendingFieldTypes.length);
+			}
 		} else if (val instanceof ArrayRef) {
 			ArrayRef ref = (ArrayRef) val;
 			value = (Local) ref.getBase();
@@ -178,12 +211,14 @@ public class AccessPathFactory {
 
 			fields = appendingFields;
 			fieldTypes = appendingFieldTypes;
+			fieldChain = appendingChain;
 		} else {
 			value = (Local) val;
 			baseType = valType == null ? (value == null ? null : value.getType()) : valType;
 
 			fields = appendingFields;
 			fieldTypes = appendingFieldTypes;
+			fieldChain = appendingChain;
 		}
 
 		// If we don't want to track fields at all, we can cut the field
@@ -261,20 +296,32 @@ public class AccessPathFactory {
 				if (baseType == null)
 					return null;
 			}
-			if (fields != null && fieldTypes != null)
+			if (fields != null && fieldTypes != null) {
+				// The type array may belong to another access path, so we
+				// copy it before we change anything
+				boolean copied = false;
 				for (int i = 0; i < fields.length; i++) {
-					fieldTypes[i] = TypeUtils.getMorePreciseType(fieldTypes[i], fields[i].getType());
-					if (fieldTypes[i] == null)
+					Type fieldType = TypeUtils.getMorePreciseType(fieldTypes[i], fields[i].getType());
+					if (fieldType == null)
 						return null;
 
 					// If we have a more precise base type in the next field, we
 					// take that
-					if (fields.length > i + 1 && !(fieldTypes[i] instanceof ArrayType))
-						fieldTypes[i] = TypeUtils.getMorePreciseType(fieldTypes[i],
+					if (fields.length > i + 1 && !(fieldType instanceof ArrayType))
+						fieldType = TypeUtils.getMorePreciseType(fieldType,
 								fields[i + 1].getDeclaringClass().getType());
-					if (fieldTypes[i] == null)
+					if (fieldType == null)
 						return null;
+
+					if (fieldType != fieldTypes[i]) {
+						if (!copied) {
+							fieldTypes = fieldTypes.clone();
+							copied = true;
+						}
+						fieldTypes[i] = fieldType;
+					}
 				}
+			}
 		}
 
 		// Make sure that only heap objects may have fields. Primitive arrays
@@ -376,8 +423,9 @@ public class AccessPathFactory {
 
 		// Cut the fields at the maximum access path length. If this happens,
 		// we must always add a star
+		int fieldNum = 0;
 		if (fields != null) {
-			int fieldNum = Math.min(config.getAccessPathLength(), fields.length);
+			fieldNum = Math.min(config.getAccessPathLength(), fields.length);
 			if (fields.length > fieldNum) {
 				taintSubFields = true;
 				cutOffApproximation = true;
@@ -388,7 +436,9 @@ public class AccessPathFactory {
 			if (fieldNum == 0) {
 				fields = null;
 				fieldTypes = null;
-			} else {
+			} else if (accessPathTable == null) {
+				// Interned chains are built from the first fields only, so we
+				// only need a copy if we do not hash-cons
 				SootField[] newFields = new SootField[fieldNum];
 				Type[] newFieldTypes = new Type[fieldNum];
 
@@ -411,10 +461,33 @@ public class AccessPathFactory {
 				&& !TypeUtils.isObjectLikeType(value.getType())) : "Type mismatch. Type was " + baseType
 						+ ", value was: " + (value == null ? null : value.getType());
 
+		if (accessPathTable != null) {
+			// If none of the normalizations above has replaced the arrays, we
+			// can take the interned chain we started with
+			FieldChain chain = fieldChain != null && fields == fieldChain.getFields()
+					&& fieldTypes == fieldChain.getTypes() ? fieldChain.getPrefix(fieldNum)
+							: accessPathTable.getChain(fields, fieldTypes, fieldNum);
+			return accessPathTable.intern(new AccessPath(value, chain, baseType, taintSubFields,
+					cutOffApproximation, arrayTaintType, canHaveImmutableAliases));
+		}
 		return new AccessPath(value, fields, baseType, fieldTypes, taintSubFields, cutOffApproximation, arrayTaintType,
 				canHaveImmutableAliases);
 	}
 
+	/**
+	 * Gets the interned field chain of the given access path if it was created
+	 * by this factory
+	 * 
+	 * @param ap
+	 *            The access path
+	 * @return The interned field chain of the given access path, or null if the
+	 *         access path does not belong to the table of this factory
+	 */
+	private FieldChain getOwnFieldChain(AccessPath ap) {
+		FieldChain chain = ap.getFieldChain();
+		return chain != null && chain.getTable() == accessPathTable ? chain : null;
+	}
+
 	private void registerBase(Type eiType, SootField[] base, Type[] baseTypes) {
 		// Check whether we can further normalize the base
 		assert base.length == baseTypes.length;
@@ -509,7 +582,7 @@ public class AccessPathFactory {
 
 		// Create the new access path
 		AccessPath newAP = createAccessPath(val, original.getFields(), newType, original.getFieldTypes(),
-				original.getTaintSubFields(), cutFirstField, reduceBases, arrayTaintType,
+				getOwnFieldChain(original), original.getTaintSubFields(), cutFirstField, reduceBases, arrayTaintType,
 				original.getCanHaveImmutableAliases());
 
 		// Again, check whether we can do without the new object
@@ -549,6 +622,20 @@ public class AccessPathFactory {
 	 */
 	public AccessPath appendFields(AccessPath original, SootField[] apFields, Type[] apFieldTypes,
 			boolean taintSubFields) {
+		// With hash-consing, we extend the interned chain of the original
+		// access path instead of copying its fields. If the new access path
+		// gets cut off anyway, we do not want to pollute the table with
+		// chains that are too long. Without type checking, the given types
+		// would be replaced by the declared ones anyway.
+		FieldChain originalChain = getOwnFieldChain(original);
+		int apFieldNum = apFields == null ? 0 : apFields.length;
+		if (originalChain != null && config.getEnableTypeChecking()
+				&& originalChain.getLength() + apFieldNum <= config.getAccessPathLength()) {
+			FieldChain chain = originalChain.append(apFields, apFieldTypes, apFieldNum);
+			return createAccessPath(original.getPlainValue(), chain.getFields(), original.getBaseType(),
+					chain.getTypes(), chain, taintSubFields, false, true, original.getArrayTaintType(), false);
+		}
+
 		int offset = original.getFields() == null ? 0 : original.getFields().length;
 		SootField[] fields = new SootField[offset + (apFields == null ? 0 : apFields.length)];
 		Type[] fieldTypes = new Type[offset + (apFields == null ? 0 : apFields.length)];
@@ -0,0 +1,70 @@
+package soot.jimple.infoflow.data;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import soot.SootField;
+import soot.Type;
+
+/**
+ * Table for hash-consing access paths. The fields of all access paths in the
+ * table are stored as interned {@link FieldChain} objects, and every access
+ * path is only contained once. Equal access paths from the same table are thus
+ * always the same object. The table only holds weak references to its access
+ * paths, so access paths that are no longer used anywhere else can be garbage
+ * collected.
+ */
+class AccessPathTable {
+
+	private final FieldChain emptyChain = new FieldChain(this);
+	private final Interner<AccessPath> accessPaths = Interners.newWeakInterner();
+
+	/**
+	 * Gets the empty chain from which all other chains in this table are
+	 * derived
+	 *
+	 * @return The empty chain
+	 */
+	FieldChain getEmptyChain() {
+		return this.emptyChain;
+	}
+
+	/**
+	 * Gets the interned chain for the first elements of the given field and
+	 * type arrays
+	 *
+	 * @param fields
+	 *            The fields of the chain
+	 * @param types
+	 *            The types of the fields
+	 * @param length
+	 *            The number of elements to take from the arrays
+	 * @return The interned chain
+	 */
+	FieldChain getChain(SootField[] fields, Type[] types, int length) {
+		return emptyChain.append(fields, types, length);
+	}
+
+	/**
+	 * Gets the unique access path in this table that is equal to the given one.
+	 * If there is none yet, the given access path is registered.
+	 *
+	 * @param ap
+	 *            The access path to look up. Its fields must be a chain of
+	 *            this table.
+	 * @return The unique access path that is equal to the given one
+	 */
+	AccessPath intern(AccessPath ap) {
+		assert ap.getFieldChain() != null && ap.getFieldChain().getTable() == this;
+		AccessPath uniqueAP = accessPaths.intern(ap);
+		if (uniqueAP != ap)
+			return uniqueAP;
+
+		// Only mark the access path after it has been registered. Otherwise,
+		// an access path that loses the race would wrongly be unequal to the
+		// registered one.
+		ap.setInterned();
+		return ap;
+	}
+
+}
@@ -0,0 +1,225 @@
+package soot.jimple.infoflow.data;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import soot.SootField;
+import soot.Type;
+import soot.jimple.infoflow.collect.ConcurrentAppendOnlyMap;
+
+/**
+ * Interned sequence of fields and field types of an access path. All chains of
+ * one {@link AccessPathTable} form a prefix tree, i.e., every chain shares its
+ * prefix with all other chains that start with the same fields and types. A
+ * chain is unique within its table, so two chains from the same table are equal
+ * if and only if they are the same object.
+ */
+final class FieldChain {
+
+	private static final AtomicReferenceFieldUpdater<FieldChain, FieldChain> SIBLING_UPDATER = AtomicReferenceFieldUpdater
+			.newUpdater(FieldChain.class, FieldChain.class, "sibling");
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<FieldChain, ConcurrentAppendOnlyMap> CHILDREN_UPDATER = AtomicReferenceFieldUpdater
+			.newUpdater(FieldChain.class, ConcurrentAppendOnlyMap.class, "children");
+
+	private final AccessPathTable table;
+	private final FieldChain parent;
+	private final SootField field;
+	private final Type type;
+
+	private final SootField[] fields;
+	private final Type[] types;
+
+	/**
+	 * The hash codes of the field and type arrays as computed by
+	 * {@link java.util.Arrays#hashCode(Object[])}
+	 */
+	private final int fieldsHash;
+	private final int typesHash;
+
+	/**
+	 * The children of this chain, indexed by their last field
+	 */
+	private volatile ConcurrentAppendOnlyMap<SootField, FieldChain> children = null;
+
+	/**
+	 * The next chain with the same parent and the same last field, but a
+	 * different last type
+	 */
+	private volatile FieldChain sibling = null;
+
+	/**
+	 * Creates the empty chain of the given table
+	 *
+	 * @param table
+	 *            The table to which the new chain belongs
+	 */
+	FieldChain(AccessPathTable table) {
+		this.table = table;
+		this.parent = null;
+		this.field = null;
+		this.type = null;
+		this.fields = null;
+		this.types = null;
+		this.fieldsHash = 1;
+		this.typesHash = 1;
+	}
+
+	private FieldChain(FieldChain parent, SootField field, Type type) {
+		this.table = parent.table;
+		this.parent = parent;
+		this.field = field;
+		this.type = type;
+
+		final int length = parent.getLength() + 1;
+		this.fields = new SootField[length];
+		this.types = new Type[length];
+		if (parent.fields != null) {
+			System.arraycopy(parent.fields, 0, fields, 0, length - 1);
+			System.arraycopy(parent.types, 0, types, 0, length - 1);
+		}
+		this.fields[length - 1] = field;
+		this.types[length - 1] = type;
+
+		this.fieldsHash = 31 * parent.fieldsHash + (field == null ? 0 : field.hashCode());
+		this.typesHash = 31 * parent.typesHash + (type == null ? 0 : type.hashCode());
+	}
+
+	/**
+	 * Gets the chain that extends this chain by the given field and type. At
+	 * most one new chain object is allocated.
+	 *
+	 * @param field
+	 *            The field to append
+	 * @param type
+	 *            The type of the field to append
+	 * @return The unique chain that extends this chain by the given field and
+	 *         type
+	 */
+	@SuppressWarnings("unchecked")
+	FieldChain getChild(SootField field, Type type) {
+		ConcurrentAppendOnlyMap<SootField, FieldChain> curChildren = children;
+		if (curChildren == null) {
+			CHILDREN_UPDATER.compareAndSet(this, null, new ConcurrentAppendOnlyMap<SootField, FieldChain>());
+			curChildren = children;
+		}
+
+		FieldChain newChain = null;
+		FieldChain node = curChildren.get(field);
+		if (node == null) {
+			newChain = new FieldChain(this, field, type);
+			node = curChildren.putIfAbsent(field, newChain);
+			if (node == null)
+				return newChain;
+		}
+
+		// Find the chain with the correct type among all chains with the same
+		// field
+		while (true) {
+			if (node.type == type || (type != null && type.equals(node.type)))
+				return node;
+
+			FieldChain next = node.sibling;
+			if (next == null) {
+				if (newChain == null)
+					newChain = new FieldChain(this, field, type);
+				if (SIBLING_UPDATER.compareAndSet(node, null, newChain))
+					return newChain;
+				next = node.sibling;
+			}
+			node = next;
+		}
+	}
+
+	/**
+	 * Gets the chain that extends this chain by the first elements of the given
+	 * field and type arrays
+	 *
+	 * @param fields
+	 *            The fields to append
+	 * @param types
+	 *            The types of the fields to append, or null if all types are
+	 *            unknown
+	 * @param length
+	 *            The number of elements to take from the arrays
+	 * @return The unique chain that extends this chain by the given fields
+	 */
+	FieldChain append(SootField[] fields, Type[] types, int length) {
+		FieldChain chain = this;
+		for (int i = 0; i < length; i++)
+			chain = chain.getChild(fields[i], types == null ? null : types[i]);
+		return chain;
+	}
+
+	/**
+	 * Gets the prefix of this chain with the given number of fields
+	 *
+	 * @param length
+	 *            The number of fields in the prefix
+	 * @return The prefix of this chain with the given length
+	 */
+	FieldChain getPrefix(int length) {
+		assert length >= 0 && length <= getLength();
+		FieldChain chain = this;
+		for (int i = getLength(); i > length; i--)
+			chain = chain.parent;
+		return chain;
+	}
+
+	/**
+	 * Gets the table to which this chain belongs
+	 *
+	 * @return The table to which this chain belongs
+	 */
+	AccessPathTable getTable() {
+		return this.table;
+	}
+
+	/**
+	 * Gets this chain without its last field
+	 *
+	 * @return The parent of this chain, or null if this chain is empty
+	 */
+	FieldChain getParent() {
+		return this.parent;
+	}
+
+	/**
+	 * Gets the number of fields in this chain
+	 *
+	 * @return The number of fields in this chain
+	 */
+	int getLength() {
+		return fields == null ? 0 : fields.length;
+	}
+
+	/**
+	 * Gets the fields in this chain. The array is shared and must not be
+	 * modified.
+	 *
+	 * @return The fields in this chain, or null if the chain is empty
+	 */
+	SootField[] getFields() {
+		return this.fields;
+	}
+
+	/**
+	 * Gets the types of the fields in this chain. The array is shared and must
+	 * not be modified.
+	 *
+	 * @return The types of the fields in this chain, or null if the chain is
+	 *         empty
+	 */
+	Type[] getTypes() {
+		return this.types;
+	}
+
+	int getFieldsHash() {
+		return this.fieldsHash;
+	}
+
+	int getTypesHash() {
+		return this.typesHash;
+	}
+
+}
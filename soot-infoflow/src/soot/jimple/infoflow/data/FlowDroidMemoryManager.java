@@ -3,13 +3,21 @@ package soot.jimple.infoflow.data;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
 import soot.Unit;
 import soot.jimple.ReturnStmt;
 import soot.jimple.ReturnVoidStmt;
+import soot.jimple.infoflow.memory.IMemoryDegradable;
+import soot.jimple.infoflow.memory.IMemoryReclaimable;
+import soot.jimple.infoflow.memory.MemoryDegradationStage;
 import soot.jimple.infoflow.solver.memory.IMemoryManager;
 
 /**
@@ -18,10 +26,17 @@ import soot.jimple.infoflow.solver.memory.IMemoryManager;
  * @author Steven Arzt
  *
  */
-public class FlowDroidMemoryManager implements IMemoryManager<Abstraction, Unit> {
+public class FlowDroidMemoryManager
+		implements IMemoryManager<Abstraction, Unit>, IMemoryReclaimable, IMemoryDegradable {
 
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
+	/**
+	 * The smallest capacity to which a bounded cache is reduced when memory
+	 * runs short
+	 */
+	private static final int MIN_CACHE_CAPACITY = 1024;
+
 	/**
 	 * Special class for encapsulating taint abstractions for a full equality
 	 * check including those fields (predecessor, etc.) that are normally left
@@ -74,12 +89,33 @@ public class FlowDroidMemoryManager implements IMemoryManager<Abstraction, Unit>
 
 	}
 
-	private ConcurrentMap<AccessPath, AccessPath> apCache = new ConcurrentHashMap<>();
-	private ConcurrentHashMap<AbstractionCacheKey, Abstraction> absCache = new ConcurrentHashMap<>();
+	private volatile ConcurrentMap<AccessPath, AccessPath> apCache;
+	private volatile ConcurrentMap<AbstractionCacheKey, Abstraction> absCache;
 	private AtomicInteger reuseCounter = new AtomicInteger();
 
+	private volatile int cacheCapacity;
+
+	/**
+	 * Hits and misses are only counted for bounded caches or if tracing is
+	 * enabled, because the counters are shared by all solver threads
+	 */
+	private final boolean countCacheAccesses;
+	private final LongAdder cacheHits = new LongAdder();
+	private final LongAdder cacheMisses = new LongAdder();
+	private final LongAdder cacheEvictions = new LongAdder();
+
+	private final RemovalListener<Object, Object> evictionCounter = new RemovalListener<Object, Object>() {
+
+		@Override
+		public void onRemoval(RemovalNotification<Object, Object> notification) {
+			if (notification.wasEvicted())
+				cacheEvictions.increment();
+		}
+
+	};
+
 	private final boolean tracingEnabled;
-	private final PathDataErasureMode erasePathData;
+	private volatile PathDataErasureMode erasePathData;
 	private boolean useAbstractionCache = false;
 
 	/**
@@ -119,14 +155,52 @@ public class FlowDroidMemoryManager implements IMemoryManager<Abstraction, Unit>
 	 *            corresponding call site) shall be erased.
 	 */
 	public FlowDroidMemoryManager(boolean tracingEnabled, PathDataErasureMode erasePathData) {
+		this(tracingEnabled, erasePathData, 0);
+	}
+
+	/**
+	 * Constructs a new instance of the AccessPathManager class
+	 * 
+	 * @param tracingEnabled
+	 *            True if performance tracing data shall be recorded
+	 * @param erasePathData
+	 *            Specifies whether data for tracking paths (current statement,
+	 *            corresponding call site) shall be erased.
+	 * @param cacheCapacity
+	 *            The maximum number of entries in each of the caches for access
+	 *            paths and abstractions. If this value is zero or negative, the
+	 *            caches are unbounded.
+	 */
+	public FlowDroidMemoryManager(boolean tracingEnabled, PathDataErasureMode erasePathData, int cacheCapacity) {
 		this.tracingEnabled = tracingEnabled;
 		this.erasePathData = erasePathData;
+		this.cacheCapacity = cacheCapacity;
+		this.countCacheAccesses = tracingEnabled || cacheCapacity > 0;
+		this.apCache = createCache(cacheCapacity);
+		this.absCache = createCache(cacheCapacity);
 
 		logger.info("Initializing FlowDroid memory manager...");
 		if (this.tracingEnabled)
 			logger.info("FDMM: Tracing enabled. This may negatively affect performance.");
 		if (this.erasePathData != PathDataErasureMode.EraseNothing)
 			logger.info("FDMM: Path data erasure enabled");
+		if (cacheCapacity > 0)
+			logger.info("FDMM: Caches are bounded to {} entries", cacheCapacity);
+	}
+
+	/**
+	 * Creates a new cache map
+	 * 
+	 * @param capacity
+	 *            The maximum number of entries in the cache, or zero for an
+	 *            unbounded cache
+	 * @return The new cache map
+	 */
+	private <K, V> ConcurrentMap<K, V> createCache(int capacity) {
+		if (capacity <= 0)
+			return new ConcurrentHashMap<>();
+		return CacheBuilder.newBuilder().maximumSize(capacity).removalListener(evictionCounter).<K, V>build()
+				.asMap();
 	}
 
 	/**
@@ -137,7 +211,14 @@ public class FlowDroidMemoryManager implements IMemoryManager<Abstraction, Unit>
 	 * @return The cached equivalent of the given access path
 	 */
 	private AccessPath getCachedAccessPath(AccessPath ap) {
+		// Interned access paths are already unique. Their table only holds
+		// them weakly, so we must not pin them in our cache either.
+		if (ap.isInterned())
+			return ap;
+
 		AccessPath oldAP = apCache.putIfAbsent(ap, ap);
+		if (countCacheAccesses)
+			(oldAP == null ? cacheMisses : cacheHits).increment();
 		if (oldAP == null)
 			return ap;
 
@@ -158,6 +239,8 @@ public class FlowDroidMemoryManager implements IMemoryManager<Abstraction, Unit>
 	 */
 	private Abstraction getCachedAbstraction(Abstraction abs) {
 		Abstraction oldAbs = absCache.putIfAbsent(new AbstractionCacheKey(abs), abs);
+		if (countCacheAccesses)
+			(oldAbs == null ? cacheMisses : cacheHits).increment();
 		if (oldAbs != null && oldAbs != abs)
 			if (tracingEnabled)
 				reuseCounter.incrementAndGet();
@@ -173,8 +256,79 @@ public class FlowDroidMemoryManager implements IMemoryManager<Abstraction, Unit>
 		return this.reuseCounter.get();
 	}
 
+	/**
+	 * Gets the number of cache lookups for access paths and abstractions that
+	 * found an existing entry. Lookups are only counted if the caches are
+	 * bounded or tracing is enabled.
+	 * 
+	 * @return The number of cache hits
+	 */
+	public long getCacheHitCount() {
+		return this.cacheHits.sum();
+	}
+
+	/**
+	 * Gets the number of cache lookups for access paths and abstractions that
+	 * did not find an existing entry. Lookups are only counted if the caches
+	 * are bounded or tracing is enabled.
+	 * 
+	 * @return The number of cache misses
+	 */
+	public long getCacheMissCount() {
+		return this.cacheMisses.sum();
+	}
+
+	/**
+	 * Gets the number of entries that have been removed from the caches for
+	 * access paths and abstractions, either because a cache was full or because
+	 * memory ran short
+	 * 
+	 * @return The number of evicted cache entries
+	 */
+	public long getCacheEvictionCount() {
+		return this.cacheEvictions.sum();
+	}
+
+	/**
+	 * Gets the maximum number of entries in each of the caches for access paths
+	 * and abstractions
+	 * 
+	 * @return The maximum number of cache entries, or zero if the caches are
+	 *         unbounded
+	 */
+	public int getCacheCapacity() {
+		return this.cacheCapacity;
+	}
+
+	/**
+	 * Drops all cached access paths and abstractions. If the caches are
+	 * bounded, their capacity is halved as well, but never below
+	 * {@link #MIN_CACHE_CAPACITY}. Caches that are already smaller keep their
+	 * capacity.
+	 */
+	@Override
+	public void reclaimMemory() {
+		int newCapacity = cacheCapacity;
+		if (newCapacity > 0)
+			newCapacity = Math.min(newCapacity, Math.max(MIN_CACHE_CAPACITY, newCapacity / 2));
+
+		// Replacing the maps is cheaper than clearing them, and it does not
+		// block threads that are currently using the old ones
+		ConcurrentMap<AccessPath, AccessPath> oldApCache = apCache;
+		ConcurrentMap<AbstractionCacheKey, Abstraction> oldAbsCache = absCache;
+		cacheCapacity = newCapacity;
+		apCache = createCache(newCapacity);
+		absCache = createCache(newCapacity);
+		cacheEvictions.add(oldApCache.size() + oldAbsCache.size());
+
+		logger.info("FDMM: Caches dropped, capacity is now {}", newCapacity > 0 ? newCapacity : "unbounded");
+	}
+
 	@Override
 	public Abstraction handleMemoryObject(Abstraction obj) {
+		// The erasure mode may change concurrently when memory runs short
+		final PathDataErasureMode erasePathData = this.erasePathData;
+
 		if (useAbstractionCache) {
 			// We check for a cached version of the complete abstraction
 			Abstraction cachedAbs = getCachedAbstraction(obj);
@@ -287,6 +441,47 @@ public class FlowDroidMemoryManager implements IMemoryManager<Abstraction, Unit>
 		this.useAbstractionCache = useAbstractionCache;
 	}
 
+	/**
+	 * Gets whether the memory manager uses the abstraction cache
+	 * 
+	 * @return True if the abstraction cache is used, otherwise false
+	 */
+	public boolean getUseAbstractionCache() {
+		return this.useAbstractionCache;
+	}
+
+	/**
+	 * Gets which path tracking data is erased from the abstractions
+	 * 
+	 * @return The mode that specifies which path tracking data is erased
+	 */
+	public PathDataErasureMode getPathDataErasureMode() {
+		return this.erasePathData;
+	}
+
+	/**
+	 * Erases more path tracking data when memory runs short. Context data is
+	 * given up last.
+	 */
+	@Override
+	public boolean degrade(MemoryDegradationStage stage) {
+		if (stage != MemoryDegradationStage.ErasePathData)
+			return false;
+
+		switch (erasePathData) {
+		case EraseNothing:
+			erasePathData = PathDataErasureMode.KeepOnlyContextData;
+			break;
+		case KeepOnlyContextData:
+			erasePathData = PathDataErasureMode.EraseAll;
+			break;
+		default:
+			return false;
+		}
+		logger.info("FDMM: Path data erasure switched to {}", erasePathData);
+		return true;
+	}
+
 	@Override
 	public boolean isEssentialJoinPoint(Abstraction abs, Unit relatedCallSite) {
 		return relatedCallSite != null && erasePathData != PathDataErasureMode.EraseAll;
@@ -0,0 +1,757 @@
+package soot.jimple.infoflow.data;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Local;
+import soot.SootField;
+import soot.Type;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.data.AccessPath.ArrayTaintType;
+
+/**
+ * Append-only store for the predecessor graph of the taint abstractions. Every
+ * abstraction that is written to the spill receives an ID. The spill records
+ * the ID of its predecessor, its neighbors, and the statements and access paths
+ * that are required for reconstructing the propagation paths. The records are
+ * kept in memory-mapped files outside of the Java heap. Once an abstraction has
+ * been spilled, its predecessor links on the heap can be dropped, and the
+ * propagation paths are reconstructed from the spill instead.
+ *
+ * The records have a variable length. The predecessor is stored as the
+ * difference between the IDs, and an access path that is equal to the one of
+ * the predecessor is stored as a reference to the record that contains it.
+ * Other access paths are stored inline. Only the program entities that make up
+ * the records, i.e., statements, locals, fields, and types, are kept in an
+ * in-memory table. Soot keeps these objects alive anyway. The source context is
+ * only stored for abstractions without a predecessor.
+ */
+public class PredecessorGraphSpill implements Closeable {
+
+	private static final int FLAG_CALL_SITE = 0x01;
+	private static final int FLAG_CALL_SITE_IS_STMT = 0x02;
+	private static final int FLAG_SHARED_ACCESS_PATH = 0x04;
+
+	private static final int AP_TAINT_SUB_FIELDS = 0x01;
+	private static final int AP_CUT_OFF = 0x02;
+	private static final int AP_IMMUTABLE_ALIASES = 0x04;
+	private static final int AP_ARRAY_TAINT_TYPE_SHIFT = 3;
+
+	private static final int EDGE_SIZE = 3;
+	private static final int EDGE_SOURCE = 0;
+	private static final int EDGE_NEIGHBOR = 1;
+	private static final int EDGE_NEXT = 2;
+
+	private static final int[] NO_NEIGHBORS = new int[0];
+	private static final ArrayTaintType[] ARRAY_TAINT_TYPES = ArrayTaintType.values();
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final MappedFile records;
+	private final MappedFile offsets;
+	private final MappedFile neighborHeads;
+	private final MappedFile edges;
+	private final AtomicInteger nodeCount = new AtomicInteger();
+	private final AtomicInteger edgeCount = new AtomicInteger();
+	private final Object edgeLock = new Object();
+	private final AtomicLong recordSize = new AtomicLong();
+
+	private final ObjectTable<Object> entities = new ObjectTable<>();
+	private final ObjectTable<SourceContext> sourceContexts = new ObjectTable<>();
+
+	private final ThreadLocal<RecordBuffer> recordBuffers = new ThreadLocal<RecordBuffer>() {
+
+		@Override
+		protected RecordBuffer initialValue() {
+			return new RecordBuffer();
+		}
+
+	};
+
+	/**
+	 * A file that is mapped into memory in chunks. The file grows on demand.
+	 * Concurrent writes to different positions are safe, because they only use
+	 * absolute positions in the mapped buffers.
+	 */
+	private static class MappedFile implements Closeable {
+
+		private static final int CHUNK_SHIFT = 22;
+		private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+		private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+		private static final Method INVOKE_CLEANER;
+		private static final Object UNSAFE;
+
+		static {
+			// Java 9 and later can unmap buffers through the unsafe API. Older
+			// versions expose a cleaner on the buffer itself.
+			Method invokeCleaner = null;
+			Object unsafe = null;
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				unsafe = theUnsafe.get(null);
+			} catch (Exception ex) {
+				invokeCleaner = null;
+			}
+			INVOKE_CLEANER = invokeCleaner;
+			UNSAFE = unsafe;
+		}
+
+		private final File file;
+		private final RandomAccessFile raf;
+		private final FileChannel channel;
+		private volatile MappedByteBuffer[] chunks = new MappedByteBuffer[16];
+		private boolean closed = false;
+
+		public MappedFile(File file) throws IOException {
+			this.file = file;
+			this.raf = new RandomAccessFile(file, "rw");
+			this.channel = raf.getChannel();
+		}
+
+		private MappedByteBuffer getChunk(long pos) {
+			final int chunk = (int) (pos >>> CHUNK_SHIFT);
+			MappedByteBuffer[] curChunks = chunks;
+			if (chunk < curChunks.length && curChunks[chunk] != null)
+				return curChunks[chunk];
+			return mapChunk(chunk);
+		}
+
+		private synchronized MappedByteBuffer mapChunk(int chunk) {
+			if (closed)
+				throw new IllegalStateException("The predecessor graph spill has already been closed");
+
+			MappedByteBuffer[] curChunks = chunks;
+			if (chunk >= curChunks.length)
+				curChunks = Arrays.copyOf(curChunks, Math.max(curChunks.length * 2, chunk + 1));
+			if (curChunks[chunk] == null) {
+				try {
+					curChunks[chunk] = channel.map(MapMode.READ_WRITE, (long) chunk << CHUNK_SHIFT, CHUNK_SIZE);
+				} catch (IOException ex) {
+					throw new RuntimeException("Could not map the predecessor graph spill", ex);
+				}
+			}
+			chunks = curChunks;
+			return curChunks[chunk];
+		}
+
+		public void putByte(long pos, byte value) {
+			getChunk(pos).put((int) (pos & CHUNK_MASK), value);
+		}
+
+		public byte getByte(long pos) {
+			return getChunk(pos).get((int) (pos & CHUNK_MASK));
+		}
+
+		public void putBytes(long pos, byte[] values, int length) {
+			for (int i = 0; i < length; i++)
+				putByte(pos + i, values[i]);
+		}
+
+		public void putInt(long index, int value) {
+			final long pos = index << 2;
+			getChunk(pos).putInt((int) (pos & CHUNK_MASK), value);
+		}
+
+		public int getInt(long index) {
+			final long pos = index << 2;
+			return getChunk(pos).getInt((int) (pos & CHUNK_MASK));
+		}
+
+		public void putLong(long index, long value) {
+			final long pos = index << 3;
+			getChunk(pos).putLong((int) (pos & CHUNK_MASK), value);
+		}
+
+		public long getLong(long index) {
+			final long pos = index << 3;
+			return getChunk(pos).getLong((int) (pos & CHUNK_MASK));
+		}
+
+		/**
+		 * Releases the given mapping right away instead of waiting for the
+		 * garbage collector. The buffer must not be accessed afterwards.
+		 *
+		 * @param buffer
+		 *            The buffer to unmap
+		 */
+		private static void unmap(MappedByteBuffer buffer) {
+			try {
+				if (INVOKE_CLEANER != null)
+					INVOKE_CLEANER.invoke(UNSAFE, buffer);
+				else {
+					Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+					cleanerMethod.setAccessible(true);
+					Object cleaner = cleanerMethod.invoke(buffer);
+					if (cleaner != null)
+						cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			} catch (Exception ex) {
+				// Leave the mapping to the garbage collector
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			synchronized (this) {
+				closed = true;
+				MappedByteBuffer[] curChunks = chunks;
+				chunks = new MappedByteBuffer[0];
+				for (MappedByteBuffer chunk : curChunks)
+					if (chunk != null)
+						unmap(chunk);
+			}
+			channel.close();
+			raf.close();
+
+			if (!file.delete())
+				file.deleteOnExit();
+		}
+
+	}
+
+	/**
+	 * Table that assigns consecutive indices to objects. Index zero stands for
+	 * <code>null</code>.
+	 */
+	private static class ObjectTable<T> {
+
+		private final ConcurrentMap<T, Integer> indices = new ConcurrentHashMap<>();
+		private volatile Object[] objects = new Object[64];
+		private int size = 1;
+
+		public int indexOf(T obj) {
+			if (obj == null)
+				return 0;
+			Integer idx = indices.get(obj);
+			if (idx != null)
+				return idx;
+
+			synchronized (this) {
+				idx = indices.get(obj);
+				if (idx == null) {
+					Object[] curObjects = objects;
+					if (size == curObjects.length)
+						curObjects = Arrays.copyOf(curObjects, curObjects.length * 2);
+					idx = size++;
+					curObjects[idx] = obj;
+					objects = curObjects;
+					indices.put(obj, idx);
+				}
+				return idx;
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		public T get(int idx) {
+			return (T) objects[idx];
+		}
+
+	}
+
+	/**
+	 * Buffer in which a record is assembled before it is appended to the
+	 * record file
+	 */
+	private static class RecordBuffer {
+
+		private byte[] data = new byte[64];
+		private int size = 0;
+
+		public void writeByte(int value) {
+			if (size == data.length)
+				data = Arrays.copyOf(data, data.length * 2);
+			data[size++] = (byte) value;
+		}
+
+		public void writeVarInt(int value) {
+			while ((value & ~0x7F) != 0) {
+				writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			writeByte(value);
+		}
+
+	}
+
+	/**
+	 * Sequential reader for a single record in the record file
+	 */
+	private class RecordReader {
+
+		private long pos;
+
+		public RecordReader(int id) {
+			this.pos = offsets.getLong(id);
+		}
+
+		public int readByte() {
+			return records.getByte(pos++) & 0xFF;
+		}
+
+		public int readVarInt() {
+			int value = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = readByte();
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+
+	}
+
+	/**
+	 * Creates a new predecessor graph spill in the default temporary directory
+	 *
+	 * @throws IOException
+	 *             Thrown if the spill files could not be created
+	 */
+	public PredecessorGraphSpill() throws IOException {
+		this(null);
+	}
+
+	/**
+	 * Creates a new predecessor graph spill
+	 *
+	 * @param directory
+	 *            The directory in which to create the spill files, or null to
+	 *            use the default temporary directory
+	 * @throws IOException
+	 *             Thrown if the spill files could not be created
+	 */
+	public PredecessorGraphSpill(File directory) throws IOException {
+		this.records = new MappedFile(File.createTempFile("flowdroid-records", ".bin", directory));
+		this.offsets = new MappedFile(File.createTempFile("flowdroid-offsets", ".bin", directory));
+		this.neighborHeads = new MappedFile(File.createTempFile("flowdroid-neighbors", ".bin", directory));
+		this.edges = new MappedFile(File.createTempFile("flowdroid-edges", ".bin", directory));
+		logger.info("Spilling the predecessor graph to disk");
+	}
+
+	/**
+	 * Writes the given abstraction and all of its predecessors that have not
+	 * been written yet to the spill
+	 *
+	 * @param abs
+	 *            The abstraction to spill
+	 * @return The ID of the abstraction in the spill
+	 */
+	public int spill(Abstraction abs) {
+		int id = abs.getSpillId();
+		if (id != 0)
+			return id;
+
+		// Write the predecessors first, so that every record refers to an
+		// existing one
+		List<Abstraction> chain = new ArrayList<>();
+		for (Abstraction curAbs = abs; curAbs != null && curAbs.getSpillId() == 0; curAbs = curAbs.getPredecessor())
+			chain.add(curAbs);
+		for (int i = chain.size() - 1; i >= 0; i--)
+			writeNode(chain.get(i));
+		return abs.getSpillId();
+	}
+
+	/**
+	 * Writes the record for a single abstraction whose predecessor has already
+	 * been spilled
+	 *
+	 * @param abs
+	 *            The abstraction to write
+	 */
+	private void writeNode(Abstraction abs) {
+		synchronized (abs) {
+			if (abs.getSpillId() != 0)
+				return;
+
+			final Abstraction pred = abs.getPredecessor();
+			final int predId = pred == null ? 0 : pred.getSpillId();
+			final int id = nodeCount.incrementAndGet();
+			final Stmt stmt = abs.getCurrentStmt();
+			final Stmt callSite = abs.getCorrespondingCallSite();
+			final AccessPath ap = abs.getAccessPath();
+			final boolean sharedAp = pred != null && ap.equals(pred.getAccessPath());
+
+			int flags = 0;
+			if (callSite != null)
+				flags |= callSite == stmt ? FLAG_CALL_SITE_IS_STMT : FLAG_CALL_SITE;
+			if (sharedAp)
+				flags |= FLAG_SHARED_ACCESS_PATH;
+
+			final RecordBuffer buffer = recordBuffers.get();
+			buffer.size = 0;
+			buffer.writeByte(flags);
+			buffer.writeVarInt(predId == 0 ? 0 : id - predId);
+			buffer.writeVarInt(entities.indexOf(stmt));
+			if ((flags & FLAG_CALL_SITE) != 0)
+				buffer.writeVarInt(entities.indexOf(callSite));
+			if (sharedAp)
+				buffer.writeVarInt(id - getAccessPathOwner(predId));
+			else
+				writeAccessPath(buffer, ap);
+			if (predId == 0)
+				buffer.writeVarInt(sourceContexts.indexOf(abs.getSourceContext()));
+
+			final long pos = recordSize.getAndAdd(buffer.size);
+			records.putBytes(pos, buffer.data, buffer.size);
+			offsets.putLong(id, pos);
+			abs.setSpillId(id);
+		}
+	}
+
+	/**
+	 * Appends the given access path to the given record
+	 *
+	 * @param buffer
+	 *            The buffer that holds the record
+	 * @param ap
+	 *            The access path to write
+	 */
+	private void writeAccessPath(RecordBuffer buffer, AccessPath ap) {
+		int apFlags = ap.getArrayTaintType().ordinal() << AP_ARRAY_TAINT_TYPE_SHIFT;
+		if (ap.getTaintSubFields())
+			apFlags |= AP_TAINT_SUB_FIELDS;
+		if (ap.isCutOffApproximation())
+			apFlags |= AP_CUT_OFF;
+		if (ap.getCanHaveImmutableAliases())
+			apFlags |= AP_IMMUTABLE_ALIASES;
+		buffer.writeByte(apFlags);
+		buffer.writeVarInt(entities.indexOf(ap.getPlainValue()));
+		buffer.writeVarInt(entities.indexOf(ap.getBaseType()));
+
+		final SootField[] fields = ap.getFields();
+		final Type[] fieldTypes = ap.getFieldTypes();
+		final int fieldCount = fields == null ? 0 : fields.length;
+		buffer.writeVarInt(fieldCount);
+		for (int i = 0; i < fieldCount; i++) {
+			buffer.writeVarInt(entities.indexOf(fields[i]));
+			buffer.writeVarInt(entities.indexOf(fieldTypes[i]));
+		}
+	}
+
+	/**
+	 * Reads an access path that is stored inline in a record
+	 *
+	 * @param reader
+	 *            The reader that is positioned at the access path
+	 * @return The access path
+	 */
+	private AccessPath readAccessPath(RecordReader reader) {
+		final int apFlags = reader.readByte();
+		final Local value = (Local) entities.get(reader.readVarInt());
+		final Type baseType = (Type) entities.get(reader.readVarInt());
+
+		final int fieldCount = reader.readVarInt();
+		SootField[] fields = null;
+		Type[] fieldTypes = null;
+		if (fieldCount > 0) {
+			fields = new SootField[fieldCount];
+			fieldTypes = new Type[fieldCount];
+			for (int i = 0; i < fieldCount; i++) {
+				fields[i] = (SootField) entities.get(reader.readVarInt());
+				fieldTypes[i] = (Type) entities.get(reader.readVarInt());
+			}
+		}
+		return new AccessPath(value, fields, baseType, fieldTypes, (apFlags & AP_TAINT_SUB_FIELDS) != 0,
+				(apFlags & AP_CUT_OFF) != 0, ARRAY_TAINT_TYPES[apFlags >>> AP_ARRAY_TAINT_TYPE_SHIFT],
+				(apFlags & AP_IMMUTABLE_ALIASES) != 0);
+	}
+
+	/**
+	 * Skips an access path that is stored inline in a record
+	 *
+	 * @param reader
+	 *            The reader that is positioned at the access path
+	 */
+	private void skipAccessPath(RecordReader reader) {
+		reader.readByte();
+		reader.readVarInt();
+		reader.readVarInt();
+		final int fieldCount = reader.readVarInt();
+		for (int i = 0; i < fieldCount * 2; i++)
+			reader.readVarInt();
+	}
+
+	/**
+	 * Gets the ID of the record that stores the access path of the abstraction
+	 * with the given ID inline
+	 *
+	 * @param id
+	 *            The ID of the abstraction
+	 * @return The ID of the record that contains the access path
+	 */
+	private int getAccessPathOwner(int id) {
+		RecordReader reader = new RecordReader(id);
+		final int flags = reader.readByte();
+		if ((flags & FLAG_SHARED_ACCESS_PATH) == 0)
+			return id;
+		reader.readVarInt();
+		reader.readVarInt();
+		if ((flags & FLAG_CALL_SITE) != 0)
+			reader.readVarInt();
+		return id - reader.readVarInt();
+	}
+
+	/**
+	 * Records that the given neighbor has been added to the given abstraction
+	 *
+	 * @param abs
+	 *            The abstraction that has received a new neighbor
+	 * @param neighbor
+	 *            The new neighbor
+	 */
+	public void spillNeighbor(Abstraction abs, Abstraction neighbor) {
+		final int neighborId = spill(neighbor);
+		final int absId = spill(abs);
+
+		// The neighbors of an abstraction form a linked list in the edge file.
+		// The edge count is only published once the edge has been written, so
+		// that readers never see an incomplete edge.
+		synchronized (edgeLock) {
+			final int edge = edgeCount.get() + 1;
+			final long base = (long) edge * EDGE_SIZE;
+			edges.putInt(base + EDGE_SOURCE, absId);
+			edges.putInt(base + EDGE_NEIGHBOR, neighborId);
+			edges.putInt(base + EDGE_NEXT, neighborHeads.getInt(absId));
+			neighborHeads.putInt(absId, edge);
+			edgeCount.set(edge);
+		}
+	}
+
+	/**
+	 * Drops the heap links that are no longer needed after the given
+	 * abstraction has been spilled. The abstraction keeps the link to its own
+	 * predecessor, because the taint propagation rules may still inspect it.
+	 * Only the link from the predecessor to its own predecessor is dropped.
+	 *
+	 * @param abs
+	 *            The abstraction that has just been spilled
+	 */
+	public void dropPredecessorLinks(Abstraction abs) {
+		Abstraction pred = abs.getPredecessor();
+		if (pred == null || pred.getSpillId() == 0 || pred.hasDroppedPredecessor())
+			return;
+		Abstraction predPred = pred.getPredecessor();
+		if (predPred == null)
+			return;
+
+		// The strong update rule checks the predecessor of an abstraction that
+		// has just been activated
+		if (pred.isAbstractionActive() && !predPred.isAbstractionActive())
+			return;
+
+		synchronized (pred) {
+			pred.dropSpilledLinks(false);
+		}
+	}
+
+	/**
+	 * Spills the given abstraction and drops all of its links to predecessors
+	 * and neighbors from the heap. Use this method for abstractions at sinks
+	 * once the data flow analysis has finished.
+	 *
+	 * @param abs
+	 *            The abstraction to detach from the heap
+	 * @return The ID of the abstraction in the spill
+	 */
+	public int detach(Abstraction abs) {
+		final int id = spill(abs);
+		synchronized (abs) {
+			abs.dropSpilledLinks(true);
+		}
+		return id;
+	}
+
+	/**
+	 * Gets the ID of the predecessor of the abstraction with the given ID
+	 *
+	 * @param id
+	 *            The ID of the abstraction
+	 * @return The ID of the predecessor, or zero if the abstraction has no
+	 *         predecessor
+	 */
+	public int getPredecessor(int id) {
+		RecordReader reader = new RecordReader(id);
+		reader.readByte();
+		final int delta = reader.readVarInt();
+		return delta == 0 ? 0 : id - delta;
+	}
+
+	/**
+	 * Gets the IDs of the neighbors of the abstraction with the given ID
+	 *
+	 * @param id
+	 *            The ID of the abstraction
+	 * @return The IDs of the neighbors
+	 */
+	public int[] getNeighbors(int id) {
+		int edge = neighborHeads.getInt(id);
+		if (edge == 0)
+			return NO_NEIGHBORS;
+
+		int[] neighbors = new int[4];
+		int count = 0;
+		while (edge != 0) {
+			if (count == neighbors.length)
+				neighbors = Arrays.copyOf(neighbors, neighbors.length * 2);
+			neighbors[count++] = edges.getInt((long) edge * EDGE_SIZE + EDGE_NEIGHBOR);
+			edge = edges.getInt((long) edge * EDGE_SIZE + EDGE_NEXT);
+		}
+		return count == neighbors.length ? neighbors : Arrays.copyOf(neighbors, count);
+	}
+
+	/**
+	 * Gets the number of neighbor edges in this spill. The edges are numbered
+	 * from one in the order in which the neighbors were added.
+	 *
+	 * @return The number of neighbor edges in this spill
+	 */
+	public int getNeighborEdgeCount() {
+		return edgeCount.get();
+	}
+
+	/**
+	 * Gets the ID of the abstraction that has received a neighbor with the
+	 * given neighbor edge
+	 *
+	 * @param edge
+	 *            The number of the neighbor edge
+	 * @return The ID of the abstraction that has received the neighbor
+	 */
+	public int getNeighborEdgeSource(int edge) {
+		return edges.getInt((long) edge * EDGE_SIZE + EDGE_SOURCE);
+	}
+
+	/**
+	 * Gets the ID of the neighbor that has been added with the given neighbor
+	 * edge
+	 *
+	 * @param edge
+	 *            The number of the neighbor edge
+	 * @return The ID of the neighbor
+	 */
+	public int getNeighborEdgeTarget(int edge) {
+		return edges.getInt((long) edge * EDGE_SIZE + EDGE_NEIGHBOR);
+	}
+
+	/**
+	 * Gets the statement at which the abstraction with the given ID was created
+	 *
+	 * @param id
+	 *            The ID of the abstraction
+	 * @return The current statement of the abstraction
+	 */
+	public Stmt getCurrentStmt(int id) {
+		RecordReader reader = new RecordReader(id);
+		reader.readByte();
+		reader.readVarInt();
+		return (Stmt) entities.get(reader.readVarInt());
+	}
+
+	/**
+	 * Gets the call site that corresponds to the abstraction with the given ID
+	 *
+	 * @param id
+	 *            The ID of the abstraction
+	 * @return The corresponding call site of the abstraction
+	 */
+	public Stmt getCorrespondingCallSite(int id) {
+		RecordReader reader = new RecordReader(id);
+		final int flags = reader.readByte();
+		if ((flags & (FLAG_CALL_SITE | FLAG_CALL_SITE_IS_STMT)) == 0)
+			return null;
+		reader.readVarInt();
+		final int stmt = reader.readVarInt();
+		return (Stmt) entities.get((flags & FLAG_CALL_SITE) != 0 ? reader.readVarInt() : stmt);
+	}
+
+	/**
+	 * Gets the access path of the abstraction with the given ID
+	 *
+	 * @param id
+	 *            The ID of the abstraction
+	 * @return The access path of the abstraction
+	 */
+	public AccessPath getAccessPath(int id) {
+		RecordReader reader = new RecordReader(getAccessPathOwner(id));
+		final int flags = reader.readByte();
+		reader.readVarInt();
+		reader.readVarInt();
+		if ((flags & FLAG_CALL_SITE) != 0)
+			reader.readVarInt();
+		return readAccessPath(reader);
+	}
+
+	/**
+	 * Gets the source context of the abstraction with the given ID
+	 *
+	 * @param id
+	 *            The ID of the abstraction
+	 * @return The source context of the abstraction, or null if the
+	 *         abstraction is not a source
+	 */
+	public SourceContext getSourceContext(int id) {
+		RecordReader reader = new RecordReader(id);
+		final int flags = reader.readByte();
+		if (reader.readVarInt() != 0)
+			return null;
+		reader.readVarInt();
+		if ((flags & FLAG_CALL_SITE) != 0)
+			reader.readVarInt();
+
+		// An abstraction without a predecessor cannot share its access path
+		skipAccessPath(reader);
+		return sourceContexts.get(reader.readVarInt());
+	}
+
+	/**
+	 * Gets the number of abstractions in this spill
+	 *
+	 * @return The number of abstractions in this spill
+	 */
+	public int getNodeCount() {
+		return nodeCount.get();
+	}
+
+	@Override
+	public void close() throws IOException {
+		logger.info("Predecessor graph spill contained {} abstractions in {} bytes and {} neighbor edges",
+				nodeCount.get(), recordSize.get(), edgeCount.get());
+		try {
+			records.close();
+		} finally {
+			try {
+				offsets.close();
+			} finally {
+				try {
+					neighborHeads.close();
+				} finally {
+					edges.close();
+				}
+			}
+		}
+	}
+
+}
@@ -3,23 +3,33 @@ package soot.jimple.infoflow.data;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
 
 import heros.solver.Pair;
 import soot.jimple.Stmt;
 import soot.jimple.infoflow.InfoflowConfiguration;
 import soot.jimple.infoflow.InfoflowConfiguration.PathConfiguration;
+import soot.jimple.infoflow.collect.ConsList;
+import soot.jimple.infoflow.collect.PersistentIntSet;
 import soot.jimple.infoflow.sourcesSinks.definitions.SourceSinkDefinition;
 
 /**
  * Extension of {@link SourceContext} that also allows a paths from the source
- * to the current statement to be stored
+ * to the current statement to be stored. The path and the call stack are
+ * immutable lists that start with the most recent element, so extending a path
+ * shares all existing elements with the original one.
  * 
  * @author Steven Arzt
  */
 public class SourceContextAndPath extends SourceContext implements Cloneable {
-	protected List<Abstraction> path = null;
-	protected List<Stmt> callStack = null;
+	protected ConsList<Abstraction> path = null;
+	protected ConsList<Stmt> callStack = null;
+
+	/**
+	 * The hash codes of all abstractions on the path. Used to quickly rule out
+	 * loops without scanning the path.
+	 */
+	protected PersistentIntSet pathHashes = null;
+
 	protected int neighborCounter = 0;
 	private int hashCode = 0;
 
@@ -35,8 +45,7 @@ public class SourceContextAndPath extends SourceContext implements Cloneable {
 		if (path == null)
 			return Collections.<Stmt>emptyList();
 		List<Stmt> stmtPath = new ArrayList<>(this.path.size());
-		for (ListIterator<Abstraction> absIt = this.path.listIterator(path.size()); absIt.hasPrevious();) {
-			Abstraction abs = absIt.previous();
+		for (Abstraction abs : this.path) {
 			if (abs.getCurrentStmt() != null) {
 				stmtPath.add(abs.getCurrentStmt());
 			}
@@ -47,13 +56,7 @@ public class SourceContextAndPath extends SourceContext implements Cloneable {
 	public List<Abstraction> getAbstractionPath() {
 		if (path == null)
 			return null;
-
-		List<Abstraction> reversePath = new ArrayList<>(path.size());
-		ListIterator<Abstraction> it = path.listIterator(path.size());
-		while (it.hasPrevious()) {
-			reversePath.add(it.previous());
-		}
-		return reversePath;
+		return path.toList();
 	}
 
 	/**
@@ -95,7 +98,11 @@ public class SourceContextAndPath extends SourceContext implements Cloneable {
 		SourceContextAndPath scap = null;
 		if (trackPath && abs.getCurrentStmt() != null) {
 			// Do not add the very same abstraction over and over again.
-			if (this.path != null) {
+			// Neighbors are always equal to the abstraction they belong to, so
+			// all of the checks below require an abstraction with the same
+			// hash code to already be on the path.
+			final int absHash = abs.hashCode();
+			if (this.path != null && pathHashes.contains(absHash)) {
 				for (Abstraction a : path) {
 					if (a == abs)
 						return null;
@@ -115,7 +122,7 @@ public class SourceContextAndPath extends SourceContext implements Cloneable {
 				}
 
 				// We cannot leave the same method at two different sites
-				Abstraction topAbs = path.get(path.size() - 1);
+				Abstraction topAbs = path.getHead();
 				if (topAbs.equals(abs)
 						&& topAbs.getCorrespondingCallSite() != null
 						&& topAbs.getCorrespondingCallSite() == abs.getCorrespondingCallSite()
@@ -123,11 +130,10 @@ public class SourceContextAndPath extends SourceContext implements Cloneable {
 					return null;
 			}
 
-			scap = clone();
 			// Extend the propagation path
-			if (scap.path == null)
-				scap.path = new ArrayList<Abstraction>();
-			scap.path.add(abs);
+			scap = clone();
+			scap.path = ConsList.prepend(abs, path);
+			scap.pathHashes = PersistentIntSet.add(pathHashes, absHash);
 			if (pathConfig != null
 					&& pathConfig.getMaxPathLength() > 0
 					&& scap.path.size() > pathConfig.getMaxPathLength())
@@ -138,13 +144,12 @@ public class SourceContextAndPath extends SourceContext implements Cloneable {
 		if (abs.getCorrespondingCallSite() != null && abs.getCorrespondingCallSite() != abs.getCurrentStmt()) {
 			if (scap == null)
 				scap = this.clone();
-			if (scap.callStack == null)
-				scap.callStack = new ArrayList<Stmt>();
-			else if (pathConfig != null
+			if (scap.callStack != null
+					&& pathConfig != null
 					&& pathConfig.getMaxCallStackSize() > 0
 					&& scap.callStack.size() >= pathConfig.getMaxCallStackSize())
 				return null;
-			scap.callStack.add(abs.getCorrespondingCallSite());
+			scap.callStack = ConsList.prepend(abs.getCorrespondingCallSite(), scap.callStack);
 		}
 
 		this.neighborCounter = abs.getNeighbors() == null ? 0 : abs.getNeighbors().size();
@@ -159,11 +164,12 @@ public class SourceContextAndPath extends SourceContext implements Cloneable {
 	 *         element. If there is no call stack, null is returned.
 	 */
 	public Pair<SourceContextAndPath, Stmt> popTopCallStackItem() {
-		if (callStack == null || callStack.isEmpty())
+		if (callStack == null)
 			return null;
 
 		SourceContextAndPath scap = clone();
-		return new Pair<>(scap, scap.callStack.remove(scap.callStack.size() - 1));
+		scap.callStack = callStack.getTail();
+		return new Pair<>(scap, callStack.getHead());
 	}
 
 	/**
@@ -173,7 +179,17 @@ public class SourceContextAndPath extends SourceContext implements Cloneable {
 	 * @return True if the call stack is empty, otherwise false
 	 */
 	public boolean isCallStackEmpty() {
-		return this.callStack == null || this.callStack.isEmpty();
+		return this.callStack == null;
+	}
+
+	/**
+	 * Gets the call stack of this path. The most recent call site is the head
+	 * of the list.
+	 * 
+	 * @return The call stack of this path, or null if the call stack is empty
+	 */
+	public ConsList<Stmt> getCallStack() {
+		return this.callStack;
 	}
 
 	public void setNeighborCounter(int counter) {
@@ -208,7 +224,7 @@ public class SourceContextAndPath extends SourceContext implements Cloneable {
 		if (this.callStack == null) {
 			if (scap.callStack != null)
 				return false;
-		} else if (callStack.size() != scap.callStack.size() || !this.callStack.equals(scap.callStack))
+		} else if (!this.callStack.equals(scap.callStack))
 			return false;
 
 		if (mergeDifferentPaths) {
@@ -236,10 +252,9 @@ public class SourceContextAndPath extends SourceContext implements Cloneable {
 	@Override
 	public SourceContextAndPath clone() {
 		final SourceContextAndPath scap = new SourceContextAndPath(definition, accessPath, stmt, userData);
-		if (path != null)
-			scap.path = new ArrayList<Abstraction>(this.path);
-		if (callStack != null)
-			scap.callStack = new ArrayList<Stmt>(callStack);
+		scap.path = path;
+		scap.pathHashes = pathHashes;
+		scap.callStack = callStack;
 		return scap;
 	}
 
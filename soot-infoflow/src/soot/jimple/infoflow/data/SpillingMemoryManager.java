@@ -0,0 +1,56 @@
+package soot.jimple.infoflow.data;
+
+import soot.Unit;
+import soot.jimple.infoflow.solver.memory.IMemoryManager;
+import soot.jimple.infoflow.solver.memory.INeighborHandler;
+
+/**
+ * Memory manager that writes every abstraction that the solver propagates to a
+ * {@link PredecessorGraphSpill}, together with the neighbors that are added at
+ * join points. The heap links to older predecessors are dropped afterwards.
+ * All other memory optimizations are left to the wrapped memory manager.
+ */
+public class SpillingMemoryManager implements IMemoryManager<Abstraction, Unit>, INeighborHandler<Abstraction> {
+
+	private final IMemoryManager<Abstraction, Unit> memoryManager;
+	private final PredecessorGraphSpill spill;
+
+	/**
+	 * Creates a new instance of the {@link SpillingMemoryManager} class
+	 *
+	 * @param memoryManager
+	 *            The memory manager that performs all other optimizations
+	 * @param spill
+	 *            The spill into which to write the predecessor graph
+	 */
+	public SpillingMemoryManager(IMemoryManager<Abstraction, Unit> memoryManager, PredecessorGraphSpill spill) {
+		this.memoryManager = memoryManager;
+		this.spill = spill;
+	}
+
+	@Override
+	public Abstraction handleMemoryObject(Abstraction obj) {
+		obj = memoryManager.handleMemoryObject(obj);
+		if (obj != null) {
+			spill.spill(obj);
+			spill.dropPredecessorLinks(obj);
+		}
+		return obj;
+	}
+
+	@Override
+	public Abstraction handleGeneratedMemoryObject(Abstraction input, Abstraction output) {
+		return memoryManager.handleGeneratedMemoryObject(input, output);
+	}
+
+	@Override
+	public boolean isEssentialJoinPoint(Abstraction abs, Unit relatedCallSite) {
+		return memoryManager.isEssentialJoinPoint(abs, relatedCallSite);
+	}
+
+	@Override
+	public void handleNeighbor(Abstraction abs, Abstraction neighbor) {
+		spill.spillNeighbor(abs, neighbor);
+	}
+
+}
@@ -41,4 +41,9 @@ public abstract class AbstractAbstractionPathBuilder implements IAbstractionPath
 		this.resultAvailableHandlers.add(handler);
 	}
 
+	@Override
+	public void shutdown() {
+		// Nothing to release by default
+	}
+
 }
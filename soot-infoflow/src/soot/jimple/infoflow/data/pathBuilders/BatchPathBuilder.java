@@ -79,6 +79,11 @@ public class BatchPathBuilder extends AbstractAbstractionPathBuilder {
 		innerBuilder.runIncrementalPathCompuation();
 	}
 
+	@Override
+	public void shutdown() {
+		innerBuilder.shutdown();
+	}
+
 	@Override
 	public void forceTerminate(ISolverTerminationReason reason) {
 		innerBuilder.forceTerminate(reason);
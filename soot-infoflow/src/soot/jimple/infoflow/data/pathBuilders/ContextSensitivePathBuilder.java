@@ -75,46 +75,21 @@ public class ContextSensitivePathBuilder extends ConcurrentAbstractionPathBuilde
 		}
 
 		private boolean processPredecessor(SourceContextAndPath scap, Abstraction pred) {
-			// Shortcut: If this a call-to-return node, we should not enter and
-			// immediately leave again for performance reasons.
-			if (pred.getCurrentStmt() != null && pred.getCurrentStmt() == pred.getCorrespondingCallSite()) {
-				SourceContextAndPath extendedScap = scap.extendPath(pred, pathConfig);
-				if (extendedScap == null)
-					return false;
-
-				checkForSource(pred, extendedScap);
-				return pathCache.put(pred, extendedScap);
-			}
-
-			// If we enter a method, we put it on the stack
-			SourceContextAndPath extendedScap = scap.extendPath(pred, pathConfig);
+			SourceContextAndPath extendedScap = extendPathTo(scap, pred);
 			if (extendedScap == null)
 				return false;
 
-			// Do we process a method return?
-			if (pred.getCurrentStmt() != null && pred.getCurrentStmt().containsInvokeExpr()) {
-				// Pop the top item off the call stack. This gives us the item
-				// and the new SCAP without the item we popped off.
-				Pair<SourceContextAndPath, Stmt> pathAndItem = extendedScap.popTopCallStackItem();
-				if (pathAndItem != null) {
-					Stmt topCallStackItem = pathAndItem.getO2();
-					// Make sure that we don't follow an unrealizable path
-					if (topCallStackItem != pred.getCurrentStmt())
-						return false;
-
-					// We have returned from a function
-					extendedScap = pathAndItem.getO1();
-				}
-			}
-
 			// Add the new path
 			checkForSource(pred, extendedScap);
 
-			final int maxPaths = pathConfig.getMaxPathsPerAbstraction();
-			if (maxPaths > 0) {
-				Set<SourceContextAndPath> existingPaths = pathCache.get(pred);
-				if (existingPaths != null && existingPaths.size() > maxPaths)
-					return false;
+			// Call-to-return nodes are not subject to the path limit
+			if (!isCallToReturn(pred)) {
+				final int maxPaths = pathConfig.getMaxPathsPerAbstraction();
+				if (maxPaths > 0) {
+					Set<SourceContextAndPath> existingPaths = pathCache.get(pred);
+					if (existingPaths != null && existingPaths.size() > maxPaths)
+						return false;
+				}
 			}
 			return pathCache.put(pred, extendedScap);
 		}
@@ -143,6 +118,59 @@ public class ContextSensitivePathBuilder extends ConcurrentAbstractionPathBuilde
 
 	}
 
+	/**
+	 * Checks whether the given abstraction belongs to a call-to-return edge
+	 * 
+	 * @param abs
+	 *            The abstraction to check
+	 * @return True if the given abstraction belongs to a call-to-return edge,
+	 *         otherwise false
+	 */
+	protected boolean isCallToReturn(Abstraction abs) {
+		return abs.getCurrentStmt() != null && abs.getCurrentStmt() == abs.getCorrespondingCallSite();
+	}
+
+	/**
+	 * Extends the given path with the given predecessor abstraction. If the
+	 * predecessor leaves a method, the path must have entered it at the same
+	 * call site.
+	 * 
+	 * @param scap
+	 *            The path leading up to the current abstraction
+	 * @param pred
+	 *            The predecessor of the current abstraction
+	 * @return The extended path, or null if the predecessor cannot be added to
+	 *         the given path
+	 */
+	protected SourceContextAndPath extendPathTo(SourceContextAndPath scap, Abstraction pred) {
+		// Shortcut: If this a call-to-return node, we should not enter and
+		// immediately leave again for performance reasons.
+		if (isCallToReturn(pred))
+			return scap.extendPath(pred, pathConfig);
+
+		// If we enter a method, we put it on the stack
+		SourceContextAndPath extendedScap = scap.extendPath(pred, pathConfig);
+		if (extendedScap == null)
+			return null;
+
+		// Do we process a method return?
+		if (pred.getCurrentStmt() != null && pred.getCurrentStmt().containsInvokeExpr()) {
+			// Pop the top item off the call stack. This gives us the item
+			// and the new SCAP without the item we popped off.
+			Pair<SourceContextAndPath, Stmt> pathAndItem = extendedScap.popTopCallStackItem();
+			if (pathAndItem != null) {
+				Stmt topCallStackItem = pathAndItem.getO2();
+				// Make sure that we don't follow an unrealizable path
+				if (topCallStackItem != pred.getCurrentStmt())
+					return null;
+
+				// We have returned from a function
+				extendedScap = pathAndItem.getO1();
+			}
+		}
+		return extendedScap;
+	}
+
 	/**
 	 * Checks whether the given abstraction is a source. If so, a result entry is
 	 * created.
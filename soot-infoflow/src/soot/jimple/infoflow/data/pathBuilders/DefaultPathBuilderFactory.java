@@ -47,6 +47,11 @@ public class DefaultPathBuilderFactory implements IPathBuilderFactory {
 
 	@Override
 	public IAbstractionPathBuilder createPathBuilder(InfoflowManager manager, InterruptableExecutor executor) {
+		// If the predecessor graph has been written to disk, we reconstruct
+		// the paths from there
+		if (manager.getPredecessorGraphSpill() != null && supportsPathReconstruction())
+			return new SpilledGraphPathBuilder(manager, executor, manager.getPredecessorGraphSpill());
+
 		switch (pathConfiguration.getPathBuildingAlgorithm()) {
 		case Recursive:
 			return new RecursivePathBuilder(manager, executor);
@@ -56,6 +61,10 @@ public class DefaultPathBuilderFactory implements IPathBuilderFactory {
 			return new ContextInsensitivePathBuilder(manager, executor);
 		case ContextInsensitiveSourceFinder:
 			return new ContextInsensitiveSourceFinder(manager, executor);
+		case Memoizing:
+			return new MemoizingPathBuilder(manager, pathConfiguration.getPathBuildingParallelism());
+		case ShortestPathFirst:
+			return new ShortestPathFirstPathBuilder(manager, executor);
 		case None:
 			return new EmptyPathBuilder();
 		}
@@ -68,6 +77,8 @@ public class DefaultPathBuilderFactory implements IPathBuilderFactory {
 		case Recursive:
 		case ContextSensitive:
 		case ContextInsensitive:
+		case Memoizing:
+		case ShortestPathFirst:
 			return true;
 		case ContextInsensitiveSourceFinder:
 		case None:
@@ -78,7 +89,9 @@ public class DefaultPathBuilderFactory implements IPathBuilderFactory {
 
 	@Override
 	public boolean isContextSensitive() {
-		return pathConfiguration.getPathBuildingAlgorithm() == PathBuildingAlgorithm.ContextSensitive;
+		return pathConfiguration.getPathBuildingAlgorithm() == PathBuildingAlgorithm.ContextSensitive
+				|| pathConfiguration.getPathBuildingAlgorithm() == PathBuildingAlgorithm.Memoizing
+				|| pathConfiguration.getPathBuildingAlgorithm() == PathBuildingAlgorithm.ShortestPathFirst;
 	}
 
 }
@@ -31,6 +31,10 @@ public class EmptyPathBuilder implements IAbstractionPathBuilder {
 	public void runIncrementalPathCompuation() {
 	}
 
+	@Override
+	public void shutdown() {
+	}
+
 	@Override
 	public boolean isTerminated() {
 		return false;
@@ -58,4 +58,10 @@ public interface IAbstractionPathBuilder extends IMemoryBoundedSolver {
 	 */
 	public void runIncrementalPathCompuation();
 	
+	/**
+	 * Shuts down this path builder and releases the threads it holds. The path
+	 * builder must not be used anymore afterwards.
+	 */
+	public void shutdown();
+	
 }
@@ -0,0 +1,682 @@
+package soot.jimple.infoflow.data.pathBuilders;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+
+import heros.solver.Pair;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.InfoflowConfiguration;
+import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.collect.ConcurrentHashSet;
+import soot.jimple.infoflow.collect.ConcurrentIdentityHashMap;
+import soot.jimple.infoflow.collect.ConsList;
+import soot.jimple.infoflow.collect.PersistentIntSet;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.data.AbstractionAtSink;
+import soot.jimple.infoflow.data.SourceContext;
+import soot.jimple.infoflow.memory.ISolverTerminationReason;
+import soot.jimple.infoflow.results.InfoflowResults;
+import soot.jimple.infoflow.results.ResultSinkInfo;
+import soot.jimple.infoflow.results.ResultSourceInfo;
+
+/**
+ * Context-sensitive path builder that computes the paths from the sources to
+ * each abstraction only once. Instead of walking from every sink back to the
+ * sources, this builder propagates path summaries from the sources towards the
+ * sinks. The summaries of an abstraction are composed from the summaries of its
+ * predecessors and share their paths, so sinks with common predecessor chains
+ * also share the work on these chains. The tasks run on a dedicated fork-join
+ * pool that is independent of the executor of the data flow solver. All runs
+ * of the builder share this pool, which is shut down in {@link #shutdown()}.
+ */
+public class MemoizingPathBuilder extends AbstractAbstractionPathBuilder {
+
+	private final InfoflowResults results = new InfoflowResults();
+	private final ForkJoinPool pool;
+	private final boolean trackPaths;
+
+	private final ConcurrentIdentityHashMap<Abstraction, PathNode> nodes = new ConcurrentIdentityHashMap<>();
+	private final Set<SinkNode> sinks = new ConcurrentHashSet<>();
+
+	/**
+	 * The task that waits for all tasks of the current run, or null if no run
+	 * has been started yet
+	 */
+	private volatile PathBuilderTask rootTask = null;
+
+	private Set<IMemoryBoundedSolverStatusNotification> notificationListeners = new HashSet<>();
+	private volatile ISolverTerminationReason killFlag = null;
+
+	/**
+	 * Creates a new instance of the {@link MemoizingPathBuilder} class
+	 *
+	 * @param manager
+	 *            The data flow manager that gives access to the icfg and other
+	 *            objects
+	 * @param parallelism
+	 *            The number of threads to use for path reconstruction. If this
+	 *            value is not positive, one thread per processor is used.
+	 */
+	public MemoizingPathBuilder(InfoflowManager manager, int parallelism) {
+		super(manager);
+		this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+		this.trackPaths = pathConfig.getPathReconstructionMode().reconstructPaths();
+	}
+
+	/**
+	 * The paths from a single source to an abstraction, together with the
+	 * effect of these paths on the call stack. Two summaries are equal if they
+	 * start at the same source and have the same effect on the call stack. If
+	 * results are path-specific, their paths must be equal as well.
+	 */
+	private static class PathSummary {
+
+		private final SourceContext source;
+
+		/**
+		 * The abstractions on the path, starting with the one that is furthest
+		 * from the source
+		 */
+		private final ConsList<Abstraction> path;
+		private final PersistentIntSet pathHashes;
+
+		/**
+		 * The call sites at which the path enters callees that it does not
+		 * leave again. They must match the call sites at which the remainder of
+		 * the path towards the sink returns from callees, starting with the
+		 * head.
+		 */
+		private final ConsList<Stmt> pendingCalls;
+
+		/**
+		 * The number of returns on the path that do not have a matching call
+		 */
+		private final int pendingReturns;
+
+		private int hashCode = 0;
+
+		private PathSummary(SourceContext source, ConsList<Abstraction> path, PersistentIntSet pathHashes,
+				ConsList<Stmt> pendingCalls, int pendingReturns) {
+			this.source = source;
+			this.path = path;
+			this.pathHashes = pathHashes;
+			this.pendingCalls = pendingCalls;
+			this.pendingReturns = pendingReturns;
+		}
+
+		@Override
+		public int hashCode() {
+			if (hashCode != 0)
+				return hashCode;
+
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((source == null) ? 0 : source.hashCode());
+			if (!InfoflowConfiguration.getPathAgnosticResults())
+				result = prime * result + ((path == null) ? 0 : path.hashCode());
+			result = prime * result + ((pendingCalls == null) ? 0 : pendingCalls.hashCode());
+			result = prime * result + pendingReturns;
+			this.hashCode = result;
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			PathSummary other = (PathSummary) obj;
+			if (hashCode() != other.hashCode())
+				return false;
+
+			if (source == null) {
+				if (other.source != null)
+					return false;
+			} else if (!source.equals(other.source))
+				return false;
+			if (pendingCalls == null) {
+				if (other.pendingCalls != null)
+					return false;
+			} else if (!pendingCalls.equals(other.pendingCalls))
+				return false;
+			if (pendingReturns != other.pendingReturns)
+				return false;
+			if (!InfoflowConfiguration.getPathAgnosticResults()) {
+				if (path == null) {
+					if (other.path != null)
+						return false;
+				} else if (!path.equals(other.path))
+					return false;
+			}
+			return true;
+		}
+
+	}
+
+	/**
+	 * An abstraction that receives the summaries of its predecessors
+	 */
+	private abstract class SummaryConsumer {
+
+		protected final Abstraction abstraction;
+
+		/**
+		 * The number of neighbors of the predecessor when the predecessors of
+		 * this consumer were last connected
+		 */
+		protected volatile int predecessorNeighborCount = 0;
+
+		protected SummaryConsumer(Abstraction abstraction) {
+			this.abstraction = abstraction;
+		}
+
+		/**
+		 * Processes a summary of one of the predecessors of this consumer
+		 *
+		 * @param summary
+		 *            The summary of the predecessor
+		 * @param task
+		 *            The task that processes the summary
+		 */
+		protected abstract void consume(PathSummary summary, PathBuilderTask task);
+
+	}
+
+	/**
+	 * The memoized path summaries of a single abstraction
+	 */
+	private class PathNode extends SummaryConsumer {
+
+		private final Set<PathSummary> summaries = new ConcurrentHashSet<>();
+		private final Set<SummaryConsumer> consumers = new ConcurrentHashSet<>();
+
+		private PathNode(Abstraction abstraction) {
+			super(abstraction);
+		}
+
+		@Override
+		protected void consume(PathSummary summary, PathBuilderTask task) {
+			PathSummary extendedSummary = extendSummary(summary, abstraction, false);
+			if (extendedSummary == null)
+				return;
+
+			final int maxPaths = pathConfig.getMaxPathsPerAbstraction();
+			if (maxPaths > 0 && summaries.size() >= maxPaths)
+				return;
+			if (summaries.add(extendedSummary))
+				for (SummaryConsumer consumer : consumers)
+					schedule(new PropagationTask(task, extendedSummary, consumer));
+		}
+
+		/**
+		 * Registers a consumer that shall receive all summaries of this node
+		 *
+		 * @param consumer
+		 *            The consumer to register
+		 * @param task
+		 *            The task that registers the consumer
+		 */
+		private void addConsumer(SummaryConsumer consumer, PathBuilderTask task) {
+			// The consumer is registered before we look at the existing
+			// summaries, so a concurrently added summary cannot get lost
+			if (consumers.add(consumer))
+				for (PathSummary summary : summaries)
+					schedule(new PropagationTask(task, summary, consumer));
+		}
+
+	}
+
+	/**
+	 * An abstraction that has reached a sink. The summaries that arrive at this
+	 * node become results.
+	 */
+	private class SinkNode extends SummaryConsumer {
+
+		private final AbstractionAtSink sink;
+		private volatile int sinkNeighborCount = 0;
+
+		private SinkNode(AbstractionAtSink sink) {
+			super(sink.getAbstraction());
+			this.sink = sink;
+		}
+
+		@Override
+		protected void consume(PathSummary summary, PathBuilderTask task) {
+			PathSummary extendedSummary = extendSummary(summary, abstraction, true);
+			if (extendedSummary != null)
+				reportResult(sink, extendedSummary);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + System.identityHashCode(abstraction);
+			result = prime * result + ((sink.getSinkStmt() == null) ? 0 : sink.getSinkStmt().hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			SinkNode other = (SinkNode) obj;
+			if (abstraction != other.abstraction)
+				return false;
+			if (sink.getSinkStmt() != other.sink.getSinkStmt())
+				return false;
+			if (sink.getSinkDefinition() == null) {
+				if (other.sink.getSinkDefinition() != null)
+					return false;
+			} else if (!sink.getSinkDefinition().equals(other.sink.getSinkDefinition()))
+				return false;
+			return true;
+		}
+
+	}
+
+	/**
+	 * Base class for all tasks of this path builder. Every task completes only
+	 * after all tasks that it has scheduled have completed, so the root task
+	 * of a run completes once the whole run is done.
+	 */
+	private abstract class PathBuilderTask extends CountedCompleter<Void> {
+
+		private static final long serialVersionUID = 1L;
+
+		protected PathBuilderTask(PathBuilderTask parent) {
+			super(parent);
+		}
+
+		@Override
+		public final void compute() {
+			try {
+				if (!isKilled())
+					runTask();
+			} catch (RuntimeException ex) {
+				logger.error("Exception in path reconstruction task", ex);
+			} finally {
+				tryComplete();
+			}
+		}
+
+		protected abstract void runTask();
+
+	}
+
+	/**
+	 * Task that connects a consumer to the nodes of its predecessors
+	 */
+	private class ConnectTask extends PathBuilderTask {
+
+		private static final long serialVersionUID = 1L;
+
+		private final SummaryConsumer consumer;
+
+		private ConnectTask(PathBuilderTask parent, SummaryConsumer consumer) {
+			super(parent);
+			this.consumer = consumer;
+		}
+
+		@Override
+		protected void runTask() {
+			final Abstraction pred = consumer.abstraction.getPredecessor();
+
+			// If we have no predecessors, this must be a source
+			if (pred == null) {
+				assert consumer.abstraction.getSourceContext() != null;
+				consumer.consume(new PathSummary(consumer.abstraction.getSourceContext(), null, null, null, 0), this);
+				return;
+			}
+
+			// Read the neighbor count first, so that neighbors that are added
+			// concurrently are picked up by the next incremental run
+			Set<Abstraction> neighbors = pred.getNeighbors();
+			consumer.predecessorNeighborCount = neighbors == null ? 0 : neighbors.size();
+
+			getOrCreateNode(pred, this).addConsumer(consumer, this);
+			if (neighbors != null)
+				for (Abstraction neighbor : neighbors)
+					getOrCreateNode(neighbor, this).addConsumer(consumer, this);
+		}
+
+	}
+
+	/**
+	 * Task that hands a summary over to a consumer
+	 */
+	private class PropagationTask extends PathBuilderTask {
+
+		private static final long serialVersionUID = 1L;
+
+		private final PathSummary summary;
+		private final SummaryConsumer consumer;
+
+		private PropagationTask(PathBuilderTask parent, PathSummary summary, SummaryConsumer consumer) {
+			super(parent);
+			this.summary = summary;
+			this.consumer = consumer;
+		}
+
+		@Override
+		protected void runTask() {
+			consumer.consume(summary, this);
+		}
+
+	}
+
+	/**
+	 * Gets the node for the given abstraction. If there is no such node yet, a
+	 * new one is created and connected to its predecessors.
+	 *
+	 * @param abs
+	 *            The abstraction for which to get the node
+	 * @param task
+	 *            The task that requests the node
+	 * @return The node for the given abstraction
+	 */
+	private PathNode getOrCreateNode(Abstraction abs, PathBuilderTask task) {
+		PathNode node = nodes.get(abs);
+		if (node == null) {
+			PathNode newNode = new PathNode(abs);
+			node = nodes.putIfAbsent(abs, newNode);
+			if (node == null) {
+				node = newNode;
+				schedule(new ConnectTask(task, newNode));
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Extends the given summary with an abstraction whose predecessor is the
+	 * last abstraction of the summary
+	 *
+	 * @param summary
+	 *            The summary to extend
+	 * @param abs
+	 *            The abstraction with which to extend the summary
+	 * @param isSink
+	 *            True if the given abstraction is the abstraction at the sink,
+	 *            false otherwise
+	 * @return The extended summary, or null if the extended path would contain
+	 *         a loop or would be unrealizable
+	 */
+	private PathSummary extendSummary(PathSummary summary, Abstraction abs, boolean isSink) {
+		final Stmt stmt = abs.getCurrentStmt();
+		final Stmt callSite = abs.getCorrespondingCallSite();
+
+		// If we have no data at all, there is nothing we can do here
+		if (stmt == null && callSite == null)
+			return summary;
+
+		ConsList<Abstraction> path = summary.path;
+		PersistentIntSet pathHashes = summary.pathHashes;
+		if (trackPaths && stmt != null) {
+			if (path != null && isLoop(path, pathHashes, abs))
+				return null;
+			path = ConsList.prepend(abs, path);
+			pathHashes = PersistentIntSet.add(pathHashes, abs.hashCode());
+			if (pathConfig.getMaxPathLength() > 0 && path.size() > pathConfig.getMaxPathLength())
+				return null;
+		}
+
+		// We apply the same call stack semantics as the
+		// ContextSensitivePathBuilder. Since we work from the source towards
+		// the sink, we see the calls before the respective returns.
+		final int maxCallStackSize = pathConfig.getMaxCallStackSize();
+		ConsList<Stmt> pendingCalls = summary.pendingCalls;
+		int pendingReturns = summary.pendingReturns;
+		if (!isSink && stmt != null && stmt != callSite && stmt.containsInvokeExpr()) {
+			pendingCalls = ConsList.prepend(stmt, pendingCalls);
+			if (maxCallStackSize > 0 && pendingCalls.size() > maxCallStackSize)
+				return null;
+		}
+		if (callSite != null && callSite != stmt) {
+			if (pendingCalls != null) {
+				// Make sure that we don't follow an unrealizable path
+				if (pendingCalls.getHead() != callSite)
+					return null;
+				pendingCalls = pendingCalls.getTail();
+			} else if (maxCallStackSize > 0 && ++pendingReturns > maxCallStackSize)
+				return null;
+		}
+
+		return new PathSummary(summary.source, path, pathHashes, pendingCalls, pendingReturns);
+	}
+
+	/**
+	 * Checks whether extending the given path with the given abstraction would
+	 * create a loop
+	 *
+	 * @param path
+	 *            The path to check
+	 * @param pathHashes
+	 *            The hash codes of the abstractions on the path
+	 * @param abs
+	 *            The abstraction with which to extend the path
+	 * @return True if the extended path would contain a loop, otherwise false
+	 */
+	private boolean isLoop(ConsList<Abstraction> path, PersistentIntSet pathHashes, Abstraction abs) {
+		// Neighbors are always equal to the abstraction they belong to, so all
+		// of the checks below require an abstraction with the same hash code to
+		// already be on the path
+		if (!pathHashes.contains(abs.hashCode()))
+			return false;
+
+		for (Abstraction a : path) {
+			if (a == abs)
+				return true;
+
+			// Do not run into loops through neighbors
+			if (a.getNeighbors() != null && a.getNeighbors().contains(abs))
+				return true;
+			if (abs.getNeighbors() != null && abs.getNeighbors().contains(a))
+				return true;
+
+			// If this is exactly the same abstraction as one we have seen
+			// before, we skip it
+			if (a.equals(abs)
+					&& a.getCurrentStmt() == abs.getCurrentStmt()
+					&& a.getCorrespondingCallSite() == abs.getCorrespondingCallSite())
+				return true;
+		}
+
+		// We cannot leave the same method at two different sites
+		Abstraction lastAbs = path.getHead();
+		return lastAbs.equals(abs)
+				&& lastAbs.getCorrespondingCallSite() != null
+				&& lastAbs.getCorrespondingCallSite() == abs.getCorrespondingCallSite()
+				&& lastAbs.getCurrentStmt() != abs.getCurrentStmt();
+	}
+
+	/**
+	 * Creates a result entry for a summary that has reached a sink
+	 *
+	 * @param sink
+	 *            The sink that the summary has reached
+	 * @param summary
+	 *            The summary that has reached the sink
+	 */
+	private void reportResult(AbstractionAtSink sink, PathSummary summary) {
+		List<Abstraction> path = null;
+		if (summary.path != null) {
+			path = summary.path.toList();
+			Collections.reverse(path);
+		}
+
+		SourceContext sourceContext = summary.source;
+		Pair<ResultSourceInfo, ResultSinkInfo> newResult = results.addResult(sink.getSinkDefinition(),
+				sink.getAbstraction().getAccessPath(), sink.getSinkStmt(), sourceContext.getDefinition(),
+				sourceContext.getAccessPath(), sourceContext.getStmt(), sourceContext.getUserData(), path);
+
+		// Notify our handlers
+		if (resultAvailableHandlers != null)
+			for (OnPathBuilderResultAvailable handler : resultAvailableHandlers)
+				handler.onResultAvailable(newResult.getO1(), newResult.getO2());
+	}
+
+	/**
+	 * Schedules the given task for execution. The task that has created the
+	 * given task does not complete before the given task has completed.
+	 *
+	 * @param task
+	 *            The task to execute
+	 */
+	private void schedule(PathBuilderTask task) {
+		if (isKilled())
+			return;
+
+		task.getCompleter().addToPendingCount(1);
+		task.fork();
+	}
+
+	/**
+	 * Runs the given task and all tasks that it schedules on the fork-join pool
+	 * of this builder, and waits for them to complete
+	 *
+	 * @param root
+	 *            The task to run
+	 */
+	private void runTasks(PathBuilderTask root) {
+		this.rootTask = root;
+		pool.invoke(root);
+	}
+
+	/**
+	 * Registers a new sink and starts collecting its results
+	 *
+	 * @param sink
+	 *            The abstraction at the sink
+	 * @param task
+	 *            The task that registers the sink
+	 */
+	private void addSink(AbstractionAtSink sink, PathBuilderTask task) {
+		SinkNode sinkNode = new SinkNode(sink);
+		if (sinks.add(sinkNode)) {
+			Set<Abstraction> neighbors = sink.getAbstraction().getNeighbors();
+			sinkNode.sinkNeighborCount = neighbors == null ? 0 : neighbors.size();
+			schedule(new ConnectTask(task, sinkNode));
+
+			// Also build paths for the neighbors of our result abstraction
+			if (neighbors != null)
+				for (Abstraction neighbor : neighbors)
+					addSink(new AbstractionAtSink(sink.getSinkDefinition(), neighbor, sink.getSinkStmt()), task);
+		}
+	}
+
+	@Override
+	public void computeTaintPaths(final Set<AbstractionAtSink> res) {
+		if (res.isEmpty())
+			return;
+
+		logger.info("Obtainted {} connections between sources and sinks", res.size());
+
+		// Notify the listeners that the solver has been started
+		for (IMemoryBoundedSolverStatusNotification listener : notificationListeners)
+			listener.notifySolverStarted(this);
+
+		runTasks(new PathBuilderTask(null) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void runTask() {
+				for (AbstractionAtSink abs : res) {
+					if (isKilled())
+						break;
+					addSink(abs, this);
+				}
+			}
+
+		});
+
+		// Notify the listeners that the solver has been terminated
+		for (IMemoryBoundedSolverStatusNotification listener : notificationListeners)
+			listener.notifySolverTerminated(this);
+	}
+
+	@Override
+	public void runIncrementalPathCompuation() {
+		runTasks(new PathBuilderTask(null) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void runTask() {
+				// Connect all consumers whose predecessors have received new
+				// neighbors in the meantime
+				for (PathNode node : nodes.values()) {
+					Abstraction pred = node.abstraction.getPredecessor();
+					if (pred != null && pred.getNeighborCount() != node.predecessorNeighborCount)
+						schedule(new ConnectTask(this, node));
+				}
+				for (SinkNode sinkNode : sinks) {
+					Abstraction pred = sinkNode.abstraction.getPredecessor();
+					if (pred != null && pred.getNeighborCount() != sinkNode.predecessorNeighborCount)
+						schedule(new ConnectTask(this, sinkNode));
+
+					// The abstraction at the sink may have new neighbors as well
+					Set<Abstraction> neighbors = sinkNode.abstraction.getNeighbors();
+					if (neighbors != null && neighbors.size() != sinkNode.sinkNeighborCount) {
+						sinkNode.sinkNeighborCount = neighbors.size();
+						for (Abstraction neighbor : neighbors)
+							addSink(new AbstractionAtSink(sinkNode.sink.getSinkDefinition(), neighbor,
+									sinkNode.sink.getSinkStmt()), this);
+					}
+				}
+			}
+
+		});
+	}
+
+	@Override
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	@Override
+	public InfoflowResults getResults() {
+		return this.results;
+	}
+
+	@Override
+	public void forceTerminate(ISolverTerminationReason reason) {
+		killFlag = reason;
+		logger.warn("Path reconstruction terminated due to low memory");
+	}
+
+	@Override
+	public boolean isTerminated() {
+		final PathBuilderTask rootTask = this.rootTask;
+		return killFlag != null || rootTask == null || rootTask.isDone();
+	}
+
+	@Override
+	public boolean isKilled() {
+		return killFlag != null;
+	}
+
+	@Override
+	public void reset() {
+		this.killFlag = null;
+	}
+
+	@Override
+	public ISolverTerminationReason getTerminationReason() {
+		return killFlag;
+	}
+
+	@Override
+	public void addStatusListener(IMemoryBoundedSolverStatusNotification listener) {
+		this.notificationListeners.add(listener);
+	}
+
+}
@@ -0,0 +1,485 @@
+package soot.jimple.infoflow.data.pathBuilders;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import heros.solver.Pair;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.collect.ConsList;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.data.AbstractionAtSink;
+import soot.jimple.infoflow.data.SourceContext;
+import soot.jimple.infoflow.data.SourceContextAndPath;
+import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
+
+/**
+ * Context-sensitive path builder that searches the predecessor graph of the
+ * abstractions at a sink in the order of the path length, i.e., it runs
+ * Dijkstra's algorithm on the abstractions, their predecessors and their
+ * neighbors. Every step costs one statement. Steps over abstractions without a
+ * statement are free. All abstractions at the same sink statement are searched
+ * together, so that the paths are the shortest ones to the sink. Since the
+ * shortest paths are found first, only the configured number of paths is
+ * reported for every pair of sink and source, and the longer ones are dropped.
+ * The search ends as soon as all sources that reach the sink have enough paths.
+ * With incremental result reporting, the abstractions arrive at a sink one at a
+ * time, so the paths are only the shortest ones among the abstractions that
+ * were known when the sink was searched.
+ */
+public class ShortestPathFirstPathBuilder extends ContextSensitivePathBuilder {
+
+	/**
+	 * The number of paths that have been reported between a sink and a source
+	 */
+	private final ConcurrentMap<Pair<Stmt, SourceContext>, AtomicInteger> pathsPerConnection =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * The searches that have not been started yet, indexed by the first
+	 * abstraction at their sink
+	 */
+	private final ConcurrentMap<AbstractionAtSink, SinkSearch> pendingSearches = new ConcurrentHashMap<>();
+
+	/**
+	 * The searches that have finished. These are only recorded for incremental
+	 * result reporting, where abstractions may receive new neighbors after
+	 * they have been searched.
+	 */
+	private final Queue<SinkSearch> finishedSearches = new ConcurrentLinkedQueue<>();
+
+	private final boolean incremental;
+
+	/**
+	 * Creates a new instance of the {@link ShortestPathFirstPathBuilder} class
+	 *
+	 * @param manager
+	 *            The data flow manager that gives access to the icfg and other
+	 *            objects
+	 * @param executor
+	 *            The executor in which to run the path reconstruction tasks
+	 */
+	public ShortestPathFirstPathBuilder(InfoflowManager manager, InterruptableExecutor executor) {
+		super(manager, executor);
+		this.incremental = manager.getConfig().getIncrementalResultReporting();
+	}
+
+	/**
+	 * A path in the search queue, consisting of the abstraction at which the
+	 * path currently ends and the path from the sink to this abstraction
+	 */
+	private static class PathState implements Comparable<PathState> {
+
+		private final Abstraction abstraction;
+		private final SourceContextAndPath scap;
+		private final int length;
+		private final long sequence;
+
+		public PathState(Abstraction abstraction, SourceContextAndPath scap, int length, long sequence) {
+			this.abstraction = abstraction;
+			this.scap = scap;
+			this.length = length;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(PathState other) {
+			if (length != other.length)
+				return length < other.length ? -1 : 1;
+			// Paths of the same length are processed in the order in which
+			// they were found
+			return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+		}
+
+	}
+
+	/**
+	 * The node of the search graph. Since the path builder is context-sensitive,
+	 * an abstraction that is reached with two different call stacks must be
+	 * processed twice.
+	 */
+	private static class SearchNode {
+
+		private final Abstraction abstraction;
+		private final ConsList<Stmt> callStack;
+
+		public SearchNode(Abstraction abstraction, ConsList<Stmt> callStack) {
+			this.abstraction = abstraction;
+			this.callStack = callStack;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + System.identityHashCode(abstraction);
+			result = prime * result + ((callStack == null) ? 0 : callStack.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			SearchNode other = (SearchNode) obj;
+			if (abstraction != other.abstraction)
+				return false;
+			if (callStack == null) {
+				if (other.callStack != null)
+					return false;
+			} else if (!callStack.equals(other.callStack))
+				return false;
+			return true;
+		}
+
+	}
+
+	/**
+	 * The search for the paths to a single sink statement
+	 */
+	private static class SinkSearch {
+
+		private final Stmt sinkStmt;
+		private final List<AbstractionAtSink> sinkAbs = new ArrayList<>();
+
+		/**
+		 * The sources, together with their call stacks, for which we have
+		 * already decided whether to report a path
+		 */
+		private final Set<SearchNode> reportedSources = new HashSet<>();
+
+		/**
+		 * The number of neighbors that the abstractions had when they were
+		 * searched
+		 */
+		private final Map<Abstraction, Integer> neighborCounts = new IdentityHashMap<>();
+
+		public SinkSearch(Stmt sinkStmt) {
+			this.sinkStmt = sinkStmt;
+		}
+
+		/**
+		 * Checks whether any of the searched abstractions has received new
+		 * neighbors since the search
+		 *
+		 * @return True if there are new neighbors, otherwise false
+		 */
+		private boolean hasNewNeighbors() {
+			for (Map.Entry<Abstraction, Integer> entry : neighborCounts.entrySet())
+				if (entry.getKey().getNeighborCount() != entry.getValue())
+					return true;
+			return false;
+		}
+
+		/**
+		 * Adds the abstractions and the reported sources of the given search
+		 * to this one
+		 *
+		 * @param other
+		 *            The search to merge into this one
+		 */
+		private void merge(SinkSearch other) {
+			sinkAbs.addAll(other.sinkAbs);
+			reportedSources.addAll(other.reportedSources);
+		}
+
+	}
+
+	/**
+	 * Task that searches the shortest paths from all abstractions at a sink
+	 * back to the sources
+	 */
+	protected class ShortestPathTask implements Runnable {
+
+		private final SinkSearch search;
+
+		private final PriorityQueue<PathState> queue = new PriorityQueue<>();
+		private final Set<SearchNode> visited = new HashSet<>();
+		private long sequence = 0;
+
+		private ShortestPathTask(SinkSearch search) {
+			this.search = search;
+		}
+
+		@Override
+		public void run() {
+			// The neighbors of the abstractions at the sink are sinks as well
+			for (AbstractionAtSink abs : search.sinkAbs) {
+				addStart(abs, abs.getAbstraction());
+				if (abs.getAbstraction().getNeighbors() != null)
+					for (Abstraction neighbor : abs.getAbstraction().getNeighbors())
+						addStart(abs, neighbor);
+			}
+
+			// If the number of paths is limited, we can stop as soon as all
+			// sources that reach the sink have enough paths
+			final boolean limited = pathConfig.getMaxPathsPerSink() > 0;
+			Set<SourceContext> openSources = null;
+			if (limited || incremental) {
+				Set<SourceContext> sources = findSources();
+				if (limited) {
+					openSources = new HashSet<>();
+					for (SourceContext source : sources)
+						if (hasPathsLeft(search.sinkStmt, source))
+							openSources.add(source);
+				}
+			}
+
+			while (!queue.isEmpty()) {
+				if (isKilled())
+					return;
+				if (openSources != null && openSources.isEmpty())
+					break;
+
+				// Take the shortest path we have. If we have already seen the
+				// abstraction in the same context, that path was shorter.
+				PathState curState = queue.poll();
+				SearchNode node = new SearchNode(curState.abstraction, curState.scap.getCallStack());
+				if (!visited.add(node))
+					continue;
+
+				// If we have found a source, we have another path. We only
+				// report it if the source does not have enough shorter paths to
+				// this sink yet.
+				final Abstraction pred = curState.abstraction.getPredecessor();
+				if (pred == null) {
+					final SourceContext source = curState.abstraction.getSourceContext();
+					if (search.reportedSources.add(node) && reservePath(search.sinkStmt, source))
+						checkForSource(curState.abstraction, curState.scap);
+					if (openSources != null && !hasPathsLeft(search.sinkStmt, source))
+						openSources.remove(source);
+					continue;
+				}
+
+				// Continue with the predecessor and its neighbors
+				processPredecessor(curState, pred);
+				if (pred.getNeighbors() != null)
+					for (Abstraction neighbor : pred.getNeighbors())
+						processPredecessor(curState, neighbor);
+			}
+
+			if (incremental)
+				finishedSearches.add(search);
+		}
+
+		/**
+		 * Finds the sources that reach the sink without considering the calling
+		 * contexts. This walk visits every abstraction only once, which is much
+		 * cheaper than the search itself, and tells us when the search can
+		 * stop. If sources are only reachable on unrealizable paths, the search
+		 * runs until the queue is empty.
+		 *
+		 * @return The sources that reach the sink
+		 */
+		private Set<SourceContext> findSources() {
+			Set<SourceContext> sources = new HashSet<>();
+			Set<Abstraction> seen = Collections.newSetFromMap(new IdentityHashMap<Abstraction, Boolean>());
+			Deque<Abstraction> workList = new ArrayDeque<>();
+			for (PathState state : queue)
+				if (seen.add(state.abstraction))
+					workList.add(state.abstraction);
+
+			while (!workList.isEmpty()) {
+				Abstraction abs = workList.poll();
+				if (incremental)
+					search.neighborCounts.put(abs, abs.getNeighborCount());
+
+				Abstraction pred = abs.getPredecessor();
+				if (pred == null) {
+					sources.add(abs.getSourceContext());
+					continue;
+				}
+				if (seen.add(pred))
+					workList.add(pred);
+				if (pred.getNeighbors() != null)
+					for (Abstraction neighbor : pred.getNeighbors())
+						if (seen.add(neighbor))
+							workList.add(neighbor);
+			}
+			return sources;
+		}
+
+		/**
+		 * Adds the given abstraction at the sink to the search queue
+		 *
+		 * @param abs
+		 *            The sink at which the search starts
+		 * @param sinkAbs
+		 *            The abstraction at the sink
+		 */
+		private void addStart(AbstractionAtSink abs, Abstraction sinkAbs) {
+			SourceContextAndPath scap = new SourceContextAndPath(abs.getSinkDefinition(), sinkAbs.getAccessPath(),
+					abs.getSinkStmt());
+			scap = scap.extendPath(sinkAbs, pathConfig);
+			if (scap != null)
+				queue.add(new PathState(sinkAbs, scap, 0, sequence++));
+		}
+
+		/**
+		 * Extends the given path with the given predecessor and adds the new
+		 * path to the search queue
+		 *
+		 * @param curState
+		 *            The path to extend
+		 * @param pred
+		 *            The predecessor with which to extend the path
+		 */
+		private void processPredecessor(PathState curState, Abstraction pred) {
+			SourceContextAndPath extendedScap = extendPathTo(curState.scap, pred);
+			if (extendedScap == null)
+				return;
+			if (visited.contains(new SearchNode(pred, extendedScap.getCallStack())))
+				return;
+
+			int length = curState.length + (pred.getCurrentStmt() == null ? 0 : 1);
+			queue.add(new PathState(pred, extendedScap, length, sequence++));
+		}
+
+	}
+
+	/**
+	 * Reserves one of the paths that may be reported between the given sink and
+	 * the given source
+	 *
+	 * @param sinkStmt
+	 *            The statement at the sink
+	 * @param source
+	 *            The source context at the start of the path
+	 * @return True if the path may be reported, false if enough paths have
+	 *         already been reported between the given sink and source
+	 */
+	private boolean reservePath(Stmt sinkStmt, SourceContext source) {
+		final int maxPaths = pathConfig.getMaxPathsPerSink();
+		if (maxPaths <= 0)
+			return true;
+
+		Pair<Stmt, SourceContext> connection = new Pair<>(sinkStmt, source);
+		AtomicInteger foundPaths = pathsPerConnection.get(connection);
+		if (foundPaths == null) {
+			foundPaths = new AtomicInteger();
+			AtomicInteger oldPaths = pathsPerConnection.putIfAbsent(connection, foundPaths);
+			if (oldPaths != null)
+				foundPaths = oldPaths;
+		}
+
+		// Incremental searches of the same sink may find paths concurrently
+		while (true) {
+			int paths = foundPaths.get();
+			if (paths >= maxPaths)
+				return false;
+			if (foundPaths.compareAndSet(paths, paths + 1))
+				return true;
+		}
+	}
+
+	/**
+	 * Checks whether more paths may be reported between the given sink and the
+	 * given source
+	 *
+	 * @param sinkStmt
+	 *            The statement at the sink
+	 * @param source
+	 *            The source context at the start of the path
+	 * @return True if more paths may be reported, false if enough paths have
+	 *         already been reported between the given sink and source
+	 */
+	private boolean hasPathsLeft(Stmt sinkStmt, SourceContext source) {
+		final int maxPaths = pathConfig.getMaxPathsPerSink();
+		if (maxPaths <= 0)
+			return true;
+		AtomicInteger foundPaths = pathsPerConnection.get(new Pair<>(sinkStmt, source));
+		return foundPaths == null || foundPaths.get() < maxPaths;
+	}
+
+	@Override
+	public void computeTaintPaths(Set<AbstractionAtSink> res) {
+		// We search all abstractions at the same sink together, and only
+		// schedule a task for the first one
+		Map<Stmt, SinkSearch> searches = new HashMap<>();
+		Set<AbstractionAtSink> firstAtSink = new HashSet<>();
+		for (AbstractionAtSink abs : res) {
+			SinkSearch search = searches.get(abs.getSinkStmt());
+			if (search == null) {
+				search = new SinkSearch(abs.getSinkStmt());
+				searches.put(abs.getSinkStmt(), search);
+				firstAtSink.add(abs);
+				pendingSearches.put(abs, search);
+			}
+			search.sinkAbs.add(abs);
+		}
+
+		super.computeTaintPaths(firstAtSink);
+
+		// The path builder may have been killed before all searches were
+		// started
+		pendingSearches.keySet().removeAll(firstAtSink);
+	}
+
+	@Override
+	protected Runnable getTaintPathTask(AbstractionAtSink abs) {
+		SinkSearch search = pendingSearches.remove(abs);
+		if (search == null) {
+			search = new SinkSearch(abs.getSinkStmt());
+			search.sinkAbs.add(abs);
+		}
+		return new ShortestPathTask(search);
+	}
+
+	@Override
+	public void runIncrementalPathCompuation() {
+		// Find the sinks at which abstractions have received new neighbors
+		// since they were searched
+		Set<Stmt> changedSinks = new HashSet<>();
+		for (SinkSearch search : finishedSearches)
+			if (search.hasNewNeighbors())
+				changedSinks.add(search.sinkStmt);
+		if (changedSinks.isEmpty())
+			return;
+
+		// Search these sinks again together with all other abstractions at
+		// the same sink. Sources that have already been reported are skipped.
+		Map<Stmt, SinkSearch> searches = new HashMap<>();
+		for (Iterator<SinkSearch> it = finishedSearches.iterator(); it.hasNext();) {
+			SinkSearch search = it.next();
+			if (!changedSinks.contains(search.sinkStmt))
+				continue;
+			it.remove();
+
+			SinkSearch newSearch = searches.get(search.sinkStmt);
+			if (newSearch == null) {
+				newSearch = new SinkSearch(search.sinkStmt);
+				searches.put(search.sinkStmt, newSearch);
+			}
+			newSearch.merge(search);
+		}
+		for (SinkSearch search : searches.values())
+			scheduleDependentTask(new ShortestPathTask(search));
+	}
+
+	@Override
+	protected boolean triggerComputationForNeighbors() {
+		// The task for the abstraction at the sink already starts from all of
+		// its neighbors
+		return false;
+	}
+
+}
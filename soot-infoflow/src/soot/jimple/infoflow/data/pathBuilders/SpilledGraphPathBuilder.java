@@ -0,0 +1,386 @@
+package soot.jimple.infoflow.data.pathBuilders;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import heros.solver.Pair;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.collect.ConsList;
+import soot.jimple.infoflow.data.AccessPath;
+import soot.jimple.infoflow.data.AbstractionAtSink;
+import soot.jimple.infoflow.data.PredecessorGraphSpill;
+import soot.jimple.infoflow.data.SourceContext;
+import soot.jimple.infoflow.results.ResultSinkInfo;
+import soot.jimple.infoflow.results.ResultSourceInfo;
+import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
+import soot.jimple.infoflow.sourcesSinks.definitions.SourceSinkDefinition;
+
+/**
+ * Context-sensitive path builder that reconstructs the propagation paths from
+ * a {@link PredecessorGraphSpill} instead of the predecessor links on the heap.
+ * The abstractions are only referenced by their IDs in the spill, so the taint
+ * abstractions themselves need not be kept alive for the path reconstruction.
+ */
+public class SpilledGraphPathBuilder extends ConcurrentAbstractionPathBuilder {
+
+	private final PredecessorGraphSpill spill;
+	private final Queue<SinkSearch> searches = new ConcurrentLinkedQueue<>();
+	private final boolean incremental;
+	private int processedEdges = 0;
+
+	/**
+	 * Creates a new instance of the {@link SpilledGraphPathBuilder} class
+	 *
+	 * @param manager
+	 *            The data flow manager that gives access to the icfg and other
+	 *            objects
+	 * @param executor
+	 *            The executor in which to run the path reconstruction tasks
+	 * @param spill
+	 *            The spill that contains the predecessor graph
+	 */
+	public SpilledGraphPathBuilder(InfoflowManager manager, InterruptableExecutor executor,
+			PredecessorGraphSpill spill) {
+		super(manager, executor);
+		this.spill = spill;
+		this.incremental = manager.getConfig().getIncrementalResultReporting();
+	}
+
+	/**
+	 * An abstraction at a sink, referenced by its ID in the spill
+	 */
+	private static class SinkRecord {
+
+		private final SourceSinkDefinition definition;
+		private final AccessPath accessPath;
+		private final Stmt stmt;
+		private final int id;
+
+		public SinkRecord(SourceSinkDefinition definition, AccessPath accessPath, Stmt stmt, int id) {
+			this.definition = definition;
+			this.accessPath = accessPath;
+			this.stmt = stmt;
+			this.id = id;
+		}
+
+	}
+
+	/**
+	 * A path from the sink to the abstraction with the given ID
+	 */
+	private static class PathState {
+
+		private final int id;
+		private final ConsList<Stmt> callStack;
+		private final ConsList<Integer> path;
+		private final int pathLength;
+
+		public PathState(int id, ConsList<Stmt> callStack, ConsList<Integer> path, int pathLength) {
+			this.id = id;
+			this.callStack = callStack;
+			this.path = path;
+			this.pathLength = pathLength;
+		}
+
+	}
+
+	/**
+	 * The node of the search graph. An abstraction that is reached with two
+	 * different call stacks must be processed twice.
+	 */
+	private static class SearchNode {
+
+		private final int id;
+		private final ConsList<Stmt> callStack;
+
+		public SearchNode(int id, ConsList<Stmt> callStack) {
+			this.id = id;
+			this.callStack = callStack;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + id;
+			result = prime * result + ((callStack == null) ? 0 : callStack.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			SearchNode other = (SearchNode) obj;
+			if (id != other.id)
+				return false;
+			if (callStack == null) {
+				if (other.callStack != null)
+					return false;
+			} else if (!callStack.equals(other.callStack))
+				return false;
+			return true;
+		}
+
+	}
+
+	/**
+	 * The search from one abstraction at a sink back to the sources. For
+	 * incremental path building, the search remembers which paths it has
+	 * extended to which predecessors, so that it can continue with neighbors
+	 * that are added later on.
+	 */
+	private class SinkSearch {
+
+		private final SinkRecord sink;
+		private final PathState sinkState = new PathState(0, null, null, 0);
+
+		private final Queue<PathState> worklist = new ArrayDeque<>();
+		private final Set<SearchNode> visited = new HashSet<>();
+		private final Map<Integer, List<PathState>> statesByPredecessor;
+
+		public SinkSearch(SinkRecord sink) {
+			this.sink = sink;
+			this.statesByPredecessor = incremental ? new HashMap<Integer, List<PathState>>() : null;
+		}
+
+		/**
+		 * Starts the search at the abstraction at the sink. The neighbors of
+		 * this abstraction are sinks as well.
+		 */
+		private void start() {
+			addState(extendPathTo(sinkState, sink.id));
+			for (int neighbor : spill.getNeighbors(sink.id))
+				addState(extendPathTo(sinkState, neighbor));
+		}
+
+		/**
+		 * Continues the search with a neighbor that has been added after the
+		 * search was started
+		 *
+		 * @param id
+		 *            The ID of the abstraction that has received the neighbor
+		 * @param neighbor
+		 *            The ID of the new neighbor
+		 */
+		private void addNeighbor(int id, int neighbor) {
+			if (id == sink.id)
+				addState(extendPathTo(sinkState, neighbor));
+			List<PathState> states = statesByPredecessor.get(id);
+			if (states != null)
+				for (PathState state : states)
+					addState(extendPathTo(state, neighbor));
+		}
+
+		/**
+		 * Processes the worklist until all reachable sources have been found
+		 */
+		private void process() {
+			while (!worklist.isEmpty()) {
+				if (isKilled())
+					return;
+
+				PathState curState = worklist.poll();
+				final int pred = spill.getPredecessor(curState.id);
+				if (pred == 0) {
+					checkForSource(sink, curState);
+					continue;
+				}
+
+				// Remember the path for neighbors that the predecessor
+				// receives later
+				if (statesByPredecessor != null) {
+					List<PathState> states = statesByPredecessor.get(pred);
+					if (states == null) {
+						states = new ArrayList<>(2);
+						statesByPredecessor.put(pred, states);
+					}
+					states.add(curState);
+				}
+
+				// Continue with the predecessor and its neighbors
+				addState(extendPathTo(curState, pred));
+				for (int neighbor : spill.getNeighbors(pred))
+					addState(extendPathTo(curState, neighbor));
+			}
+		}
+
+		private void addState(PathState state) {
+			if (state != null && visited.add(new SearchNode(state.id, state.callStack)))
+				worklist.add(state);
+		}
+
+	}
+
+	/**
+	 * Task that searches the paths from one abstraction at a sink back to the
+	 * sources
+	 */
+	protected class SpilledPathTask implements Runnable {
+
+		private final SinkSearch search;
+		private final int[] newEdges;
+
+		/**
+		 * Creates a new task
+		 *
+		 * @param search
+		 *            The search to run
+		 * @param newEdges
+		 *            The neighbor edges that have been added since the search
+		 *            last ran, or null to start a new search
+		 */
+		private SpilledPathTask(SinkSearch search, int[] newEdges) {
+			this.search = search;
+			this.newEdges = newEdges;
+		}
+
+		@Override
+		public void run() {
+			synchronized (search) {
+				if (newEdges == null)
+					search.start();
+				else
+					for (int edge : newEdges)
+						search.addNeighbor(spill.getNeighborEdgeSource(edge), spill.getNeighborEdgeTarget(edge));
+				search.process();
+			}
+		}
+
+	}
+
+	/**
+	 * Extends the given path with the abstraction with the given ID. If the
+	 * abstraction leaves a method, the path must have entered it at the same
+	 * call site.
+	 *
+	 * @param state
+	 *            The path leading up to the current abstraction
+	 * @param id
+	 *            The ID of the predecessor of the current abstraction
+	 * @return The extended path, or null if the predecessor cannot be added to
+	 *         the given path
+	 */
+	private PathState extendPathTo(PathState state, int id) {
+		final Stmt stmt = spill.getCurrentStmt(id);
+		final Stmt callSite = spill.getCorrespondingCallSite(id);
+
+		// Extend the propagation path
+		ConsList<Integer> path = state.path;
+		int pathLength = state.pathLength;
+		if (stmt != null && pathConfig.getPathReconstructionMode().reconstructPaths()) {
+			path = ConsList.prepend(id, path);
+			pathLength++;
+			if (pathConfig.getMaxPathLength() > 0 && pathLength > pathConfig.getMaxPathLength())
+				return null;
+		}
+
+		// Shortcut: If this a call-to-return node, we should not enter and
+		// immediately leave again for performance reasons.
+		ConsList<Stmt> callStack = state.callStack;
+		if (stmt != null && stmt == callSite)
+			return new PathState(id, callStack, path, pathLength);
+
+		// If we enter a method, we put it on the stack
+		if (callSite != null) {
+			if (callStack != null && pathConfig.getMaxCallStackSize() > 0
+					&& callStack.size() >= pathConfig.getMaxCallStackSize())
+				return null;
+			callStack = ConsList.prepend(callSite, callStack);
+		}
+
+		// Do we process a method return?
+		if (stmt != null && stmt.containsInvokeExpr() && callStack != null) {
+			// Make sure that we don't follow an unrealizable path
+			if (callStack.getHead() != stmt)
+				return null;
+			callStack = callStack.getTail();
+		}
+		return new PathState(id, callStack, path, pathLength);
+	}
+
+	/**
+	 * Creates a result entry if the abstraction at the end of the given path is
+	 * a source
+	 *
+	 * @param sink
+	 *            The abstraction at the sink at which the path starts
+	 * @param state
+	 *            The path from the sink to the current abstraction
+	 */
+	private void checkForSource(SinkRecord sink, PathState state) {
+		SourceContext sourceContext = spill.getSourceContext(state.id);
+		if (sourceContext == null)
+			return;
+
+		// The path starts with the source
+		List<Stmt> stmtPath = null;
+		List<AccessPath> apPath = null;
+		if (state.path != null) {
+			stmtPath = new ArrayList<>(state.pathLength);
+			apPath = new ArrayList<>(state.pathLength);
+			for (int id : state.path) {
+				stmtPath.add(spill.getCurrentStmt(id));
+				apPath.add(spill.getAccessPath(id));
+			}
+		}
+
+		// Register the source that we have found
+		Pair<ResultSourceInfo, ResultSinkInfo> newResult = results.addResult(sink.definition, sink.accessPath,
+				sink.stmt, sourceContext.getDefinition(), sourceContext.getAccessPath(), sourceContext.getStmt(),
+				sourceContext.getUserData(), stmtPath, apPath);
+
+		// Notify our handlers
+		if (resultAvailableHandlers != null)
+			for (OnPathBuilderResultAvailable handler : resultAvailableHandlers)
+				handler.onResultAvailable(newResult.getO1(), newResult.getO2());
+	}
+
+	@Override
+	public void runIncrementalPathCompuation() {
+		// Only the neighbors that have been added since we last looked at the
+		// spill can lead to new paths. The searches continue from there.
+		final int[] newEdges;
+		synchronized (this) {
+			final int edgeCount = spill.getNeighborEdgeCount();
+			if (edgeCount == processedEdges)
+				return;
+			newEdges = new int[edgeCount - processedEdges];
+			for (int i = 0; i < newEdges.length; i++)
+				newEdges[i] = processedEdges + i + 1;
+			processedEdges = edgeCount;
+		}
+		for (SinkSearch search : searches)
+			scheduleDependentTask(new SpilledPathTask(search, newEdges));
+	}
+
+	@Override
+	protected Runnable getTaintPathTask(AbstractionAtSink abs) {
+		SinkRecord sink = new SinkRecord(abs.getSinkDefinition(), abs.getAbstraction().getAccessPath(),
+				abs.getSinkStmt(), spill.spill(abs.getAbstraction()));
+		SinkSearch search = new SinkSearch(sink);
+		if (incremental)
+			searches.add(search);
+		return new SpilledPathTask(search, null);
+	}
+
+	@Override
+	protected boolean triggerComputationForNeighbors() {
+		// The task for the abstraction at the sink already starts from all of
+		// its neighbors in the spill
+		return false;
+	}
+
+}
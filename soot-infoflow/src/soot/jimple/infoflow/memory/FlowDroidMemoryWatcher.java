@@ -1,5 +1,6 @@
 package soot.jimple.infoflow.memory;
 
+import java.util.HashSet;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -22,6 +23,13 @@ public class FlowDroidMemoryWatcher {
 	private final MemoryWarningSystem warningSystem = new MemoryWarningSystem();
 
 	private final Set<IMemoryBoundedSolver> solvers = new ConcurrentHashSet<>();
+	private final Set<IMemoryReclaimable> reclaimables = new ConcurrentHashSet<>();
+	private final Set<IMemoryDegradable> degradables = new ConcurrentHashSet<>();
+
+	/**
+	 * The index of the next degradation stage to take
+	 */
+	private int nextStage = 0;
 	private final InfoflowResults results;
 
 	/**
@@ -43,6 +51,18 @@ public class FlowDroidMemoryWatcher {
 
 			@Override
 			public void onThresholdReached(long usedMemory, long maxMemory) {
+				// Try to free some memory first. If this brings us back below
+				// the threshold, the analysis can continue. Dropping caches
+				// does not affect the results, so we do not report it there.
+				if (reclaimMemory()) {
+					logger.warn("Running out of memory, caches reduced");
+					return;
+				}
+
+				// Degrade the analysis step by step before we give up
+				if (degrade())
+					return;
+
 				// Add the incident to the result object
 				if (results != null)
 					results.addException("Memory threshold reached");
@@ -69,6 +89,138 @@ public class FlowDroidMemoryWatcher {
 		this.solvers.add(solver);
 	}
 
+	/**
+	 * Adds a component that shall free memory when the memory threshold is
+	 * reached
+	 * 
+	 * @param reclaimable
+	 *            A component that shall free memory when the memory threshold
+	 *            is reached
+	 */
+	public void addReclaimable(IMemoryReclaimable reclaimable) {
+		this.reclaimables.add(reclaimable);
+	}
+
+	/**
+	 * Removes the given component from the watch list. The given component will
+	 * no longer be asked to free memory.
+	 * 
+	 * @param reclaimable
+	 *            The component to remove from the watch list
+	 * @return True if the given component was found in the watch list,
+	 *         otherwise false
+	 */
+	public boolean removeReclaimable(IMemoryReclaimable reclaimable) {
+		return this.reclaimables.remove(reclaimable);
+	}
+
+	/**
+	 * Adds a component that shall reduce its memory consumption when the
+	 * memory threshold is reached. Solvers and reclaimable components that
+	 * implement {@link IMemoryDegradable} are included automatically.
+	 * 
+	 * @param degradable
+	 *            A component that shall reduce its memory consumption when the
+	 *            memory threshold is reached
+	 */
+	public void addDegradable(IMemoryDegradable degradable) {
+		this.degradables.add(degradable);
+	}
+
+	/**
+	 * Removes the given component from the watch list
+	 * 
+	 * @param degradable
+	 *            The component to remove from the watch list
+	 * @return True if the given component was found in the watch list,
+	 *         otherwise false
+	 */
+	public boolean removeDegradable(IMemoryDegradable degradable) {
+		return this.degradables.remove(degradable);
+	}
+
+	/**
+	 * Takes the next degradation stages until the memory usage is below the
+	 * warning threshold again. Every stage that is taken is recorded in the
+	 * result object.
+	 * 
+	 * @return True if the memory usage is below the warning threshold, false
+	 *         if all stages have been taken and memory is still short
+	 */
+	private synchronized boolean degrade() {
+		final MemoryDegradationStage[] stages = MemoryDegradationStage.values();
+		while (nextStage < stages.length) {
+			MemoryDegradationStage stage = stages[nextStage++];
+			if (!forceDegradation(stage))
+				continue;
+			logger.warn("Running out of memory, degradation stage {} taken", stage);
+
+			System.gc();
+			if (!MemoryWarningSystem.isThresholdExceeded())
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Applies the given degradation stage to all registered components
+	 * regardless of the current memory consumption, and records it in the
+	 * result object
+	 * 
+	 * @param stage
+	 *            The stage to apply
+	 * @return True if at least one component has changed its behavior,
+	 *         otherwise false
+	 */
+	public synchronized boolean forceDegradation(MemoryDegradationStage stage) {
+		if (!applyStage(stage))
+			return false;
+		if (results != null)
+			results.addDegradationStage(stage);
+		return true;
+	}
+
+	/**
+	 * Applies the given degradation stage to all registered components
+	 * 
+	 * @param stage
+	 *            The stage to apply
+	 * @return True if at least one component has changed its behavior,
+	 *         otherwise false
+	 */
+	private boolean applyStage(MemoryDegradationStage stage) {
+		Set<IMemoryDegradable> targets = new HashSet<>(degradables);
+		for (IMemoryBoundedSolver solver : solvers)
+			if (solver instanceof IMemoryDegradable)
+				targets.add((IMemoryDegradable) solver);
+		for (IMemoryReclaimable reclaimable : reclaimables)
+			if (reclaimable instanceof IMemoryDegradable)
+				targets.add((IMemoryDegradable) reclaimable);
+
+		boolean applied = false;
+		for (IMemoryDegradable target : targets)
+			applied |= target.degrade(stage);
+		return applied;
+	}
+
+	/**
+	 * Asks all registered components to free memory
+	 * 
+	 * @return True if the memory usage is below the warning threshold
+	 *         afterwards, false if there was nothing to free or the memory
+	 *         usage is still too high
+	 */
+	private boolean reclaimMemory() {
+		if (reclaimables.isEmpty())
+			return false;
+		for (IMemoryReclaimable reclaimable : reclaimables)
+			reclaimable.reclaimMemory();
+
+		// The memory is only available again after a collection
+		System.gc();
+		return !MemoryWarningSystem.isThresholdExceeded();
+	}
+
 	/**
 	 * Removes the given solver from the watch list. The given solver will no
 	 * longer ne notified when the memory threshold is reached.
@@ -83,10 +235,13 @@ public class FlowDroidMemoryWatcher {
 	}
 
 	/**
-	 * Clears the list of solvers registered with this memory watcher
+	 * Clears the list of solvers and other components registered with this
+	 * memory watcher
 	 */
 	public void clearSolvers() {
 		this.solvers.clear();
+		this.reclaimables.clear();
+		this.degradables.clear();
 	}
 
 	/**
@@ -0,0 +1,19 @@
+package soot.jimple.infoflow.memory;
+
+/**
+ * Interface for components that can reduce their memory consumption at the
+ * expense of precision or speed when the JVM is about to run out of memory
+ */
+public interface IMemoryDegradable {
+
+	/**
+	 * Applies the given degradation stage to this component
+	 * 
+	 * @param stage
+	 *            The degradation stage to apply
+	 * @return True if this component has changed its behavior, false if the
+	 *         given stage does not apply to this component
+	 */
+	public boolean degrade(MemoryDegradationStage stage);
+
+}
@@ -0,0 +1,16 @@
+package soot.jimple.infoflow.memory;
+
+/**
+ * Interface for components that hold data which can be dropped when the JVM
+ * is about to run out of memory, e.g., caches. Such components are asked to
+ * free memory before any solver is terminated.
+ */
+public interface IMemoryReclaimable {
+
+	/**
+	 * Frees as much memory as possible. Implementations must stay functional
+	 * afterwards, but may become slower.
+	 */
+	public void reclaimMemory();
+
+}
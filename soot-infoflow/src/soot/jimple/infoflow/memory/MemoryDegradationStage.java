@@ -0,0 +1,37 @@
+package soot.jimple.infoflow.memory;
+
+/**
+ * Measures that FlowDroid takes, in this order, when the JVM is about to run
+ * out of memory. Every stage reduces the memory consumption further, but may
+ * affect the precision or the speed of the analysis. The solvers are only
+ * terminated if all stages have been taken and memory is still short.
+ */
+public enum MemoryDegradationStage {
+
+	/**
+	 * Path tracking data is erased from the taint abstractions. The sources and
+	 * sinks are still found, but the paths between them may be incomplete.
+	 */
+	ErasePathData,
+
+	/**
+	 * The number of neighbors per join point abstraction is limited to
+	 * {@link #DEGRADED_MAX_JOIN_POINT_ABSTRACTIONS}. Paths may be lost, which
+	 * can break context-sensitive path builders.
+	 */
+	LimitJoinPoints,
+
+	/**
+	 * Caches of the solvers, e.g., for flow functions and control flow graph
+	 * queries, are dropped. This does not affect the results, but slows down
+	 * the remaining analysis.
+	 */
+	DropSolverCaches;
+
+	/**
+	 * The maximum number of abstractions per join point once the
+	 * {@link #LimitJoinPoints} stage has been taken
+	 */
+	public static final int DEGRADED_MAX_JOIN_POINT_ABSTRACTIONS = 10;
+
+}
@@ -137,6 +137,17 @@ public class MemoryWarningSystem {
 		tenuredGenPool.setUsageThreshold(warningThreshold);
 	}
 	
+	/**
+	 * Checks whether the memory usage is currently at or above the global
+	 * warning threshold
+	 * 
+	 * @return True if the memory usage is at or above the warning threshold,
+	 *         otherwise false
+	 */
+	public static boolean isThresholdExceeded() {
+		return tenuredGenPool.isUsageThresholdExceeded();
+	}
+
 	/**
 	 * Closes this warning system instance. It will no longer notify any
 	 * listeners of memory shortages.
@@ -10,6 +10,7 @@
  ******************************************************************************/
 package soot.jimple.infoflow.problems;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -228,6 +229,21 @@ public abstract class AbstractInfoflowProblem extends DefaultJimpleIFDSTabulatio
 		return zeroValue;
 	}
 	
+	/**
+	 * Gets the statements to which the given abstraction can directly be
+	 * propagated when it reaches the given statement along a normal flow edge.
+	 * This allows the solver to skip over statements that cannot change the
+	 * abstraction.
+	 * @param u The statement that the abstraction has reached
+	 * @param abs The abstraction to propagate
+	 * @return The statements to which the abstraction shall be propagated
+	 * instead of the given statement, or null if the abstraction shall be
+	 * propagated to the given statement as usual
+	 */
+	public Collection<Unit> getSparsePropagationTargets(Unit u, Abstraction abs) {
+		return null;
+	}
+	
 	/**
 	 * Checks whether the given unit is the start of an exception handler
 	 * @param u The unit to check
@@ -811,7 +811,9 @@ public class BackwardsInfoflowProblem extends AbstractInfoflowProblem {
 
 						// Compute wrapper aliases
 						if (taintWrapper != null) {
+							final long beforeWrapper = System.nanoTime();
 							Set<Abstraction> wrapperAliases = taintWrapper.getAliasesForMethod(iStmt, d1, source);
+							solver.getProfile().recordTaintWrapperCall(System.nanoTime() - beforeWrapper);
 							if (wrapperAliases != null && !wrapperAliases.isEmpty()) {
 								Set<Abstraction> passOnSet = new HashSet<>(wrapperAliases.size());
 								for (Abstraction abs : wrapperAliases) {
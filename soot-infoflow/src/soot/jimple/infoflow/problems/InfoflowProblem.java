@@ -344,6 +344,12 @@ public class InfoflowProblem extends AbstractInfoflowProblem {
 				if (!(src instanceof Stmt))
 					return KillAll.v();
 
+				// The right side of an assignment does not depend on the
+				// incoming taint, so we only compute it once for all taints
+				final Value[] rightVals = src instanceof AssignStmt
+						? BaseSelector.selectBaseList(((AssignStmt) src).getRightOp(), true)
+						: null;
+
 				return new NotifyingNormalFlowFunction((Stmt) src) {
 
 					@Override
@@ -366,8 +372,6 @@ public class InfoflowProblem extends AbstractInfoflowProblem {
 						// Propagate over an assignment
 						if (src instanceof AssignStmt) {
 							final AssignStmt assignStmt = (AssignStmt) src;
-							final Value right = assignStmt.getRightOp();
-							final Value[] rightVals = BaseSelector.selectBaseList(right, true);
 
 							// Create the new taints that may be created by this
 							// assignment
@@ -1011,6 +1015,30 @@ public class InfoflowProblem extends AbstractInfoflowProblem {
 		return false;
 	}
 
+	@Override
+	public Collection<Unit> getSparsePropagationTargets(Unit u, Abstraction abs) {
+		if (!manager.getConfig().getSolverConfiguration().getSparsePropagation())
+			return null;
+
+		// Implicit flows need to see every statement in a conditional region
+		if (manager.getConfig().getImplicitFlowMode().trackControlFlowDependencies())
+			return null;
+
+		// The zero abstraction must visit all statements to find the sources.
+		// Inactive abstractions must reach their activation units.
+		if (abs == getZeroValue() || !abs.isAbstractionActive() || abs.isImplicit() || abs.getExceptionThrown()
+				|| abs.getTopPostdominator() != null)
+			return null;
+
+		// We can only skip statements for taints on locals. Static fields can
+		// be changed by any statement that does not mention a local.
+		AccessPath ap = abs.getAccessPath();
+		if (ap.isEmpty() || ap.isStaticFieldRef() || ap.getPlainValue() == null)
+			return null;
+
+		return interproceduralCFG().getNextRelevantStatements(u, ap.getPlainValue());
+	}
+
 	/**
 	 * Gets the results of the data flow analysis
 	 */
@@ -9,6 +9,7 @@ import soot.jimple.infoflow.collect.MyConcurrentHashMap;
 import soot.jimple.infoflow.data.Abstraction;
 import soot.jimple.infoflow.data.AbstractionAtSink;
 import soot.jimple.infoflow.solver.memory.IMemoryManager;
+import soot.jimple.infoflow.solver.memory.INeighborHandler;
 import soot.jimple.infoflow.util.SystemClassHandler;
 
 /**
@@ -59,6 +60,7 @@ public class TaintPropagationResults {
 	 *            The abstraction at the sink instruction
 	 * @return True if the data flow analysis shall continue, otherwise false
 	 */
+	@SuppressWarnings("unchecked")
 	public boolean addResult(AbstractionAtSink resultAbs) {
 		// Check whether we need to filter a result in a system package
 		if (manager.getConfig().getIgnoreFlowsInSystemPackages() && SystemClassHandler.isClassInSystemPackage(
@@ -81,8 +83,10 @@ public class TaintPropagationResults {
 		// Record the result
 		resultAbs = new AbstractionAtSink(resultAbs.getSinkDefinition(), abs, resultAbs.getSinkStmt());
 		Abstraction newAbs = this.results.putIfAbsentElseGet(resultAbs, resultAbs.getAbstraction());
-		if (newAbs != resultAbs.getAbstraction())
-			newAbs.addNeighbor(resultAbs.getAbstraction());
+		if (newAbs != resultAbs.getAbstraction()) {
+			if (newAbs.addNeighbor(resultAbs.getAbstraction()) && memoryManager instanceof INeighborHandler)
+				((INeighborHandler<Abstraction>) memoryManager).handleNeighbor(newAbs, resultAbs.getAbstraction());
+		}
 
 		// Notify the handlers
 		boolean continueAnalysis = true;
@@ -37,6 +37,10 @@ public class PropagationRuleManager {
 
 		List<ITaintPropagationRule> ruleList = new ArrayList<>();
 
+		if (manager.getSinkSlice() != null)
+			ruleList.add(new SinkSlicePropagationRule(manager, aliasing, zeroValue, results));
+		if (manager.getConfig().getSinkReachabilityPruning())
+			ruleList.add(new SinkReachabilityPropagationRule(manager, aliasing, zeroValue, results));
 		ruleList.add(new SourcePropagationRule(manager, aliasing, zeroValue, results));
 		ruleList.add(new SinkPropagationRule(manager, aliasing, zeroValue, results));
 		ruleList.add(new StaticPropagationRule(manager, aliasing, zeroValue, results));
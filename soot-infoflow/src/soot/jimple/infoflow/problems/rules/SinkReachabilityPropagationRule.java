@@ -0,0 +1,87 @@
+package soot.jimple.infoflow.problems.rules;
+
+import java.util.Collection;
+
+import soot.SootMethod;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.aliasing.Aliasing;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.problems.TaintPropagationResults;
+import soot.jimple.infoflow.query.SinkReachability;
+import soot.jimple.infoflow.util.ByReferenceBoolean;
+
+/**
+ * Rule that kills all taints in methods from which no sink can be reached.
+ * Taints on static fields are never killed, because they are visible in all
+ * methods.
+ */
+public class SinkReachabilityPropagationRule extends AbstractTaintPropagationRule {
+
+	public SinkReachabilityPropagationRule(InfoflowManager manager, Aliasing aliasing, Abstraction zeroValue,
+			TaintPropagationResults results) {
+		super(manager, aliasing, zeroValue, results);
+	}
+
+	/**
+	 * Sets the kill flags if no sink can be reached from the given method
+	 *
+	 * @param source
+	 *            The incoming taint
+	 * @param m
+	 *            The method in which the taint continues
+	 * @param killSource
+	 *            The variable that receives whether the incoming taint shall be
+	 *            killed
+	 * @param killAll
+	 *            The variable that receives whether all taints shall be killed
+	 */
+	private void checkReachability(Abstraction source, SootMethod m, ByReferenceBoolean killSource,
+			ByReferenceBoolean killAll) {
+		// The index is only available once the sinks have been collected
+		SinkReachability reachability = getManager().getSinkReachability();
+		if (reachability == null || m == null)
+			return;
+
+		if (source.getAccessPath() != null && source.getAccessPath().isStaticFieldRef())
+			return;
+
+		if (!reachability.canReachSink(m)) {
+			if (killSource != null)
+				killSource.value = true;
+			if (killAll != null)
+				killAll.value = true;
+		}
+	}
+
+	@Override
+	public Collection<Abstraction> propagateNormalFlow(Abstraction d1, Abstraction source, Stmt stmt, Stmt destStmt,
+			ByReferenceBoolean killSource, ByReferenceBoolean killAll) {
+		checkReachability(source, getManager().getICFG().getMethodOf(stmt), killSource, killAll);
+		return null;
+	}
+
+	@Override
+	public Collection<Abstraction> propagateCallFlow(Abstraction d1, Abstraction source, Stmt stmt, SootMethod dest,
+			ByReferenceBoolean killAll) {
+		checkReachability(source, dest, null, killAll);
+		return null;
+	}
+
+	@Override
+	public Collection<Abstraction> propagateCallToReturnFlow(Abstraction d1, Abstraction source, Stmt stmt,
+			ByReferenceBoolean killSource, ByReferenceBoolean killAll) {
+		checkReachability(source, getManager().getICFG().getMethodOf(stmt), killSource, killAll);
+		return null;
+	}
+
+	@Override
+	public Collection<Abstraction> propagateReturnFlow(Collection<Abstraction> callerD1s, Abstraction source, Stmt stmt,
+			Stmt retSite, Stmt callSite, ByReferenceBoolean killAll) {
+		// After the return, the taint continues in the caller
+		if (callSite != null)
+			checkReachability(source, getManager().getICFG().getMethodOf(callSite), null, killAll);
+		return null;
+	}
+
+}
@@ -0,0 +1,77 @@
+package soot.jimple.infoflow.problems.rules;
+
+import java.util.Collection;
+
+import soot.SootMethod;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.aliasing.Aliasing;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.problems.TaintPropagationResults;
+import soot.jimple.infoflow.query.SinkSlice;
+import soot.jimple.infoflow.util.ByReferenceBoolean;
+
+/**
+ * Rule for demand-driven queries that kills all taints outside the backward
+ * slice of the queried sink. Such taints can never reach the sink.
+ */
+public class SinkSlicePropagationRule extends AbstractTaintPropagationRule {
+
+	private final SinkSlice slice;
+
+	public SinkSlicePropagationRule(InfoflowManager manager, Aliasing aliasing, Abstraction zeroValue,
+			TaintPropagationResults results) {
+		super(manager, aliasing, zeroValue, results);
+		this.slice = manager.getSinkSlice();
+	}
+
+	/**
+	 * Sets the kill flags if the given statement is not part of the slice
+	 *
+	 * @param stmt
+	 *            The statement to check
+	 * @param killSource
+	 *            The variable that receives whether the incoming taint shall be
+	 *            killed
+	 * @param killAll
+	 *            The variable that receives whether all taints shall be killed
+	 */
+	private void checkSlice(Stmt stmt, ByReferenceBoolean killSource, ByReferenceBoolean killAll) {
+		if (stmt != null && !slice.contains(stmt)) {
+			if (killSource != null)
+				killSource.value = true;
+			if (killAll != null)
+				killAll.value = true;
+		}
+	}
+
+	@Override
+	public Collection<Abstraction> propagateNormalFlow(Abstraction d1, Abstraction source, Stmt stmt, Stmt destStmt,
+			ByReferenceBoolean killSource, ByReferenceBoolean killAll) {
+		checkSlice(stmt, killSource, killAll);
+		return null;
+	}
+
+	@Override
+	public Collection<Abstraction> propagateCallFlow(Abstraction d1, Abstraction source, Stmt stmt, SootMethod dest,
+			ByReferenceBoolean killAll) {
+		checkSlice(stmt, null, killAll);
+		return null;
+	}
+
+	@Override
+	public Collection<Abstraction> propagateCallToReturnFlow(Abstraction d1, Abstraction source, Stmt stmt,
+			ByReferenceBoolean killSource, ByReferenceBoolean killAll) {
+		checkSlice(stmt, killSource, killAll);
+		return null;
+	}
+
+	@Override
+	public Collection<Abstraction> propagateReturnFlow(Collection<Abstraction> callerD1s, Abstraction source, Stmt stmt,
+			Stmt retSite, Stmt callSite, ByReferenceBoolean killAll) {
+		// After the return, the taint continues at the return site
+		checkSlice(retSite, null, killAll);
+		return null;
+	}
+
+}
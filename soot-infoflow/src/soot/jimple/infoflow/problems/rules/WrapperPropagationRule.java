@@ -93,7 +93,9 @@ public class WrapperPropagationRule extends AbstractTaintPropagationRule {
 				return null;
 		}
 		
+		final long beforeWrapper = System.nanoTime();
 		Set<Abstraction> res = getManager().getTaintWrapper().getTaintsForMethod(iStmt, d1, source);
+		getManager().getForwardSolver().getProfile().recordTaintWrapperCall(System.nanoTime() - beforeWrapper);
 		if(res != null) {
 			Set<Abstraction> resWithAliases = new HashSet<>(res);
 			for (Abstraction abs : res) {
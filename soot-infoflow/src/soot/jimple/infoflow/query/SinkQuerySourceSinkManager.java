@@ -0,0 +1,61 @@
+package soot.jimple.infoflow.query;
+
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.data.AccessPath;
+import soot.jimple.infoflow.sourcesSinks.manager.ISourceSinkManager;
+import soot.jimple.infoflow.sourcesSinks.manager.SinkInfo;
+import soot.jimple.infoflow.sourcesSinks.manager.SourceInfo;
+
+/**
+ * Source/sink manager for demand-driven queries. It restricts the sources of
+ * another source/sink manager to the backward slice of the queried sink and
+ * only accepts the queried sink statement as a sink.
+ */
+public class SinkQuerySourceSinkManager implements ISourceSinkManager {
+
+	private final ISourceSinkManager innerManager;
+	private final SinkSlice slice;
+
+	/**
+	 * Creates a new instance of the SinkQuerySourceSinkManager class
+	 *
+	 * @param innerManager
+	 *            The source/sink manager that defines the sources and sinks
+	 * @param slice
+	 *            The backward slice of the queried sink
+	 */
+	public SinkQuerySourceSinkManager(ISourceSinkManager innerManager, SinkSlice slice) {
+		this.innerManager = innerManager;
+		this.slice = slice;
+	}
+
+	@Override
+	public void initialize() {
+		innerManager.initialize();
+	}
+
+	@Override
+	public SourceInfo getSourceInfo(Stmt sCallSite, InfoflowManager manager) {
+		if (!slice.contains(sCallSite))
+			return null;
+		return innerManager.getSourceInfo(sCallSite, manager);
+	}
+
+	@Override
+	public SinkInfo getSinkInfo(Stmt sCallSite, InfoflowManager manager, AccessPath ap) {
+		if (sCallSite != slice.getSink())
+			return null;
+		return innerManager.getSinkInfo(sCallSite, manager, ap);
+	}
+
+	/**
+	 * Gets the backward slice of the queried sink
+	 *
+	 * @return The backward slice of the queried sink
+	 */
+	public SinkSlice getSlice() {
+		return this.slice;
+	}
+
+}
@@ -0,0 +1,197 @@
+package soot.jimple.infoflow.query;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
+
+/**
+ * Index over the call graph that tells for every method whether a taint inside
+ * the method can still reach a sink. This is the case if the method or one of
+ * its transitive callees contains a sink, or if a sink can be reached after
+ * returning to one of the transitive callers.
+ *
+ * The index is computed in two steps. First, we walk the call graph backwards
+ * from the sinks to find all methods that have a sink in their transitive
+ * callees. We call the sinks and the call sites of these methods the relevant
+ * statements. Second, we look for call sites after which a relevant statement
+ * can still be reached in the caller. All transitive callees of such call sites
+ * can reach a sink after returning. Methods with exception handlers are treated
+ * as if every statement could reach every other statement.
+ */
+public class SinkReachability {
+
+	/**
+	 * Methods that have a sink in their transitive callees
+	 */
+	private final Set<SootMethod> descending = new HashSet<>();
+
+	/**
+	 * Methods that can reach a sink after returning to a transitive caller
+	 */
+	private final Set<SootMethod> ascending = new HashSet<>();
+
+	/**
+	 * Computes the sink reachability index
+	 *
+	 * @param icfg
+	 *            The interprocedural control flow graph
+	 * @param sinks
+	 *            The sink statements in the program
+	 */
+	public SinkReachability(IInfoflowCFG icfg, Collection<Stmt> sinks) {
+		Set<Unit> relevantStmts = new HashSet<>(sinks);
+		computeDescending(icfg, relevantStmts);
+		computeAscending(icfg, relevantStmts);
+	}
+
+	/**
+	 * Finds all methods that have a sink in their transitive callees
+	 *
+	 * @param icfg
+	 *            The interprocedural control flow graph
+	 * @param relevantStmts
+	 *            The sink statements. This set receives the call sites of all
+	 *            methods that have a sink in their transitive callees.
+	 */
+	private void computeDescending(IInfoflowCFG icfg, Set<Unit> relevantStmts) {
+		Deque<SootMethod> worklist = new ArrayDeque<>();
+		for (Unit sink : relevantStmts) {
+			SootMethod m = icfg.getMethodOf(sink);
+			if (m != null && descending.add(m))
+				worklist.add(m);
+		}
+
+		while (!worklist.isEmpty()) {
+			SootMethod m = worklist.poll();
+			for (Unit callSite : icfg.getCallersOf(m)) {
+				relevantStmts.add(callSite);
+				SootMethod caller = icfg.getMethodOf(callSite);
+				if (descending.add(caller))
+					worklist.add(caller);
+			}
+		}
+	}
+
+	/**
+	 * Finds all methods that can reach a sink after returning to a transitive
+	 * caller
+	 *
+	 * @param icfg
+	 *            The interprocedural control flow graph
+	 * @param relevantStmts
+	 *            The sinks and the call sites of methods that have a sink in
+	 *            their transitive callees
+	 */
+	private void computeAscending(IInfoflowCFG icfg, Set<Unit> relevantStmts) {
+		// Only methods with relevant statements can have call sites after which
+		// a sink is reachable
+		Deque<SootMethod> worklist = new ArrayDeque<>();
+		for (SootMethod m : descending) {
+			Set<Unit> reaching = getStmtsReachingRelevant(icfg, m, relevantStmts);
+			for (Unit callSite : icfg.getCallsFromWithin(m)) {
+				if (reachesRelevantAfter(icfg, callSite, reaching))
+					for (SootMethod callee : icfg.getCalleesOfCallAt(callSite))
+						if (ascending.add(callee))
+							worklist.add(callee);
+			}
+		}
+
+		// If a method can reach a sink after returning, so can all of its
+		// callees
+		while (!worklist.isEmpty()) {
+			SootMethod m = worklist.poll();
+			for (Unit callSite : icfg.getCallsFromWithin(m))
+				for (SootMethod callee : icfg.getCalleesOfCallAt(callSite))
+					if (ascending.add(callee))
+						worklist.add(callee);
+		}
+	}
+
+	/**
+	 * Gets all statements in the given method from which a relevant statement
+	 * can be reached
+	 *
+	 * @param icfg
+	 *            The interprocedural control flow graph
+	 * @param m
+	 *            The method to analyze
+	 * @param relevantStmts
+	 *            The sinks and the call sites of methods that have a sink in
+	 *            their transitive callees
+	 * @return The statements from which a relevant statement can be reached,
+	 *         or null if all statements of the method reach one
+	 */
+	private Set<Unit> getStmtsReachingRelevant(IInfoflowCFG icfg, SootMethod m, Set<Unit> relevantStmts) {
+		// Exceptional edges need not be part of the control flow graph, so we
+		// do not rely on it if the method catches exceptions
+		if (!m.hasActiveBody() || !m.getActiveBody().getTraps().isEmpty())
+			return null;
+
+		Set<Unit> reaching = new HashSet<>();
+		Deque<Unit> worklist = new ArrayDeque<>();
+		for (Unit u : m.getActiveBody().getUnits())
+			if (relevantStmts.contains(u) && reaching.add(u))
+				worklist.add(u);
+		while (!worklist.isEmpty()) {
+			Unit u = worklist.poll();
+			for (Unit pred : icfg.getPredsOf(u))
+				if (reaching.add(pred))
+					worklist.add(pred);
+		}
+		return reaching;
+	}
+
+	/**
+	 * Checks whether a relevant statement can be reached after the given call
+	 * site has returned
+	 *
+	 * @param icfg
+	 *            The interprocedural control flow graph
+	 * @param callSite
+	 *            The call site to check
+	 * @param reaching
+	 *            The statements from which a relevant statement can be reached,
+	 *            or null if all statements of the method reach one
+	 * @return True if a relevant statement can be reached after the call site,
+	 *         otherwise false
+	 */
+	private boolean reachesRelevantAfter(IInfoflowCFG icfg, Unit callSite, Set<Unit> reaching) {
+		if (reaching == null)
+			return true;
+		for (Unit retSite : icfg.getReturnSitesOfCallAt(callSite))
+			if (reaching.contains(retSite))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Checks whether a taint in the given method can still reach a sink
+	 *
+	 * @param m
+	 *            The method to check
+	 * @return True if a sink can be reached from the given method, otherwise
+	 *         false
+	 */
+	public boolean canReachSink(SootMethod m) {
+		return descending.contains(m) || ascending.contains(m);
+	}
+
+	/**
+	 * Gets the number of methods from which a sink can be reached
+	 *
+	 * @return The number of methods from which a sink can be reached
+	 */
+	public int size() {
+		Set<SootMethod> methods = new HashSet<>(descending);
+		methods.addAll(ascending);
+		return methods.size();
+	}
+
+}
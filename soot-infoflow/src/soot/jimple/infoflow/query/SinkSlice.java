@@ -0,0 +1,175 @@
+package soot.jimple.infoflow.query;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.solver.cfg.BackwardsInfoflowCFG;
+import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
+
+/**
+ * Backward slice of the interprocedural control flow graph for a single sink
+ * statement. The slice contains all statements from which the sink can be
+ * reached. Taints at statements outside of the slice can never arrive at the
+ * sink.
+ *
+ * The slice is computed by a search over the inverse ICFG that starts at the
+ * sink. Callees are entered backwards through their exit statements. Such
+ * callees have returned before the sink is reached, so the search does not
+ * leave them towards their other callers. Only when the search arrives at the
+ * start of a method that is still on the call stack of the sink, it continues
+ * at all callers of that method.
+ */
+public class SinkSlice {
+
+	private final Stmt sink;
+
+	/**
+	 * Statements through which control flow arrives at the sink from the entry
+	 * points, i.e., the sink method and its transitive callers
+	 */
+	private final Set<Unit> ascending = new HashSet<>();
+
+	/**
+	 * Statements in callees that have already returned when the sink is reached
+	 */
+	private final Set<Unit> descending = new HashSet<>();
+
+	private final Set<SootMethod> methods = new HashSet<>();
+
+	/**
+	 * Computes the backward slice for the given sink
+	 *
+	 * @param icfg
+	 *            The interprocedural control flow graph
+	 * @param sink
+	 *            The sink statement
+	 */
+	public SinkSlice(IInfoflowCFG icfg, Stmt sink) {
+		this.sink = sink;
+		computeSlice(new BackwardsInfoflowCFG(icfg));
+	}
+
+	/**
+	 * Computes the statements and methods of the slice
+	 *
+	 * @param bCfg
+	 *            The inverse interprocedural control flow graph
+	 */
+	private void computeSlice(BackwardsInfoflowCFG bCfg) {
+		Deque<Unit> ascendingWorklist = new ArrayDeque<>();
+		Deque<Unit> descendingWorklist = new ArrayDeque<>();
+		addAscending(sink, ascendingWorklist);
+
+		while (!ascendingWorklist.isEmpty() || !descendingWorklist.isEmpty()) {
+			final boolean isAscending = !ascendingWorklist.isEmpty();
+			final Unit u = isAscending ? ascendingWorklist.poll() : descendingWorklist.poll();
+
+			// If we have reached a statement both ways in the meantime, the
+			// ascending search covers everything
+			if (!isAscending && ascending.contains(u))
+				continue;
+
+			SootMethod m = bCfg.getMethodOf(u);
+			methods.add(m);
+
+			// The exit statements of the inverse ICFG are the start points of
+			// the original one. If the method is still on the call stack, the
+			// control flow may have come from any caller.
+			if (isAscending && bCfg.isExitStmt(u)) {
+				for (Unit callSite : bCfg.getCallersOf(m))
+					addAscending(callSite, ascendingWorklist);
+			}
+
+			for (Unit pred : bCfg.getSuccsOf(u)) {
+				if (isAscending)
+					addAscending(pred, ascendingWorklist);
+				else
+					addDescending(pred, descendingWorklist);
+
+				// If the predecessor is a call, the callees have returned
+				// before we reach the current statement
+				if (bCfg.isCallStmt(pred)) {
+					for (SootMethod callee : bCfg.getCalleesOfCallAt(pred)) {
+						if (!callee.isConcrete())
+							continue;
+						for (Unit exitStmt : bCfg.getStartPointsOf(callee))
+							addDescending(exitStmt, descendingWorklist);
+					}
+				}
+			}
+		}
+	}
+
+	private void addAscending(Unit u, Deque<Unit> worklist) {
+		if (ascending.add(u)) {
+			descending.remove(u);
+			worklist.add(u);
+		}
+	}
+
+	private void addDescending(Unit u, Deque<Unit> worklist) {
+		if (!ascending.contains(u) && descending.add(u))
+			worklist.add(u);
+	}
+
+	/**
+	 * Gets the sink statement for which this slice was computed
+	 *
+	 * @return The sink statement
+	 */
+	public Stmt getSink() {
+		return this.sink;
+	}
+
+	/**
+	 * Checks whether the given statement is part of this slice, i.e., whether
+	 * the sink can be reached from it
+	 *
+	 * @param u
+	 *            The statement to check
+	 * @return True if the given statement is part of this slice, otherwise
+	 *         false
+	 */
+	public boolean contains(Unit u) {
+		return ascending.contains(u) || descending.contains(u);
+	}
+
+	/**
+	 * Checks whether at least one statement in the given method is part of this
+	 * slice
+	 *
+	 * @param m
+	 *            The method to check
+	 * @return True if the given method has statements in this slice, otherwise
+	 *         false
+	 */
+	public boolean containsMethod(SootMethod m) {
+		return methods.contains(m);
+	}
+
+	/**
+	 * Gets all methods that have statements in this slice
+	 *
+	 * @return The methods that have statements in this slice
+	 */
+	public Collection<SootMethod> getMethods() {
+		return Collections.unmodifiableSet(methods);
+	}
+
+	/**
+	 * Gets the number of statements in this slice
+	 *
+	 * @return The number of statements in this slice
+	 */
+	public int size() {
+		return ascending.size() + descending.size();
+	}
+
+}
@@ -0,0 +1,26 @@
+package soot.jimple.infoflow.results;
+
+/**
+ * Interface for components that process data flow results one by one while the
+ * analysis is still running
+ *
+ * @see StreamingResultsChannel
+ */
+public interface IResultsStreamConsumer {
+
+	/**
+	 * Processes a single data flow result
+	 *
+	 * @param source
+	 *            The source from which the data flow originated
+	 * @param sink
+	 *            The sink at which the data flow ended
+	 */
+	public void onResult(ResultSourceInfo source, ResultSinkInfo sink);
+
+	/**
+	 * Notifies the consumer that no further results will arrive
+	 */
+	public void onStreamClosed();
+
+}
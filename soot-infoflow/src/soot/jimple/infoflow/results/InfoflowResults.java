@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +27,7 @@ import soot.jimple.InvokeExpr;
 import soot.jimple.Stmt;
 import soot.jimple.infoflow.data.Abstraction;
 import soot.jimple.infoflow.data.AccessPath;
+import soot.jimple.infoflow.memory.MemoryDegradationStage;
 import soot.jimple.infoflow.sourcesSinks.definitions.SourceSinkDefinition;
 import soot.util.ConcurrentHashMultiMap;
 import soot.util.MultiMap;
@@ -47,6 +49,7 @@ public class InfoflowResults {
 
 	private MultiMap<ResultSinkInfo, ResultSourceInfo> results = null;
 	private List<String> exceptions = null;
+	private volatile CopyOnWriteArrayList<MemoryDegradationStage> degradationStages = null;
 	private int terminationState = TERMINATION_SUCCESS;
 
 	/**
@@ -76,6 +79,46 @@ public class InfoflowResults {
 		exceptions.add(ex);
 	}
 
+	/**
+	 * Gets the degradation stages that have been taken because the data flow
+	 * analysis was about to run out of memory. If this list is not empty, the
+	 * results may be less precise or complete than usual.
+	 * 
+	 * @return The degradation stages that have been taken, or null if there
+	 *         were none
+	 */
+	public List<MemoryDegradationStage> getDegradationStages() {
+		return degradationStages;
+	}
+
+	/**
+	 * Records that the given degradation stage has been taken during the data
+	 * flow analysis. This method is thread-safe.
+	 * 
+	 * @param stage
+	 *            The degradation stage that has been taken
+	 */
+	public void addDegradationStage(MemoryDegradationStage stage) {
+		if (degradationStages == null) {
+			synchronized (this) {
+				if (degradationStages == null)
+					degradationStages = new CopyOnWriteArrayList<MemoryDegradationStage>();
+			}
+		}
+		degradationStages.addIfAbsent(stage);
+	}
+
+	/**
+	 * Gets whether the data flow analysis had to reduce its precision because
+	 * it was about to run out of memory
+	 * 
+	 * @return True if at least one degradation stage has been taken, otherwise
+	 *         false
+	 */
+	public boolean wasDegraded() {
+		return degradationStages != null && !degradationStages.isEmpty();
+	}
+
 	public InfoflowResults() {
 
 	}
@@ -214,6 +257,10 @@ public class InfoflowResults {
 			for (String e : results.getExceptions())
 				addException(e);
 		}
+		if (results.getDegradationStages() != null) {
+			for (MemoryDegradationStage stage : results.getDegradationStages())
+				addDegradationStage(stage);
+		}
 
 		if (!results.getResults().isEmpty()) {
 			for (ResultSinkInfo sink : results.getResults().keySet())
@@ -451,6 +498,7 @@ public class InfoflowResults {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((exceptions == null) ? 0 : exceptions.hashCode());
+		result = prime * result + ((degradationStages == null) ? 0 : degradationStages.hashCode());
 		result = prime * result + ((results == null) ? 0 : results.hashCode());
 		result = prime * result + terminationState;
 		return result;
@@ -470,6 +518,11 @@ public class InfoflowResults {
 				return false;
 		} else if (!exceptions.equals(other.exceptions))
 			return false;
+		if (degradationStages == null) {
+			if (other.degradationStages != null)
+				return false;
+		} else if (!degradationStages.equals(other.degradationStages))
+			return false;
 		if (results == null) {
 			if (other.results != null)
 				return false;
@@ -0,0 +1,229 @@
+package soot.jimple.infoflow.results;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import heros.solver.Pair;
+import soot.jimple.infoflow.handlers.ResultsAvailableHandler2;
+import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
+
+/**
+ * Results handler that passes every single data flow result on to a consumer
+ * as soon as the path builder has found it. The results are buffered in a
+ * bounded queue and delivered on a separate thread. If the consumer falls
+ * behind and the queue is full, the analysis either waits or discards the new
+ * result, depending on the {@link OverflowPolicy}.
+ *
+ * Results are only reported one by one if incremental result reporting is
+ * enabled in the configuration. Otherwise, all results are passed on to the
+ * consumer once the analysis has finished.
+ */
+public class StreamingResultsChannel implements ResultsAvailableHandler2 {
+
+	/**
+	 * Enumeration that defines what happens when a new result arrives while the
+	 * queue is full
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * Wait until the consumer has made room in the queue. This slows down
+		 * the analysis, but no result is lost.
+		 */
+		Block,
+		/**
+		 * Discard the new result and continue with the analysis
+		 */
+		Drop
+	}
+
+	private static final Pair<ResultSourceInfo, ResultSinkInfo> END_OF_STREAM = new Pair<>(null, null);
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	private final IResultsStreamConsumer consumer;
+	private final OverflowPolicy policy;
+	private final BlockingQueue<Pair<ResultSourceInfo, ResultSinkInfo>> queue;
+	private final Thread consumerThread;
+
+	private final AtomicInteger pendingResults = new AtomicInteger();
+	private final AtomicLong droppedResults = new AtomicLong();
+	private volatile boolean receivedSingleResults = false;
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates a new instance of the {@link StreamingResultsChannel} class
+	 *
+	 * @param consumer
+	 *            The consumer that shall receive the results
+	 * @param capacity
+	 *            The maximum number of results that can wait for the consumer
+	 * @param policy
+	 *            The policy that defines what to do with a new result if the
+	 *            queue is full
+	 */
+	public StreamingResultsChannel(IResultsStreamConsumer consumer, int capacity, OverflowPolicy policy) {
+		this.consumer = consumer;
+		this.policy = policy;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+
+		this.consumerThread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				deliverResults();
+			}
+
+		}, "FlowDroid result stream");
+		this.consumerThread.setDaemon(true);
+		this.consumerThread.start();
+	}
+
+	/**
+	 * Takes the results from the queue and hands them over to the consumer
+	 * until the end of the stream is reached
+	 */
+	private void deliverResults() {
+		try {
+			while (true) {
+				Pair<ResultSourceInfo, ResultSinkInfo> result = queue.take();
+				if (result == END_OF_STREAM)
+					break;
+				try {
+					consumer.onResult(result.getO1(), result.getO2());
+				} catch (RuntimeException ex) {
+					logger.error("Result consumer failed", ex);
+				} finally {
+					onResultProcessed();
+				}
+			}
+		} catch (InterruptedException ex) {
+			logger.warn("Result stream was interrupted");
+		} finally {
+			consumer.onStreamClosed();
+		}
+	}
+
+	/**
+	 * Records that a result has left the channel, either because it has been
+	 * delivered or because it has been dropped
+	 */
+	private void onResultProcessed() {
+		if (pendingResults.decrementAndGet() == 0) {
+			synchronized (pendingResults) {
+				pendingResults.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Puts the given result into the queue according to the overflow policy
+	 *
+	 * @param source
+	 *            The source from which the data flow originated
+	 * @param sink
+	 *            The sink at which the data flow ended
+	 */
+	private void enqueue(ResultSourceInfo source, ResultSinkInfo sink) {
+		if (closed)
+			return;
+
+		Pair<ResultSourceInfo, ResultSinkInfo> result = new Pair<>(source, sink);
+		pendingResults.incrementAndGet();
+		switch (policy) {
+		case Block:
+			try {
+				queue.put(result);
+			} catch (InterruptedException ex) {
+				droppedResults.incrementAndGet();
+				onResultProcessed();
+				Thread.currentThread().interrupt();
+			}
+			break;
+		case Drop:
+			if (!queue.offer(result)) {
+				droppedResults.incrementAndGet();
+				onResultProcessed();
+			}
+			break;
+		}
+	}
+
+	@Override
+	public boolean onSingleResultAvailable(ResultSourceInfo source, ResultSinkInfo sink) {
+		receivedSingleResults = true;
+		enqueue(source, sink);
+		return true;
+	}
+
+	@Override
+	public void onResultsAvailable(IInfoflowCFG cfg, InfoflowResults results) {
+		// If we did not get any single results, incremental result reporting
+		// was disabled, and we stream the final results instead
+		if (!receivedSingleResults && results != null && !results.isEmpty()) {
+			for (ResultSinkInfo sink : results.getResults().keySet()) {
+				Set<ResultSourceInfo> sources = results.getResults().get(sink);
+				if (sources != null)
+					for (ResultSourceInfo source : sources)
+						enqueue(source, sink);
+			}
+		}
+		receivedSingleResults = false;
+
+		flush();
+		if (droppedResults.get() > 0)
+			logger.warn("Result stream dropped {} results so far", droppedResults.get());
+	}
+
+	/**
+	 * Waits until the consumer has processed all results that are currently in
+	 * the queue
+	 */
+	public void flush() {
+		synchronized (pendingResults) {
+			while (pendingResults.get() > 0 && consumerThread.isAlive()) {
+				try {
+					pendingResults.wait(1000);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Closes this channel. All results that are already in the queue are still
+	 * delivered to the consumer, and the consumer is notified afterwards. This
+	 * method waits for the consumer to finish.
+	 */
+	public void close() {
+		if (closed)
+			return;
+		closed = true;
+
+		try {
+			queue.put(END_OF_STREAM);
+			consumerThread.join();
+		} catch (InterruptedException ex) {
+			logger.error("Could not wait for the result stream to close", ex);
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Gets the number of results that were dropped because the consumer was
+	 * too slow
+	 *
+	 * @return The number of results that were dropped
+	 */
+	public long getDroppedResults() {
+		return droppedResults.get();
+	}
+
+}
@@ -119,7 +119,7 @@ public class InfoflowResultsSerializer {
 	 * @throws XMLStreamException
 	 *             Thrown if the XML data cannot be written
 	 */
-	private void writeSourceInfo(ResultSourceInfo source, XMLStreamWriter writer) throws XMLStreamException {
+	protected void writeSourceInfo(ResultSourceInfo source, XMLStreamWriter writer) throws XMLStreamException {
 		writer.writeStartElement(XmlConstants.Tags.source);
 		writer.writeAttribute(XmlConstants.Attributes.statement, source.getStmt().toString());
 		if (icfg != null)
@@ -175,7 +175,7 @@ public class InfoflowResultsSerializer {
 	 * @throws XMLStreamException
 	 *             Thrown if the XML data cannot be written
 	 */
-	private void writeSinkInfo(ResultSinkInfo sink, XMLStreamWriter writer) throws XMLStreamException {
+	protected void writeSinkInfo(ResultSinkInfo sink, XMLStreamWriter writer) throws XMLStreamException {
 		writer.writeStartElement(XmlConstants.Tags.sink);
 		writer.writeAttribute(XmlConstants.Attributes.statement, sink.getStmt().toString());
 		if (icfg != null)
@@ -0,0 +1,117 @@
+package soot.jimple.infoflow.results.xml;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import soot.jimple.infoflow.InfoflowConfiguration;
+import soot.jimple.infoflow.results.IResultsStreamConsumer;
+import soot.jimple.infoflow.results.ResultSinkInfo;
+import soot.jimple.infoflow.results.ResultSourceInfo;
+import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
+
+/**
+ * Serializer that writes the data flow results into an XML file one by one as
+ * they arrive. Every result is flushed to disk immediately. The file uses the
+ * same format as the {@link InfoflowResultsSerializer}, but it is only a
+ * complete XML document once the stream has been closed.
+ */
+public class StreamingResultsSerializer extends InfoflowResultsSerializer implements IResultsStreamConsumer {
+
+	private final OutputStream out;
+	private final XMLStreamWriter writer;
+	private boolean closed = false;
+
+	/**
+	 * Creates a new instance of the StreamingResultsSerializer class
+	 *
+	 * @param fileName
+	 *            The target file name
+	 * @throws FileNotFoundException
+	 *             Thrown if target file cannot be used
+	 * @throws XMLStreamException
+	 *             Thrown if the XML data cannot be written
+	 */
+	public StreamingResultsSerializer(String fileName) throws FileNotFoundException, XMLStreamException {
+		this(fileName, null, null);
+	}
+
+	/**
+	 * Creates a new instance of the StreamingResultsSerializer class
+	 *
+	 * @param fileName
+	 *            The target file name
+	 * @param cfg
+	 *            The control flow graph to be used for obtaining additional
+	 *            information such as the methods containing source or sink
+	 *            statements
+	 * @param config
+	 *            The configuration of the data flow analysis
+	 * @throws FileNotFoundException
+	 *             Thrown if target file cannot be used
+	 * @throws XMLStreamException
+	 *             Thrown if the XML data cannot be written
+	 */
+	public StreamingResultsSerializer(String fileName, IInfoflowCFG cfg, InfoflowConfiguration config)
+			throws FileNotFoundException, XMLStreamException {
+		super(cfg, config);
+		this.startTime = System.currentTimeMillis();
+
+		this.out = new BufferedOutputStream(new FileOutputStream(fileName));
+		XMLOutputFactory factory = XMLOutputFactory.newInstance();
+		this.writer = factory.createXMLStreamWriter(out, "UTF-8");
+
+		writer.writeStartDocument("UTF-8", "1.0");
+		writer.writeStartElement(XmlConstants.Tags.root);
+		writer.writeAttribute(XmlConstants.Attributes.fileFormatVersion, FILE_FORMAT_VERSION + "");
+		writer.writeStartElement(XmlConstants.Tags.results);
+		writer.flush();
+	}
+
+	@Override
+	public synchronized void onResult(ResultSourceInfo source, ResultSinkInfo sink) {
+		if (closed)
+			return;
+		try {
+			writer.writeStartElement(XmlConstants.Tags.result);
+			writeSinkInfo(sink, writer);
+
+			writer.writeStartElement(XmlConstants.Tags.sources);
+			writeSourceInfo(source, writer);
+			writer.writeEndElement();
+
+			writer.writeEndElement();
+			writer.flush();
+		} catch (XMLStreamException ex) {
+			throw new RuntimeException("Could not write data flow result", ex);
+		}
+	}
+
+	@Override
+	public synchronized void onStreamClosed() {
+		if (closed)
+			return;
+		closed = true;
+		try {
+			try {
+				writer.writeEndElement();
+				writer.writeEndDocument();
+				writer.close();
+
+				// Closing the XML writer does not close the underlying stream
+				out.flush();
+			} finally {
+				out.close();
+			}
+		} catch (XMLStreamException | IOException ex) {
+			throw new RuntimeException("Could not close result file", ex);
+		}
+	}
+
+}
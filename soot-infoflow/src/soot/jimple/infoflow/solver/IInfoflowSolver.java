@@ -8,7 +8,10 @@ import soot.SootMethod;
 import soot.Unit;
 import soot.jimple.infoflow.data.Abstraction;
 import soot.jimple.infoflow.problems.AbstractInfoflowProblem;
+import soot.jimple.infoflow.solver.endSummaries.EndSummaryCache;
+import soot.jimple.infoflow.solver.jumpFunctions.IJumpFunctionStoreFactory;
 import soot.jimple.infoflow.solver.memory.IMemoryManager;
+import soot.jimple.infoflow.solver.profiling.SolverProfile;
 
 public interface IInfoflowSolver {
 
@@ -84,6 +87,14 @@ public interface IInfoflowSolver {
 	 */
 	public long getPropagationCount();
 
+	/**
+	 * Gets the instrumentation data that the solver collects while it is
+	 * running, e.g., the number of edges processed per method
+	 * 
+	 * @return The instrumentation data of the solver
+	 */
+	public SolverProfile getProfile();
+
 	/**
 	 * Solves the data flow problem
 	 */
@@ -119,4 +130,34 @@ public interface IInfoflowSolver {
 	 */
 	public void setMaxCalleesPerCallSite(int maxCalleesPerCallSite);
 
-}
\ No newline at end of file
+	/**
+	 * Sets the factory that creates the data structure in which the solver stores
+	 * its jump functions
+	 * 
+	 * @param factory
+	 *            The factory for creating the jump function store
+	 */
+	public void setJumpFunctionStoreFactory(IJumpFunctionStoreFactory factory);
+
+	/**
+	 * Sets the cache in which end summaries are persisted across analysis runs.
+	 * The forward solver loads and stores its end summaries in this cache. All
+	 * solvers report the contexts whose end summaries depend on other solvers.
+	 * 
+	 * @param endSummaryCache
+	 *            The cache for persisting end summaries, or null to not persist
+	 *            any end summaries
+	 */
+	public void setEndSummaryCache(EndSummaryCache endSummaryCache);
+
+	/**
+	 * Sets the maximum number of edges with the same target statement that are
+	 * processed together in a single task
+	 * 
+	 * @param edgeBatchSize
+	 *            The maximum number of edges per batch, or 1 to process every
+	 *            edge in its own task
+	 */
+	public void setEdgeBatchSize(int edgeBatchSize);
+
+}
@@ -15,6 +15,10 @@ public class BackwardsInfoflowCFG extends InfoflowCFG {
 	public BackwardsInfoflowCFG(IInfoflowCFG baseCFG) {
 		super(new BackwardsInterproceduralCFG(baseCFG));
 		this.baseCFG = baseCFG;
+
+		// The mod/ref summaries do not depend on the direction
+		if (baseCFG instanceof InfoflowCFG)
+			setModRefSummaries(((InfoflowCFG) baseCFG).getModRefSummaries());
 	}
 	
 	public IInfoflowCFG getBaseCFG() {
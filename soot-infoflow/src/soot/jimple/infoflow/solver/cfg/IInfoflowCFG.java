@@ -6,6 +6,7 @@ package soot.jimple.infoflow.solver.cfg;
 
 import java.util.Collection;
 
+import soot.Local;
 import soot.SootField;
 import soot.SootMethod;
 import soot.Unit;
@@ -198,4 +199,17 @@ public interface IInfoflowCFG extends BiDiInterproceduralCFG<Unit,SootMethod> {
 	 */
 	public void purge();
 
+	/**
+	 * Gets the statements at which the propagation of a taint on the given
+	 * local must continue if the taint arrives at the given statement. These
+	 * are the first statements on every path starting at u (including u
+	 * itself) that use or define the local, call a method, write to the heap,
+	 * or leave the method. All statements in between cannot change a taint on
+	 * the given local.
+	 * @param u The statement at which the taint arrives
+	 * @param local The base local of the taint
+	 * @return The statements to which the taint can directly be propagated
+	 */
+	public Collection<Unit> getNextRelevantStatements(Unit u, Local local);
+
 }
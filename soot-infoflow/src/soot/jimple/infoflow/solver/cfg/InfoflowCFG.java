@@ -12,32 +12,38 @@ package soot.jimple.infoflow.solver.cfg;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
 import heros.solver.IDESolver;
+import heros.solver.Pair;
 import soot.Local;
 import soot.RefType;
-import soot.Scene;
 import soot.SootField;
 import soot.SootMethod;
 import soot.Unit;
 import soot.Value;
 import soot.ValueBox;
 import soot.jimple.AssignStmt;
-import soot.jimple.FieldRef;
+import soot.jimple.DefinitionStmt;
 import soot.jimple.InvokeExpr;
-import soot.jimple.StaticFieldRef;
 import soot.jimple.Stmt;
 import soot.jimple.VirtualInvokeExpr;
-import soot.jimple.toolkits.callgraph.Edge;
+import soot.jimple.infoflow.cfg.ModRefSummaries;
+import soot.jimple.infoflow.memory.IMemoryDegradable;
+import soot.jimple.infoflow.memory.MemoryDegradationStage;
 import soot.jimple.toolkits.ide.icfg.BiDiInterproceduralCFG;
 import soot.jimple.toolkits.ide.icfg.JimpleBasedInterproceduralCFG;
 import soot.toolkits.graph.DirectedGraph;
@@ -50,14 +56,17 @@ import soot.toolkits.graph.MHGPostDominatorsFinder;
  * @author Steven Arzt
  * @author Eric Bodden
  */
-public class InfoflowCFG implements IInfoflowCFG {
+public class InfoflowCFG implements IInfoflowCFG, IMemoryDegradable {
 
-	private static enum StaticFieldUse {
-		Unknown, Unused, Read, Write, ReadWrite
-	}
+	private static final Logger logger = LoggerFactory.getLogger(InfoflowCFG.class);
+
+	/**
+	 * The number of methods below which a precomputation task is no longer
+	 * split up
+	 */
+	private static final int PRECOMPUTATION_BATCH_SIZE = 16;
 
-	protected final Map<SootMethod, Map<SootField, StaticFieldUse>> staticFieldUses = new ConcurrentHashMap<SootMethod, Map<SootField, StaticFieldUse>>();
-	protected final Map<SootMethod, Boolean> methodSideEffects = new ConcurrentHashMap<SootMethod, Boolean>();
+	private volatile ModRefSummaries modRefSummaries = null;
 
 	protected final BiDiInterproceduralCFG<Unit, SootMethod> delegate;
 
@@ -67,15 +76,8 @@ public class InfoflowCFG implements IInfoflowCFG {
 				public UnitContainer load(Unit unit) throws Exception {
 					SootMethod method = getMethodOf(unit);
 					DirectedGraph<Unit> graph = delegate.getOrCreateUnitGraph(method);
-
-					System.out.println(graph);
-
 					MHGPostDominatorsFinder<Unit> postdominatorFinder = new MHGPostDominatorsFinder<Unit>(graph);
-					Unit postdom = postdominatorFinder.getImmediateDominator(unit);
-					if (postdom == null)
-						return new UnitContainer(method);
-					else
-						return new UnitContainer(postdom);
+					return createPostdominatorContainer(method, postdominatorFinder.getImmediateDominator(unit));
 				}
 			});
 
@@ -127,6 +129,37 @@ public class InfoflowCFG implements IInfoflowCFG {
 				}
 			});
 
+	/**
+	 * The maximum number of pairs of statement and local for which the next
+	 * relevant statements are cached. The number of such pairs grows with the
+	 * number of tainted locals, so the cache must be bounded. Evicted entries
+	 * are simply computed again.
+	 */
+	private static final int MAX_NEXT_RELEVANT_STATEMENTS = 100000;
+
+	protected final LoadingCache<Pair<Unit, Local>, Collection<Unit>> unitToNextRelevantStatements = CacheBuilder
+			.newBuilder().concurrencyLevel(Runtime.getRuntime().availableProcessors())
+			.maximumSize(MAX_NEXT_RELEVANT_STATEMENTS).build(new CacheLoader<Pair<Unit, Local>, Collection<Unit>>() {
+				@Override
+				public Collection<Unit> load(Pair<Unit, Local> key) throws Exception {
+					final Local local = key.getO2();
+					List<Unit> relevantStmts = new ArrayList<Unit>();
+					Set<Unit> doneSet = new HashSet<Unit>();
+					List<Unit> workList = new ArrayList<Unit>();
+					workList.add(key.getO1());
+					while (!workList.isEmpty()) {
+						Unit curUnit = workList.remove(workList.size() - 1);
+						if (!doneSet.add(curUnit))
+							continue;
+						if (isRelevantStatement(curUnit, local))
+							relevantStmts.add(curUnit);
+						else
+							workList.addAll(getSuccsOf(curUnit));
+					}
+					return relevantStmts;
+				}
+			});
+
 	public InfoflowCFG() {
 		this(new JimpleBasedInterproceduralCFG(true, true));
 	}
@@ -140,6 +173,137 @@ public class InfoflowCFG implements IInfoflowCFG {
 		return unitToPostdominator.getUnchecked(u);
 	}
 
+	/**
+	 * Wraps the immediate postdominator of a unit into a container
+	 * 
+	 * @param method
+	 *            The method that contains the unit
+	 * @param postdom
+	 *            The immediate postdominator of the unit, or null if the unit
+	 *            has no postdominator inside the method
+	 * @return The container for the postdominator
+	 */
+	private static UnitContainer createPostdominatorContainer(SootMethod method, Unit postdom) {
+		if (postdom == null)
+			return new UnitContainer(method);
+		else
+			return new UnitContainer(postdom);
+	}
+
+	/**
+	 * Computes the control flow graphs, the used and written locals and,
+	 * optionally, the postdominators of the given methods in parallel. The
+	 * results are put into the same caches that the solver would otherwise
+	 * fill on demand, so that the solver threads do not stall on the first
+	 * visit of a method.
+	 * 
+	 * @param methods
+	 *            The methods for which to precompute the data
+	 * @param postdominators
+	 *            True if the postdominators of all units shall be computed as
+	 *            well, otherwise false
+	 * @param numThreads
+	 *            The number of threads to use, or a value smaller than 1 to
+	 *            use one thread per available processor
+	 */
+	public void precomputeMethodData(Collection<SootMethod> methods, boolean postdominators, int numThreads) {
+		final List<SootMethod> bodyMethods = new ArrayList<SootMethod>(methods.size());
+		for (SootMethod sm : methods)
+			if (sm.isConcrete() && sm.hasActiveBody())
+				bodyMethods.add(sm);
+		if (bodyMethods.isEmpty())
+			return;
+
+		logger.info("Precomputing control flow data for {} methods...", bodyMethods.size());
+		long beforePrecomputation = System.nanoTime();
+		ForkJoinPool pool = new ForkJoinPool(numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors());
+		try {
+			pool.invoke(new PrecomputationTask(bodyMethods, 0, bodyMethods.size(), postdominators,
+					new AtomicInteger()));
+		} finally {
+			pool.shutdown();
+		}
+		logger.info("Control flow data for {} methods precomputed in {} seconds", bodyMethods.size(),
+				(System.nanoTime() - beforePrecomputation) / 1E9);
+	}
+
+	/**
+	 * Task that precomputes the data for a range of methods, and splits itself
+	 * up if the range is too large
+	 */
+	private class PrecomputationTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 2829431570390231547L;
+
+		private final List<SootMethod> methods;
+		private final int from;
+		private final int to;
+		private final boolean postdominators;
+		private final AtomicInteger doneCounter;
+
+		public PrecomputationTask(List<SootMethod> methods, int from, int to, boolean postdominators,
+				AtomicInteger doneCounter) {
+			this.methods = methods;
+			this.from = from;
+			this.to = to;
+			this.postdominators = postdominators;
+			this.doneCounter = doneCounter;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= PRECOMPUTATION_BATCH_SIZE) {
+				for (int i = from; i < to; i++)
+					precomputeMethod(methods.get(i), postdominators);
+				reportProgress(to - from);
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			invokeAll(new PrecomputationTask(methods, from, mid, postdominators, doneCounter),
+					new PrecomputationTask(methods, mid, to, postdominators, doneCounter));
+		}
+
+		/**
+		 * Logs a progress message whenever another tenth of the methods has
+		 * been processed
+		 * 
+		 * @param numDone
+		 *            The number of methods that this task has just processed
+		 */
+		private void reportProgress(int numDone) {
+			int total = methods.size();
+			int after = doneCounter.addAndGet(numDone);
+			int before = after - numDone;
+			if (after * 10L / total != before * 10L / total)
+				logger.info("Precomputed control flow data for {} of {} methods", after, total);
+		}
+
+	}
+
+	/**
+	 * Computes the data for a single method and puts it into the caches
+	 * 
+	 * @param method
+	 *            The method for which to precompute the data
+	 * @param postdominators
+	 *            True if the postdominators of all units shall be computed as
+	 *            well, otherwise false
+	 */
+	protected void precomputeMethod(SootMethod method, boolean postdominators) {
+		DirectedGraph<Unit> graph = delegate.getOrCreateUnitGraph(method);
+		methodToUsedLocals.getUnchecked(method);
+		methodToWrittenLocals.getUnchecked(method);
+
+		// A single postdominator finder serves all units of the method
+		if (postdominators) {
+			MHGPostDominatorsFinder<Unit> postdominatorFinder = new MHGPostDominatorsFinder<Unit>(graph);
+			for (Unit u : graph)
+				unitToPostdominator.put(u,
+						createPostdominatorContainer(method, postdominatorFinder.getImmediateDominator(u)));
+		}
+	}
+
 	// delegate methods follow
 
 	@Override
@@ -242,155 +406,51 @@ public class InfoflowCFG implements IInfoflowCFG {
 		return delegate.isReturnSite(n);
 	}
 
-	@Override
-	public boolean isStaticFieldRead(SootMethod method, SootField variable) {
-		return isStaticFieldUsed(method, variable, new HashSet<SootMethod>(), true);
-	}
-
-	@Override
-	public boolean isStaticFieldUsed(SootMethod method, SootField variable) {
-		return isStaticFieldUsed(method, variable, new HashSet<SootMethod>(), false);
-	}
-
-	private boolean isStaticFieldUsed(SootMethod smethod, SootField variable, Set<SootMethod> runList,
-			boolean readOnly) {
-		List<SootMethod> workList = new ArrayList<SootMethod>();
-		workList.add(smethod);
-
-		while (!workList.isEmpty()) {
-			SootMethod method = workList.remove(workList.size() - 1);
-			// Without a body, we cannot say much
-			if (!method.hasActiveBody())
-				continue;
-
-			// Do not process the same method twice
-			if (!runList.add(method))
-				continue;
-
-			// Do we already have an entry?
-			Map<SootField, StaticFieldUse> entry = staticFieldUses.get(method);
-			if (entry != null) {
-				StaticFieldUse b = entry.get(variable);
-				if (b != null && b != StaticFieldUse.Unknown) {
-					if (readOnly)
-						return b == StaticFieldUse.Read || b == StaticFieldUse.ReadWrite;
-					else
-						return b != StaticFieldUse.Unused;
-				}
-			}
-
-			// Scan for references to this variable
-			for (Unit u : method.getActiveBody().getUnits()) {
-				if (u instanceof AssignStmt) {
-					AssignStmt assign = (AssignStmt) u;
-
-					if (assign.getLeftOp() instanceof StaticFieldRef) {
-						SootField sf = ((StaticFieldRef) assign.getLeftOp()).getField();
-						registerStaticVariableUse(method, sf, StaticFieldUse.Write);
-						if (!readOnly && variable.equals(sf))
-							return true;
-					}
-
-					if (assign.getRightOp() instanceof StaticFieldRef) {
-						SootField sf = ((StaticFieldRef) assign.getRightOp()).getField();
-						registerStaticVariableUse(method, sf, StaticFieldUse.Read);
-						if (variable.equals(sf))
-							return true;
-					}
+	/**
+	 * Gets the mod/ref summaries that this control flow graph uses for answering
+	 * queries about static fields and side effects. If no summaries have been
+	 * set, they are created on the first request and then computed on demand.
+	 * 
+	 * @return The mod/ref summaries
+	 */
+	public ModRefSummaries getModRefSummaries() {
+		ModRefSummaries summaries = modRefSummaries;
+		if (summaries == null) {
+			synchronized (this) {
+				summaries = modRefSummaries;
+				if (summaries == null) {
+					summaries = new ModRefSummaries();
+					modRefSummaries = summaries;
 				}
-
-				if (((Stmt) u).containsInvokeExpr())
-					for (Iterator<Edge> edgeIt = Scene.v().getCallGraph().edgesOutOf(u); edgeIt.hasNext();) {
-						Edge e = edgeIt.next();
-						workList.add(e.getTgt().method());
-					}
 			}
-
-			// Variable is not read
-			registerStaticVariableUse(method, variable, StaticFieldUse.Unused);
 		}
-		return false;
+		return summaries;
 	}
 
-	private void registerStaticVariableUse(SootMethod method, SootField variable, StaticFieldUse fieldUse) {
-		Map<SootField, StaticFieldUse> entry = staticFieldUses.get(method);
-		StaticFieldUse oldUse;
-		synchronized (staticFieldUses) {
-			if (entry == null) {
-				entry = new ConcurrentHashMap<SootField, StaticFieldUse>();
-				staticFieldUses.put(method, entry);
-				entry.put(variable, fieldUse);
-				return;
-			}
-
-			oldUse = entry.get(variable);
-			if (oldUse == null) {
-				entry.put(variable, fieldUse);
-				return;
-			}
-		}
-
-		// This part is monotonic, so no need for synchronization
-		StaticFieldUse newUse;
-		switch (oldUse) {
-		case Unknown:
-		case Unused:
-		case ReadWrite:
-			newUse = fieldUse;
-			break;
-		case Read:
-			newUse = (fieldUse == StaticFieldUse.Read) ? oldUse : StaticFieldUse.ReadWrite;
-			break;
-		case Write:
-			newUse = (fieldUse == StaticFieldUse.Write) ? oldUse : StaticFieldUse.ReadWrite;
-			break;
-		default:
-			throw new RuntimeException("Invalid field use");
-		}
-		entry.put(variable, newUse);
+	/**
+	 * Sets the mod/ref summaries that this control flow graph shall use for
+	 * answering queries about static fields and side effects
+	 * 
+	 * @param modRefSummaries
+	 *            The mod/ref summaries
+	 */
+	public void setModRefSummaries(ModRefSummaries modRefSummaries) {
+		this.modRefSummaries = modRefSummaries;
 	}
 
 	@Override
-	public boolean hasSideEffects(SootMethod method) {
-		return hasSideEffects(method, new HashSet<SootMethod>());
+	public boolean isStaticFieldRead(SootMethod method, SootField variable) {
+		return getModRefSummaries().isStaticFieldRead(method, variable);
 	}
 
-	private boolean hasSideEffects(SootMethod method, Set<SootMethod> runList) {
-		// Without a body, we cannot say much
-		if (!method.hasActiveBody())
-			return false;
-
-		// Do not process the same method twice
-		if (!runList.add(method))
-			return false;
-
-		// Do we already have an entry?
-		Boolean hasSideEffects = methodSideEffects.get(method);
-		if (hasSideEffects != null)
-			return hasSideEffects;
-
-		// Scan for references to this variable
-		for (Unit u : method.getActiveBody().getUnits()) {
-			if (u instanceof AssignStmt) {
-				AssignStmt assign = (AssignStmt) u;
-
-				if (assign.getLeftOp() instanceof FieldRef) {
-					methodSideEffects.put(method, true);
-					return true;
-				}
-			}
-
-			if (((Stmt) u).containsInvokeExpr())
-				for (Iterator<Edge> edgeIt = Scene.v().getCallGraph().edgesOutOf(u); edgeIt.hasNext();) {
-					Edge e = edgeIt.next();
-					if (hasSideEffects(e.getTgt().method(), runList))
-						return true;
-				}
-		}
+	@Override
+	public boolean isStaticFieldUsed(SootMethod method, SootField variable) {
+		return getModRefSummaries().isStaticFieldUsed(method, variable);
+	}
 
-		// Variable is not read
-		methodSideEffects.put(method, false);
-		return false;
+	@Override
+	public boolean hasSideEffects(SootMethod method) {
+		return getModRefSummaries().hasSideEffects(method);
 	}
 
 	@Override
@@ -504,10 +564,45 @@ public class InfoflowCFG implements IInfoflowCFG {
 	}
 
 	@Override
-	public void purge() {
-		methodSideEffects.clear();
-		staticFieldUses.clear();
+	public Collection<Unit> getNextRelevantStatements(Unit u, Local local) {
+		// Most statements are only followed by a few irrelevant ones, so we
+		// avoid the cache lookup for the direct successor
+		if (isRelevantStatement(u, local))
+			return Collections.singletonList(u);
+		return unitToNextRelevantStatements.getUnchecked(new Pair<Unit, Local>(u, local));
+	}
+
+	/**
+	 * Checks whether the given statement can have any effect on a taint on the
+	 * given local other than just passing it on to its successors
+	 * 
+	 * @param u
+	 *            The statement to check
+	 * @param local
+	 *            The base local of the taint
+	 * @return True if the given statement is relevant for a taint on the given
+	 *         local, otherwise false
+	 */
+	private boolean isRelevantStatement(Unit u, Local local) {
+		if (isCallStmt(u) || isExitStmt(u))
+			return true;
+		if (getSuccsOf(u).isEmpty())
+			return true;
 
+		// Heap writes may kill or create aliases of our taint
+		if (u instanceof DefinitionStmt && !(((DefinitionStmt) u).getLeftOp() instanceof Local))
+			return true;
+
+		for (ValueBox vb : u.getUseAndDefBoxes())
+			if (vb.getValue() == local)
+				return true;
+		return false;
+	}
+
+	@Override
+	public void purge() {
+		// The mod/ref summaries are compact and may be shared with other
+		// components, so we keep them
 		methodToUsedLocals.invalidateAll();
 		methodToUsedLocals.cleanUp();
 
@@ -516,6 +611,18 @@ public class InfoflowCFG implements IInfoflowCFG {
 
 		unitToPostdominator.invalidateAll();
 		unitToPostdominator.cleanUp();
+
+		unitToNextRelevantStatements.invalidateAll();
+		unitToNextRelevantStatements.cleanUp();
+	}
+
+	@Override
+	public boolean degrade(MemoryDegradationStage stage) {
+		// All of our data can be recomputed on demand
+		if (stage != MemoryDegradationStage.DropSolverCaches)
+			return false;
+		purge();
+		return true;
 	}
 
 }
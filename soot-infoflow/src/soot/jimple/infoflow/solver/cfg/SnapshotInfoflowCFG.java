@@ -0,0 +1,502 @@
+package soot.jimple.infoflow.solver.cfg;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import soot.MethodOrMethodContext;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.toolkits.callgraph.ReachableMethods;
+import soot.jimple.toolkits.ide.icfg.BiDiInterproceduralCFG;
+import soot.util.queue.QueueReader;
+
+/**
+ * Interprocedural control-flow graph that answers the queries of the data flow
+ * solvers from an immutable snapshot. The snapshot is taken once when the
+ * object is created. All statements and methods are numbered densely. The
+ * successors, predecessors, callees, return sites, callers, and start points
+ * are stored as compressed sparse rows in integer arrays, so that a query
+ * consists of one identity lookup and a few array reads.
+ *
+ * Statements and methods that are not part of the snapshot, e.g., methods
+ * whose bodies are loaded or changed later, are answered by the wrapped ICFG.
+ */
+public class SnapshotInfoflowCFG extends InfoflowCFG {
+
+	private static final byte UNIT_CALL = 1;
+	private static final byte UNIT_EXIT = 2;
+	private static final byte UNIT_START = 4;
+	private static final byte UNIT_INCOMPLETE = 8;
+
+	private static final byte METHOD_HAS_BODY = 1;
+	private static final byte METHOD_INCOMPLETE = 2;
+
+	private final IdentityIndex unitIndex;
+	private final Unit[] units;
+	private final int[] unitToMethod;
+	private final byte[] unitFlags;
+
+	private final IdentityIndex methodIndex;
+	private final SootMethod[] methods;
+	private final byte[] methodFlags;
+
+	private final int[] succOffsets;
+	private final int[] succTargets;
+	private final int[] predOffsets;
+	private final int[] predTargets;
+	private final int[] calleeOffsets;
+	private final int[] calleeTargets;
+	private final int[] returnSiteOffsets;
+	private final int[] returnSiteTargets;
+
+	private final int[] callerOffsets;
+	private final int[] callerTargets;
+	private final int[] startPointOffsets;
+	private final int[] startPointTargets;
+
+	private final Set<SootMethod> changedMethods = Collections
+			.newSetFromMap(new ConcurrentHashMap<SootMethod, Boolean>());
+	private volatile boolean hasChangedMethods = false;
+
+	/**
+	 * Open-addressing hash table that maps objects to consecutive indices by
+	 * identity
+	 */
+	private static class IdentityIndex {
+
+		private Object[] keys;
+		private int[] values;
+		private int size = 0;
+
+		public IdentityIndex(int expectedSize) {
+			int capacity = 16;
+			while (capacity < expectedSize * 2)
+				capacity <<= 1;
+			this.keys = new Object[capacity];
+			this.values = new int[capacity];
+		}
+
+		public int get(Object key) {
+			final int mask = keys.length - 1;
+			for (int i = mix(System.identityHashCode(key)) & mask;; i = (i + 1) & mask) {
+				Object curKey = keys[i];
+				if (curKey == key)
+					return values[i];
+				if (curKey == null)
+					return -1;
+			}
+		}
+
+		/**
+		 * Gets the index of the given object. If the object is not yet in the
+		 * table, it receives the next free index.
+		 *
+		 * @param key
+		 *            The object to look up
+		 * @return The index of the object
+		 */
+		public int getOrAdd(Object key) {
+			int idx = get(key);
+			if (idx >= 0)
+				return idx;
+			if ((size + 1) * 2 > keys.length)
+				resize();
+			insert(key, size);
+			return size++;
+		}
+
+		private void insert(Object key, int value) {
+			final int mask = keys.length - 1;
+			int i = mix(System.identityHashCode(key)) & mask;
+			while (keys[i] != null)
+				i = (i + 1) & mask;
+			keys[i] = key;
+			values[i] = value;
+		}
+
+		private void resize() {
+			Object[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new Object[oldKeys.length * 2];
+			values = new int[oldKeys.length * 2];
+			for (int i = 0; i < oldKeys.length; i++)
+				if (oldKeys[i] != null)
+					insert(oldKeys[i], oldValues[i]);
+		}
+
+		private static int mix(int h) {
+			h ^= h >>> 16;
+			return h * 0x85ebca6b;
+		}
+
+		public int size() {
+			return size;
+		}
+
+	}
+
+	/**
+	 * Growable array of primitive integers for building the compressed rows
+	 */
+	private static class IntArrayBuilder {
+
+		private int[] data = new int[1024];
+		private int size = 0;
+
+		public void add(int value) {
+			if (size == data.length)
+				data = Arrays.copyOf(data, data.length * 2);
+			data[size++] = value;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public int[] toArray() {
+			return Arrays.copyOf(data, size);
+		}
+
+	}
+
+	/**
+	 * Read-only list view on one row of a compressed sparse row structure
+	 */
+	private static class RowView<T> extends AbstractList<T> implements RandomAccess {
+
+		private final Object[] elements;
+		private final int[] targets;
+		private final int from;
+		private final int size;
+
+		public RowView(Object[] elements, int[] targets, int from, int to) {
+			this.elements = elements;
+			this.targets = targets;
+			this.from = from;
+			this.size = to - from;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public T get(int index) {
+			if (index < 0 || index >= size)
+				throw new IndexOutOfBoundsException(String.valueOf(index));
+			return (T) elements[targets[from + index]];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+	}
+
+	/**
+	 * Creates a snapshot of the given interprocedural control-flow graph. The
+	 * snapshot contains all methods that are reachable in the current
+	 * callgraph.
+	 *
+	 * @param delegate
+	 *            The interprocedural control-flow graph to take the snapshot
+	 *            from
+	 */
+	public SnapshotInfoflowCFG(BiDiInterproceduralCFG<Unit, SootMethod> delegate) {
+		super(delegate);
+
+		// Number the statements of all reachable methods
+		List<SootMethod> bodyMethods = new ArrayList<>();
+		int unitCount = 0;
+		ReachableMethods reachableMethods = Scene.v().getReachableMethods();
+		reachableMethods.update();
+		for (QueueReader<MethodOrMethodContext> rdr = reachableMethods.listener(); rdr.hasNext();) {
+			SootMethod m = rdr.next().method();
+			if (m.hasActiveBody()) {
+				bodyMethods.add(m);
+				unitCount += m.getActiveBody().getUnits().size();
+			}
+		}
+
+		this.unitIndex = new IdentityIndex(unitCount);
+		this.units = new Unit[unitCount];
+		this.unitToMethod = new int[unitCount];
+		this.unitFlags = new byte[unitCount];
+		this.methodIndex = new IdentityIndex(bodyMethods.size());
+		List<SootMethod> methodList = new ArrayList<>(bodyMethods);
+		for (SootMethod m : bodyMethods) {
+			final int methodId = methodIndex.getOrAdd(m);
+			for (Unit u : m.getActiveBody().getUnits()) {
+				final int unitId = unitIndex.getOrAdd(u);
+				units[unitId] = u;
+				unitToMethod[unitId] = methodId;
+			}
+		}
+
+		// Record the intraprocedural edges and the call edges
+		this.succOffsets = new int[unitCount + 1];
+		this.predOffsets = new int[unitCount + 1];
+		this.calleeOffsets = new int[unitCount + 1];
+		this.returnSiteOffsets = new int[unitCount + 1];
+		IntArrayBuilder succs = new IntArrayBuilder();
+		IntArrayBuilder preds = new IntArrayBuilder();
+		IntArrayBuilder callees = new IntArrayBuilder();
+		IntArrayBuilder returnSites = new IntArrayBuilder();
+		for (int unitId = 0; unitId < unitCount; unitId++) {
+			final Unit u = units[unitId];
+			boolean complete = addUnits(succs, succOffsets, unitId, delegate.getSuccsOf(u));
+			complete &= addUnits(preds, predOffsets, unitId, delegate.getPredsOf(u));
+
+			calleeOffsets[unitId] = callees.size();
+			returnSiteOffsets[unitId] = returnSites.size();
+			if (delegate.isCallStmt(u)) {
+				unitFlags[unitId] |= UNIT_CALL;
+				for (SootMethod callee : delegate.getCalleesOfCallAt(u)) {
+					if (methodIndex.get(callee) < 0)
+						methodList.add(callee);
+					callees.add(methodIndex.getOrAdd(callee));
+				}
+				for (Unit retSite : delegate.getReturnSitesOfCallAt(u)) {
+					final int retSiteId = unitIndex.get(retSite);
+					if (retSiteId < 0)
+						complete = false;
+					else
+						returnSites.add(retSiteId);
+				}
+			}
+			if (delegate.isExitStmt(u))
+				unitFlags[unitId] |= UNIT_EXIT;
+			if (delegate.isStartPoint(u))
+				unitFlags[unitId] |= UNIT_START;
+			if (!complete)
+				unitFlags[unitId] |= UNIT_INCOMPLETE;
+		}
+		succOffsets[unitCount] = succs.size();
+		predOffsets[unitCount] = preds.size();
+		calleeOffsets[unitCount] = callees.size();
+		returnSiteOffsets[unitCount] = returnSites.size();
+		this.succTargets = succs.toArray();
+		this.predTargets = preds.toArray();
+		this.calleeTargets = callees.toArray();
+		this.returnSiteTargets = returnSites.toArray();
+
+		// Record the callers and start points of all methods, including the
+		// callees without bodies
+		final int methodCount = methodList.size();
+		this.methods = methodList.toArray(new SootMethod[methodCount]);
+		this.methodFlags = new byte[methodCount];
+		this.callerOffsets = new int[methodCount + 1];
+		this.startPointOffsets = new int[methodCount + 1];
+		IntArrayBuilder callers = new IntArrayBuilder();
+		IntArrayBuilder startPoints = new IntArrayBuilder();
+		for (int methodId = 0; methodId < methodCount; methodId++) {
+			final SootMethod m = methods[methodId];
+			boolean complete = addUnits(callers, callerOffsets, methodId, delegate.getCallersOf(m));
+			startPointOffsets[methodId] = startPoints.size();
+			if (methodId < bodyMethods.size()) {
+				methodFlags[methodId] |= METHOD_HAS_BODY;
+				for (Unit sp : delegate.getStartPointsOf(m)) {
+					final int spId = unitIndex.get(sp);
+					if (spId < 0)
+						complete = false;
+					else
+						startPoints.add(spId);
+				}
+			}
+			if (!complete)
+				methodFlags[methodId] |= METHOD_INCOMPLETE;
+		}
+		callerOffsets[methodCount] = callers.size();
+		startPointOffsets[methodCount] = startPoints.size();
+		this.callerTargets = callers.toArray();
+		this.startPointTargets = startPoints.toArray();
+	}
+
+	/**
+	 * Adds one row of statements to a compressed sparse row structure
+	 *
+	 * @param targets
+	 *            The builder for the target array
+	 * @param offsets
+	 *            The offset array
+	 * @param row
+	 *            The index of the row to add
+	 * @param rowUnits
+	 *            The statements in the row
+	 * @return True if all statements are part of the snapshot, otherwise false
+	 */
+	private boolean addUnits(IntArrayBuilder targets, int[] offsets, int row, Collection<Unit> rowUnits) {
+		offsets[row] = targets.size();
+		boolean complete = true;
+		for (Unit u : rowUnits) {
+			final int unitId = unitIndex.get(u);
+			if (unitId < 0)
+				complete = false;
+			else
+				targets.add(unitId);
+		}
+		return complete;
+	}
+
+	/**
+	 * Gets the index of the given statement in the snapshot
+	 *
+	 * @param u
+	 *            The statement to look up
+	 * @return The index of the given statement, or -1 if the statement must be
+	 *         looked up in the wrapped ICFG
+	 */
+	private int getUnitId(Unit u) {
+		final int unitId = unitIndex.get(u);
+		if (unitId < 0 || (unitFlags[unitId] & UNIT_INCOMPLETE) != 0)
+			return -1;
+		if (hasChangedMethods && changedMethods.contains(methods[unitToMethod[unitId]]))
+			return -1;
+		return unitId;
+	}
+
+	/**
+	 * Gets the index of the given method in the snapshot
+	 *
+	 * @param m
+	 *            The method to look up
+	 * @return The index of the given method, or -1 if the method must be
+	 *         looked up in the wrapped ICFG
+	 */
+	private int getMethodId(SootMethod m) {
+		final int methodId = methodIndex.get(m);
+		if (methodId < 0 || (methodFlags[methodId] & METHOD_INCOMPLETE) != 0)
+			return -1;
+		if (hasChangedMethods && changedMethods.contains(m))
+			return -1;
+		return methodId;
+	}
+
+	private <T> List<T> getRow(Object[] elements, int[] offsets, int[] targets, int row) {
+		final int from = offsets[row];
+		final int to = offsets[row + 1];
+		if (from == to)
+			return Collections.emptyList();
+		return new RowView<T>(elements, targets, from, to);
+	}
+
+	@Override
+	public SootMethod getMethodOf(Unit u) {
+		final int unitId = getUnitId(u);
+		if (unitId < 0)
+			return super.getMethodOf(u);
+		return methods[unitToMethod[unitId]];
+	}
+
+	@Override
+	public List<Unit> getSuccsOf(Unit u) {
+		final int unitId = getUnitId(u);
+		if (unitId < 0)
+			return super.getSuccsOf(u);
+		return getRow(units, succOffsets, succTargets, unitId);
+	}
+
+	@Override
+	public List<Unit> getPredsOf(Unit u) {
+		final int unitId = getUnitId(u);
+		if (unitId < 0)
+			return super.getPredsOf(u);
+		return getRow(units, predOffsets, predTargets, unitId);
+	}
+
+	@Override
+	public List<Unit> getPredsOfCallAt(Unit u) {
+		return getPredsOf(u);
+	}
+
+	@Override
+	public boolean isCallStmt(Unit u) {
+		final int unitId = getUnitId(u);
+		if (unitId < 0)
+			return super.isCallStmt(u);
+		return (unitFlags[unitId] & UNIT_CALL) != 0;
+	}
+
+	@Override
+	public boolean isExitStmt(Unit u) {
+		final int unitId = getUnitId(u);
+		if (unitId < 0)
+			return super.isExitStmt(u);
+		return (unitFlags[unitId] & UNIT_EXIT) != 0;
+	}
+
+	@Override
+	public boolean isStartPoint(Unit u) {
+		final int unitId = getUnitId(u);
+		if (unitId < 0)
+			return super.isStartPoint(u);
+		return (unitFlags[unitId] & UNIT_START) != 0;
+	}
+
+	@Override
+	public Collection<SootMethod> getCalleesOfCallAt(Unit u) {
+		final int unitId = getUnitId(u);
+		if (unitId < 0)
+			return super.getCalleesOfCallAt(u);
+		return getRow(methods, calleeOffsets, calleeTargets, unitId);
+	}
+
+	@Override
+	public Collection<Unit> getReturnSitesOfCallAt(Unit u) {
+		final int unitId = getUnitId(u);
+		if (unitId < 0)
+			return super.getReturnSitesOfCallAt(u);
+		return getRow(units, returnSiteOffsets, returnSiteTargets, unitId);
+	}
+
+	@Override
+	public Collection<Unit> getCallersOf(SootMethod m) {
+		final int methodId = getMethodId(m);
+		if (methodId < 0)
+			return super.getCallersOf(m);
+		return getRow(units, callerOffsets, callerTargets, methodId);
+	}
+
+	@Override
+	public Collection<Unit> getStartPointsOf(SootMethod m) {
+		final int methodId = getMethodId(m);
+		if (methodId < 0 || (methodFlags[methodId] & METHOD_HAS_BODY) == 0)
+			return super.getStartPointsOf(m);
+		return getRow(units, startPointOffsets, startPointTargets, methodId);
+	}
+
+	@Override
+	public void notifyMethodChanged(SootMethod m) {
+		super.notifyMethodChanged(m);
+
+		// The snapshot no longer describes this method
+		changedMethods.add(m);
+		hasChangedMethods = true;
+	}
+
+	/**
+	 * Gets the number of statements in this snapshot
+	 *
+	 * @return The number of statements in this snapshot
+	 */
+	public int getUnitCount() {
+		return units.length;
+	}
+
+	/**
+	 * Gets the number of methods in this snapshot, including callees without
+	 * bodies
+	 *
+	 * @return The number of methods in this snapshot
+	 */
+	public int getMethodCount() {
+		return methods.length;
+	}
+
+}
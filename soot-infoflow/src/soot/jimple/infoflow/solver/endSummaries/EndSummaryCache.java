@@ -0,0 +1,623 @@
+package soot.jimple.infoflow.solver.endSummaries;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import heros.solver.Pair;
+import soot.Body;
+import soot.Local;
+import soot.Scene;
+import soot.SootField;
+import soot.SootMethod;
+import soot.Trap;
+import soot.Type;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.InfoflowConfiguration;
+import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.collect.ConcurrentHashSet;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.data.AccessPath;
+import soot.jimple.infoflow.data.AccessPath.ArrayTaintType;
+import soot.jimple.infoflow.sourcesSinks.manager.ISourceSinkManager;
+import soot.jimple.infoflow.sourcesSinks.manager.SourceInfo;
+import soot.jimple.infoflow.taintWrappers.IFingerprintableTaintWrapper;
+import soot.jimple.infoflow.taintWrappers.ITaintPropagationWrapper;
+import soot.jimple.infoflow.util.SystemClassHandler;
+
+/**
+ * Cache that persists the end summaries of library methods across analysis
+ * runs. A summary is identified by the signature of the method, the shape of
+ * the access path at the start point of the method, a fingerprint of the
+ * method, and the relevant parts of the data flow configuration. The
+ * fingerprint covers the method body, the callees of all call sites in the
+ * method, the sources and sinks in the method, and the taint wrapper rules for
+ * the callees. Every summary additionally records the fingerprints of all
+ * methods that have been analyzed transitively when computing it, and is only
+ * used if none of these methods have changed.
+ *
+ * Sources and sinks are fingerprinted by asking the source/sink manager about
+ * every statement, so that any source/sink manager is supported. Taint wrappers
+ * must implement {@link IFingerprintableTaintWrapper}. If they do not, only
+ * methods without call sites can be cached.
+ *
+ * Access paths are stored relative to the method body, i.e., locals are
+ * identified by their position in the body and exit statements by their
+ * position in the unit chain.
+ *
+ * Summaries that depend on the calling context must not be persisted. The
+ * solvers therefore report all contexts that receive edges from other solvers,
+ * e.g., through alias queries, and all methods that contain sinks.
+ */
+public class EndSummaryCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(EndSummaryCache.class);
+
+	private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+
+	private final InfoflowManager manager;
+	private final MappedSummaryStore store;
+	private final String configKey;
+
+	private final ConcurrentHashMap<SootMethod, Long> fingerprints = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Pair<SootMethod, Abstraction>, Set<SootMethod>> loadedDependencies = new ConcurrentHashMap<>();
+	private final Set<Pair<SootMethod, Abstraction>> impureContexts = new ConcurrentHashSet<>();
+	private final Set<SootMethod> impureMethods = new ConcurrentHashSet<>();
+
+	private final AtomicInteger hits = new AtomicInteger();
+	private final AtomicInteger misses = new AtomicInteger();
+	private final AtomicInteger stored = new AtomicInteger();
+
+	/**
+	 * Creates a new instance of the {@link EndSummaryCache} class
+	 *
+	 * @param manager
+	 *            The data flow manager that gives access to the configuration
+	 *            and the interprocedural control flow graph
+	 * @param store
+	 *            The store in which to persist the summaries
+	 */
+	public EndSummaryCache(InfoflowManager manager, MappedSummaryStore store) {
+		this.manager = manager;
+		this.store = store;
+		this.configKey = computeConfigKey(manager);
+
+		ITaintPropagationWrapper taintWrapper = manager.getTaintWrapper();
+		if (taintWrapper != null && !(taintWrapper instanceof IFingerprintableTaintWrapper))
+			logger.warn("Taint wrapper {} cannot describe its rules, end summaries of methods with calls "
+					+ "will not be cached", taintWrapper.getClass().getName());
+	}
+
+	/**
+	 * Computes a string that describes all settings that have an influence on
+	 * the end summaries. We cannot rely on hash codes here, because they need to
+	 * be stable across runs.
+	 *
+	 * @param manager
+	 *            The data flow manager
+	 * @return The configuration key
+	 */
+	private static String computeConfigKey(InfoflowManager manager) {
+		InfoflowConfiguration config = manager.getConfig();
+		StringBuilder sb = new StringBuilder();
+		sb.append(config.getAccessPathLength()).append(';');
+		sb.append(config.getUseRecursiveAccessPaths()).append(';');
+		sb.append(config.getUseThisChainReduction()).append(';');
+		sb.append(config.getEnableTypeChecking()).append(';');
+		sb.append(config.getEnableStaticFieldTracking()).append(';');
+		sb.append(config.getEnableExceptionTracking()).append(';');
+		sb.append(config.getEnableArrayTracking()).append(';');
+		sb.append(config.getEnableArraySizeTainting()).append(';');
+		sb.append(config.getFlowSensitiveAliasing()).append(';');
+		sb.append(config.getImplicitFlowMode().name()).append(';');
+		sb.append(config.getAliasingAlgorithm().name()).append(';');
+		sb.append(config.getIgnoreFlowsInSystemPackages()).append(';');
+		sb.append(config.getExcludeSootLibraryClasses()).append(';');
+		sb.append(config.getEnableReflection()).append(';');
+		sb.append(config.getInspectSources()).append(';');
+		sb.append(config.getInspectSinks()).append(';');
+		sb.append(config.getSinkReachabilityPruning()).append(';');
+		sb.append(config.getCallgraphAlgorithm().name()).append(';');
+		sb.append(config.getSolverConfiguration().getMaxCalleesPerCallSite()).append(';');
+		sb.append(config.getSolverConfiguration().getMaxJoinPointAbstractions()).append(';');
+		if (manager.getSourceSinkManager() != null)
+			sb.append(manager.getSourceSinkManager().getClass().getName());
+		sb.append(';');
+		if (manager.getTaintWrapper() != null)
+			sb.append(manager.getTaintWrapper().getClass().getName());
+		return sb.toString();
+	}
+
+	/**
+	 * Checks whether the end summaries of the given method can be persisted
+	 *
+	 * @param method
+	 *            The method to check
+	 * @return True if the end summaries of the given method can be persisted,
+	 *         otherwise false
+	 */
+	public boolean isCacheable(SootMethod method) {
+		return method.isConcrete() && method.hasActiveBody()
+				&& SystemClassHandler.isClassInSystemPackage(method.getDeclaringClass().getName());
+	}
+
+	/**
+	 * Records that the end summaries of the given method in the given context
+	 * depend on the calling context and must not be persisted
+	 *
+	 * @param method
+	 *            The method
+	 * @param context
+	 *            The abstraction at the start point of the method
+	 */
+	public void markImpure(SootMethod method, Abstraction context) {
+		impureContexts.add(new Pair<SootMethod, Abstraction>(method, context));
+	}
+
+	/**
+	 * Records that no end summaries of the given method must be persisted
+	 *
+	 * @param method
+	 *            The method
+	 */
+	public void markImpure(SootMethod method) {
+		impureMethods.add(method);
+	}
+
+	/**
+	 * Checks whether the end summaries of the given method in the given context
+	 * have been marked as depending on the calling context
+	 *
+	 * @param method
+	 *            The method
+	 * @param context
+	 *            The abstraction at the start point of the method
+	 * @return True if the end summaries must not be persisted, otherwise false
+	 */
+	public boolean isImpure(SootMethod method, Abstraction context) {
+		return impureMethods.contains(method)
+				|| impureContexts.contains(new Pair<SootMethod, Abstraction>(method, context));
+	}
+
+	/**
+	 * Gets the methods on which a summary that has been loaded from the cache
+	 * depends
+	 *
+	 * @param method
+	 *            The method for which the summary has been loaded
+	 * @param context
+	 *            The abstraction at the start point of the method
+	 * @return The methods that have been analyzed when computing the summary, or
+	 *         null if no summary has been loaded for the given method and context
+	 */
+	public Set<SootMethod> getLoadedDependencies(SootMethod method, Abstraction context) {
+		return loadedDependencies.get(new Pair<SootMethod, Abstraction>(method, context));
+	}
+
+	/**
+	 * Loads the end summaries of the given method in the given context
+	 *
+	 * @param method
+	 *            The method for which to load the end summaries
+	 * @param d3
+	 *            The abstraction at the start point of the method
+	 * @return The end summaries, i.e., pairs of exit statements and abstractions
+	 *         at these statements, or null if no valid summary is available
+	 */
+	public Set<Pair<Unit, Abstraction>> loadSummaries(SootMethod method, Abstraction d3) {
+		byte[] key = createKey(method, d3);
+		if (key == null)
+			return null;
+		byte[] data = store.get(key);
+		if (data == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			// Check that none of the transitively analyzed methods have changed
+			int numDependencies = in.readInt();
+			Set<SootMethod> dependencies = new HashSet<>(numDependencies);
+			for (int i = 0; i < numDependencies; i++) {
+				SootMethod dependency = Scene.v().grabMethod(in.readUTF());
+				long fingerprint = in.readLong();
+				if (dependency == null) {
+					misses.incrementAndGet();
+					return null;
+				}
+				Long currentFingerprint = getFingerprint(dependency);
+				if (currentFingerprint == null || currentFingerprint != fingerprint) {
+					misses.incrementAndGet();
+					return null;
+				}
+				dependencies.add(dependency);
+			}
+
+			Body body = method.getActiveBody();
+			List<Local> locals = new ArrayList<>(body.getLocals());
+			List<Unit> units = new ArrayList<>(body.getUnits());
+
+			int numSummaries = in.readInt();
+			Set<Pair<Unit, Abstraction>> summaries = new HashSet<>(numSummaries);
+			for (int i = 0; i < numSummaries; i++) {
+				int unitIdx = in.readInt();
+				AccessPath ap = readAccessPath(in, locals);
+				if (unitIdx < 0 || unitIdx >= units.size() || ap == null) {
+					misses.incrementAndGet();
+					return null;
+				}
+				Unit exitStmt = units.get(unitIdx);
+				Abstraction abs = d3.deriveNewAbstraction(ap, (Stmt) exitStmt);
+				if (abs == null) {
+					misses.incrementAndGet();
+					return null;
+				}
+				summaries.add(new Pair<Unit, Abstraction>(exitStmt, abs));
+			}
+
+			loadedDependencies.put(new Pair<SootMethod, Abstraction>(method, d3), dependencies);
+			hits.incrementAndGet();
+			return summaries;
+		} catch (IOException e) {
+			logger.error("Could not read end summary of method {}", method, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the end summaries of the given method in the given context
+	 *
+	 * @param method
+	 *            The method for which to store the end summaries
+	 * @param d3
+	 *            The abstraction at the start point of the method
+	 * @param summaries
+	 *            The end summaries, i.e., pairs of exit statements and
+	 *            abstractions at these statements
+	 * @param dependencies
+	 *            The methods that have been analyzed transitively when computing
+	 *            the end summaries
+	 * @return True if the summaries have been stored, false if they cannot be
+	 *         represented in the cache
+	 */
+	public boolean storeSummaries(SootMethod method, Abstraction d3, Collection<Pair<Unit, Abstraction>> summaries,
+			Collection<SootMethod> dependencies) {
+		if (!isPersistableAbstraction(d3))
+			return false;
+		byte[] key = createKey(method, d3);
+		if (key == null)
+			return false;
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bos)) {
+			out.writeInt(dependencies.size());
+			for (SootMethod dependency : dependencies) {
+				Long fingerprint = getFingerprint(dependency);
+				if (fingerprint == null)
+					return false;
+				out.writeUTF(dependency.getSignature());
+				out.writeLong(fingerprint);
+			}
+
+			Body body = method.getActiveBody();
+			List<Local> locals = new ArrayList<>(body.getLocals());
+			List<Unit> units = new ArrayList<>(body.getUnits());
+
+			out.writeInt(summaries.size());
+			for (Pair<Unit, Abstraction> summary : summaries) {
+				Abstraction abs = summary.getO2();
+				if (!isPersistableAbstraction(abs) || abs.getSourceContext() != null)
+					return false;
+				int unitIdx = units.indexOf(summary.getO1());
+				if (unitIdx < 0)
+					return false;
+				out.writeInt(unitIdx);
+				if (!writeAccessPath(out, abs.getAccessPath(), locals))
+					return false;
+			}
+		} catch (IOException e) {
+			logger.error("Could not write end summary of method {}", method, e);
+			return false;
+		}
+
+		store.put(key, bos.toByteArray());
+		stored.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Checks whether the given abstraction has no properties other than its
+	 * access path that would need to be persisted
+	 *
+	 * @param abs
+	 *            The abstraction to check
+	 * @return True if the given abstraction can be reconstructed from its
+	 *         access path, otherwise false
+	 */
+	private boolean isPersistableAbstraction(Abstraction abs) {
+		return abs.isAbstractionActive() && !abs.isImplicit() && !abs.getExceptionThrown()
+				&& abs.getTopPostdominator() == null && !abs.getAccessPath().isEmpty();
+	}
+
+	/**
+	 * Creates the key under which the end summaries of the given method in the
+	 * given context are stored
+	 *
+	 * @param method
+	 *            The method
+	 * @param d3
+	 *            The abstraction at the start point of the method
+	 * @return The key, or null if the context cannot be represented in the
+	 *         cache
+	 */
+	private byte[] createKey(SootMethod method, Abstraction d3) {
+		Long fingerprint = getFingerprint(method);
+		if (fingerprint == null)
+			return null;
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bos)) {
+			out.writeUTF(method.getSignature());
+			out.writeUTF(configKey);
+			out.writeLong(fingerprint);
+			if (!writeAccessPath(out, d3.getAccessPath(), new ArrayList<>(method.getActiveBody().getLocals())))
+				return null;
+		} catch (IOException e) {
+			logger.error("Could not create summary key for method {}", method, e);
+			return null;
+		}
+		return bos.toByteArray();
+	}
+
+	/**
+	 * Writes the shape of the given access path to the given stream
+	 *
+	 * @param out
+	 *            The stream to which to write the access path
+	 * @param ap
+	 *            The access path to write
+	 * @param locals
+	 *            The locals of the method in which the access path is valid
+	 * @return True if the access path has been written, false if it cannot be
+	 *         represented in the cache
+	 * @throws IOException
+	 *             Thrown if the access path could not be written
+	 */
+	private boolean writeAccessPath(DataOutputStream out, AccessPath ap, List<Local> locals) throws IOException {
+		if (ap.isEmpty() || ap.isCutOffApproximation())
+			return false;
+
+		// We only support types that can be reconstructed from the declared
+		// types of the locals and fields
+		Local base = ap.getPlainValue();
+		if (base == null)
+			out.writeInt(-1);
+		else {
+			int localIdx = locals.indexOf(base);
+			if (localIdx < 0)
+				return false;
+			if (ap.getBaseType() != null && !ap.getBaseType().equals(base.getType()))
+				return false;
+			out.writeInt(localIdx);
+		}
+
+		SootField[] fields = ap.getFields();
+		Type[] fieldTypes = ap.getFieldTypes();
+		int fieldCount = ap.getFieldCount();
+		out.writeInt(fieldCount);
+		for (int i = 0; i < fieldCount; i++) {
+			if (fieldTypes != null && fieldTypes[i] != null && !fieldTypes[i].equals(fields[i].getType()))
+				return false;
+			out.writeUTF(fields[i].getSignature());
+		}
+
+		out.writeBoolean(ap.getTaintSubFields());
+		out.writeByte(ap.getArrayTaintType().ordinal());
+		out.writeBoolean(ap.getCanHaveImmutableAliases());
+		return true;
+	}
+
+	/**
+	 * Reads the shape of an access path from the given stream and reconstructs
+	 * the access path
+	 *
+	 * @param in
+	 *            The stream from which to read the access path
+	 * @param locals
+	 *            The locals of the method in which the access path is valid
+	 * @return The access path, or null if it cannot be reconstructed
+	 * @throws IOException
+	 *             Thrown if the access path could not be read
+	 */
+	private AccessPath readAccessPath(DataInputStream in, List<Local> locals) throws IOException {
+		int localIdx = in.readInt();
+		if (localIdx >= locals.size())
+			return null;
+		Local base = localIdx < 0 ? null : locals.get(localIdx);
+
+		int fieldCount = in.readInt();
+		SootField[] fields = fieldCount == 0 ? null : new SootField[fieldCount];
+		boolean fieldsValid = true;
+		for (int i = 0; i < fieldCount; i++) {
+			fields[i] = Scene.v().grabField(in.readUTF());
+			fieldsValid &= fields[i] != null;
+		}
+
+		boolean taintSubFields = in.readBoolean();
+		int arrayTaintType = in.readByte();
+		boolean canHaveImmutableAliases = in.readBoolean();
+
+		if (!fieldsValid || (base == null && fields == null) || arrayTaintType < 0
+				|| arrayTaintType >= ArrayTaintType.values().length)
+			return null;
+		return manager.getAccessPathFactory().createAccessPath(base, fields, null, null, taintSubFields, false, false,
+				ArrayTaintType.values()[arrayTaintType], canHaveImmutableAliases);
+	}
+
+	/**
+	 * Gets the fingerprint of the given method. The fingerprint covers the
+	 * locals, statements, and traps of the method body, the callees of all call
+	 * sites, the sources and sinks in the method, and the taint wrapper rules
+	 * for the callees.
+	 *
+	 * @param method
+	 *            The method for which to get the fingerprint
+	 * @return The fingerprint of the given method, or null if the method has no
+	 *         body or calls methods whose taint wrapper rules are unknown
+	 */
+	private Long getFingerprint(SootMethod method) {
+		Long fingerprint = fingerprints.get(method);
+		if (fingerprint != null)
+			return fingerprint;
+		if (!method.hasActiveBody())
+			return null;
+
+		Body body = method.getActiveBody();
+		List<Unit> units = new ArrayList<>(body.getUnits());
+		long h = FNV_OFFSET;
+		for (Local local : body.getLocals())
+			h = hash(h, local.getName() + ":" + local.getType());
+		for (Unit u : units) {
+			h = hash(h, u.toString());
+			h = hash(h, getSourceSinkFingerprint((Stmt) u));
+			if (manager.getICFG().isCallStmt(u)) {
+				List<String> callees = new ArrayList<>();
+				for (SootMethod callee : manager.getICFG().getCalleesOfCallAt(u))
+					callees.add(callee.getSignature());
+				Collections.sort(callees);
+				for (String callee : callees)
+					h = hash(h, callee);
+
+				// The taint wrapper may replace the callees
+				if (manager.getTaintWrapper() != null) {
+					String rules = getRuleFingerprint(((Stmt) u).getInvokeExpr().getMethod());
+					if (rules == null)
+						return null;
+					h = hash(h, rules);
+				}
+			}
+		}
+		for (Trap trap : body.getTraps())
+			h = hash(h, trap.getException().getName() + ":" + units.indexOf(trap.getBeginUnit()) + ":"
+					+ units.indexOf(trap.getEndUnit()) + ":" + units.indexOf(trap.getHandlerUnit()));
+
+		fingerprint = h;
+		Long oldFingerprint = fingerprints.putIfAbsent(method, fingerprint);
+		return oldFingerprint == null ? fingerprint : oldFingerprint;
+	}
+
+	/**
+	 * Describes whether the given statement is a source or sink
+	 *
+	 * @param stmt
+	 *            The statement to describe
+	 * @return A string that describes the sources and sinks at the given
+	 *         statement
+	 */
+	private String getSourceSinkFingerprint(Stmt stmt) {
+		ISourceSinkManager sourceSinkManager = manager.getSourceSinkManager();
+		if (sourceSinkManager == null)
+			return "";
+
+		StringBuilder sb = new StringBuilder();
+		SourceInfo sourceInfo = sourceSinkManager.getSourceInfo(stmt, manager);
+		if (sourceInfo != null) {
+			// The access paths are the part of the source definition that
+			// shows up in the summaries
+			List<String> aps = new ArrayList<>();
+			if (sourceInfo.getAccessPaths() != null)
+				for (AccessPath ap : sourceInfo.getAccessPaths())
+					aps.add(ap.toString());
+			Collections.sort(aps);
+			sb.append("source").append(aps);
+		}
+
+		// Without an access path, the source/sink manager tells us whether the
+		// statement is a sink for any access path
+		if (sourceSinkManager.getSinkInfo(stmt, manager, null) != null)
+			sb.append("sink");
+		return sb.toString();
+	}
+
+	/**
+	 * Gets the description of the taint wrapper rules for the given method
+	 *
+	 * @param method
+	 *            The method
+	 * @return The description of the rules, or null if the taint wrapper cannot
+	 *         describe its rules
+	 */
+	private String getRuleFingerprint(SootMethod method) {
+		ITaintPropagationWrapper taintWrapper = manager.getTaintWrapper();
+		if (!(taintWrapper instanceof IFingerprintableTaintWrapper))
+			return null;
+		return ((IFingerprintableTaintWrapper) taintWrapper).getRuleFingerprint(method);
+	}
+
+	private static long hash(long h, String s) {
+		for (int i = 0; i < s.length(); i++) {
+			h ^= s.charAt(i);
+			h *= FNV_PRIME;
+		}
+		// Separate the strings from each other
+		h ^= 0xFF;
+		h *= FNV_PRIME;
+		return h;
+	}
+
+	/**
+	 * Gets the number of summaries that have been loaded from the cache
+	 *
+	 * @return The number of cache hits
+	 */
+	public int getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Gets the number of lookups that did not find a valid summary
+	 *
+	 * @return The number of cache misses
+	 */
+	public int getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Gets the number of summaries that have been written to the cache
+	 *
+	 * @return The number of stored summaries
+	 */
+	public int getStoredCount() {
+		return stored.get();
+	}
+
+	/**
+	 * Writes all new summaries to disk
+	 */
+	public void close() {
+		logger.info("End summary cache: {} hits, {} misses, {} summaries stored", hits.get(), misses.get(),
+				stored.get());
+		try {
+			store.close();
+		} catch (IOException e) {
+			logger.error("Could not write end summary cache", e);
+		}
+	}
+
+}
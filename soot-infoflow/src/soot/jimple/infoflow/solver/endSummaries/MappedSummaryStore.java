@@ -0,0 +1,304 @@
+package soot.jimple.infoflow.solver.endSummaries;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simple key-value store for binary summary data that is persisted in a single
+ * file. Existing entries are read through a memory-mapped view of the file, so
+ * that only the entries that are actually requested need to be loaded. New
+ * entries are kept in memory and appended when the store is closed.
+ *
+ * Every entry records the generation, i.e., the number of the run in which it
+ * has last been used. If the file grows beyond the configured maximum size, the
+ * entries that have not been used for the longest time are evicted.
+ *
+ * The file consists of a header (magic number, version, generation) followed
+ * by the entries. Every entry consists of the 64-bit hash of its key, its
+ * generation, the length of the key, the length of the data, the key bytes, and
+ * the data bytes.
+ */
+public class MappedSummaryStore implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(MappedSummaryStore.class);
+
+	private static final int MAGIC = 0x46444553;
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 12;
+	private static final int ENTRY_HEADER_SIZE = 20;
+
+	private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+
+	/**
+	 * An entry that is not yet contained in the file
+	 */
+	private static class NewEntry {
+
+		private final byte[] key;
+		private final byte[] data;
+
+		public NewEntry(byte[] key, byte[] data) {
+			this.key = key;
+			this.data = data;
+		}
+
+		public int size() {
+			return ENTRY_HEADER_SIZE + key.length + data.length;
+		}
+
+	}
+
+	private final File file;
+	private final long maxSize;
+
+	private RandomAccessFile raf = null;
+	private MappedByteBuffer buffer = null;
+	private int generation = 0;
+
+	private final Map<Long, Integer> index = new HashMap<>();
+	private final Map<Long, NewEntry> newEntries = new HashMap<>();
+
+	/**
+	 * Opens the summary store in the given file. If the file does not exist yet,
+	 * it is created when the store is closed.
+	 *
+	 * @param file
+	 *            The file in which the summaries are stored
+	 * @param maxSize
+	 *            The maximum size of the file in bytes
+	 * @throws IOException
+	 *             Thrown if the file exists, but cannot be read
+	 */
+	public MappedSummaryStore(File file, long maxSize) throws IOException {
+		this.file = file;
+		this.maxSize = Math.min(maxSize, Integer.MAX_VALUE);
+
+		if (file.exists() && file.length() >= HEADER_SIZE) {
+			if (file.length() > Integer.MAX_VALUE) {
+				logger.warn("Summary file {} is too large, ignoring its contents", file);
+				return;
+			}
+
+			raf = new RandomAccessFile(file, "rw");
+			FileChannel channel = raf.getChannel();
+			buffer = channel.map(MapMode.READ_WRITE, 0, channel.size());
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				logger.warn("Summary file {} has an unsupported format, ignoring its contents", file);
+				closeFile();
+				return;
+			}
+			generation = buffer.getInt(8) + 1;
+
+			// Build the index. If the file has been truncated, we only use
+			// the entries that are complete.
+			int pos = HEADER_SIZE;
+			final int limit = buffer.limit();
+			while (pos + ENTRY_HEADER_SIZE <= limit) {
+				int size = ENTRY_HEADER_SIZE + buffer.getInt(pos + 12) + buffer.getInt(pos + 16);
+				if (size < ENTRY_HEADER_SIZE || pos + size > limit)
+					break;
+				index.put(buffer.getLong(pos), pos);
+				pos += size;
+			}
+		}
+	}
+
+	/**
+	 * Computes the 64-bit FNV-1a hash of the given byte array
+	 *
+	 * @param data
+	 *            The data to hash
+	 * @return The hash of the given data
+	 */
+	static long hash(byte[] data) {
+		long h = FNV_OFFSET;
+		for (byte b : data) {
+			h ^= b & 0xFF;
+			h *= FNV_PRIME;
+		}
+		return h;
+	}
+
+	/**
+	 * Gets the data that is stored for the given key
+	 *
+	 * @param key
+	 *            The key to look up
+	 * @return The data stored for the given key, or null if there is no such
+	 *         data
+	 */
+	public synchronized byte[] get(byte[] key) {
+		long hash = hash(key);
+
+		NewEntry newEntry = newEntries.get(hash);
+		if (newEntry != null)
+			return Arrays.equals(newEntry.key, key) ? newEntry.data : null;
+
+		Integer pos = index.get(hash);
+		if (pos == null)
+			return null;
+
+		// Make sure that we have the right key and not just a hash collision
+		int keyLength = buffer.getInt(pos + 12);
+		if (keyLength != key.length)
+			return null;
+		for (int i = 0; i < keyLength; i++)
+			if (buffer.get(pos + ENTRY_HEADER_SIZE + i) != key[i])
+				return null;
+
+		// Record that the entry is still in use
+		buffer.putInt(pos + 8, generation);
+
+		byte[] data = new byte[buffer.getInt(pos + 16)];
+		for (int i = 0; i < data.length; i++)
+			data[i] = buffer.get(pos + ENTRY_HEADER_SIZE + keyLength + i);
+		return data;
+	}
+
+	/**
+	 * Stores the given data under the given key. If the store already contains
+	 * data for the key, this data is replaced.
+	 *
+	 * @param key
+	 *            The key under which to store the data
+	 * @param data
+	 *            The data to store
+	 */
+	public synchronized void put(byte[] key, byte[] data) {
+		newEntries.put(hash(key), new NewEntry(key, data));
+	}
+
+	/**
+	 * Gets the number of entries in this store
+	 *
+	 * @return The number of entries in this store
+	 */
+	public synchronized int size() {
+		int size = newEntries.size();
+		for (Long hash : index.keySet())
+			if (!newEntries.containsKey(hash))
+				size++;
+		return size;
+	}
+
+	/**
+	 * Writes all new entries to disk and evicts old entries if the file grows
+	 * too large
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (newEntries.isEmpty()) {
+			// We only need to record the new generation
+			if (buffer != null) {
+				buffer.putInt(8, generation);
+				buffer.force();
+			}
+			closeFile();
+			return;
+		}
+
+		// Collect the existing entries that we want to keep
+		List<Integer> oldEntries = new ArrayList<>();
+		long totalSize = HEADER_SIZE;
+		for (Map.Entry<Long, Integer> entry : index.entrySet()) {
+			if (!newEntries.containsKey(entry.getKey())) {
+				oldEntries.add(entry.getValue());
+				totalSize += entrySize(entry.getValue());
+			}
+		}
+		for (NewEntry entry : newEntries.values())
+			totalSize += entry.size();
+
+		// Evict the least recently used entries if necessary. We use the file
+		// position as a tie breaker to keep the eviction order stable.
+		if (totalSize > maxSize) {
+			Collections.sort(oldEntries, new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					int gen1 = buffer.getInt(o1 + 8);
+					int gen2 = buffer.getInt(o2 + 8);
+					if (gen1 != gen2)
+						return gen1 < gen2 ? -1 : 1;
+					return o1.compareTo(o2);
+				}
+
+			});
+			int evicted = 0;
+			while (totalSize > maxSize && evicted < oldEntries.size())
+				totalSize -= entrySize(oldEntries.get(evicted++));
+			oldEntries = oldEntries.subList(evicted, oldEntries.size());
+			logger.info("Evicted {} entries from summary file {}", evicted, file);
+		}
+
+		// Write the new file
+		File tempFile = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(generation);
+
+			long writtenSize = HEADER_SIZE;
+			for (int pos : oldEntries) {
+				int size = entrySize(pos);
+				for (int i = 0; i < size; i++)
+					out.write(buffer.get(pos + i));
+				writtenSize += size;
+			}
+			for (Map.Entry<Long, NewEntry> entry : newEntries.entrySet()) {
+				NewEntry newEntry = entry.getValue();
+				if (writtenSize + newEntry.size() > maxSize)
+					continue;
+
+				out.writeLong(entry.getKey());
+				out.writeInt(generation);
+				out.writeInt(newEntry.key.length);
+				out.writeInt(newEntry.data.length);
+				out.write(newEntry.key);
+				out.write(newEntry.data);
+				writtenSize += newEntry.size();
+			}
+		}
+
+		closeFile();
+		Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		newEntries.clear();
+	}
+
+	private int entrySize(int pos) {
+		return ENTRY_HEADER_SIZE + buffer.getInt(pos + 12) + buffer.getInt(pos + 16);
+	}
+
+	private void closeFile() throws IOException {
+		index.clear();
+		buffer = null;
+		if (raf != null) {
+			raf.close();
+			raf = null;
+		}
+	}
+
+}
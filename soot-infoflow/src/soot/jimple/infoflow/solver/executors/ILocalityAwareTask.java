@@ -0,0 +1,19 @@
+package soot.jimple.infoflow.solver.executors;
+
+/**
+ * Interface for tasks that can tell the scheduler which other tasks they
+ * should preferably run alongside with. Tasks with the same locality key are
+ * kept on the same worker whenever possible to improve cache locality.
+ */
+public interface ILocalityAwareTask extends Runnable {
+
+	/**
+	 * Gets the key that identifies the group of tasks to which this task
+	 * belongs, e.g., the method in which an IFDS edge is being processed
+	 *
+	 * @return The locality key of this task, or null if this task has no
+	 *         preferred worker
+	 */
+	public Object getLocalityKey();
+
+}
@@ -0,0 +1,29 @@
+package soot.jimple.infoflow.solver.executors;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor that distributes its tasks over per-worker deques with work
+ * stealing instead of a single shared queue. Tasks implementing
+ * {@link ILocalityAwareTask} are kept on the same worker if they share the same
+ * locality key. In contrast to the {@link SetPoolExecutor}, this executor does
+ * not check for duplicate tasks, because the IFDS solvers already ensure that
+ * every edge is only scheduled once via their jump functions.
+ */
+public class WorkStealingExecutor extends InterruptableExecutor {
+
+	/**
+	 * Creates a new instance of the {@link WorkStealingExecutor} class
+	 *
+	 * @param numThreads
+	 *            The number of worker threads to use
+	 * @param keepAliveTime
+	 *            The time after which idle threads are terminated
+	 * @param unit
+	 *            The unit of the keep-alive time
+	 */
+	public WorkStealingExecutor(int numThreads, long keepAliveTime, TimeUnit unit) {
+		super(numThreads, Integer.MAX_VALUE, keepAliveTime, unit, new WorkStealingQueue(numThreads));
+	}
+
+}
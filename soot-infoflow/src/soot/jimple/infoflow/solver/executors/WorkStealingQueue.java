@@ -0,0 +1,276 @@
+package soot.jimple.infoflow.solver.executors;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Work queue that keeps one deque per worker thread instead of a single shared
+ * queue. Workers take new tasks from their own deque in LIFO order and steal
+ * from the other deques in FIFO order once their own deque runs dry. Tasks
+ * that implement {@link ILocalityAwareTask} are always placed into the same
+ * deque for the same locality key, so that, e.g., all edges of one method are
+ * preferably processed by the same worker.
+ *
+ * Threads only synchronize on a shared lock when they have run out of work and
+ * need to go to sleep.
+ */
+public class WorkStealingQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+	private final ConcurrentLinkedDeque<Runnable>[] deques;
+	private final AtomicInteger size = new AtomicInteger();
+	private final AtomicInteger waiters = new AtomicInteger();
+	private final AtomicInteger nextWorker = new AtomicInteger();
+	private final AtomicInteger nextExternal = new AtomicInteger();
+
+	private final ReentrantLock sleepLock = new ReentrantLock();
+	private final Condition notEmpty = sleepLock.newCondition();
+
+	private final ThreadLocal<Integer> workerIndex = new ThreadLocal<Integer>() {
+
+		@Override
+		protected Integer initialValue() {
+			return (nextWorker.getAndIncrement() & Integer.MAX_VALUE) % deques.length;
+		}
+
+	};
+
+	/**
+	 * Creates a new instance of the {@link WorkStealingQueue} class
+	 *
+	 * @param numWorkers
+	 *            The number of worker threads that will take tasks from this
+	 *            queue. This determines the number of deques.
+	 */
+	@SuppressWarnings("unchecked")
+	public WorkStealingQueue(int numWorkers) {
+		this.deques = new ConcurrentLinkedDeque[Math.max(1, numWorkers)];
+		for (int i = 0; i < deques.length; i++)
+			deques[i] = new ConcurrentLinkedDeque<Runnable>();
+	}
+
+	/**
+	 * Gets the deque into which the given task shall be put
+	 *
+	 * @param task
+	 *            The task to schedule
+	 * @return The index of the deque that shall receive the task
+	 */
+	private int getTargetDeque(Runnable task) {
+		if (deques.length == 1)
+			return 0;
+		if (task instanceof ILocalityAwareTask) {
+			Object key = ((ILocalityAwareTask) task).getLocalityKey();
+			if (key != null) {
+				int h = key.hashCode();
+				h ^= (h >>> 16);
+				return (h & Integer.MAX_VALUE) % deques.length;
+			}
+		}
+		return (nextExternal.getAndIncrement() & Integer.MAX_VALUE) % deques.length;
+	}
+
+	@Override
+	public boolean offer(Runnable task) {
+		if (task == null)
+			throw new NullPointerException();
+		deques[getTargetDeque(task)].addLast(task);
+		size.incrementAndGet();
+
+		// Wake up a sleeping worker if there is one
+		if (waiters.get() > 0) {
+			sleepLock.lock();
+			try {
+				notEmpty.signal();
+			} finally {
+				sleepLock.unlock();
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void put(Runnable task) throws InterruptedException {
+		offer(task);
+	}
+
+	@Override
+	public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+		return offer(task);
+	}
+
+	/**
+	 * Tries to obtain a task without blocking. The current thread first checks its
+	 * own deque and then tries to steal from the others.
+	 *
+	 * @return The task that was removed from the queue, or null if no task is
+	 *         available
+	 */
+	private Runnable tryTake() {
+		if (size.get() == 0)
+			return null;
+
+		final int own = workerIndex.get();
+		Runnable task = deques[own].pollLast();
+		if (task == null) {
+			for (int i = 1; i < deques.length; i++) {
+				task = deques[(own + i) % deques.length].pollFirst();
+				if (task != null)
+					break;
+			}
+		}
+		if (task != null)
+			size.decrementAndGet();
+		return task;
+	}
+
+	@Override
+	public Runnable poll() {
+		return tryTake();
+	}
+
+	@Override
+	public Runnable take() throws InterruptedException {
+		while (true) {
+			Runnable task = tryTake();
+			if (task != null)
+				return task;
+
+			sleepLock.lockInterruptibly();
+			waiters.incrementAndGet();
+			try {
+				while (size.get() == 0)
+					notEmpty.await();
+			} finally {
+				waiters.decrementAndGet();
+				sleepLock.unlock();
+			}
+		}
+	}
+
+	@Override
+	public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		while (true) {
+			Runnable task = tryTake();
+			if (task != null)
+				return task;
+			if (nanos <= 0)
+				return null;
+
+			sleepLock.lockInterruptibly();
+			waiters.incrementAndGet();
+			try {
+				while (size.get() == 0) {
+					if (nanos <= 0)
+						return null;
+					nanos = notEmpty.awaitNanos(nanos);
+				}
+			} finally {
+				waiters.decrementAndGet();
+				sleepLock.unlock();
+			}
+		}
+	}
+
+	@Override
+	public Runnable peek() {
+		for (ConcurrentLinkedDeque<Runnable> deque : deques) {
+			Runnable task = deque.peekFirst();
+			if (task != null)
+				return task;
+		}
+		return null;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		for (ConcurrentLinkedDeque<Runnable> deque : deques) {
+			if (deque.remove(o)) {
+				size.decrementAndGet();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return Math.max(0, size.get());
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size.get() <= 0;
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public int drainTo(Collection<? super Runnable> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(Collection<? super Runnable> c, int maxElements) {
+		if (c == this)
+			throw new IllegalArgumentException();
+		int count = 0;
+		for (ConcurrentLinkedDeque<Runnable> deque : deques) {
+			while (count < maxElements) {
+				Runnable task = deque.pollFirst();
+				if (task == null)
+					break;
+				size.decrementAndGet();
+				c.add(task);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public Iterator<Runnable> iterator() {
+		// We iterate over a snapshot. Removals are forwarded to the queue.
+		List<Runnable> snapshot = new ArrayList<>(size());
+		for (ConcurrentLinkedDeque<Runnable> deque : deques)
+			snapshot.addAll(deque);
+		final Iterator<Runnable> it = snapshot.iterator();
+		return new Iterator<Runnable>() {
+
+			private Runnable last = null;
+
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			@Override
+			public Runnable next() {
+				last = it.next();
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null)
+					throw new IllegalStateException();
+				WorkStealingQueue.this.remove(last);
+				last = null;
+			}
+
+		};
+	}
+
+}
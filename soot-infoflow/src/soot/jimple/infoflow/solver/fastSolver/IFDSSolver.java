@@ -13,15 +13,18 @@
  ******************************************************************************/
 package soot.jimple.infoflow.solver.fastSolver;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,14 +42,25 @@ import heros.solver.Pair;
 import heros.solver.PathEdge;
 import soot.SootMethod;
 import soot.Unit;
-import soot.jimple.infoflow.collect.ConcurrentHashSet;
-import soot.jimple.infoflow.collect.MyConcurrentHashMap;
+import soot.jimple.infoflow.collect.ConcurrentAppendOnlyMap;
+import soot.jimple.infoflow.collect.ConcurrentAppendOnlySet;
+import soot.jimple.infoflow.collect.ConcurrentContextIndex;
+import soot.jimple.infoflow.collect.MyConcurrentHashMap.IValueFactory;
 import soot.jimple.infoflow.memory.IMemoryBoundedSolver;
+import soot.jimple.infoflow.memory.IMemoryDegradable;
 import soot.jimple.infoflow.memory.ISolverTerminationReason;
+import soot.jimple.infoflow.memory.MemoryDegradationStage;
 import soot.jimple.infoflow.solver.PredecessorShorteningMode;
+import soot.jimple.infoflow.solver.executors.ILocalityAwareTask;
 import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
 import soot.jimple.infoflow.solver.executors.SetPoolExecutor;
+import soot.jimple.infoflow.solver.jumpFunctions.IJumpFunctionStore;
+import soot.jimple.infoflow.solver.jumpFunctions.IJumpFunctionStoreFactory;
+import soot.jimple.infoflow.solver.jumpFunctions.MapJumpFunctionStore;
 import soot.jimple.infoflow.solver.memory.IMemoryManager;
+import soot.jimple.infoflow.solver.memory.INeighborHandler;
+import soot.jimple.infoflow.solver.profiling.FlowFunctionKind;
+import soot.jimple.infoflow.solver.profiling.SolverProfile;
 import soot.jimple.toolkits.ide.icfg.BiDiInterproceduralCFG;
 
 /**
@@ -64,7 +78,7 @@ import soot.jimple.toolkits.ide.icfg.BiDiInterproceduralCFG;
  * @see IFDSTabulationProblem
  */
 public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiInterproceduralCFG<N, SootMethod>>
-		implements IMemoryBoundedSolver {
+		implements IMemoryBoundedSolver, IMemoryDegradable {
 
 	public static CacheBuilder<Object, Object> DEFAULT_CACHE_BUILDER = CacheBuilder.newBuilder()
 			.concurrencyLevel(Runtime.getRuntime().availableProcessors()).initialCapacity(10000).softValues();
@@ -80,35 +94,67 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 	protected int numThreads;
 
 	@SynchronizedBy("thread safe data structure, consistent locking when used")
-	protected MyConcurrentHashMap<PathEdge<N, D>, D> jumpFunctions = new MyConcurrentHashMap<PathEdge<N, D>, D>();
+	protected IJumpFunctionStore<N, D> jumpFunctions = new MapJumpFunctionStore<N, D>();
 
 	@SynchronizedBy("thread safe data structure, only modified internally")
 	protected final I icfg;
 
 	// stores summaries that were queried before they were computed
 	// see CC 2010 paper by Naeem, Lhotak and Rodriguez
-	@SynchronizedBy("consistent lock on 'incoming'")
-	protected final MyConcurrentHashMap<Pair<SootMethod, D>, Set<Pair<N, D>>> endSummary = new MyConcurrentHashMap<Pair<SootMethod, D>, Set<Pair<N, D>>>();
+	@SynchronizedBy("lock-free data structure")
+	protected final ConcurrentContextIndex<SootMethod, D, Set<Pair<N, D>>> endSummary = new ConcurrentContextIndex<SootMethod, D, Set<Pair<N, D>>>(
+			new IValueFactory<Set<Pair<N, D>>>() {
+
+				@Override
+				public Set<Pair<N, D>> createValue() {
+					return new ConcurrentAppendOnlySet<Pair<N, D>>();
+				}
+
+			});
 
 	// edges going along calls
 	// see CC 2010 paper by Naeem, Lhotak and Rodriguez
-	@SynchronizedBy("consistent lock on field")
-	protected final MyConcurrentHashMap<Pair<SootMethod, D>, MyConcurrentHashMap<N, Map<D, D>>> incoming = new MyConcurrentHashMap<Pair<SootMethod, D>, MyConcurrentHashMap<N, Map<D, D>>>();
+	@SynchronizedBy("lock-free data structure")
+	protected final ConcurrentContextIndex<SootMethod, D, ConcurrentAppendOnlyMap<N, Map<D, D>>> incoming = new ConcurrentContextIndex<SootMethod, D, ConcurrentAppendOnlyMap<N, Map<D, D>>>(
+			new IValueFactory<ConcurrentAppendOnlyMap<N, Map<D, D>>>() {
+
+				@Override
+				public ConcurrentAppendOnlyMap<N, Map<D, D>> createValue() {
+					return new ConcurrentAppendOnlyMap<N, Map<D, D>>();
+				}
+
+			});
 
 	@DontSynchronize("stateless")
-	protected final FlowFunctions<N, D, SootMethod> flowFunctions;
+	private final IValueFactory<Map<D, D>> incomingCallerFactory = new IValueFactory<Map<D, D>>() {
+
+		@Override
+		public Map<D, D> createValue() {
+			return new ConcurrentAppendOnlyMap<D, D>();
+		}
+
+	};
+
+	@DontSynchronize("benign race, only replaced by an equivalent object")
+	protected FlowFunctions<N, D, SootMethod> flowFunctions;
+
+	@DontSynchronize("stateless")
+	private final FlowFunctions<N, D, SootMethod> uncachedFlowFunctions;
 
 	@DontSynchronize("only used by single thread")
 	protected final Map<N, Set<D>> initialSeeds;
 
-	@DontSynchronize("benign races")
-	public long propagationCount;
+	@SynchronizedBy("thread safe data structure")
+	protected final LongAdder propagationCount = new LongAdder();
+
+	@SynchronizedBy("thread safe data structure")
+	protected final SolverProfile profile = new SolverProfile();
 
 	@DontSynchronize("stateless")
 	protected final D zeroValue;
 
-	@DontSynchronize("readOnly")
-	protected final FlowFunctionCache<N, D, SootMethod> ffCache;
+	@DontSynchronize("benign race")
+	protected FlowFunctionCache<N, D, SootMethod> ffCache;
 
 	@DontSynchronize("readOnly")
 	protected final boolean followReturnsPastSeeds;
@@ -116,7 +162,7 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 	@DontSynchronize("readOnly")
 	protected PredecessorShorteningMode shorteningMode = PredecessorShorteningMode.NeverShorten;
 
-	@DontSynchronize("readOnly")
+	@DontSynchronize("benign race")
 	private int maxJoinPointAbstractions = -1;
 
 	@DontSynchronize("readOnly")
@@ -128,6 +174,15 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 	private ISolverTerminationReason killFlag = null;
 	private int maxCalleesPerCallSite = 10;
 
+	@DontSynchronize("readOnly")
+	private int edgeBatchSize = 1;
+
+	@SynchronizedBy("thread safe data structure, consistent locking on batch objects")
+	private final ConcurrentHashMap<N, EdgeBatch> pendingBatches = new ConcurrentHashMap<>();
+
+	@SynchronizedBy("thread safe data structure")
+	protected final LongAdder edgeBatchCount = new LongAdder();
+
 	/**
 	 * Creates a solver for the given problem, which caches flow functions and edge
 	 * functions. The solver must then be started by calling {@link #solve()}.
@@ -156,6 +211,7 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 		FlowFunctions<N, D, SootMethod> flowFunctions = tabulationProblem.autoAddZero()
 				? new ZeroedFlowFunctions<N, D, SootMethod>(tabulationProblem.flowFunctions(), zeroValue)
 				: tabulationProblem.flowFunctions();
+		this.uncachedFlowFunctions = flowFunctions;
 		if (flowFunctionCacheBuilder != null) {
 			ffCache = new FlowFunctionCache<N, D, SootMethod>(flowFunctions, flowFunctionCacheBuilder);
 			flowFunctions = ffCache;
@@ -262,8 +318,74 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 		if (killFlag != null || executor.isTerminating() || executor.isTerminated())
 			return;
 
-		executor.execute(new PathEdgeProcessingTask(edge, solverId));
-		propagationCount++;
+		if (edgeBatchSize > 1)
+			scheduleBatchedEdgeProcessing(edge);
+		else
+			executor.execute(new PathEdgeProcessingTask(edge, solverId));
+		propagationCount.increment();
+	}
+
+	/**
+	 * Adds the given edge to the pending batch for its target statement. If there
+	 * is no such batch yet, a new one is created and scheduled for processing.
+	 * 
+	 * @param edge
+	 *            the edge to process
+	 */
+	private void scheduleBatchedEdgeProcessing(PathEdge<N, D> edge) {
+		final N target = edge.getTarget();
+		while (true) {
+			EdgeBatch batch = pendingBatches.get(target);
+			if (batch != null && batch.add(edge))
+				return;
+
+			// We need a new batch. If another thread has registered one in the
+			// meantime, we try again.
+			EdgeBatch newBatch = new EdgeBatch(target, edge);
+			boolean registered = batch == null ? pendingBatches.putIfAbsent(target, newBatch) == null
+					: pendingBatches.replace(target, batch, newBatch);
+			if (registered) {
+				edgeBatchCount.increment();
+				executor.execute(new EdgeBatchProcessingTask(newBatch));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Processes the given edge in the current thread. Depending on the target
+	 * statement of the edge, this method handles calls, exits, and normal flows.
+	 * 
+	 * @param edge
+	 *            The edge to process
+	 */
+	protected void processPathEdge(PathEdge<N, D> edge) {
+		processPathEdges(edge.getTarget(), Collections.singletonList(edge));
+	}
+
+	/**
+	 * Processes the given edges that all share the same target statement in the
+	 * current thread. The flow functions are only looked up once for all edges.
+	 * 
+	 * @param target
+	 *            The target statement of all edges
+	 * @param edges
+	 *            The edges to process
+	 */
+	protected void processPathEdges(N target, Collection<PathEdge<N, D>> edges) {
+		profile.recordEdges(icfg.getMethodOf(target), edges.size());
+
+		if (icfg.isCallStmt(target)) {
+			processCall(target, edges);
+		} else {
+			// note that some statements, such as "throw" may be
+			// both an exit statement and a "normal" statement
+			if (icfg.isExitStmt(target))
+				for (PathEdge<N, D> edge : edges)
+					processExit(edge);
+			if (!icfg.getSuccsOf(target).isEmpty())
+				processNormalFlow(target, edges);
+		}
 	}
 
 	/**
@@ -272,15 +394,12 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 	 * For each possible callee, registers incoming call edges. Also propagates
 	 * call-to-return flows and summarized callee flows within the caller.
 	 * 
-	 * @param edge
-	 *            an edge whose target node resembles a method call
+	 * @param n
+	 *            a node that resembles a method call
+	 * @param edges
+	 *            the edges whose target node is n
 	 */
-	private void processCall(PathEdge<N, D> edge) {
-		final D d1 = edge.factAtSource();
-		final N n = edge.getTarget(); // a call node; line 14...
-
-		final D d2 = edge.factAtTarget();
-		assert d2 != null;
+	private void processCall(final N n, Collection<PathEdge<N, D>> edges) {
 		Collection<N> returnSiteNs = icfg.getReturnSitesOfCallAt(n);
 
 		// for each possible callee
@@ -295,10 +414,19 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 
 				// compute the call-flow function
 				FlowFunction<D> function = flowFunctions.getCallFlowFunction(n, sCalledProcN);
-				Set<D> res = computeCallFlowFunction(function, d1, d2);
+				Collection<N> startPointsOf = null;
+				for (PathEdge<N, D> edge : edges) {
+					final D d1 = edge.factAtSource();
+					final D d2 = edge.factAtTarget();
+					assert d2 != null;
+
+					profile.recordFlowFunction(FlowFunctionKind.Call);
+					Set<D> res = computeCallFlowFunction(function, d1, d2);
+					if (res == null || res.isEmpty())
+						continue;
+					if (startPointsOf == null)
+						startPointsOf = icfg.getStartPointsOf(sCalledProcN);
 
-				if (res != null && !res.isEmpty()) {
-					Collection<N> startPointsOf = icfg.getStartPointsOf(sCalledProcN);
 					// for each result node of the call-flow function
 					for (D d3 : res) {
 						if (memoryManager != null)
@@ -306,14 +434,18 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 						if (d3 == null)
 							continue;
 
-						// for each callee's start point(s)
-						for (N sP : startPointsOf) {
-							// create initial self-loop
-							propagate(d3, sP, d3, n, false); // line 15
+						// for each callee's start point(s). If we already have
+						// a summary for the callee from an earlier run, we do
+						// not need to analyze the callee again.
+						if (!loadPersistedEndSummary(sCalledProcN, d3)) {
+							for (N sP : startPointsOf) {
+								// create initial self-loop
+								propagate(d3, sP, d3, n, false); // line 15
+							}
 						}
 
-						// register the fact that <sp,d3> has an incoming edge from
-						// <n,d2>
+						// register the fact that <sp,d3> has an incoming edge
+						// from <n,d2>
 						// line 15.1 of Naeem/Lhotak/Rodriguez
 						if (!addIncoming(sCalledProcN, d3, n, d1, d2))
 							continue;
@@ -328,18 +460,41 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 		// process intra-procedural flows along call-to-return flow functions
 		for (N returnSiteN : returnSiteNs) {
 			FlowFunction<D> callToReturnFlowFunction = flowFunctions.getCallToReturnFlowFunction(n, returnSiteN);
-			Set<D> res = computeCallToReturnFlowFunction(callToReturnFlowFunction, d1, d2);
-			if (res != null && !res.isEmpty()) {
-				for (D d3 : res) {
-					if (memoryManager != null)
-						d3 = memoryManager.handleGeneratedMemoryObject(d2, d3);
-					if (d3 != null)
-						propagate(d1, returnSiteN, d3, n, false);
+			for (PathEdge<N, D> edge : edges) {
+				final D d1 = edge.factAtSource();
+				final D d2 = edge.factAtTarget();
+
+				profile.recordFlowFunction(FlowFunctionKind.CallToReturn);
+				Set<D> res = computeCallToReturnFlowFunction(callToReturnFlowFunction, d1, d2);
+				if (res != null && !res.isEmpty()) {
+					for (D d3 : res) {
+						if (memoryManager != null)
+							d3 = memoryManager.handleGeneratedMemoryObject(d2, d3);
+						if (d3 != null)
+							propagate(d1, returnSiteN, d3, n, false);
+					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Loads the end summaries of the given callee in the given context from an
+	 * external source, e.g., a cache that has been populated in an earlier
+	 * analysis run. If this method returns true, the solver does not descend into
+	 * the callee, but only applies the end summaries.
+	 * 
+	 * @param callee
+	 *            The callee for which to load the end summaries
+	 * @param d3
+	 *            The abstraction at the start point of the callee
+	 * @return True if the end summaries have been loaded and the callee need not
+	 *         be analyzed, otherwise false
+	 */
+	protected boolean loadPersistedEndSummary(SootMethod callee, D d3) {
+		return false;
+	}
+
 	protected void applyEndSummaryOnCall(final D d1, final N n, final D d2, Collection<N> returnSiteNs,
 			SootMethod sCalledProcN, D d3) {
 		// line 15.2
@@ -358,6 +513,7 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 				for (N retSiteN : returnSiteNs) {
 					// compute return-flow function
 					FlowFunction<D> retFunction = flowFunctions.getReturnFlowFunction(n, sCalledProcN, eP, retSiteN);
+					profile.recordFlowFunction(FlowFunctionKind.Return);
 					Set<D> retFlowRes = computeReturnFlowFunction(retFunction, d3, d4, n, Collections.singleton(d1));
 					if (retFlowRes != null && !retFlowRes.isEmpty()) {
 						// for each target value of the function
@@ -462,6 +618,7 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 					// compute return-flow function
 					FlowFunction<D> retFunction = flowFunctions.getReturnFlowFunction(c, methodThatNeedsSummary, n,
 							retSiteC);
+					profile.recordFlowFunction(FlowFunctionKind.Return);
 					Set<D> targets = computeReturnFlowFunction(retFunction, d1, d2, c, callerSideDs);
 					// for each incoming-call value
 					if (targets != null && !targets.isEmpty()) {
@@ -510,6 +667,7 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 				for (N retSiteC : icfg.getReturnSitesOfCallAt(c)) {
 					FlowFunction<D> retFunction = flowFunctions.getReturnFlowFunction(c, methodThatNeedsSummary, n,
 							retSiteC);
+					profile.recordFlowFunction(FlowFunctionKind.Return);
 					Set<D> targets = computeReturnFlowFunction(retFunction, d1, d2, c,
 							Collections.singleton(zeroValue));
 					if (targets != null && !targets.isEmpty()) {
@@ -559,32 +717,52 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 	 * Lines 33-37 of the algorithm. Simply propagate normal, intra-procedural
 	 * flows.
 	 * 
-	 * @param edge
+	 * @param n
+	 *            the node from which to propagate
+	 * @param edges
+	 *            the edges whose target node is n
 	 */
-	private void processNormalFlow(PathEdge<N, D> edge) {
-		final D d1 = edge.factAtSource();
-		final N n = edge.getTarget();
-		final D d2 = edge.factAtTarget();
-
+	private void processNormalFlow(final N n, Collection<PathEdge<N, D>> edges) {
 		for (N m : icfg.getSuccsOf(n)) {
-			// Early termination check
-			if (killFlag != null)
-				return;
-
-			// Compute the flow function
+			// Compute the flow function. It is the same for all edges.
 			FlowFunction<D> flowFunction = flowFunctions.getNormalFlowFunction(n, m);
-			Set<D> res = computeNormalFlowFunction(flowFunction, d1, d2);
-			if (res != null && !res.isEmpty()) {
-				for (D d3 : res) {
-					if (memoryManager != null && d2 != d3)
-						d3 = memoryManager.handleGeneratedMemoryObject(d2, d3);
-					if (d3 != null)
-						propagate(d1, m, d3, null, false);
+			for (PathEdge<N, D> edge : edges) {
+				// Early termination check
+				if (killFlag != null)
+					return;
+
+				final D d1 = edge.factAtSource();
+				final D d2 = edge.factAtTarget();
+				profile.recordFlowFunction(FlowFunctionKind.Normal);
+				Set<D> res = computeNormalFlowFunction(flowFunction, d1, d2);
+				if (res != null && !res.isEmpty()) {
+					for (D d3 : res) {
+						if (memoryManager != null && d2 != d3)
+							d3 = memoryManager.handleGeneratedMemoryObject(d2, d3);
+						if (d3 != null)
+							propagateNormalFlow(d1, m, d3);
+					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * Propagates an abstraction along a normal, intra-procedural flow edge.
+	 * Subclasses can override this method to propagate the abstraction further
+	 * than just to the direct successor.
+	 * 
+	 * @param d1
+	 *            The abstraction at the method's start node
+	 * @param succ
+	 *            The successor node to which the abstraction flows
+	 * @param d3
+	 *            The abstraction at the successor node
+	 */
+	protected void propagateNormalFlow(D d1, N succ, D d3) {
+		propagate(d1, succ, d3, null, false);
+	}
+
 	/**
 	 * Computes the normal flow function for the given set of start and end
 	 * abstractions.
@@ -620,6 +798,7 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 	 *            (this value is not used within this implementation but may be
 	 *            useful for subclasses of {@link IFDSSolver})
 	 */
+	@SuppressWarnings("unchecked")
 	protected void propagate(D sourceVal, N target, D targetVal,
 			/* deliberately exposed to clients */ N relatedCallSite,
 			/* deliberately exposed to clients */ boolean isUnbalancedReturn) {
@@ -631,8 +810,7 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 				return;
 		}
 
-		final PathEdge<N, D> edge = new PathEdge<N, D>(sourceVal, target, targetVal);
-		final D existingVal = addFunction(edge);
+		final D existingVal = jumpFunctions.addFunction(sourceVal, target, targetVal);
 		if (existingVal != null) {
 			if (existingVal != targetVal) {
 				// Check whether we need to retain this abstraction
@@ -643,19 +821,23 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 					isEssential = memoryManager.isEssentialJoinPoint(targetVal, relatedCallSite);
 
 				if (maxJoinPointAbstractions < 0 || existingVal.getNeighborCount() < maxJoinPointAbstractions
-						|| isEssential)
-					existingVal.addNeighbor(targetVal);
+						|| isEssential) {
+					if (existingVal.addNeighbor(targetVal)) {
+						if (memoryManager instanceof INeighborHandler)
+							((INeighborHandler<D>) memoryManager).handleNeighbor(existingVal, targetVal);
+						profile.recordNeighborAddition();
+					}
+				}
 			}
 		} else {
 			// If this is an inactive abstraction and we have already processed
 			// its active counterpart, we can skip this one
 			D activeVal = targetVal.getActiveCopy();
 			if (activeVal != targetVal) {
-				PathEdge<N, D> activeEdge = new PathEdge<>(sourceVal, target, activeVal);
-				if (jumpFunctions.containsKey(activeEdge))
+				if (jumpFunctions.containsFunction(sourceVal, target, activeVal))
 					return;
 			}
-			scheduleEdgeProcessing(edge);
+			scheduleEdgeProcessing(new PathEdge<N, D>(sourceVal, target, targetVal));
 		}
 	}
 
@@ -665,32 +847,49 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 	 * @see PathEdge
 	 */
 	public D addFunction(PathEdge<N, D> edge) {
-		return jumpFunctions.putIfAbsent(edge, edge.factAtTarget());
+		return jumpFunctions.addFunction(edge.factAtSource(), edge.getTarget(), edge.factAtTarget());
+	}
+
+	/**
+	 * Sets the factory that creates the data structure in which this solver stores
+	 * its jump functions. This method must be called before the solver is
+	 * started.
+	 * 
+	 * @param factory
+	 *            The factory for creating the jump function store
+	 */
+	public void setJumpFunctionStoreFactory(IJumpFunctionStoreFactory factory) {
+		this.jumpFunctions = factory.<N, D>createJumpFunctionStore();
+	}
+
+	/**
+	 * Gets the data structure in which this solver stores its jump functions
+	 * 
+	 * @return The jump function store of this solver
+	 */
+	public IJumpFunctionStore<N, D> getJumpFunctionStore() {
+		return this.jumpFunctions;
 	}
 
 	protected Set<Pair<N, D>> endSummary(SootMethod m, D d3) {
-		Set<Pair<N, D>> map = endSummary.get(new Pair<SootMethod, D>(m, d3));
-		return map;
+		return endSummary.get(m, d3);
 	}
 
 	private boolean addEndSummary(SootMethod m, D d1, N eP, D d2) {
 		if (d1 == zeroValue)
 			return true;
 
-		Set<Pair<N, D>> summaries = endSummary.putIfAbsentElseGet(new Pair<SootMethod, D>(m, d1),
-				new ConcurrentHashSet<Pair<N, D>>());
+		Set<Pair<N, D>> summaries = endSummary.getOrCreate(m, d1);
 		return summaries.add(new Pair<N, D>(eP, d2));
 	}
 
 	protected Map<N, Map<D, D>> incoming(D d1, SootMethod m) {
-		Map<N, Map<D, D>> map = incoming.get(new Pair<SootMethod, D>(m, d1));
-		return map;
+		return incoming.get(m, d1);
 	}
 
 	protected boolean addIncoming(SootMethod m, D d3, N n, D d1, D d2) {
-		MyConcurrentHashMap<N, Map<D, D>> summaries = incoming.putIfAbsentElseGet(new Pair<SootMethod, D>(m, d3),
-				new MyConcurrentHashMap<N, Map<D, D>>());
-		Map<D, D> set = summaries.putIfAbsentElseGet(n, new ConcurrentHashMap<D, D>());
+		ConcurrentAppendOnlyMap<N, Map<D, D>> summaries = incoming.getOrCreate(m, d3);
+		Map<D, D> set = summaries.putIfAbsentElseGet(n, incomingCallerFactory);
 		return set.put(d1, d2) == null;
 	}
 
@@ -710,8 +909,37 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 		return "FAST IFDS SOLVER";
 	}
 
+	/**
+	 * Gets the number of edges that this solver has propagated so far
+	 * 
+	 * @return The number of propagated edges
+	 */
+	public long getPropagationCount() {
+		return propagationCount.sum();
+	}
+
+	/**
+	 * Gets the number of edge batches that this solver has scheduled so far. If
+	 * edges are not batched, this number is zero.
+	 * 
+	 * @return The number of scheduled edge batches
+	 */
+	public long getEdgeBatchCount() {
+		return edgeBatchCount.sum();
+	}
+
+	/**
+	 * Gets the instrumentation data that this solver has collected so far
+	 * 
+	 * @return The instrumentation data of this solver
+	 */
+	public SolverProfile getProfile() {
+		return profile;
+	}
+
 	public void printStats() {
 		if (logger.isDebugEnabled()) {
+			final FlowFunctionCache<N, D, SootMethod> ffCache = this.ffCache;
 			if (ffCache != null)
 				ffCache.printStats();
 		} else {
@@ -719,7 +947,77 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 		}
 	}
 
-	private class PathEdgeProcessingTask implements Runnable {
+	/**
+	 * A set of pending edges that all have the same target statement. Edges can
+	 * be added until the batch is full or its processing has started.
+	 */
+	private class EdgeBatch {
+
+		private final N target;
+		private final List<PathEdge<N, D>> edges = new ArrayList<>();
+		private boolean open = true;
+
+		public EdgeBatch(N target, PathEdge<N, D> edge) {
+			this.target = target;
+			this.edges.add(edge);
+		}
+
+		/**
+		 * Adds the given edge to this batch
+		 * 
+		 * @param edge
+		 *            The edge to add
+		 * @return True if the edge was added, false if this batch does not accept
+		 *         any more edges
+		 */
+		public synchronized boolean add(PathEdge<N, D> edge) {
+			if (!open)
+				return false;
+			edges.add(edge);
+			if (edges.size() >= edgeBatchSize)
+				open = false;
+			return true;
+		}
+
+		/**
+		 * Closes this batch and returns its edges
+		 * 
+		 * @return The edges in this batch
+		 */
+		public synchronized List<PathEdge<N, D>> close() {
+			open = false;
+			return edges;
+		}
+
+	}
+
+	/**
+	 * Task that processes all edges of a batch. Tasks are only compared by
+	 * identity, because every batch is scheduled exactly once.
+	 */
+	private class EdgeBatchProcessingTask implements ILocalityAwareTask {
+
+		private final EdgeBatch batch;
+
+		public EdgeBatchProcessingTask(EdgeBatch batch) {
+			this.batch = batch;
+		}
+
+		@Override
+		public void run() {
+			List<PathEdge<N, D>> edges = batch.close();
+			pendingBatches.remove(batch.target, batch);
+			processPathEdges(batch.target, edges);
+		}
+
+		@Override
+		public Object getLocalityKey() {
+			return icfg.getMethodOf(batch.target);
+		}
+
+	}
+
+	private class PathEdgeProcessingTask implements ILocalityAwareTask {
 
 		private final PathEdge<N, D> edge;
 		private final boolean solverId;
@@ -730,16 +1028,13 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 		}
 
 		public void run() {
-			if (icfg.isCallStmt(edge.getTarget())) {
-				processCall(edge);
-			} else {
-				// note that some statements, such as "throw" may be
-				// both an exit statement and a "normal" statement
-				if (icfg.isExitStmt(edge.getTarget()))
-					processExit(edge);
-				if (!icfg.getSuccsOf(edge.getTarget()).isEmpty())
-					processNormalFlow(edge);
-			}
+			processPathEdge(edge);
+		}
+
+		@Override
+		public Object getLocalityKey() {
+			// Keep the edges of the same method on the same worker
+			return icfg.getMethodOf(edge.getTarget());
 		}
 
 		@Override
@@ -796,6 +1091,37 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 		this.maxJoinPointAbstractions = maxJoinPointAbstractions;
 	}
 
+	/**
+	 * Gets the maximum number of abstractions that shall be recorded per join
+	 * point
+	 * 
+	 * @return The maximum number of abstractions per join point, or -1 if an
+	 *         arbitrary number of join point abstractions is recorded
+	 */
+	public int getMaxJoinPointAbstractions() {
+		return this.maxJoinPointAbstractions;
+	}
+
+	@Override
+	public boolean degrade(MemoryDegradationStage stage) {
+		switch (stage) {
+		case LimitJoinPoints:
+			if (maxJoinPointAbstractions >= 0
+					&& maxJoinPointAbstractions <= MemoryDegradationStage.DEGRADED_MAX_JOIN_POINT_ABSTRACTIONS)
+				return false;
+			maxJoinPointAbstractions = MemoryDegradationStage.DEGRADED_MAX_JOIN_POINT_ABSTRACTIONS;
+			return true;
+		case DropSolverCaches:
+			if (ffCache == null)
+				return false;
+			flowFunctions = uncachedFlowFunctions;
+			ffCache = null;
+			return true;
+		default:
+			return false;
+		}
+	}
+
 	/**
 	 * Sets the memory manager that shall be used to manage the abstractions
 	 * 
@@ -851,4 +1177,17 @@ public class IFDSSolver<N, D extends FastSolverLinkedNode<D, N>, I extends BiDiI
 		this.maxCalleesPerCallSite = maxCalleesPerCallSite;
 	}
 
+	/**
+	 * Sets the maximum number of edges with the same target statement that are
+	 * processed together in a single task. Batching reduces the number of tasks
+	 * and flow function lookups on statements that are reached by many edges.
+	 * 
+	 * @param edgeBatchSize
+	 *            The maximum number of edges per batch, or 1 to process every
+	 *            edge in its own task
+	 */
+	public void setEdgeBatchSize(int edgeBatchSize) {
+		this.edgeBatchSize = edgeBatchSize;
+	}
+
 }
@@ -10,20 +10,27 @@
  ******************************************************************************/
 package soot.jimple.infoflow.solver.fastSolver;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import heros.FlowFunction;
 import heros.solver.Pair;
 import heros.solver.PathEdge;
 import soot.SootMethod;
 import soot.Unit;
-import soot.jimple.infoflow.collect.MyConcurrentHashMap;
 import soot.jimple.infoflow.data.Abstraction;
 import soot.jimple.infoflow.problems.AbstractInfoflowProblem;
 import soot.jimple.infoflow.solver.IFollowReturnsPastSeedsHandler;
 import soot.jimple.infoflow.solver.IInfoflowSolver;
+import soot.jimple.infoflow.solver.endSummaries.EndSummaryCache;
 import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
 import soot.jimple.infoflow.solver.functions.SolverCallFlowFunction;
 import soot.jimple.infoflow.solver.functions.SolverCallToReturnFlowFunction;
@@ -43,6 +50,9 @@ public class InfoflowSolver extends IFDSSolver<Unit, Abstraction, BiDiInterproce
 	private IFollowReturnsPastSeedsHandler followReturnsPastSeedsHandler = null;
 	private final AbstractInfoflowProblem problem;
 
+	private EndSummaryCache endSummaryCache = null;
+	private final Map<Pair<SootMethod, Abstraction>, Boolean> persistedSummaryLookups = new ConcurrentHashMap<>();
+
 	public InfoflowSolver(AbstractInfoflowProblem problem, InterruptableExecutor executor) {
 		super(problem);
 		this.problem = problem;
@@ -55,8 +65,21 @@ public class InfoflowSolver extends IFDSSolver<Unit, Abstraction, BiDiInterproce
 		return executor;
 	}
 
+	@Override
+	public void solve() {
+		super.solve();
+
+		// Persist the summaries that we have computed in this run
+		if (endSummaryCache != null && !isKilled() && isForwardSolver())
+			persistEndSummaries();
+	}
+
 	@Override
 	public boolean processEdge(PathEdge<Unit, Abstraction> edge) {
+		// Edges from other solvers make the context depend on its callers
+		if (endSummaryCache != null)
+			endSummaryCache.markImpure(icfg.getMethodOf(edge.getTarget()), edge.factAtSource());
+
 		propagate(edge.factAtSource(), edge.getTarget(), edge.factAtTarget(), null, false);
 		return true;
 	}
@@ -64,6 +87,8 @@ public class InfoflowSolver extends IFDSSolver<Unit, Abstraction, BiDiInterproce
 	@Override
 	public void injectContext(IInfoflowSolver otherSolver, SootMethod callee, Abstraction d3, Unit callSite,
 			Abstraction d2, Abstraction d1) {
+		if (endSummaryCache != null)
+			endSummaryCache.markImpure(callee, d3);
 		if (!addIncoming(callee, d3, callSite, d1, d2))
 			return;
 
@@ -71,6 +96,166 @@ public class InfoflowSolver extends IFDSSolver<Unit, Abstraction, BiDiInterproce
 		applyEndSummaryOnCall(d1, callSite, d2, returnSiteNs, callee, d3);
 	}
 
+	@Override
+	protected boolean loadPersistedEndSummary(SootMethod callee, Abstraction d3) {
+		if (endSummaryCache == null || d3 == zeroValue || !isForwardSolver())
+			return false;
+
+		// Only look up every context once
+		Pair<SootMethod, Abstraction> context = new Pair<>(callee, d3);
+		Boolean loaded = persistedSummaryLookups.get(context);
+		if (loaded != null)
+			return loaded;
+
+		Set<Pair<Unit, Abstraction>> summaries = endSummaryCache.isCacheable(callee)
+				? endSummaryCache.loadSummaries(callee, d3)
+				: null;
+		if (summaries != null) {
+			// The end summaries must be in place before any other thread
+			// relies on them
+			endSummary.getOrCreate(callee, d3).addAll(summaries);
+		}
+
+		Boolean oldLoaded = persistedSummaryLookups.putIfAbsent(context, summaries != null);
+		return oldLoaded == null ? summaries != null : oldLoaded;
+	}
+
+	/**
+	 * Writes the end summaries of all contexts that do not depend on their
+	 * callers into the end summary cache
+	 */
+	protected void persistEndSummaries() {
+		// Callers of contexts that depend on their callers depend on their own
+		// callers as well
+		List<Pair<SootMethod, Abstraction>> contexts = new ArrayList<>();
+		for (SootMethod m : incoming.getMethods())
+			for (Abstraction d1 : incoming.getContexts(m).keySet())
+				contexts.add(new Pair<>(m, d1));
+
+		Set<Pair<SootMethod, Abstraction>> impureContexts = new HashSet<>();
+		List<Pair<SootMethod, Abstraction>> workList = new ArrayList<>();
+		for (Pair<SootMethod, Abstraction> context : contexts) {
+			if (endSummaryCache.isImpure(context.getO1(), context.getO2())) {
+				impureContexts.add(context);
+				workList.add(context);
+			}
+		}
+		while (!workList.isEmpty()) {
+			Pair<SootMethod, Abstraction> context = workList.remove(workList.size() - 1);
+			for (Pair<SootMethod, Abstraction> caller : getCallerContexts(context))
+				if (impureContexts.add(caller))
+					workList.add(caller);
+		}
+
+		// Build the call graph between contexts
+		Map<Pair<SootMethod, Abstraction>, Set<Pair<SootMethod, Abstraction>>> calleeContexts = new HashMap<>();
+		for (Pair<SootMethod, Abstraction> context : contexts) {
+			for (Pair<SootMethod, Abstraction> caller : getCallerContexts(context)) {
+				Set<Pair<SootMethod, Abstraction>> callees = calleeContexts.get(caller);
+				if (callees == null) {
+					callees = new HashSet<>();
+					calleeContexts.put(caller, callees);
+				}
+				callees.add(context);
+			}
+		}
+
+		int persisted = 0;
+		for (Pair<SootMethod, Abstraction> context : contexts) {
+			if (context.getO2() == zeroValue || impureContexts.contains(context))
+				continue;
+			if (!endSummaryCache.isCacheable(context.getO1()))
+				continue;
+
+			// Summaries that were loaded from the cache are already persisted
+			if (Boolean.TRUE.equals(persistedSummaryLookups.get(context)))
+				continue;
+
+			Set<Pair<Unit, Abstraction>> summaries = endSummary(context.getO1(), context.getO2());
+			if (summaries == null)
+				summaries = Collections.emptySet();
+			if (endSummaryCache.storeSummaries(context.getO1(), context.getO2(), summaries,
+					getDependencies(context, calleeContexts)))
+				persisted++;
+		}
+		logger.info("Persisted the end summaries of {} contexts", persisted);
+	}
+
+	/**
+	 * Gets all contexts that call the given context
+	 * 
+	 * @param context
+	 *            The pair of method and abstraction at the start point of the
+	 *            method
+	 * @return The contexts that call the given context
+	 */
+	private Set<Pair<SootMethod, Abstraction>> getCallerContexts(Pair<SootMethod, Abstraction> context) {
+		Map<Unit, Map<Abstraction, Abstraction>> inc = incoming(context.getO2(), context.getO1());
+		if (inc == null || inc.isEmpty())
+			return Collections.emptySet();
+
+		Set<Pair<SootMethod, Abstraction>> callers = new HashSet<>();
+		for (Entry<Unit, Map<Abstraction, Abstraction>> entry : inc.entrySet()) {
+			SootMethod callerMethod = icfg.getMethodOf(entry.getKey());
+			for (Abstraction d1 : entry.getValue().keySet())
+				callers.add(new Pair<>(callerMethod, d1));
+		}
+		return callers;
+	}
+
+	/**
+	 * Gets all methods that have been analyzed transitively when computing the
+	 * end summaries of the given context
+	 * 
+	 * @param context
+	 *            The pair of method and abstraction at the start point of the
+	 *            method
+	 * @param calleeContexts
+	 *            The callee contexts of every context
+	 * @return The methods that have been analyzed transitively
+	 */
+	private Set<SootMethod> getDependencies(Pair<SootMethod, Abstraction> context,
+			Map<Pair<SootMethod, Abstraction>, Set<Pair<SootMethod, Abstraction>>> calleeContexts) {
+		Set<SootMethod> dependencies = new HashSet<>();
+		Set<Pair<SootMethod, Abstraction>> doneSet = new HashSet<>();
+		List<Pair<SootMethod, Abstraction>> workList = new ArrayList<>();
+		doneSet.add(context);
+		workList.add(context);
+		while (!workList.isEmpty()) {
+			Pair<SootMethod, Abstraction> curContext = workList.remove(workList.size() - 1);
+			dependencies.add(curContext.getO1());
+
+			// Contexts that were loaded from the cache have not been analyzed
+			// in this run
+			Set<SootMethod> loadedDependencies = endSummaryCache.getLoadedDependencies(curContext.getO1(),
+					curContext.getO2());
+			if (loadedDependencies != null)
+				dependencies.addAll(loadedDependencies);
+
+			Set<Pair<SootMethod, Abstraction>> callees = calleeContexts.get(curContext);
+			if (callees != null)
+				for (Pair<SootMethod, Abstraction> callee : callees)
+					if (doneSet.add(callee))
+						workList.add(callee);
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Checks whether this solver solves the forward data flow problem. Only the
+	 * summaries of the forward solver are persisted.
+	 * 
+	 * @return True if this solver is the forward solver, otherwise false
+	 */
+	private boolean isForwardSolver() {
+		return problem.getManager().getForwardSolver() == this;
+	}
+
+	@Override
+	public void setEndSummaryCache(EndSummaryCache endSummaryCache) {
+		this.endSummaryCache = endSummaryCache;
+	}
+
 	@Override
 	protected Set<Abstraction> computeReturnFlowFunction(FlowFunction<Abstraction> retFunction, Abstraction d1,
 			Abstraction d2, Unit callSite, Collection<Abstraction> callerSideDs) {
@@ -90,6 +275,18 @@ public class InfoflowSolver extends IFDSSolver<Unit, Abstraction, BiDiInterproce
 			return flowFunction.computeTargets(d2);
 	}
 
+	@Override
+	protected void propagateNormalFlow(Abstraction d1, Unit succ, Abstraction d3) {
+		// If possible, we directly jump to the next statement that can have an
+		// effect on the abstraction
+		Collection<Unit> targets = problem.getSparsePropagationTargets(succ, d3);
+		if (targets == null)
+			super.propagateNormalFlow(d1, succ, d3);
+		else
+			for (Unit target : targets)
+				propagate(d1, target, d3, null, false);
+	}
+
 	@Override
 	protected Set<Abstraction> computeCallToReturnFlowFunction(FlowFunction<Abstraction> flowFunction, Abstraction d1,
 			Abstraction d2) {
@@ -110,9 +307,10 @@ public class InfoflowSolver extends IFDSSolver<Unit, Abstraction, BiDiInterproce
 
 	@Override
 	public void cleanup() {
-		this.jumpFunctions = new MyConcurrentHashMap<PathEdge<Unit, Abstraction>, Abstraction>();
+		this.jumpFunctions.clear();
 		this.incoming.clear();
 		this.endSummary.clear();
+		this.persistedSummaryLookups.clear();
 	}
 
 	@Override
@@ -142,11 +340,6 @@ public class InfoflowSolver extends IFDSSolver<Unit, Abstraction, BiDiInterproce
 		this.followReturnsPastSeedsHandler = handler;
 	}
 
-	@Override
-	public long getPropagationCount() {
-		return propagationCount;
-	}
-
 	@Override
 	public AbstractInfoflowProblem getTabulationProblem() {
 		return problem;
@@ -22,6 +22,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,12 +43,20 @@ import soot.Unit;
 import soot.jimple.infoflow.collect.ConcurrentHashSet;
 import soot.jimple.infoflow.collect.MyConcurrentHashMap;
 import soot.jimple.infoflow.memory.IMemoryBoundedSolver;
+import soot.jimple.infoflow.memory.IMemoryDegradable;
 import soot.jimple.infoflow.memory.ISolverTerminationReason;
+import soot.jimple.infoflow.memory.MemoryDegradationStage;
 import soot.jimple.infoflow.solver.PredecessorShorteningMode;
+import soot.jimple.infoflow.solver.executors.ILocalityAwareTask;
 import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
 import soot.jimple.infoflow.solver.executors.SetPoolExecutor;
 import soot.jimple.infoflow.solver.fastSolver.FastSolverLinkedNode;
+import soot.jimple.infoflow.solver.jumpFunctions.IJumpFunctionStore;
+import soot.jimple.infoflow.solver.jumpFunctions.IJumpFunctionStoreFactory;
+import soot.jimple.infoflow.solver.jumpFunctions.MapJumpFunctionStore;
 import soot.jimple.infoflow.solver.memory.IMemoryManager;
+import soot.jimple.infoflow.solver.memory.INeighborHandler;
+import soot.jimple.infoflow.solver.profiling.SolverProfile;
 import soot.jimple.toolkits.ide.icfg.BiDiInterproceduralCFG;
 
 /**
@@ -65,7 +74,7 @@ import soot.jimple.toolkits.ide.icfg.BiDiInterproceduralCFG;
  * @see IFDSTabulationProblem
  */
 public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNode<D, N>, I extends BiDiInterproceduralCFG<Unit, SootMethod>>
-		implements IMemoryBoundedSolver {
+		implements IMemoryBoundedSolver, IMemoryDegradable {
 
 	public static CacheBuilder<Object, Object> DEFAULT_CACHE_BUILDER = CacheBuilder.newBuilder()
 			.concurrencyLevel(Runtime.getRuntime().availableProcessors()).initialCapacity(10000).softValues();
@@ -81,7 +90,7 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 	protected int numThreads;
 
 	@SynchronizedBy("thread safe data structure, consistent locking when used")
-	protected MyConcurrentHashMap<PathEdge<SootMethod, D>, D> jumpFunctions = new MyConcurrentHashMap<PathEdge<SootMethod, D>, D>();
+	protected IJumpFunctionStore<SootMethod, D> jumpFunctions = new MapJumpFunctionStore<SootMethod, D>();
 
 	@SynchronizedBy("thread safe data structure, only modified internally")
 	protected final I icfg;
@@ -96,20 +105,26 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 	@SynchronizedBy("consistent lock on field")
 	protected final MyConcurrentHashMap<Pair<SootMethod, D>, MyConcurrentHashMap<Unit, Map<D, D>>> incoming = new MyConcurrentHashMap<Pair<SootMethod, D>, MyConcurrentHashMap<Unit, Map<D, D>>>();
 
+	@DontSynchronize("benign race, only replaced by an equivalent object")
+	protected FlowFunctions<Unit, D, SootMethod> flowFunctions;
+
 	@DontSynchronize("stateless")
-	protected final FlowFunctions<Unit, D, SootMethod> flowFunctions;
+	private final FlowFunctions<Unit, D, SootMethod> uncachedFlowFunctions;
 
 	@DontSynchronize("only used by single thread")
 	protected final Map<Unit, Set<D>> initialSeeds;
 
-	@DontSynchronize("benign races")
-	public long propagationCount;
+	@SynchronizedBy("thread safe data structure")
+	protected final LongAdder propagationCount = new LongAdder();
+
+	@SynchronizedBy("thread safe data structure")
+	protected final SolverProfile profile = new SolverProfile();
 
 	@DontSynchronize("stateless")
 	protected final D zeroValue;
 
-	@DontSynchronize("readOnly")
-	protected final FlowFunctionCache<Unit, D, SootMethod> ffCache;
+	@DontSynchronize("benign race")
+	protected FlowFunctionCache<Unit, D, SootMethod> ffCache;
 
 	@DontSynchronize("readOnly")
 	protected final boolean followReturnsPastSeeds;
@@ -117,7 +132,7 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 	@DontSynchronize("readOnly")
 	protected PredecessorShorteningMode shorteningMode = PredecessorShorteningMode.NeverShorten;
 
-	@DontSynchronize("readOnly")
+	@DontSynchronize("benign race")
 	private int maxJoinPointAbstractions = -1;
 
 	@DontSynchronize("readOnly")
@@ -157,6 +172,7 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 		FlowFunctions<Unit, D, SootMethod> flowFunctions = tabulationProblem.autoAddZero()
 				? new ZeroedFlowFunctions<Unit, D, SootMethod>(tabulationProblem.flowFunctions(), zeroValue)
 				: tabulationProblem.flowFunctions();
+		this.uncachedFlowFunctions = flowFunctions;
 		if (flowFunctionCacheBuilder != null) {
 			ffCache = new FlowFunctionCache<Unit, D, SootMethod>(flowFunctions, flowFunctionCacheBuilder);
 			flowFunctions = ffCache;
@@ -275,7 +291,8 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 			return;
 
 		executor.execute(new PathEdgeProcessingTask(edge, getSolverId()));
-		propagationCount++;
+		propagationCount.increment();
+		profile.recordEdges(edge.getTarget(), 1);
 	}
 
 	/**
@@ -675,8 +692,7 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 				return;
 		}
 
-		final PathEdge<SootMethod, D> edge = new PathEdge<>(sourceVal, target, targetVal);
-		final D existingVal = addFunction(edge);
+		final D existingVal = jumpFunctions.addFunction(sourceVal, target, targetVal);
 		if (existingVal != null) {
 			// Check whether we need to retain this abstraction
 			boolean isEssential;
@@ -686,10 +702,15 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 				isEssential = memoryManager.isEssentialJoinPoint(targetVal, (N) relatedCallSite);
 
 			if (maxJoinPointAbstractions < 0 || existingVal.getNeighborCount() < maxJoinPointAbstractions
-					|| isEssential)
-				existingVal.addNeighbor(targetVal);
+					|| isEssential) {
+				if (existingVal.addNeighbor(targetVal)) {
+					if (memoryManager instanceof INeighborHandler)
+						((INeighborHandler<D>) memoryManager).handleNeighbor(existingVal, targetVal);
+					profile.recordNeighborAddition();
+				}
+			}
 		} else if (schedule) {
-			scheduleEdgeProcessing(edge);
+			scheduleEdgeProcessing(new PathEdge<SootMethod, D>(sourceVal, target, targetVal));
 		}
 	}
 
@@ -699,7 +720,28 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 	 * @see PathEdge
 	 */
 	public D addFunction(PathEdge<SootMethod, D> edge) {
-		return jumpFunctions.putIfAbsent(edge, edge.factAtTarget());
+		return jumpFunctions.addFunction(edge.factAtSource(), edge.getTarget(), edge.factAtTarget());
+	}
+
+	/**
+	 * Sets the factory that creates the data structure in which this solver stores
+	 * its jump functions. This method must be called before the solver is
+	 * started.
+	 * 
+	 * @param factory
+	 *            The factory for creating the jump function store
+	 */
+	public void setJumpFunctionStoreFactory(IJumpFunctionStoreFactory factory) {
+		this.jumpFunctions = factory.<SootMethod, D>createJumpFunctionStore();
+	}
+
+	/**
+	 * Gets the data structure in which this solver stores its jump functions
+	 * 
+	 * @return The jump function store of this solver
+	 */
+	public IJumpFunctionStore<SootMethod, D> getJumpFunctionStore() {
+		return this.jumpFunctions;
 	}
 
 	protected Set<Pair<Unit, D>> endSummary(SootMethod m, D d3) {
@@ -742,8 +784,27 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 		return "FAST IFDS SOLVER";
 	}
 
+	/**
+	 * Gets the number of edges that this solver has propagated so far
+	 * 
+	 * @return The number of propagated edges
+	 */
+	public long getPropagationCount() {
+		return propagationCount.sum();
+	}
+
+	/**
+	 * Gets the instrumentation data that this solver has collected so far
+	 * 
+	 * @return The instrumentation data of this solver
+	 */
+	public SolverProfile getProfile() {
+		return profile;
+	}
+
 	public void printStats() {
 		if (logger.isDebugEnabled()) {
+			final FlowFunctionCache<Unit, D, SootMethod> ffCache = this.ffCache;
 			if (ffCache != null)
 				ffCache.printStats();
 		} else {
@@ -751,7 +812,7 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 		}
 	}
 
-	private class PathEdgeProcessingTask implements Runnable {
+	private class PathEdgeProcessingTask implements ILocalityAwareTask {
 
 		private final PathEdge<SootMethod, D> edge;
 		private final boolean solverId;
@@ -765,6 +826,11 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 			processMethod(edge);
 		}
 
+		@Override
+		public Object getLocalityKey() {
+			return edge.getTarget();
+		}
+
 		@Override
 		public int hashCode() {
 			final int prime = 31;
@@ -824,6 +890,26 @@ public class FlowInsensitiveSolver<N extends Unit, D extends FastSolverLinkedNod
 		this.maxJoinPointAbstractions = maxJoinPointAbstractions;
 	}
 
+	@Override
+	public boolean degrade(MemoryDegradationStage stage) {
+		switch (stage) {
+		case LimitJoinPoints:
+			if (maxJoinPointAbstractions >= 0
+					&& maxJoinPointAbstractions <= MemoryDegradationStage.DEGRADED_MAX_JOIN_POINT_ABSTRACTIONS)
+				return false;
+			maxJoinPointAbstractions = MemoryDegradationStage.DEGRADED_MAX_JOIN_POINT_ABSTRACTIONS;
+			return true;
+		case DropSolverCaches:
+			if (ffCache == null)
+				return false;
+			flowFunctions = uncachedFlowFunctions;
+			ffCache = null;
+			return true;
+		default:
+			return false;
+		}
+	}
+
 	/**
 	 * Sets the memory manager that shall be used to manage the abstractions
 	 * 
@@ -19,11 +19,11 @@ import heros.solver.Pair;
 import heros.solver.PathEdge;
 import soot.SootMethod;
 import soot.Unit;
-import soot.jimple.infoflow.collect.MyConcurrentHashMap;
 import soot.jimple.infoflow.data.Abstraction;
 import soot.jimple.infoflow.problems.AbstractInfoflowProblem;
 import soot.jimple.infoflow.solver.IFollowReturnsPastSeedsHandler;
 import soot.jimple.infoflow.solver.IInfoflowSolver;
+import soot.jimple.infoflow.solver.endSummaries.EndSummaryCache;
 import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
 import soot.jimple.infoflow.solver.functions.SolverCallFlowFunction;
 import soot.jimple.infoflow.solver.functions.SolverCallToReturnFlowFunction;
@@ -110,7 +110,7 @@ public class InfoflowSolver extends FlowInsensitiveSolver<Unit, Abstraction, BiD
 
 	@Override
 	public void cleanup() {
-		this.jumpFunctions = new MyConcurrentHashMap<PathEdge<SootMethod, Abstraction>, Abstraction>();
+		this.jumpFunctions.clear();
 		this.incoming.clear();
 		this.endSummary.clear();
 	}
@@ -138,11 +138,6 @@ public class InfoflowSolver extends FlowInsensitiveSolver<Unit, Abstraction, BiD
 		this.followReturnsPastSeedsHandler = handler;
 	}
 
-	@Override
-	public long getPropagationCount() {
-		return propagationCount;
-	}
-
 	@Override
 	public void setSolverId(boolean solverId) {
 		super.setSolverId(solverId);
@@ -153,4 +148,18 @@ public class InfoflowSolver extends FlowInsensitiveSolver<Unit, Abstraction, BiD
 		return this.problem;
 	}
 
+	@Override
+	public void setEndSummaryCache(EndSummaryCache endSummaryCache) {
+		// The flow-insensitive solver does not report the contexts that depend
+		// on other solvers, so we cannot safely persist any summaries
+		if (endSummaryCache != null)
+			logger.warn("The flow-insensitive solver does not support persisted end summaries");
+	}
+
+	@Override
+	public void setEdgeBatchSize(int edgeBatchSize) {
+		// The flow-insensitive solver already merges all edges of a method, so
+		// there is nothing to batch
+	}
+
 }
@@ -17,6 +17,10 @@ public class GCContext<N, D extends FastSolverLinkedNode<D, N>> {
 		return method;
 	}
 
+	public D getContext() {
+		return context;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -9,17 +9,60 @@ import soot.jimple.infoflow.solver.fastSolver.FastSolverLinkedNode;
 
 class GCCounter<N, D extends FastSolverLinkedNode<D, N>> {
 
+	/**
+	 * Task count of a counter whose context has been collected. Such a counter
+	 * is never used again.
+	 */
+	private static final int RETIRED = -1;
+
 	private final AtomicInteger scheduledTasks = new AtomicInteger();
 	private ConcurrentMap<GCCounter<N, D>, Object> callees;
 
-	public void incTasks() {
-		scheduledTasks.incrementAndGet();
+	/**
+	 * Increments the number of pending tasks
+	 * 
+	 * @return True if the number of pending tasks has been incremented, false if
+	 *         this counter has already been retired
+	 */
+	public boolean incTasks() {
+		while (true) {
+			int tasks = scheduledTasks.get();
+			if (tasks == RETIRED)
+				return false;
+			if (scheduledTasks.compareAndSet(tasks, tasks + 1))
+				return true;
+		}
+	}
+
+	/**
+	 * Retires this counter if there are no pending tasks. A retired counter
+	 * does not accept any new tasks.
+	 * 
+	 * @return True if this counter has been retired, false if there are pending
+	 *         tasks
+	 */
+	public boolean retire() {
+		return scheduledTasks.compareAndSet(0, RETIRED) || isRetired();
 	}
 
-	public void decTasks() {
-		if (scheduledTasks.get() == 0)
+	/**
+	 * Checks whether this counter has been retired
+	 * 
+	 * @return True if this counter has been retired, otherwise false
+	 */
+	public boolean isRetired() {
+		return scheduledTasks.get() == RETIRED;
+	}
+
+	public int decTasks() {
+		int remaining = scheduledTasks.decrementAndGet();
+		if (remaining < 0)
 			throw new RuntimeException("GC counter underflow");
-		scheduledTasks.decrementAndGet();
+		return remaining;
+	}
+
+	public boolean hasPendingTasks() {
+		return scheduledTasks.get() > 0;
 	}
 
 	public void addCallee(GCCounter<N, D> callee) {
@@ -33,8 +76,13 @@ class GCCounter<N, D extends FastSolverLinkedNode<D, N>> {
 	}
 
 	public boolean canGC() {
+		// The context of a retired counter has already been collected
+		int tasks = scheduledTasks.get();
+		if (tasks == RETIRED)
+			return true;
+
 		// Get rid of callees in which no jobs are open anymore
-		if (scheduledTasks.get() == 0) {
+		if (tasks == 0) {
 			if (callees != null) {
 				for (Iterator<GCCounter<N, D>> calleeIt = callees.keySet().iterator(); calleeIt.hasNext();) {
 					GCCounter<N, D> callee = calleeIt.next();
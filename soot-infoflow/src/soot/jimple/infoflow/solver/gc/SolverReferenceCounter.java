@@ -19,24 +19,58 @@ public class SolverReferenceCounter<N, D extends FastSolverLinkedNode<D, N>> {
 	private final MyConcurrentHashMap<GCContext<N, D>, GCCounter<N, D>> countingMap = new MyConcurrentHashMap<>();
 
 	private GCCounter<N, D> getCounter(GCContext<N, D> context) {
-		return countingMap.putIfAbsentElseGet(context, counterFactory);
+		while (true) {
+			GCCounter<N, D> ctr = countingMap.putIfAbsentElseGet(context, counterFactory);
+			if (!ctr.isRetired())
+				return ctr;
+
+			// The context has been collected, but the counter has not been
+			// removed yet
+			countingMap.remove(context, ctr);
+		}
 	}
 
 	public void incTasks(D context, SootMethod method) {
 		GCContext<N, D> gccontext = new GCContext<>(context, method);
-		GCCounter<N, D> ctr = getCounter(gccontext);
-		ctr.incTasks();
+		while (!getCounter(gccontext).incTasks()) {
+			// The counter was retired concurrently, try again with a new one
+		}
 	}
 
-	public void decTasks(D context, SootMethod method) {
+	/**
+	 * Decrements the number of pending tasks for the given context
+	 * 
+	 * @param context
+	 *            The abstraction at the start point of the method
+	 * @param method
+	 *            The method in which the task was executed
+	 * @return True if there are no more pending tasks for the given context,
+	 *         otherwise false
+	 */
+	public boolean decTasks(D context, SootMethod method) {
 		GCContext<N, D> gccontext = new GCContext<>(context, method);
-		decTasks(gccontext);
+		return decTasks(gccontext);
 	}
 
-	public void decTasks(GCContext<N, D> gccontext) {
+	public boolean decTasks(GCContext<N, D> gccontext) {
 		GCCounter<N, D> ctr = getCounter(gccontext);
-		if (ctr != null)
-			ctr.decTasks();
+		return ctr == null || ctr.decTasks() == 0;
+	}
+
+	/**
+	 * Checks whether there are pending tasks for the given context. In contrast
+	 * to canGC(), this method does not consider the callees of the context.
+	 * 
+	 * @param context
+	 *            The abstraction at the start point of the method
+	 * @param method
+	 *            The method to check
+	 * @return True if there are pending tasks for the given context, otherwise
+	 *         false
+	 */
+	public boolean hasPendingTasks(D context, SootMethod method) {
+		GCCounter<N, D> ctr = countingMap.get(new GCContext<N, D>(context, method));
+		return ctr != null && ctr.hasPendingTasks();
 	}
 
 	public void addCallee(D context, SootMethod method, D calleeContext, SootMethod calleeMethod) {
@@ -48,8 +82,38 @@ public class SolverReferenceCounter<N, D extends FastSolverLinkedNode<D, N>> {
 	}
 
 	public boolean canGC(GCContext<N, D> gccontext) {
-		GCCounter<N, D> ctr = getCounter(gccontext);
+		GCCounter<N, D> ctr = countingMap.get(gccontext);
 		return ctr == null || ctr.canGC();
 	}
 
+	/**
+	 * Removes the counter of the given context once the context has been
+	 * collected. If new tasks are scheduled for the context afterwards, a new
+	 * counter is created.
+	 * 
+	 * @param gccontext
+	 *            The context to remove
+	 * @return True if the counter has been removed, false if there are pending
+	 *         tasks for the given context
+	 */
+	public boolean remove(GCContext<N, D> gccontext) {
+		GCCounter<N, D> ctr = countingMap.get(gccontext);
+		if (ctr == null)
+			return true;
+		if (!ctr.retire())
+			return false;
+		countingMap.remove(gccontext, ctr);
+		return true;
+	}
+
+	/**
+	 * Gets the number of contexts for which this object currently maintains a
+	 * counter
+	 * 
+	 * @return The number of contexts with a counter
+	 */
+	public int size() {
+		return countingMap.size();
+	}
+
 }
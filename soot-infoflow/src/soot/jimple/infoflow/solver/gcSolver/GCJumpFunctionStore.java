@@ -0,0 +1,74 @@
+package soot.jimple.infoflow.solver.gcSolver;
+
+import java.util.Map;
+
+import heros.solver.Pair;
+import soot.SootMethod;
+import soot.jimple.infoflow.collect.MyConcurrentHashMap;
+import soot.jimple.infoflow.collect.MyConcurrentHashMap.IValueFactory;
+import soot.jimple.infoflow.solver.jumpFunctions.IJumpFunctionStore;
+import soot.jimple.toolkits.ide.icfg.BiDiInterproceduralCFG;
+
+/**
+ * Jump function store that groups the jump functions by method and context,
+ * i.e., the abstraction at the start point of the method. This allows the
+ * garbage-collecting solver to evict all jump functions of a context at once.
+ *
+ * @param <N>
+ *            The type of nodes in the interprocedural control-flow graph
+ * @param <D>
+ *            The type of data-flow facts
+ */
+public class GCJumpFunctionStore<N, D> implements IJumpFunctionStore<N, D> {
+
+	private final BiDiInterproceduralCFG<N, SootMethod> icfg;
+
+	private final IValueFactory<MyConcurrentHashMap<Pair<N, D>, D>> mapFactory = new IValueFactory<MyConcurrentHashMap<Pair<N, D>, D>>() {
+
+		@Override
+		public MyConcurrentHashMap<Pair<N, D>, D> createValue() {
+			return new MyConcurrentHashMap<Pair<N, D>, D>();
+		}
+
+	};
+
+	private final MyConcurrentHashMap<Pair<SootMethod, D>, MyConcurrentHashMap<Pair<N, D>, D>> jumpFunctions = new MyConcurrentHashMap<>();
+
+	public GCJumpFunctionStore(BiDiInterproceduralCFG<N, SootMethod> icfg) {
+		this.icfg = icfg;
+	}
+
+	@Override
+	public D addFunction(D sourceVal, N target, D targetVal) {
+		MyConcurrentHashMap<Pair<N, D>, D> contextFunctions = jumpFunctions
+				.putIfAbsentElseGet(new Pair<SootMethod, D>(icfg.getMethodOf(target), sourceVal), mapFactory);
+		return contextFunctions.putIfAbsent(new Pair<N, D>(target, targetVal), targetVal);
+	}
+
+	@Override
+	public boolean containsFunction(D sourceVal, N target, D targetVal) {
+		Map<Pair<N, D>, D> contextFunctions = jumpFunctions
+				.get(new Pair<SootMethod, D>(icfg.getMethodOf(target), sourceVal));
+		return contextFunctions != null && contextFunctions.containsKey(new Pair<N, D>(target, targetVal));
+	}
+
+	/**
+	 * Removes all jump functions of the given method in the given context
+	 *
+	 * @param method
+	 *            The method for which to remove the jump functions
+	 * @param context
+	 *            The abstraction at the start point of the method
+	 * @return The number of jump functions that have been removed
+	 */
+	public int removeFunctions(SootMethod method, D context) {
+		Map<Pair<N, D>, D> contextFunctions = jumpFunctions.remove(new Pair<SootMethod, D>(method, context));
+		return contextFunctions == null ? 0 : contextFunctions.size();
+	}
+
+	@Override
+	public void clear() {
+		jumpFunctions.clear();
+	}
+
+}
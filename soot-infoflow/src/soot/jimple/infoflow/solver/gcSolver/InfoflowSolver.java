@@ -0,0 +1,415 @@
+package soot.jimple.infoflow.solver.gcSolver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import heros.solver.Pair;
+import heros.solver.PathEdge;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.infoflow.collect.ConcurrentHashSet;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.problems.AbstractInfoflowProblem;
+import soot.jimple.infoflow.solver.endSummaries.EndSummaryCache;
+import soot.jimple.infoflow.solver.executors.ILocalityAwareTask;
+import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
+import soot.jimple.infoflow.solver.gc.GCContext;
+import soot.jimple.infoflow.solver.gc.SolverReferenceCounter;
+import soot.jimple.infoflow.solver.jumpFunctions.IJumpFunctionStoreFactory;
+
+/**
+ * Variant of the fast IFDS solver that removes jump functions which are no
+ * longer needed. The solver counts the pending tasks for every pair of method
+ * and context, i.e., abstraction at the start point of the method. Once a
+ * context, all of its transitive callees, and all of its transitive callers
+ * have no more pending tasks, the jump functions of this context are evicted
+ * together with its reference counter.
+ *
+ * The end summaries are only retained if the method has callers, i.e., if they
+ * can be re-used at a new call site. The incoming edges of a collected context
+ * are only needed if the context can produce new end summaries later. This is
+ * the case if other solvers, e.g., for alias queries, inject edges into the
+ * context. If no edges are injected, the incoming edges of collected contexts
+ * can be dropped with {@link #setRetainIncomingEdges(boolean)}.
+ *
+ * If an evicted context is reached again later, the respective part of the
+ * method is simply analyzed again. This trades some additional computation for
+ * a lower peak memory consumption.
+ */
+public class InfoflowSolver extends soot.jimple.infoflow.solver.fastSolver.InfoflowSolver {
+
+	private static final Logger logger = LoggerFactory.getLogger(InfoflowSolver.class);
+
+	/**
+	 * The default number of processed edges after which the solver looks for
+	 * jump functions that can be evicted
+	 */
+	public static final int DEFAULT_GC_INTERVAL = 10000;
+
+	private final SolverReferenceCounter<Unit, Abstraction> referenceCounter = new SolverReferenceCounter<>();
+	private final GCJumpFunctionStore<Unit, Abstraction> gcJumpFunctions;
+	private final Set<GCContext<Unit, Abstraction>> gcCandidates = new ConcurrentHashSet<>();
+
+	private final AtomicInteger edgesSinceLastGC = new AtomicInteger();
+	private final AtomicBoolean gcRunning = new AtomicBoolean(false);
+	private final AtomicLong evictedJumpFunctions = new AtomicLong();
+	private final AtomicLong evictedContexts = new AtomicLong();
+
+	private int gcInterval = DEFAULT_GC_INTERVAL;
+	private boolean retainIncomingEdges = true;
+	private boolean hasEndSummaryCache = false;
+
+	public InfoflowSolver(AbstractInfoflowProblem problem, InterruptableExecutor executor) {
+		super(problem, executor);
+		this.gcJumpFunctions = new GCJumpFunctionStore<>(icfg);
+		this.jumpFunctions = gcJumpFunctions;
+	}
+
+	@Override
+	public void solve() {
+		super.solve();
+		logger.info(String.format("Garbage collection evicted %d jump functions in %d contexts",
+				evictedJumpFunctions.get(), evictedContexts.get()));
+	}
+
+	@Override
+	protected void scheduleEdgeProcessing(PathEdge<Unit, Abstraction> edge) {
+		// If the executor has been killed, there is little point
+		// in submitting new tasks
+		if (isKilled() || executor.isTerminating() || executor.isTerminated())
+			return;
+
+		referenceCounter.incTasks(edge.factAtSource(), icfg.getMethodOf(edge.getTarget()));
+		executor.execute(new GCPathEdgeProcessingTask(edge));
+		propagationCount.increment();
+	}
+
+	@Override
+	protected boolean addIncoming(SootMethod m, Abstraction d3, Unit n, Abstraction d1, Abstraction d2) {
+		// The caller context must not be collected while the callee context is
+		// still being processed
+		referenceCounter.addCallee(d1, icfg.getMethodOf(n), d3, m);
+		return super.addIncoming(m, d3, n, d1, d2);
+	}
+
+	/**
+	 * Evicts the jump functions of all contexts that are no longer being
+	 * processed
+	 */
+	protected void runGarbageCollection() {
+		// Only one thread shall collect garbage at a time
+		if (!gcRunning.compareAndSet(false, true))
+			return;
+
+		try {
+			// Every context is visited at most once per round
+			ActiveCallerIndex activeCallers = new ActiveCallerIndex();
+
+			for (Iterator<GCContext<Unit, Abstraction>> it = gcCandidates.iterator(); it.hasNext();) {
+				if (isKilled())
+					return;
+
+				GCContext<Unit, Abstraction> context = it.next();
+				if (referenceCounter.hasPendingTasks(context.getContext(), context.getMethod())) {
+					// This context has become active again. We will get it back
+					// once its tasks are done.
+					it.remove();
+				} else if (referenceCounter.canGC(context)
+						&& !activeCallers.isLive(new Pair<>(context.getMethod(), context.getContext()))) {
+					// If the context has become active in the meantime, we
+					// leave it alone
+					if (referenceCounter.remove(context))
+						collectContext(context);
+					it.remove();
+				}
+			}
+		} finally {
+			gcRunning.set(false);
+		}
+	}
+
+	/**
+	 * Removes the data of the given context that is not required anymore once
+	 * all of the context's tasks are done
+	 *
+	 * @param context
+	 *            The context to collect
+	 */
+	private void collectContext(GCContext<Unit, Abstraction> context) {
+		final SootMethod method = context.getMethod();
+		final Abstraction d1 = context.getContext();
+
+		int removed = gcJumpFunctions.removeFunctions(method, d1);
+		evictedJumpFunctions.addAndGet(removed);
+		evictedContexts.incrementAndGet();
+
+		// The incoming edges are only used for propagating new end summaries
+		// back to the callers. The end summary cache needs them to find
+		// summaries that depend on the calling context.
+		if (!retainIncomingEdges && !hasEndSummaryCache)
+			incoming.reset(method, d1);
+
+		// Summaries of methods without callers are never re-used
+		if (icfg.getCallersOf(method).isEmpty())
+			endSummary.reset(method, d1);
+	}
+
+	/**
+	 * Index that tells for contexts whether they or one of their transitive
+	 * callers still have pending tasks. Such callers may call into the context
+	 * again. The index walks the callers once per garbage collection round,
+	 * finding the strongly connected components of the caller graph with
+	 * Tarjan's algorithm, so that the cost of a round is linear in the number
+	 * of contexts and calls.
+	 */
+	private class ActiveCallerIndex {
+
+		/**
+		 * A context that is being visited
+		 */
+		private class Node {
+
+			private final Pair<SootMethod, Abstraction> context;
+			private final int index;
+			private int lowLink;
+			private boolean live;
+			private Iterator<Pair<SootMethod, Abstraction>> callerIterator;
+
+			public Node(Pair<SootMethod, Abstraction> context, int index) {
+				this.context = context;
+				this.index = index;
+				this.lowLink = index;
+				this.live = referenceCounter.hasPendingTasks(context.getO2(), context.getO1());
+				this.callerIterator = getCallers(context).iterator();
+			}
+
+		}
+
+		private final Map<Pair<SootMethod, Abstraction>, Boolean> results = new HashMap<>();
+		private final Map<Pair<SootMethod, Abstraction>, Node> onStack = new HashMap<>();
+		private int nextIndex = 0;
+
+		/**
+		 * Checks whether the given context or one of its transitive callers still
+		 * has pending tasks
+		 *
+		 * @param context
+		 *            The context to check
+		 * @return True if the given context or one of its transitive callers has
+		 *         pending tasks, otherwise false
+		 */
+		public boolean isLive(Pair<SootMethod, Abstraction> context) {
+			Boolean result = results.get(context);
+			if (result != null)
+				return result;
+
+			Deque<Node> componentStack = new ArrayDeque<>();
+			Deque<Node> dfsStack = new ArrayDeque<>();
+			visit(context, componentStack, dfsStack);
+			while (!dfsStack.isEmpty()) {
+				Node curNode = dfsStack.peek();
+				if (curNode.callerIterator.hasNext()) {
+					Pair<SootMethod, Abstraction> caller = curNode.callerIterator.next();
+					Boolean callerResult = results.get(caller);
+					if (callerResult != null)
+						curNode.live |= callerResult;
+					else {
+						Node callerNode = onStack.get(caller);
+						if (callerNode == null)
+							visit(caller, componentStack, dfsStack);
+						else
+							curNode.lowLink = Math.min(curNode.lowLink, callerNode.index);
+					}
+				} else {
+					dfsStack.pop();
+					curNode.callerIterator = null;
+
+					// A caller in the same component gets the same result in
+					// the end, so we can always pass the result on
+					Node parentNode = dfsStack.peek();
+					if (parentNode != null) {
+						parentNode.lowLink = Math.min(parentNode.lowLink, curNode.lowLink);
+						parentNode.live |= curNode.live;
+					}
+
+					// All members of a component share the same result
+					if (curNode.lowLink == curNode.index) {
+						List<Node> members = new ArrayList<>();
+						boolean live = false;
+						Node member;
+						do {
+							member = componentStack.pop();
+							members.add(member);
+							live |= member.live;
+						} while (member != curNode);
+						for (Node m : members) {
+							onStack.remove(m.context);
+							results.put(m.context, live);
+						}
+					}
+				}
+			}
+			return results.get(context);
+		}
+
+		private void visit(Pair<SootMethod, Abstraction> context, Deque<Node> componentStack, Deque<Node> dfsStack) {
+			Node node = new Node(context, nextIndex++);
+			onStack.put(context, node);
+			componentStack.push(node);
+			dfsStack.push(node);
+		}
+
+		/**
+		 * Gets the contexts from which the given context has been called
+		 *
+		 * @param context
+		 *            The context for which to get the callers
+		 * @return The calling contexts
+		 */
+		private List<Pair<SootMethod, Abstraction>> getCallers(Pair<SootMethod, Abstraction> context) {
+			Map<Unit, Map<Abstraction, Abstraction>> inc = incoming(context.getO2(), context.getO1());
+			if (inc == null || inc.isEmpty())
+				return Collections.emptyList();
+
+			List<Pair<SootMethod, Abstraction>> callers = new ArrayList<>();
+			for (Entry<Unit, Map<Abstraction, Abstraction>> entry : inc.entrySet()) {
+				SootMethod callerMethod = icfg.getMethodOf(entry.getKey());
+				for (Abstraction callerContext : entry.getValue().keySet())
+					callers.add(new Pair<>(callerMethod, callerContext));
+			}
+			return callers;
+		}
+
+	}
+
+	/**
+	 * Sets the number of processed edges after which the solver looks for jump
+	 * functions that can be evicted
+	 *
+	 * @param gcInterval
+	 *            The number of edges between two garbage collection runs
+	 */
+	public void setGarbageCollectionInterval(int gcInterval) {
+		this.gcInterval = gcInterval;
+	}
+
+	/**
+	 * Sets whether the incoming edges of collected contexts shall be retained.
+	 * They can only be dropped if no other solver injects edges into the
+	 * contexts of this solver. Otherwise, a collected context may produce new
+	 * end summaries that would never reach the callers.
+	 *
+	 * @param retainIncomingEdges
+	 *            True to retain the incoming edges of collected contexts, false
+	 *            to drop them
+	 */
+	public void setRetainIncomingEdges(boolean retainIncomingEdges) {
+		this.retainIncomingEdges = retainIncomingEdges;
+	}
+
+	/**
+	 * Gets the number of jump functions that have been evicted so far
+	 *
+	 * @return The number of evicted jump functions
+	 */
+	public long getEvictedJumpFunctions() {
+		return evictedJumpFunctions.get();
+	}
+
+	/**
+	 * Gets the number of contexts that have been collected so far. A context
+	 * that is collected, reached again, and collected again is counted twice.
+	 *
+	 * @return The number of collected contexts
+	 */
+	public long getEvictedContexts() {
+		return evictedContexts.get();
+	}
+
+	/**
+	 * Gets the number of contexts for which the solver currently counts the
+	 * pending tasks
+	 *
+	 * @return The number of contexts with a reference counter
+	 */
+	public int getTrackedContextCount() {
+		return referenceCounter.size();
+	}
+
+	@Override
+	public void setJumpFunctionStoreFactory(IJumpFunctionStoreFactory factory) {
+		// We need to evict jump functions by context, so we always keep our own
+		// map-based store. Other storages are rejected when the data flow
+		// configuration is checked.
+	}
+
+	@Override
+	public void setEndSummaryCache(EndSummaryCache endSummaryCache) {
+		super.setEndSummaryCache(endSummaryCache);
+		this.hasEndSummaryCache = endSummaryCache != null;
+	}
+
+	@Override
+	public void setEdgeBatchSize(int edgeBatchSize) {
+		// We need to count every single edge per context
+		if (edgeBatchSize > 1)
+			logger.warn("The garbage-collecting solver does not support edge batching");
+	}
+
+	@Override
+	public void cleanup() {
+		super.cleanup();
+		this.gcCandidates.clear();
+	}
+
+	/**
+	 * Task that processes a single edge and afterwards updates the reference
+	 * counters. Tasks are only compared by identity, because duplicate edges are
+	 * already filtered out by the jump functions and every task must be counted.
+	 */
+	private class GCPathEdgeProcessingTask implements ILocalityAwareTask {
+
+		private final PathEdge<Unit, Abstraction> edge;
+
+		public GCPathEdgeProcessingTask(PathEdge<Unit, Abstraction> edge) {
+			this.edge = edge;
+		}
+
+		@Override
+		public void run() {
+			final SootMethod method = icfg.getMethodOf(edge.getTarget());
+			try {
+				processPathEdge(edge);
+			} finally {
+				if (referenceCounter.decTasks(edge.factAtSource(), method))
+					gcCandidates.add(new GCContext<Unit, Abstraction>(edge.factAtSource(), method));
+			}
+
+			if (edgesSinceLastGC.incrementAndGet() >= gcInterval) {
+				edgesSinceLastGC.set(0);
+				runGarbageCollection();
+			}
+		}
+
+		@Override
+		public Object getLocalityKey() {
+			return icfg.getMethodOf(edge.getTarget());
+		}
+
+	}
+
+}
@@ -0,0 +1,13 @@
+package soot.jimple.infoflow.solver.jumpFunctions;
+
+/**
+ * Factory that creates the default hash map-based jump function stores
+ */
+public class DefaultJumpFunctionStoreFactory implements IJumpFunctionStoreFactory {
+
+	@Override
+	public <N, D> IJumpFunctionStore<N, D> createJumpFunctionStore() {
+		return new MapJumpFunctionStore<N, D>();
+	}
+
+}
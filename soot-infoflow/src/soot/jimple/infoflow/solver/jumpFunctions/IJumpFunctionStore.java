@@ -0,0 +1,50 @@
+package soot.jimple.infoflow.solver.jumpFunctions;
+
+/**
+ * Common interface for all data structures that store the jump functions of an
+ * IFDS solver. A jump function (d1, n, d2) records that the fact d2 holds at
+ * statement n if the fact d1 held at the start point of n's method.
+ * 
+ * @param <N>
+ *            The type of nodes in the interprocedural control-flow graph
+ * @param <D>
+ *            The type of data-flow facts
+ */
+public interface IJumpFunctionStore<N, D> {
+
+	/**
+	 * Records the given jump function if no equal jump function has been
+	 * recorded before
+	 * 
+	 * @param sourceVal
+	 *            The fact at the start point of the method
+	 * @param target
+	 *            The target statement
+	 * @param targetVal
+	 *            The fact at the target statement
+	 * @return The target fact of the jump function that was already registered
+	 *         for the given triple, or null if the jump function is new
+	 */
+	public D addFunction(D sourceVal, N target, D targetVal);
+
+	/**
+	 * Checks whether the given jump function has already been recorded
+	 * 
+	 * @param sourceVal
+	 *            The fact at the start point of the method
+	 * @param target
+	 *            The target statement
+	 * @param targetVal
+	 *            The fact at the target statement
+	 * @return True if an equal jump function has already been recorded,
+	 *         otherwise false
+	 */
+	public boolean containsFunction(D sourceVal, N target, D targetVal);
+
+	/**
+	 * Removes all jump functions from this store and releases the memory
+	 * associated with them
+	 */
+	public void clear();
+
+}
@@ -0,0 +1,16 @@
+package soot.jimple.infoflow.solver.jumpFunctions;
+
+/**
+ * Common interface for all factories that create jump function stores for the
+ * IFDS solvers
+ */
+public interface IJumpFunctionStoreFactory {
+
+	/**
+	 * Creates a new, empty jump function store
+	 * 
+	 * @return The new jump function store
+	 */
+	public <N, D> IJumpFunctionStore<N, D> createJumpFunctionStore();
+
+}
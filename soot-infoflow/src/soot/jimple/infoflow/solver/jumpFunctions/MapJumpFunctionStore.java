@@ -0,0 +1,35 @@
+package soot.jimple.infoflow.solver.jumpFunctions;
+
+import heros.solver.PathEdge;
+import soot.jimple.infoflow.collect.MyConcurrentHashMap;
+
+/**
+ * Jump function store that keeps all jump functions as {@link PathEdge}
+ * objects in a concurrent hash map. This is the default store of the IFDS
+ * solvers.
+ * 
+ * @param <N>
+ *            The type of nodes in the interprocedural control-flow graph
+ * @param <D>
+ *            The type of data-flow facts
+ */
+public class MapJumpFunctionStore<N, D> implements IJumpFunctionStore<N, D> {
+
+	private MyConcurrentHashMap<PathEdge<N, D>, D> jumpFunctions = new MyConcurrentHashMap<PathEdge<N, D>, D>();
+
+	@Override
+	public D addFunction(D sourceVal, N target, D targetVal) {
+		return jumpFunctions.putIfAbsent(new PathEdge<N, D>(sourceVal, target, targetVal), targetVal);
+	}
+
+	@Override
+	public boolean containsFunction(D sourceVal, N target, D targetVal) {
+		return jumpFunctions.containsKey(new PathEdge<N, D>(sourceVal, target, targetVal));
+	}
+
+	@Override
+	public void clear() {
+		this.jumpFunctions = new MyConcurrentHashMap<PathEdge<N, D>, D>();
+	}
+
+}
@@ -0,0 +1,383 @@
+package soot.jimple.infoflow.solver.jumpFunctions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jump function store that does not allocate an object per jump function.
+ * Statements and facts are interned to integer ids, and every jump function
+ * (d1, n, d2) is stored as a pair of longs in a lock-striped hash table with
+ * open addressing. The first long contains the ids of d1 and n, the second one
+ * the id of d2.
+ *
+ * The store keeps the first instance of every statement and fact it has seen.
+ * Equal facts thus always receive the same id, and a jump function that has
+ * been added once is never considered new again. The set of jump functions
+ * only grows, which the solver relies on for termination.
+ *
+ * The keys can optionally be kept in direct memory outside of the Java heap, so
+ * that the garbage collector does not need to scan them.
+ *
+ * @param <N>
+ *            The type of nodes in the interprocedural control-flow graph
+ * @param <D>
+ *            The type of data-flow facts
+ */
+public class PrimitiveJumpFunctionStore<N, D> implements IJumpFunctionStore<N, D> {
+
+	private static final int INITIAL_STRIPE_CAPACITY = 1024;
+	private static final int MIN_STRIPES = 16;
+
+	/**
+	 * Table that assigns integer ids to objects based on their equality. The
+	 * table keeps the first object that was registered for an id. Lookups of
+	 * known objects do not take a lock.
+	 */
+	private static class IdTable {
+
+		/**
+		 * An interned object together with its id
+		 */
+		private static class Entry {
+
+			private final Object obj;
+			private final int id;
+
+			public Entry(Object obj, int id) {
+				this.obj = obj;
+				this.id = id;
+			}
+
+		}
+
+		private final ConcurrentHashMap<Object, Entry> entries;
+
+		// Ids start at 1, so 0 can be used for marking empty slots. Ids are
+		// never reused, not even after clearing the table.
+		private final AtomicInteger nextId = new AtomicInteger(1);
+
+		public IdTable(int concurrencyLevel) {
+			this.entries = new ConcurrentHashMap<>(16, 0.75f, Math.max(1, concurrencyLevel));
+		}
+
+		/**
+		 * Gets the entry of the given object
+		 *
+		 * @param obj
+		 *            The object for which to get the entry
+		 * @param create
+		 *            True to register the object if it is not known yet, false
+		 *            to return null instead
+		 * @return The entry with the id and the first registered instance of the
+		 *         given object
+		 */
+		public Entry getEntry(Object obj, boolean create) {
+			Entry entry = entries.get(obj);
+			if (entry != null || !create)
+				return entry;
+
+			// If another thread registers the same object at the same time, its
+			// id wins and ours is lost, which is harmless
+			Entry newEntry = new Entry(obj, allocateId());
+			entry = entries.putIfAbsent(obj, newEntry);
+			return entry == null ? newEntry : entry;
+		}
+
+		/**
+		 * Allocates a new id
+		 *
+		 * @return The new id
+		 */
+		private int allocateId() {
+			while (true) {
+				int id = nextId.get();
+				if (id == Integer.MAX_VALUE)
+					throw new IllegalStateException("The jump function store has run out of ids");
+				if (nextId.compareAndSet(id, id + 1))
+					return id;
+			}
+		}
+
+		public void clear() {
+			entries.clear();
+		}
+
+		public int size() {
+			return entries.size();
+		}
+
+	}
+
+	/**
+	 * Storage for the keys of one stripe
+	 */
+	private static abstract class LongStorage {
+
+		public abstract long get(int idx);
+
+		public abstract void set(int idx, long value);
+
+	}
+
+	/**
+	 * Key storage based on a plain long array on the Java heap
+	 */
+	private static class HeapLongStorage extends LongStorage {
+
+		private final long[] data;
+
+		public HeapLongStorage(int size) {
+			this.data = new long[size];
+		}
+
+		@Override
+		public long get(int idx) {
+			return data[idx];
+		}
+
+		@Override
+		public void set(int idx, long value) {
+			data[idx] = value;
+		}
+
+	}
+
+	/**
+	 * Key storage based on direct memory outside of the Java heap
+	 */
+	private static class OffHeapLongStorage extends LongStorage {
+
+		private final LongBuffer data;
+
+		public OffHeapLongStorage(int size) {
+			// Direct buffers are zero-initialized
+			this.data = ByteBuffer.allocateDirect(size * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+		}
+
+		@Override
+		public long get(int idx) {
+			return data.get(idx);
+		}
+
+		@Override
+		public void set(int idx, long value) {
+			data.put(idx, value);
+		}
+
+	}
+
+	/**
+	 * One stripe of the hash table. All accesses must be synchronized on the
+	 * stripe object.
+	 */
+	private class Stripe {
+
+		private LongStorage keys;
+		private int mask;
+		private int size;
+
+		public Stripe() {
+			allocate(INITIAL_STRIPE_CAPACITY);
+		}
+
+		private void allocate(int capacity) {
+			this.keys = offHeap ? new OffHeapLongStorage(capacity * 2) : new HeapLongStorage(capacity * 2);
+			this.mask = capacity - 1;
+			this.size = 0;
+		}
+
+		public boolean contains(long a, long b, int hash) {
+			int idx = hash & mask;
+			while (true) {
+				long curA = keys.get(idx * 2);
+				if (curA == 0)
+					return false;
+				if (curA == a && keys.get(idx * 2 + 1) == b)
+					return true;
+				idx = (idx + 1) & mask;
+			}
+		}
+
+		public boolean add(long a, long b, int hash) {
+			int idx = hash & mask;
+			while (true) {
+				long curA = keys.get(idx * 2);
+				if (curA == 0) {
+					keys.set(idx * 2, a);
+					keys.set(idx * 2 + 1, b);
+					if (++size > (mask + 1) / 4 * 3)
+						grow();
+					return true;
+				}
+				if (curA == a && keys.get(idx * 2 + 1) == b)
+					return false;
+				idx = (idx + 1) & mask;
+			}
+		}
+
+		private void grow() {
+			LongStorage oldKeys = keys;
+			int oldCapacity = mask + 1;
+
+			allocate(oldCapacity * 2);
+			for (int i = 0; i < oldCapacity; i++) {
+				long a = oldKeys.get(i * 2);
+				if (a != 0) {
+					long b = oldKeys.get(i * 2 + 1);
+					int idx = hash(a, b) & mask;
+					while (keys.get(idx * 2) != 0)
+						idx = (idx + 1) & mask;
+					keys.set(idx * 2, a);
+					keys.set(idx * 2 + 1, b);
+					size++;
+				}
+			}
+		}
+
+		public void clear() {
+			allocate(INITIAL_STRIPE_CAPACITY);
+		}
+
+	}
+
+	private final boolean offHeap;
+	private final Stripe[] stripes;
+	private final int stripeShift;
+
+	private final IdTable nodeIds;
+	private final IdTable factIds;
+
+	/**
+	 * Creates a new instance of the {@link PrimitiveJumpFunctionStore} class
+	 *
+	 * @param concurrencyLevel
+	 *            The expected number of threads that concurrently access this
+	 *            store
+	 * @param offHeap
+	 *            True to keep the keys in direct memory outside of the Java heap,
+	 *            false to keep them in plain long arrays
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public PrimitiveJumpFunctionStore(int concurrencyLevel, boolean offHeap) {
+		this.offHeap = offHeap;
+
+		// We use a power of two for the number of stripes
+		int numStripes = MIN_STRIPES;
+		while (numStripes < concurrencyLevel * 4)
+			numStripes <<= 1;
+		this.stripes = new PrimitiveJumpFunctionStore.Stripe[numStripes];
+		for (int i = 0; i < numStripes; i++)
+			stripes[i] = new Stripe();
+		this.stripeShift = 32 - Integer.numberOfTrailingZeros(numStripes);
+
+		this.nodeIds = new IdTable(concurrencyLevel);
+		this.factIds = new IdTable(concurrencyLevel);
+	}
+
+	/**
+	 * Computes the hash code for the given pair of keys
+	 */
+	private static int hash(long a, long b) {
+		long h = a * 0x9E3779B97F4A7C15L + b;
+		h ^= h >>> 32;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	private Stripe getStripe(int hash) {
+		return stripes[(hash * 0x9E3779B9) >>> stripeShift];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public D addFunction(D sourceVal, N target, D targetVal) {
+		long a = ((long) factIds.getEntry(sourceVal, true).id << 32) | nodeIds.getEntry(target, true).id;
+		IdTable.Entry targetValEntry = factIds.getEntry(targetVal, true);
+		long b = targetValEntry.id;
+		int hash = hash(a, b);
+
+		Stripe stripe = getStripe(hash);
+		synchronized (stripe) {
+			if (stripe.add(a, b, hash))
+				return null;
+		}
+
+		// The jump function already exists. We return the instance with which
+		// the fact was registered.
+		return (D) targetValEntry.obj;
+	}
+
+	@Override
+	public boolean containsFunction(D sourceVal, N target, D targetVal) {
+		// If we have never seen one of the objects, there cannot be a jump
+		// function for them
+		IdTable.Entry sourceEntry = factIds.getEntry(sourceVal, false);
+		if (sourceEntry == null)
+			return false;
+		IdTable.Entry targetEntry = nodeIds.getEntry(target, false);
+		if (targetEntry == null)
+			return false;
+		IdTable.Entry targetValEntry = factIds.getEntry(targetVal, false);
+		if (targetValEntry == null)
+			return false;
+
+		long a = ((long) sourceEntry.id << 32) | targetEntry.id;
+		long b = targetValEntry.id;
+		int hash = hash(a, b);
+
+		Stripe stripe = getStripe(hash);
+		synchronized (stripe) {
+			return stripe.contains(a, b, hash);
+		}
+	}
+
+	@Override
+	public void clear() {
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.clear();
+			}
+		}
+		nodeIds.clear();
+		factIds.clear();
+	}
+
+	/**
+	 * Gets the number of jump functions in this store
+	 *
+	 * @return The number of jump functions in this store
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.size;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the number of distinct facts in this store
+	 *
+	 * @return The number of distinct facts
+	 */
+	public int getFactCount() {
+		return factIds.size();
+	}
+
+	/**
+	 * Gets whether this store keeps its keys outside of the Java heap
+	 *
+	 * @return True if the keys are kept in direct memory, false if they are
+	 *         kept in plain long arrays
+	 */
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+}
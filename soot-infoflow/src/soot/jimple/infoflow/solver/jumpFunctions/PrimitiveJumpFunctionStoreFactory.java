@@ -0,0 +1,33 @@
+package soot.jimple.infoflow.solver.jumpFunctions;
+
+/**
+ * Factory that creates jump function stores based on primitive, lock-striped
+ * hash tables
+ */
+public class PrimitiveJumpFunctionStoreFactory implements IJumpFunctionStoreFactory {
+
+	private final int concurrencyLevel;
+	private final boolean offHeap;
+
+	/**
+	 * Creates a new instance of the {@link PrimitiveJumpFunctionStoreFactory}
+	 * class
+	 * 
+	 * @param concurrencyLevel
+	 *            The expected number of threads that concurrently access the
+	 *            jump function store
+	 * @param offHeap
+	 *            True to keep the jump function keys in direct memory outside of
+	 *            the Java heap, false to keep them in plain long arrays
+	 */
+	public PrimitiveJumpFunctionStoreFactory(int concurrencyLevel, boolean offHeap) {
+		this.concurrencyLevel = concurrencyLevel;
+		this.offHeap = offHeap;
+	}
+
+	@Override
+	public <N, D> IJumpFunctionStore<N, D> createJumpFunctionStore() {
+		return new PrimitiveJumpFunctionStore<N, D>(concurrencyLevel, offHeap);
+	}
+
+}
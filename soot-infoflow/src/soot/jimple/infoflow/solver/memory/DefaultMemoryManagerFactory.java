@@ -14,17 +14,30 @@ import soot.jimple.infoflow.data.FlowDroidMemoryManager.PathDataErasureMode;
  */
 public class DefaultMemoryManagerFactory implements IMemoryManagerFactory {
 	
+	private final int cacheCapacity;
+	
 	/**
 	 * Constructs a new instance of the AccessPathManager class
 	 */	
 	public DefaultMemoryManagerFactory() {
+		this(0);
+	}
+	
+	/**
+	 * Constructs a new instance of the AccessPathManager class
+	 * @param cacheCapacity The maximum number of entries in each of the caches
+	 * of the memory manager. If this value is zero or negative, the caches are
+	 * unbounded.
+	 */
+	public DefaultMemoryManagerFactory(int cacheCapacity) {
+		this.cacheCapacity = cacheCapacity;
 	}
 	
 	@Override
 	public IMemoryManager<Abstraction, Unit> getMemoryManager(
 			boolean tracingEnabled,
 			PathDataErasureMode erasePathData) {
-		return new FlowDroidMemoryManager(tracingEnabled, erasePathData);
+		return new FlowDroidMemoryManager(tracingEnabled, erasePathData, cacheCapacity);
 	}
 
 }
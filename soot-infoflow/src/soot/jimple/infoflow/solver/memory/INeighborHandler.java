@@ -0,0 +1,20 @@
+package soot.jimple.infoflow.solver.memory;
+
+/**
+ * Optional interface for memory managers that need to know when the solver
+ * registers an abstraction as the neighbor of another one at a join point
+ */
+public interface INeighborHandler<D> {
+
+	/**
+	 * Notifies the memory manager that the given neighbor has been added to the
+	 * given abstraction
+	 *
+	 * @param abs
+	 *            The abstraction that has received a new neighbor
+	 * @param neighbor
+	 *            The new neighbor
+	 */
+	public void handleNeighbor(D abs, D neighbor);
+
+}
@@ -0,0 +1,30 @@
+package soot.jimple.infoflow.solver.profiling;
+
+/**
+ * Enumeration containing the kinds of flow functions evaluated by the IFDS
+ * solvers
+ */
+public enum FlowFunctionKind {
+
+	/**
+	 * Flow function for a statement that is neither a call nor an exit
+	 */
+	Normal,
+
+	/**
+	 * Flow function from a call site into a callee
+	 */
+	Call,
+
+	/**
+	 * Flow function from a call site to its return site, bypassing the callee
+	 */
+	CallToReturn,
+
+	/**
+	 * Flow function from an exit statement back to the return site in the
+	 * caller
+	 */
+	Return
+
+}
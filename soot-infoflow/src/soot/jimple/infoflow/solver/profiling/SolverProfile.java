@@ -0,0 +1,224 @@
+package soot.jimple.infoflow.solver.profiling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.LongAdder;
+
+import heros.solver.Pair;
+import soot.SootMethod;
+import soot.jimple.infoflow.collect.ConcurrentAppendOnlyMap;
+import soot.jimple.infoflow.collect.MyConcurrentHashMap.IValueFactory;
+
+/**
+ * Low-overhead instrumentation data collected by an IFDS solver while it is
+ * running. All counters can be updated concurrently. Reading them while the
+ * solver is running yields approximate values.
+ */
+public class SolverProfile {
+
+	private static final IValueFactory<LongAdder> counterFactory = new IValueFactory<LongAdder>() {
+
+		@Override
+		public LongAdder createValue() {
+			return new LongAdder();
+		}
+
+	};
+
+	private final ConcurrentAppendOnlyMap<SootMethod, LongAdder> edgesPerMethod = new ConcurrentAppendOnlyMap<>();
+	private final LongAdder[] flowFunctions = new LongAdder[FlowFunctionKind.values().length];
+
+	private final LongAdder taintWrapperCalls = new LongAdder();
+	private final LongAdder taintWrapperTime = new LongAdder();
+	private final LongAdder aliasQueries = new LongAdder();
+	private final LongAdder neighborAdditions = new LongAdder();
+
+	public SolverProfile() {
+		for (int i = 0; i < flowFunctions.length; i++)
+			flowFunctions[i] = new LongAdder();
+	}
+
+	/**
+	 * Records that the solver has processed edges in the given method
+	 *
+	 * @param method
+	 *            The method that contains the target statement of the edges
+	 * @param count
+	 *            The number of edges
+	 */
+	public void recordEdges(SootMethod method, int count) {
+		edgesPerMethod.putIfAbsentElseGet(method, counterFactory).add(count);
+	}
+
+	/**
+	 * Records that the solver has evaluated a flow function of the given kind
+	 *
+	 * @param kind
+	 *            The kind of flow function
+	 */
+	public void recordFlowFunction(FlowFunctionKind kind) {
+		flowFunctions[kind.ordinal()].increment();
+	}
+
+	/**
+	 * Records a call to the taint wrapper
+	 *
+	 * @param nanos
+	 *            The time spent in the taint wrapper in nanoseconds
+	 */
+	public void recordTaintWrapperCall(long nanos) {
+		taintWrapperCalls.increment();
+		taintWrapperTime.add(nanos);
+	}
+
+	/**
+	 * Records that an alias query has been triggered
+	 */
+	public void recordAliasQuery() {
+		aliasQueries.increment();
+	}
+
+	/**
+	 * Records that a neighbor has been added to an abstraction at a join point
+	 */
+	public void recordNeighborAddition() {
+		neighborAdditions.increment();
+	}
+
+	/**
+	 * Gets the number of edges that the solver has processed in the given
+	 * method
+	 *
+	 * @param method
+	 *            The method for which to get the number of edges
+	 * @return The number of edges processed in the given method
+	 */
+	public long getEdgeCount(SootMethod method) {
+		LongAdder counter = edgesPerMethod.get(method);
+		return counter == null ? 0 : counter.sum();
+	}
+
+	/**
+	 * Gets the number of flow functions of the given kind that the solver has
+	 * evaluated
+	 *
+	 * @param kind
+	 *            The kind of flow function
+	 * @return The number of evaluated flow functions of the given kind
+	 */
+	public long getFlowFunctionCount(FlowFunctionKind kind) {
+		return flowFunctions[kind.ordinal()].sum();
+	}
+
+	/**
+	 * Gets the number of calls to the taint wrapper
+	 *
+	 * @return The number of calls to the taint wrapper
+	 */
+	public long getTaintWrapperCalls() {
+		return taintWrapperCalls.sum();
+	}
+
+	/**
+	 * Gets the total time spent in the taint wrapper
+	 *
+	 * @return The time spent in the taint wrapper in nanoseconds
+	 */
+	public long getTaintWrapperTime() {
+		return taintWrapperTime.sum();
+	}
+
+	/**
+	 * Gets the number of alias queries that have been triggered
+	 *
+	 * @return The number of alias queries
+	 */
+	public long getAliasQueries() {
+		return aliasQueries.sum();
+	}
+
+	/**
+	 * Gets the number of neighbors that have been added at join points
+	 *
+	 * @return The number of neighbor additions
+	 */
+	public long getNeighborAdditions() {
+		return neighborAdditions.sum();
+	}
+
+	/**
+	 * Gets the methods in which the solver has processed the most edges
+	 *
+	 * @param count
+	 *            The maximum number of methods to return
+	 * @return The methods with the highest edge counts together with their
+	 *         respective counts, in descending order
+	 */
+	public List<Pair<SootMethod, Long>> getHotMethods(int count) {
+		List<Pair<SootMethod, Long>> methods = new ArrayList<>();
+		for (Entry<SootMethod, LongAdder> entry : edgesPerMethod.entrySet())
+			methods.add(new Pair<>(entry.getKey(), entry.getValue().sum()));
+		Collections.sort(methods, new Comparator<Pair<SootMethod, Long>>() {
+
+			@Override
+			public int compare(Pair<SootMethod, Long> o1, Pair<SootMethod, Long> o2) {
+				return o2.getO2().compareTo(o1.getO2());
+			}
+
+		});
+		return methods.size() > count ? methods.subList(0, count) : methods;
+	}
+
+	/**
+	 * Creates a human-readable report of the collected data including the
+	 * given number of hot methods
+	 *
+	 * @param hotMethodCount
+	 *            The maximum number of hot methods to include in the report
+	 * @return The report as a string
+	 */
+	public String getReport(int hotMethodCount) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Flow functions:");
+		for (FlowFunctionKind kind : FlowFunctionKind.values()) {
+			sb.append(" ");
+			sb.append(kind);
+			sb.append("=");
+			sb.append(getFlowFunctionCount(kind));
+		}
+		sb.append("\n");
+		sb.append(String.format("Taint wrapper: %d calls in %d ms\n", getTaintWrapperCalls(),
+				getTaintWrapperTime() / 1000000));
+		sb.append(String.format("Alias queries: %d, join point neighbors: %d\n", getAliasQueries(),
+				getNeighborAdditions()));
+
+		List<Pair<SootMethod, Long>> hotMethods = getHotMethods(hotMethodCount);
+		if (!hotMethods.isEmpty()) {
+			sb.append("Hot methods:\n");
+			for (Pair<SootMethod, Long> method : hotMethods) {
+				sb.append(String.format("\t%10d  ", method.getO2()));
+				sb.append(method.getO1().getSignature());
+				sb.append("\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Resets all counters. This method must not be called while the solver is
+	 * running.
+	 */
+	public void reset() {
+		edgesPerMethod.clear();
+		for (LongAdder counter : flowFunctions)
+			counter.reset();
+		taintWrapperCalls.reset();
+		taintWrapperTime.reset();
+		aliasQueries.reset();
+		neighborAdditions.reset();
+	}
+
+}
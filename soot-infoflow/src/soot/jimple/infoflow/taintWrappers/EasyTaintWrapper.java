@@ -57,7 +57,7 @@ import soot.jimple.infoflow.util.SystemClassHandler;
  * @author Christian Fritz, Steven Arzt
  *
  */
-public class EasyTaintWrapper extends AbstractTaintWrapper implements Cloneable {
+public class EasyTaintWrapper extends AbstractTaintWrapper implements IFingerprintableTaintWrapper, Cloneable {
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 	private final Map<String, Set<String>> classList;
 	private final Map<String, Set<String>> excludeList;
@@ -596,6 +596,21 @@ public class EasyTaintWrapper extends AbstractTaintWrapper implements Cloneable
 		return false;
 	}
 
+	@Override
+	public String getRuleFingerprint(SootMethod method) {
+		boolean isSupported = includeList == null || includeList.isEmpty();
+		if (!isSupported)
+			for (String supportedClass : this.includeList)
+				if (method.getDeclaringClass().getName().startsWith(supportedClass)) {
+					isSupported = true;
+					break;
+				}
+
+		return methodWrapCache.getUnchecked(method).name() + ";" + isSupported + ";"
+				+ hasWrappedMethodsForClass(method.getDeclaringClass(), true, true, false) + ";" + aggressiveMode
+				+ ";" + alwaysModelEqualsHashCode;
+	}
+
 	@Override
 	public Set<Abstraction> getAliasesForMethod(Stmt stmt, Abstraction d1, Abstraction taintedPath) {
 		// We do not provide any aliases
@@ -0,0 +1,25 @@
+package soot.jimple.infoflow.taintWrappers;
+
+import soot.SootMethod;
+
+/**
+ * Taint wrapper that can describe the rules it applies to a given method.
+ * Results that depend on these rules can then be re-used in later analysis
+ * runs as long as the rules do not change.
+ */
+public interface IFingerprintableTaintWrapper extends ITaintPropagationWrapper {
+
+	/**
+	 * Gets a description of all rules that this taint wrapper applies to calls
+	 * of the given method, including all settings that influence these rules.
+	 * The description must be stable across analysis runs and must change
+	 * whenever the handling of the given method changes.
+	 *
+	 * @param method
+	 *            The method for which to describe the rules
+	 * @return The description of the rules for the given method, or null if the
+	 *         rules cannot be described
+	 */
+	public String getRuleFingerprint(SootMethod method);
+
+}
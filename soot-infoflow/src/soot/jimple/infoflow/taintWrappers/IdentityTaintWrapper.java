@@ -28,7 +28,7 @@ import soot.jimple.infoflow.data.AccessPath;
  * @author Steven Arzt
  *
  */
-public class IdentityTaintWrapper extends AbstractTaintWrapper {
+public class IdentityTaintWrapper extends AbstractTaintWrapper implements IFingerprintableTaintWrapper {
 
 	@Override
 	public Set<AccessPath> getTaintsForMethodInternal(Stmt stmt, AccessPath taintedPath) {
@@ -92,6 +92,12 @@ public class IdentityTaintWrapper extends AbstractTaintWrapper {
 		return true;
 	}
 
+	@Override
+	public String getRuleFingerprint(SootMethod method) {
+		// All methods are treated the same
+		return "identity";
+	}
+
 	@Override
 	public Set<Abstraction> getAliasesForMethod(Stmt stmt, Abstraction d1, Abstraction taintedPath) {
 		// We do not provide any aliases
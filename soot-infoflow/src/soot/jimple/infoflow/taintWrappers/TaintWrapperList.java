@@ -29,7 +29,7 @@ import soot.jimple.infoflow.data.Abstraction;
  * 
  * @author Steven Arzt
  */
-public class TaintWrapperList implements ITaintPropagationWrapper {
+public class TaintWrapperList implements IFingerprintableTaintWrapper {
 
 	private List<ITaintPropagationWrapper> wrappers = new ArrayList<>();
 	private AtomicInteger hits = new AtomicInteger();
@@ -100,6 +100,20 @@ public class TaintWrapperList implements ITaintPropagationWrapper {
 		return misses.get();
 	}
 
+	@Override
+	public String getRuleFingerprint(SootMethod method) {
+		StringBuilder sb = new StringBuilder();
+		for (ITaintPropagationWrapper w : this.wrappers) {
+			if (!(w instanceof IFingerprintableTaintWrapper))
+				return null;
+			String fingerprint = ((IFingerprintableTaintWrapper) w).getRuleFingerprint(method);
+			if (fingerprint == null)
+				return null;
+			sb.append(w.getClass().getName()).append('=').append(fingerprint).append(';');
+		}
+		return sb.toString();
+	}
+
 	@Override
 	public Set<Abstraction> getAliasesForMethod(Stmt stmt, Abstraction d1, Abstraction taintedPath) {
 		for (ITaintPropagationWrapper w : this.wrappers) {
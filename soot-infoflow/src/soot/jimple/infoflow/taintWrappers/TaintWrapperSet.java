@@ -10,7 +10,10 @@
  ******************************************************************************/
 package soot.jimple.infoflow.taintWrappers;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -26,7 +29,7 @@ import soot.jimple.infoflow.data.Abstraction;
  * 
  * @author Steven Arzt
  */
-public class TaintWrapperSet implements ITaintPropagationWrapper {
+public class TaintWrapperSet implements IFingerprintableTaintWrapper {
 
 	private Set<ITaintPropagationWrapper> wrappers = new HashSet<>();
 	private AtomicInteger hits = new AtomicInteger();
@@ -100,6 +103,22 @@ public class TaintWrapperSet implements ITaintPropagationWrapper {
 		return misses.get();
 	}
 
+	@Override
+	public String getRuleFingerprint(SootMethod method) {
+		// The order of the wrappers does not matter
+		List<String> fingerprints = new ArrayList<>(wrappers.size());
+		for (ITaintPropagationWrapper w : this.wrappers) {
+			if (!(w instanceof IFingerprintableTaintWrapper))
+				return null;
+			String fingerprint = ((IFingerprintableTaintWrapper) w).getRuleFingerprint(method);
+			if (fingerprint == null)
+				return null;
+			fingerprints.add(w.getClass().getName() + "=" + fingerprint);
+		}
+		Collections.sort(fingerprints);
+		return fingerprints.toString();
+	}
+
 	@Override
 	public Set<Abstraction> getAliasesForMethod(Stmt stmt, Abstraction d1, Abstraction taintedPath) {
 		Set<Abstraction> resList = new HashSet<Abstraction>();
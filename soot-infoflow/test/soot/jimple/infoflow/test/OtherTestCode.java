@@ -629,6 +629,30 @@ public class OtherTestCode {
 		ConnectionManager cm = new ConnectionManager();
 		cm.publish(imei);
 	}
+
+	public void sinkUnreachableTest() {
+		String imei = TelephonyManager.getDeviceId();
+		ConnectionManager cm = new ConnectionManager();
+		cm.publish(imei);
+		copyWithoutLeak(imei);
+	}
+
+	private String copyWithoutLeak(String data) {
+		String copy = data;
+		return copy;
+	}
+
+	public void sinkAfterReturnTest() {
+		String imei = TelephonyManager.getDeviceId();
+		String copy = passThrough(imei);
+		ConnectionManager cm = new ConnectionManager();
+		cm.publish(copy);
+	}
+
+	private String passThrough(String data) {
+		String copy = data;
+		return copy;
+	}
 	
 	public void skipOverObjectTest1() {
 		String imei = TelephonyManager.getDeviceId();
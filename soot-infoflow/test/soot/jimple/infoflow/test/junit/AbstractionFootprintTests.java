@@ -0,0 +1,193 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.Unit;
+import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.InfoflowConfiguration.ImplicitFlowMode;
+import soot.jimple.infoflow.collect.ConcurrentIdentityHashMap;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager.PathDataErasureMode;
+import soot.jimple.infoflow.solver.memory.IMemoryManager;
+import soot.jimple.infoflow.solver.memory.IMemoryManagerFactory;
+
+/**
+ * Harness that reports the heap footprint of the taint abstractions created
+ * when analyzing some of the test cases. The size of an object is estimated
+ * from its fields, assuming a 64 bit JVM with compressed object pointers.
+ */
+public class AbstractionFootprintTests extends JUnitTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(AbstractionFootprintTests.class);
+
+	private static final int OBJECT_HEADER_SIZE = 12;
+	private static final int REFERENCE_SIZE = 4;
+	private static final int OBJECT_ALIGNMENT = 8;
+
+	/**
+	 * Memory manager factory that records all abstractions that are handed to
+	 * the memory manager
+	 */
+	private static class RecordingMemoryManagerFactory implements IMemoryManagerFactory {
+
+		private final Set<Abstraction> abstractions = Collections
+				.newSetFromMap(new ConcurrentIdentityHashMap<Abstraction, Boolean>());
+
+		@Override
+		public IMemoryManager<Abstraction, Unit> getMemoryManager(boolean tracingEnabled,
+				PathDataErasureMode erasePathData) {
+			final FlowDroidMemoryManager innerManager = new FlowDroidMemoryManager(tracingEnabled, erasePathData);
+			return new IMemoryManager<Abstraction, Unit>() {
+
+				@Override
+				public Abstraction handleMemoryObject(Abstraction obj) {
+					Abstraction abs = innerManager.handleMemoryObject(obj);
+					if (abs != null)
+						abstractions.add(abs);
+					return abs;
+				}
+
+				@Override
+				public Abstraction handleGeneratedMemoryObject(Abstraction input, Abstraction output) {
+					return innerManager.handleGeneratedMemoryObject(input, output);
+				}
+
+				@Override
+				public boolean isEssentialJoinPoint(Abstraction abs, Unit relatedCallSite) {
+					return innerManager.isEssentialJoinPoint(abs, relatedCallSite);
+				}
+
+			};
+		}
+
+	}
+
+	/**
+	 * Estimates the shallow size of the instances of the given class
+	 *
+	 * @param clazz
+	 *            The class for which to estimate the instance size
+	 * @return The estimated size of an instance of the given class in bytes
+	 */
+	private static long estimateShallowSize(Class<?> clazz) {
+		long size = OBJECT_HEADER_SIZE;
+		for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+			for (Field f : c.getDeclaredFields()) {
+				if (Modifier.isStatic(f.getModifiers()))
+					continue;
+				Class<?> type = f.getType();
+				if (type == long.class || type == double.class)
+					size += 8;
+				else if (type == int.class || type == float.class)
+					size += 4;
+				else if (type == short.class || type == char.class)
+					size += 2;
+				else if (type == byte.class || type == boolean.class)
+					size += 1;
+				else
+					size += REFERENCE_SIZE;
+			}
+		}
+		return (size + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT;
+	}
+
+	/**
+	 * Checks whether the given side data object holds any data
+	 *
+	 * @param sideData
+	 *            The side data object to check
+	 * @return True if at least one field of the side data object is set,
+	 *         otherwise false
+	 */
+	private static boolean holdsData(Object sideData) throws IllegalAccessException {
+		for (Field f : sideData.getClass().getDeclaredFields()) {
+			if (Modifier.isStatic(f.getModifiers()))
+				continue;
+			f.setAccessible(true);
+			if (f.get(sideData) != null)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Runs the data flow analysis on the given entry point and checks the
+	 * footprint of the abstractions
+	 *
+	 * @param infoflow
+	 *            The data flow analysis to run
+	 * @param entryPoint
+	 *            The entry point to analyze
+	 * @param maxSideDataRatio
+	 *            The maximum share of abstractions that may carry side data
+	 */
+	private void measureFootprint(IInfoflow infoflow, String entryPoint, double maxSideDataRatio)
+			throws ReflectiveOperationException {
+		RecordingMemoryManagerFactory factory = new RecordingMemoryManagerFactory();
+		((Infoflow) infoflow).setMemoryManagerFactory(factory);
+
+		List<String> epoints = new ArrayList<String>();
+		epoints.add(entryPoint);
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+
+		final long absSize = estimateShallowSize(Abstraction.class);
+		final long sideDataSize = estimateShallowSize(
+				Class.forName(Abstraction.class.getName() + "$SideData"));
+		final Field sideDataField = Abstraction.class.getDeclaredField("sideData");
+		sideDataField.setAccessible(true);
+		int count = 0;
+		int withSideData = 0;
+		for (Abstraction abs : factory.abstractions) {
+			count++;
+			if (abs.hasSideData()) {
+				withSideData++;
+
+				// Side data that no longer holds anything must be released
+				Assert.assertTrue(holdsData(sideDataField.get(abs)));
+			}
+		}
+		Assert.assertTrue(count > 0);
+
+		double bytesPerAbs = (double) (count * absSize + withSideData * sideDataSize) / count;
+		logger.info(String.format("%s: %d abstractions, %d with side data, %.1f bytes per abstraction", entryPoint,
+				count, withSideData, bytesPerAbs));
+		Assert.assertTrue(bytesPerAbs <= absSize + maxSideDataRatio * sideDataSize);
+	}
+
+	@Test(timeout = 300000)
+	public void heapFootprintTest() throws ReflectiveOperationException {
+		IInfoflow infoflow = initInfoflow();
+		measureFootprint(infoflow, "<soot.jimple.infoflow.test.HeapTestCode: void multiAliasTest()>", 0.5);
+		checkInfoflow(infoflow, 1);
+	}
+
+	@Test(timeout = 300000)
+	public void listFootprintTest() throws ReflectiveOperationException {
+		IInfoflow infoflow = initInfoflow();
+		measureFootprint(infoflow, "<soot.jimple.infoflow.test.ListTestCode: void writeReadTest()>", 0.5);
+		checkInfoflow(infoflow, 1);
+	}
+
+	@Test(timeout = 300000)
+	public void implicitFlowFootprintTest() throws ReflectiveOperationException {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setImplicitFlowMode(ImplicitFlowMode.AllImplicitFlows);
+		infoflow.getConfig().setInspectSinks(false);
+		// Conditional abstractions carry their postdominators
+		measureFootprint(infoflow, "<soot.jimple.infoflow.test.ImplicitFlowTestCode: void simpleTest()>", 1.0);
+		checkInfoflow(infoflow, 1);
+	}
+
+}
@@ -0,0 +1,136 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.G;
+import soot.Local;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.Type;
+import soot.jimple.Jimple;
+import soot.jimple.infoflow.InfoflowConfiguration;
+import soot.jimple.infoflow.data.AccessPath;
+import soot.jimple.infoflow.data.AccessPathFactory;
+
+/**
+ * Tests for the hash-consing mode of the access path factory
+ */
+public class AccessPathInterningTests {
+
+	private RefType nodeType;
+	private SootField next;
+	private SootField data;
+	private SootField[] fields;
+	private Local a;
+	private Local b;
+
+	@Before
+	public void setUp() {
+		G.reset();
+
+		// All fields have the type of their declaring class, so that no type
+		// needs to be refined
+		SootClass node = new SootClass("Node");
+		Scene.v().addClass(node);
+		nodeType = node.getType();
+		next = new SootField("next", nodeType);
+		data = new SootField("data", nodeType);
+		node.addField(next);
+		node.addField(data);
+		fields = new SootField[4];
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = new SootField("f" + i, nodeType);
+			node.addField(fields[i]);
+		}
+
+		a = Jimple.v().newLocal("a", nodeType);
+		b = Jimple.v().newLocal("b", nodeType);
+	}
+
+	private AccessPathFactory createFactory(boolean hashCons) {
+		InfoflowConfiguration config = new InfoflowConfiguration();
+		config.setHashConsAccessPaths(hashCons);
+		config.setUseRecursiveAccessPaths(false);
+		return new AccessPathFactory(config);
+	}
+
+	@Test
+	public void equalAccessPathsAreIdenticalTest() {
+		AccessPathFactory factory = createFactory(true);
+		AccessPath ap = factory.createAccessPath(a, new SootField[] { next, data }, true);
+		Assert.assertTrue(ap.isInterned());
+		Assert.assertSame(ap, factory.createAccessPath(a, new SootField[] { next, data }, true));
+
+		// Appending fields extends the interned chain
+		AccessPath prefix = factory.createAccessPath(a, new SootField[] { next }, true);
+		Assert.assertNotSame(ap, prefix);
+		Assert.assertSame(ap, factory.appendFields(prefix, new SootField[] { data }, new Type[] { nodeType }, true));
+		Assert.assertSame(prefix, ap.dropLastField());
+
+		// Exchanging the base and changing it back yields the original object
+		AccessPath other = factory.copyWithNewValue(ap, b);
+		Assert.assertNotEquals(ap, other);
+		Assert.assertSame(other, factory.createAccessPath(b, new SootField[] { next, data }, true));
+		Assert.assertSame(ap, factory.copyWithNewValue(other, a));
+
+		// Access paths that are cut off at the maximum length are interned as
+		// well
+		SootField[] longFields = new SootField[] { next, data, fields[0], fields[1], fields[2], fields[3] };
+		AccessPath cutOff = factory.createAccessPath(a, longFields, false);
+		Assert.assertTrue(cutOff.isCutOffApproximation());
+		Assert.assertSame(cutOff, factory.createAccessPath(a, longFields, false));
+		Assert.assertSame(cutOff, factory.appendFields(ap, fields, new Type[] { nodeType, nodeType, nodeType,
+				nodeType }, false));
+	}
+
+	@Test
+	public void plainAccessPathsAreOnlyEqualTest() {
+		AccessPathFactory factory = createFactory(false);
+		AccessPath ap = factory.createAccessPath(a, new SootField[] { next, data }, true);
+		AccessPath ap2 = factory.createAccessPath(a, new SootField[] { next, data }, true);
+		Assert.assertFalse(ap.isInterned());
+		Assert.assertEquals(ap, ap2);
+		Assert.assertNotSame(ap, ap2);
+
+		// Access paths from both modes are still equal
+		AccessPath interned = createFactory(true).createAccessPath(a, new SootField[] { next, data }, true);
+		Assert.assertEquals(ap, interned);
+		Assert.assertEquals(ap.hashCode(), interned.hashCode());
+	}
+
+	@Test(timeout = 60000)
+	public void unusedAccessPathsAreReleasedTest() {
+		AccessPathFactory factory = createFactory(true);
+		List<WeakReference<AccessPath>> probes = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Local local = Jimple.v().newLocal("l" + i, nodeType);
+			probes.add(new WeakReference<>(factory.createAccessPath(local, new SootField[] { next }, true)));
+		}
+
+		// The factory must not keep access paths alive that nobody uses
+		boolean cleared = false;
+		while (!cleared) {
+			System.gc();
+			cleared = true;
+			for (WeakReference<AccessPath> probe : probes)
+				if (probe.get() != null) {
+					cleared = false;
+					break;
+				}
+		}
+
+		// Access paths that are still in use remain unique
+		AccessPath ap = factory.createAccessPath(a, new SootField[] { next }, true);
+		System.gc();
+		Assert.assertSame(ap, factory.createAccessPath(a, new SootField[] { next }, true));
+	}
+
+}
@@ -0,0 +1,475 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.infoflow.collect.ConcurrentAppendOnlyMap;
+import soot.jimple.infoflow.collect.ConcurrentAppendOnlySet;
+import soot.jimple.infoflow.collect.ConcurrentContextIndex;
+import soot.jimple.infoflow.collect.MyConcurrentHashMap.IValueFactory;
+
+/**
+ * Tests for the lock-free append-only collections
+ */
+public class ConcurrentCollectionsTests {
+
+	private static final int THREADS = 8;
+
+	/**
+	 * Key with a hash code that can be chosen freely
+	 */
+	private static class Key {
+
+		private final int id;
+		private final int hash;
+
+		public Key(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).id == id;
+		}
+
+		@Override
+		public String toString() {
+			return id + "#" + hash;
+		}
+
+	}
+
+	/**
+	 * Value factory that creates a new object on every call
+	 */
+	private static class ObjectFactory implements IValueFactory<Object> {
+
+		private final AtomicInteger created = new AtomicInteger();
+
+		@Override
+		public Object createValue() {
+			created.incrementAndGet();
+			return new Object();
+		}
+
+	}
+
+	/**
+	 * Task that is run on several threads at the same time
+	 */
+	private interface ConcurrentTask {
+
+		public void run(int thread) throws Exception;
+
+	}
+
+	/**
+	 * Runs the given task on several threads that all start at the same time
+	 * and rethrows the first failure
+	 *
+	 * @param task
+	 *            The task to run
+	 */
+	private static void runConcurrently(final ConcurrentTask task) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			final int thread = i;
+			Thread t = new Thread() {
+
+				@Override
+				public void run() {
+					try {
+						start.await();
+						task.run(thread);
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+
+			};
+			t.start();
+			threads.add(t);
+		}
+		start.countDown();
+		for (Thread t : threads)
+			t.join();
+		if (failure.get() != null)
+			throw new AssertionError(failure.get());
+	}
+
+	/**
+	 * Mirrors the hash spreading of the map, so that we can construct keys
+	 * that end up in the same slots
+	 */
+	private static int spread(int h) {
+		h ^= (h >>> 16);
+		h *= 0x85EBCA6B;
+		return h ^ (h >>> 13);
+	}
+
+	/**
+	 * Finds hash codes that share the given number of low bits with the given
+	 * hash code after spreading, i.e., that compete with it for the same slots on
+	 * the first levels of the trie
+	 */
+	private static List<Integer> findCollidingHashes(int base, int count, int bits) {
+		List<Integer> hashes = new ArrayList<>();
+		int mask = (1 << bits) - 1;
+		int target = spread(base) & mask;
+		for (int h = base + 1; hashes.size() < count; h++)
+			if ((spread(h) & mask) == target)
+				hashes.add(h);
+		return hashes;
+	}
+
+	private static <K, V> Map<K, V> toHashMap(ConcurrentAppendOnlyMap<K, V> map) {
+		Map<K, V> copy = new HashMap<>();
+		for (Entry<K, V> entry : map.entrySet())
+			Assert.assertNull("Duplicate entry " + entry, copy.put(entry.getKey(), entry.getValue()));
+		return copy;
+	}
+
+	@Test
+	public void mapBasicsTest() {
+		ConcurrentAppendOnlyMap<String, Integer> map = new ConcurrentAppendOnlyMap<>();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertNull(map.get("a"));
+		Assert.assertNull(map.get(null));
+
+		Assert.assertNull(map.put("a", 1));
+		Assert.assertNull(map.putIfAbsent("b", 2));
+		Assert.assertEquals(Integer.valueOf(2), map.putIfAbsent("b", 3));
+		Assert.assertEquals(Integer.valueOf(2), map.get("b"));
+		Assert.assertEquals(Integer.valueOf(1), map.put("a", 4));
+		Assert.assertEquals(Integer.valueOf(4), map.get("a"));
+		Assert.assertTrue(map.containsKey("a"));
+		Assert.assertFalse(map.containsKey("c"));
+		Assert.assertFalse(map.isEmpty());
+		Assert.assertEquals(2, map.size());
+
+		Map<String, Integer> expected = new HashMap<>();
+		expected.put("a", 4);
+		expected.put("b", 2);
+		Assert.assertEquals(expected, toHashMap(map));
+		Assert.assertEquals(expected, map);
+
+		map.clear();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertEquals(0, map.size());
+		Assert.assertNull(map.get("a"));
+	}
+
+	@Test
+	public void mapRejectsNullsAndRemovalTest() {
+		ConcurrentAppendOnlyMap<String, Integer> map = new ConcurrentAppendOnlyMap<>();
+		map.put("a", 1);
+		try {
+			map.put(null, 1);
+			Assert.fail("Null keys must be rejected");
+		} catch (NullPointerException e) {
+			// expected
+		}
+		try {
+			map.put("b", null);
+			Assert.fail("Null values must be rejected");
+		} catch (NullPointerException e) {
+			// expected
+		}
+		try {
+			map.remove("a");
+			Assert.fail("Entries must not be removable");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			Iterator<Entry<String, Integer>> it = map.entrySet().iterator();
+			it.next();
+			it.remove();
+			Assert.fail("Entries must not be removable through the iterator");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		Assert.assertEquals(Integer.valueOf(1), map.get("a"));
+	}
+
+	@Test
+	public void pushDownCollisionTest() {
+		// All keys compete for the same slots on the first three levels, so
+		// every insertion pushes existing entries further down
+		List<Integer> hashes = findCollidingHashes(0, 64, 12);
+		ConcurrentAppendOnlyMap<Key, Integer> map = new ConcurrentAppendOnlyMap<>();
+		for (int i = 0; i < hashes.size(); i++) {
+			Assert.assertNull(map.putIfAbsent(new Key(i, hashes.get(i)), i));
+
+			// Earlier entries must survive the push-down
+			for (int j = 0; j <= i; j++)
+				Assert.assertEquals(Integer.valueOf(j), map.get(new Key(j, hashes.get(j))));
+		}
+		Assert.assertEquals(hashes.size(), map.size());
+		Assert.assertEquals(hashes.size(), toHashMap(map).size());
+		Assert.assertNull(map.get(new Key(hashes.size(), hashes.get(0))));
+	}
+
+	@Test
+	public void sameHashChainTest() {
+		ConcurrentAppendOnlyMap<Key, Integer> map = new ConcurrentAppendOnlyMap<>();
+		for (int i = 0; i < 100; i++)
+			Assert.assertNull(map.putIfAbsent(new Key(i, 42), i));
+
+		// A key with a different hash code in the same slot splits the chain
+		// off into a deeper level
+		int otherHash = findCollidingHashes(42, 1, 8).get(0);
+		map.put(new Key(1000, otherHash), 1000);
+
+		for (int i = 0; i < 100; i++) {
+			Assert.assertEquals(Integer.valueOf(i), map.get(new Key(i, 42)));
+			Assert.assertEquals(Integer.valueOf(i), map.putIfAbsent(new Key(i, 42), -1));
+		}
+		Assert.assertNull(map.get(new Key(100, 42)));
+		Assert.assertEquals(Integer.valueOf(1000), map.get(new Key(1000, otherHash)));
+		Assert.assertEquals(101, map.size());
+		Assert.assertEquals(101, toHashMap(map).size());
+	}
+
+	@Test(timeout = 60000)
+	public void concurrentInsertionTest() throws InterruptedException {
+		final int keysPerThread = 10000;
+		final ConcurrentAppendOnlyMap<Key, Integer> map = new ConcurrentAppendOnlyMap<>();
+		final AtomicInteger[] winners = new AtomicInteger[keysPerThread];
+		for (int i = 0; i < winners.length; i++)
+			winners[i] = new AtomicInteger();
+
+		runConcurrently(new ConcurrentTask() {
+
+			@Override
+			public void run(int thread) {
+				for (int i = 0; i < keysPerThread; i++) {
+					// Keys that are private to this thread. Many of them have
+					// the same hash code.
+					Key own = new Key(keysPerThread * (thread + 1) + i, i % 1000);
+					Assert.assertNull(map.putIfAbsent(own, thread));
+
+					// Keys that all threads compete for
+					Key shared = new Key(i, i % 1000);
+					Integer old = map.putIfAbsent(shared, thread);
+					if (old == null)
+						winners[i].incrementAndGet();
+					else
+						Assert.assertEquals(old, map.get(shared));
+				}
+			}
+
+		});
+
+		// Every shared key has exactly one winner
+		for (AtomicInteger winner : winners)
+			Assert.assertEquals(1, winner.get());
+		Map<Key, Integer> copy = toHashMap(map);
+		Assert.assertEquals(keysPerThread * (THREADS + 1), copy.size());
+		for (int thread = 0; thread < THREADS; thread++)
+			for (int i = 0; i < keysPerThread; i++)
+				Assert.assertEquals(Integer.valueOf(thread),
+						copy.get(new Key(keysPerThread * (thread + 1) + i, i % 1000)));
+	}
+
+	@Test(timeout = 60000)
+	public void iterationDuringInsertionTest() throws InterruptedException {
+		final int existing = 5000;
+		final int added = 20000;
+		final ConcurrentAppendOnlyMap<Key, Integer> map = new ConcurrentAppendOnlyMap<>();
+		for (int i = 0; i < existing; i++)
+			map.put(new Key(i, i % 500), i);
+
+		final AtomicInteger writersDone = new AtomicInteger();
+		runConcurrently(new ConcurrentTask() {
+
+			@Override
+			public void run(int thread) {
+				if (thread % 2 == 0) {
+					// Writers
+					for (int i = thread / 2; i < added; i += THREADS / 2)
+						map.putIfAbsent(new Key(existing + i, i % 500), existing + i);
+					writersDone.incrementAndGet();
+				} else {
+					// Readers must see all entries that were there before they
+					// started, and no entry twice
+					do {
+						Set<Key> seen = new HashSet<>();
+						for (Entry<Key, Integer> entry : map.entrySet()) {
+							Assert.assertTrue("Duplicate entry " + entry, seen.add(entry.getKey()));
+							Assert.assertTrue(entry.getValue() < existing + added);
+						}
+						for (int i = 0; i < existing; i++)
+							Assert.assertTrue(seen.contains(new Key(i, i % 500)));
+					} while (writersDone.get() < THREADS / 2);
+				}
+			}
+
+		});
+		Assert.assertEquals(existing + added, map.size());
+	}
+
+	@Test(timeout = 60000)
+	public void putIfAbsentElseGetRaceTest() throws InterruptedException {
+		final int keys = 5000;
+		final ConcurrentAppendOnlyMap<Key, Object> map = new ConcurrentAppendOnlyMap<>();
+		final ObjectFactory factory = new ObjectFactory();
+		final Object[][] results = new Object[THREADS][keys];
+
+		runConcurrently(new ConcurrentTask() {
+
+			@Override
+			public void run(int thread) {
+				for (int i = 0; i < keys; i++)
+					results[thread][i] = map.putIfAbsentElseGet(new Key(i, i % 50), factory);
+			}
+
+		});
+
+		// All threads must get the same value, even if several of them created
+		// one
+		for (int i = 0; i < keys; i++) {
+			Object value = map.get(new Key(i, i % 50));
+			Assert.assertNotNull(value);
+			for (int thread = 0; thread < THREADS; thread++)
+				Assert.assertSame(value, results[thread][i]);
+		}
+		Assert.assertTrue(factory.created.get() >= keys);
+		Assert.assertEquals(keys, map.size());
+	}
+
+	@Test
+	public void setBasicsTest() {
+		ConcurrentAppendOnlySet<Key> set = new ConcurrentAppendOnlySet<>();
+		Assert.assertTrue(set.isEmpty());
+		for (int i = 0; i < 1000; i++)
+			Assert.assertTrue(set.add(new Key(i, i % 10)));
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertFalse(set.add(new Key(i, i % 10)));
+			Assert.assertTrue(set.contains(new Key(i, i % 10)));
+		}
+		Assert.assertFalse(set.contains(new Key(1000, 0)));
+		Assert.assertFalse(set.contains(null));
+		Assert.assertEquals(1000, set.size());
+
+		Set<Key> copy = new HashSet<>();
+		for (Key key : set)
+			Assert.assertTrue(copy.add(key));
+		Assert.assertEquals(1000, copy.size());
+		Assert.assertEquals(copy, set);
+
+		set.clear();
+		Assert.assertTrue(set.isEmpty());
+	}
+
+	@Test(timeout = 60000)
+	public void setConcurrentAddTest() throws InterruptedException {
+		final int elements = 20000;
+		final ConcurrentAppendOnlySet<Key> set = new ConcurrentAppendOnlySet<>();
+		final AtomicInteger added = new AtomicInteger();
+
+		runConcurrently(new ConcurrentTask() {
+
+			@Override
+			public void run(int thread) {
+				for (int i = 0; i < elements; i++)
+					if (set.add(new Key(i, i % 100)))
+						added.incrementAndGet();
+			}
+
+		});
+
+		// Every element is reported as new exactly once
+		Assert.assertEquals(elements, added.get());
+		Assert.assertEquals(elements, set.size());
+	}
+
+	@Test
+	public void contextIndexBasicsTest() {
+		ObjectFactory factory = new ObjectFactory();
+		ConcurrentContextIndex<String, Key, Object> index = new ConcurrentContextIndex<>(factory);
+		Assert.assertNull(index.get("m", new Key(1, 1)));
+		Assert.assertNull(index.getContexts("m"));
+
+		Object value = index.getOrCreate("m", new Key(1, 1));
+		Assert.assertSame(value, index.getOrCreate("m", new Key(1, 1)));
+		Assert.assertSame(value, index.get("m", new Key(1, 1)));
+		Assert.assertNotSame(value, index.getOrCreate("m", new Key(2, 1)));
+		Assert.assertNotSame(value, index.getOrCreate("n", new Key(1, 1)));
+		Assert.assertEquals(3, factory.created.get());
+
+		Set<String> methods = new HashSet<>();
+		methods.add("m");
+		methods.add("n");
+		Assert.assertEquals(methods, index.getMethods());
+		Assert.assertEquals(2, index.getContexts("m").size());
+		Assert.assertSame(value, index.getContexts("m").get(new Key(1, 1)));
+
+		// Resetting replaces the value, but keeps the context
+		Assert.assertSame(value, index.reset("m", new Key(1, 1)));
+		Object newValue = index.get("m", new Key(1, 1));
+		Assert.assertNotNull(newValue);
+		Assert.assertNotSame(value, newValue);
+		Assert.assertNull(index.reset("m", new Key(3, 1)));
+		Assert.assertNull(index.reset("o", new Key(1, 1)));
+		Assert.assertNull(index.get("m", new Key(3, 1)));
+
+		index.clear();
+		Assert.assertNull(index.get("m", new Key(1, 1)));
+		Assert.assertTrue(index.getMethods().isEmpty());
+	}
+
+	@Test(timeout = 60000)
+	public void contextIndexConcurrentCreationTest() throws InterruptedException {
+		final int methods = 50;
+		final int contexts = 200;
+		final ConcurrentContextIndex<Integer, Key, Object> index = new ConcurrentContextIndex<>(new ObjectFactory());
+		final Object[][][] results = new Object[THREADS][methods][contexts];
+
+		runConcurrently(new ConcurrentTask() {
+
+			@Override
+			public void run(int thread) {
+				// Start at different methods so that the threads create the
+				// per-method maps concurrently
+				for (int m = 0; m < methods; m++) {
+					int method = (m + thread) % methods;
+					for (int c = 0; c < contexts; c++)
+						results[thread][method][c] = index.getOrCreate(method, new Key(c, c % 20));
+				}
+			}
+
+		});
+
+		Assert.assertEquals(methods, index.getMethods().size());
+		for (int m = 0; m < methods; m++) {
+			Assert.assertEquals(contexts, index.getContexts(m).size());
+			for (int c = 0; c < contexts; c++) {
+				Object value = index.get(m, new Key(c, c % 20));
+				for (int thread = 0; thread < THREADS; thread++)
+					Assert.assertSame(value, results[thread][m][c]);
+			}
+		}
+	}
+
+}
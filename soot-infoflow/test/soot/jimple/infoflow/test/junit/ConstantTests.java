@@ -11,12 +11,18 @@
 package soot.jimple.infoflow.test.junit;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import soot.Scene;
+import soot.SootMethod;
 import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.InfoflowConfiguration.CodeEliminationMode;
 
 /**
  * ensure proper taint propagation for constant values.
@@ -158,6 +164,26 @@ public class ConstantTests extends JUnitTests {
 		checkInfoflow(infoflow, 1);
 	}
 
+	@Test(timeout = 300000)
+	public void constantExceptionRemoveSideEffectFreeTest1() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setCodeEliminationMode(CodeEliminationMode.RemoveSideEffectFreeCode);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ConstantTestCode: void constantExceptionTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+	}
+
+	@Test(timeout = 300000)
+	public void constRecursiveRemoveSideEffectFreeTest1() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setCodeEliminationMode(CodeEliminationMode.RemoveSideEffectFreeCode);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ConstantTestCode: void constRecursiveTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		negativeCheckInfoflow(infoflow);
+	}
+
 	@Ignore		// dead code elimination is not propagated to callgraph
 	@Test(timeout = 300000)
 	public void allocSiteTest1() {
@@ -186,4 +212,46 @@ public class ConstantTests extends JUnitTests {
 		negativeCheckInfoflow(infoflow);
 	}
 
+	/**
+	 * Runs the data flow analysis with constant propagation on all test methods
+	 * and returns the resulting method bodies
+	 * 
+	 * @param maxThreadNum
+	 *            The number of threads for the interprocedural constant
+	 *            propagation
+	 * @param mode
+	 *            The code elimination mode
+	 * @return The Jimple code of all methods in the test class
+	 */
+	private Map<String, String> getOptimizedBodies(int maxThreadNum, CodeEliminationMode mode) {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setMaxThreadNum(maxThreadNum);
+		infoflow.getConfig().setCodeEliminationMode(mode);
+		List<String> epoints = new ArrayList<String>();
+		for (String test : new String[] { "easyConstantFieldTest", "easyConstantVarTest", "fpConstIntraproceduralTest1",
+				"fpConstInterproceduralTest1", "fpConstInterproceduralTest2", "fpConstInterproceduralTest3",
+				"fpConstInterproceduralTest4", "fpConstInterproceduralTest5", "fpConstInterproceduralTest6",
+				"constRecursiveTest1", "constantExceptionTest1", "multiLevelConstTest1", "multiLevelReturnTest1" })
+			epoints.add("<soot.jimple.infoflow.test.ConstantTestCode: void " + test + "()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+
+		Map<String, String> bodies = new HashMap<>();
+		for (SootMethod sm : Scene.v().getSootClass("soot.jimple.infoflow.test.ConstantTestCode").getMethods())
+			if (sm.hasActiveBody())
+				bodies.put(sm.getSignature(), sm.getActiveBody().toString());
+		return bodies;
+	}
+
+	@Test(timeout = 300000)
+	public void parallelConstantPropagationTest() {
+		// A single thread processes the worklist one method after the other
+		for (CodeEliminationMode mode : new CodeEliminationMode[] { CodeEliminationMode.PropagateConstants,
+				CodeEliminationMode.RemoveSideEffectFreeCode }) {
+			Map<String, String> sequential = getOptimizedBodies(1, mode);
+			Map<String, String> parallel = getOptimizedBodies(4, mode);
+			Assert.assertFalse(sequential.isEmpty());
+			Assert.assertEquals(sequential, parallel);
+		}
+	}
+
 }
@@ -0,0 +1,70 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.solver.fastSolver.IFDSSolver;
+
+/**
+ * Tests for processing the edges with the same target statement in batches
+ */
+public class EdgeBatchingTests extends JUnitTests {
+
+	@Test(timeout = 300000)
+	public void edgeBatchingContextSensitivityTest1() {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setEdgeBatchSize(16);
+
+		// With a single thread, the edges that a task creates for the same
+		// successor always end up in the same batch
+		infoflow.getConfig().setMaxThreadNum(1);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+
+		IFDSSolver<?, ?, ?> solver = (IFDSSolver<?, ?, ?>) infoflow.getForwardSolver();
+		Assert.assertTrue(solver.getEdgeBatchCount() > 0);
+		Assert.assertTrue(solver.getEdgeBatchCount() < solver.getPropagationCount());
+	}
+
+	@Test(timeout = 300000)
+	public void edgeBatchingListTest() {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setEdgeBatchSize(16);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ListTestCode: void concreteWriteReadPos1Test()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(((IFDSSolver<?, ?, ?>) infoflow.getForwardSolver()).getEdgeBatchCount() > 0);
+	}
+
+	@Test(timeout = 300000)
+	public void edgeBatchingNegativeTest() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setEdgeBatchSize(16);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void negativeTest()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		negativeCheckInfoflow(infoflow);
+	}
+
+	@Test(timeout = 300000)
+	public void noEdgeBatchingTest() {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+
+		// By default, every edge gets its own task
+		Assert.assertEquals(0, ((IFDSSolver<?, ?, ?>) infoflow.getForwardSolver()).getEdgeBatchCount());
+	}
+
+}
@@ -0,0 +1,118 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.InfoflowConfiguration.AliasingAlgorithm;
+import soot.jimple.infoflow.config.ConfigForTest;
+import soot.jimple.infoflow.problems.InfoflowProblem;
+import soot.jimple.infoflow.solver.endSummaries.EndSummaryCache;
+
+/**
+ * Tests for persisting the end summaries of the solver across runs
+ */
+public class EndSummaryCacheTests extends JUnitTests {
+
+	/**
+	 * Data flow analysis that persists end summaries in the given file and keeps
+	 * a reference to the end summary cache
+	 */
+	private static class CachingInfoflow extends Infoflow {
+
+		private EndSummaryCache endSummaryCache;
+
+		public CachingInfoflow(File cacheFile) {
+			super("", false, null);
+			setSootConfig(new ConfigForTest());
+			getConfig().getSolverConfiguration().setEndSummaryCacheFile(cacheFile.getAbsolutePath());
+
+			// Alias queries make summaries depend on the calling context, which
+			// keeps them out of the cache
+			getConfig().setAliasingAlgorithm(AliasingAlgorithm.None);
+		}
+
+		@Override
+		protected EndSummaryCache createEndSummaryCache(InfoflowProblem forwardProblem) {
+			endSummaryCache = super.createEndSummaryCache(forwardProblem);
+			return endSummaryCache;
+		}
+
+	}
+
+	@Test(timeout = 300000)
+	public void endSummaryCacheListTest() throws IOException {
+		File cacheFile = File.createTempFile("summaries", ".bin");
+		cacheFile.delete();
+		try {
+			List<String> epoints = new ArrayList<String>();
+			epoints.add("<soot.jimple.infoflow.test.ListTestCode: void concreteWriteReadPos1Test()>");
+
+			// The first run populates the cache
+			CachingInfoflow first = new CachingInfoflow(cacheFile);
+			first.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+			checkInfoflow(first, 1);
+			Assert.assertEquals(0, first.endSummaryCache.getHits());
+			Assert.assertTrue(first.endSummaryCache.getStoredCount() > 0);
+
+			// The second run uses it and finds the same leak
+			CachingInfoflow second = new CachingInfoflow(cacheFile);
+			second.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+			checkInfoflow(second, 1);
+			Assert.assertTrue(second.endSummaryCache.getHits() > 0);
+			Assert.assertEquals(first.getResults().size(), second.getResults().size());
+		} finally {
+			cacheFile.delete();
+		}
+	}
+
+	@Test(timeout = 300000)
+	public void endSummaryCacheConfigChangeTest() throws IOException {
+		File cacheFile = File.createTempFile("summaries", ".bin");
+		cacheFile.delete();
+		try {
+			List<String> epoints = new ArrayList<String>();
+			epoints.add("<soot.jimple.infoflow.test.ListTestCode: void concreteWriteReadPos1Test()>");
+
+			CachingInfoflow first = new CachingInfoflow(cacheFile);
+			first.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+			Assert.assertTrue(first.endSummaryCache.getStoredCount() > 0);
+
+			// Summaries computed with a different configuration must not be
+			// re-used
+			CachingInfoflow second = new CachingInfoflow(cacheFile);
+			second.getConfig().setAccessPathLength(first.getConfig().getAccessPathLength() + 1);
+			second.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+			checkInfoflow(second, 1);
+			Assert.assertEquals(0, second.endSummaryCache.getHits());
+		} finally {
+			cacheFile.delete();
+		}
+	}
+
+	@Test(timeout = 300000)
+	public void endSummaryCacheNegativeTest() throws IOException {
+		File cacheFile = File.createTempFile("summaries", ".bin");
+		cacheFile.delete();
+		try {
+			List<String> epoints = new ArrayList<String>();
+			epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void negativeTest()>");
+
+			for (int i = 0; i < 2; i++) {
+				IInfoflow infoflow = initInfoflow();
+				infoflow.getConfig().getSolverConfiguration().setEndSummaryCacheFile(cacheFile.getAbsolutePath());
+				infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+				negativeCheckInfoflow(infoflow);
+			}
+		} finally {
+			cacheFile.delete();
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.InfoflowConfiguration.AliasingAlgorithm;
+import soot.jimple.infoflow.InfoflowConfiguration.DataFlowSolver;
+import soot.jimple.infoflow.InfoflowConfiguration.JumpFunctionStorage;
+import soot.jimple.infoflow.problems.InfoflowProblem;
+import soot.jimple.infoflow.solver.IInfoflowSolver;
+import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
+import soot.jimple.infoflow.solver.gcSolver.InfoflowSolver;
+
+/**
+ * Tests for the solver that removes the jump functions of inactive calling
+ * contexts
+ */
+public class GarbageCollectingSolverTests extends JUnitTests {
+
+	/**
+	 * Data flow analysis that runs the garbage-collecting solver with a fixed
+	 * collection interval
+	 */
+	private static class GarbageCollectingInfoflow extends RecordingInfoflow {
+
+		private final int gcInterval;
+
+		public GarbageCollectingInfoflow(int gcInterval) {
+			this.gcInterval = gcInterval;
+			getConfig().getSolverConfiguration().setDataFlowSolver(DataFlowSolver.GarbageCollecting);
+
+			// Without an alias analysis, the incoming edges of collected
+			// contexts are dropped as well. With a single thread, the last
+			// task always finds all contexts inactive.
+			getConfig().setAliasingAlgorithm(AliasingAlgorithm.None);
+			getConfig().setMaxThreadNum(1);
+		}
+
+		@Override
+		protected IInfoflowSolver createForwardSolver(InterruptableExecutor executor, InfoflowProblem forwardProblem) {
+			IInfoflowSolver solver = super.createForwardSolver(executor, forwardProblem);
+			((InfoflowSolver) solver).setGarbageCollectionInterval(gcInterval);
+			return solver;
+		}
+
+		@Override
+		public InfoflowSolver getForwardSolver() {
+			return (InfoflowSolver) super.getForwardSolver();
+		}
+
+	}
+
+	@Test(timeout = 300000)
+	public void garbageCollectingContextSensitivityTest1() {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setDataFlowSolver(DataFlowSolver.GarbageCollecting);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+		Assert.assertTrue(infoflow.getForwardSolver() instanceof InfoflowSolver);
+	}
+
+	@Test(timeout = 300000)
+	public void garbageCollectingNegativeTest() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setDataFlowSolver(DataFlowSolver.GarbageCollecting);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void negativeTest()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		negativeCheckInfoflow(infoflow);
+	}
+
+	@Test(timeout = 300000)
+	public void garbageCollectingEvictionTest() {
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+
+		GarbageCollectingInfoflow retaining = new GarbageCollectingInfoflow(Integer.MAX_VALUE);
+		retaining.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		GarbageCollectingInfoflow collecting = new GarbageCollectingInfoflow(1);
+		collecting.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+
+		// Collecting garbage must not change the results
+		checkInfoflow(retaining, 1);
+		checkInfoflow(collecting, 1);
+		Assert.assertTrue(collecting.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(collecting.getResults().isPathBetweenMethods(sink, sourcePwd));
+		Assert.assertEquals(retaining.getResults().size(), collecting.getResults().size());
+
+		Assert.assertEquals(0, retaining.getForwardSolver().getEvictedContexts());
+		Assert.assertTrue(collecting.getForwardSolver().getEvictedContexts() > 0);
+		Assert.assertTrue(collecting.getForwardSolver().getEvictedJumpFunctions() > 0);
+
+		// The reference counters of collected contexts are removed
+		Assert.assertTrue(retaining.getForwardSolver().getTrackedContextCount() > 0);
+		Assert.assertTrue(collecting.getForwardSolver().getTrackedContextCount() < retaining.getForwardSolver()
+				.getTrackedContextCount());
+	}
+
+	@Test(timeout = 300000)
+	public void garbageCollectingRejectsPrimitiveJumpFunctionsTest() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setDataFlowSolver(DataFlowSolver.GarbageCollecting);
+		infoflow.getConfig().getSolverConfiguration().setJumpFunctionStorage(JumpFunctionStorage.Primitive);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+
+		// The analysis reports the unsupported configuration instead of
+		// silently ignoring it
+		List<String> exceptions = infoflow.getResults().getExceptions();
+		Assert.assertNotNull(exceptions);
+		boolean rejected = false;
+		for (String ex : exceptions)
+			rejected |= ex.contains("only supports the default jump function storage");
+		Assert.assertTrue(rejected);
+	}
+
+}
@@ -185,6 +185,52 @@ public class HeapTests extends JUnitTests {
 		checkInfoflow(infoflow, 1);
 	}
 
+	@Test(timeout = 300000)
+	public void multiAliasHashConsedAPTest() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setHashConsAccessPaths(true);
+
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void multiAliasTest()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+	}
+
+	@Test(timeout = 300000)
+	public void multiAliasSmallMustAliasCacheTest() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setMustAliasCacheSize(1);
+
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void multiAliasTest()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+	}
+
+	@Test(timeout = 300000)
+	public void overwriteAliasSmallMustAliasCacheTest() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setUseRecursiveAccessPaths(false);
+		infoflow.getConfig().setMustAliasCacheSize(1);
+
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void overwriteAliasTest()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		negativeCheckInfoflow(infoflow);
+	}
+
+	@Test(timeout = 300000)
+	public void overwriteAliasHashConsedAPTest() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setUseRecursiveAccessPaths(false);
+		infoflow.getConfig().setHashConsAccessPaths(true);
+
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void overwriteAliasTest()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		negativeCheckInfoflow(infoflow);
+	}
+
 	@Test(timeout = 300000)
 	public void overwriteAliasTest() {
 		IInfoflow infoflow = initInfoflow();
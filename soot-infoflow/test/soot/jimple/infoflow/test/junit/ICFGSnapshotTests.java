@@ -0,0 +1,175 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.MethodOrMethodContext;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.InfoflowConfiguration.CallgraphAlgorithm;
+import soot.jimple.infoflow.cfg.DefaultBiDiICFGFactory;
+import soot.jimple.infoflow.config.ConfigForTest;
+import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
+import soot.jimple.infoflow.solver.cfg.SnapshotInfoflowCFG;
+import soot.jimple.toolkits.ide.icfg.BiDiInterproceduralCFG;
+import soot.util.queue.QueueReader;
+
+/**
+ * Tests for running the analysis on an ICFG that has been frozen into arrays
+ */
+public class ICFGSnapshotTests extends JUnitTests {
+
+	/**
+	 * ICFG factory that freezes the ICFG into a snapshot and keeps a reference
+	 * to the ICFG it has built
+	 */
+	private static class SnapshotICFGFactory extends DefaultBiDiICFGFactory {
+
+		protected IInfoflowCFG cfg;
+
+		public SnapshotICFGFactory() {
+			setUseSnapshot(true);
+		}
+
+		@Override
+		public IInfoflowCFG buildBiDirICFG(CallgraphAlgorithm callgraphAlgorithm, boolean enableExceptions) {
+			cfg = super.buildBiDirICFG(callgraphAlgorithm, enableExceptions);
+			return cfg;
+		}
+
+	}
+
+	private SnapshotICFGFactory icfgFactory;
+
+	/**
+	 * Creates a data flow analysis that runs on a frozen snapshot of the ICFG
+	 */
+	private IInfoflow initSnapshotInfoflow() {
+		return initSnapshotInfoflow(new SnapshotICFGFactory());
+	}
+
+	private IInfoflow initSnapshotInfoflow(SnapshotICFGFactory icfgFactory) {
+		this.icfgFactory = icfgFactory;
+		Infoflow infoflow = new Infoflow("", false, icfgFactory);
+		infoflow.setSootConfig(new ConfigForTest());
+		return infoflow;
+	}
+
+	private void checkSnapshotInUse() {
+		Assert.assertTrue(icfgFactory.cfg instanceof SnapshotInfoflowCFG);
+		Assert.assertTrue(((SnapshotInfoflowCFG) icfgFactory.cfg).getUnitCount() > 0);
+	}
+
+	@Test(timeout = 300000)
+	public void icfgSnapshotContextSensitivityTest1() {
+		IInfoflow infoflow = initSnapshotInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+		checkSnapshotInUse();
+	}
+
+	@Test(timeout = 300000)
+	public void icfgSnapshotExceptionTest() {
+		IInfoflow infoflow = initSnapshotInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ExceptionTestCode: void exceptionControlFlowTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		checkSnapshotInUse();
+	}
+
+	/**
+	 * ICFG factory that compares the snapshot with the ICFG from which it was
+	 * taken, right after the snapshot has been created
+	 */
+	private static class ComparingICFGFactory extends SnapshotICFGFactory {
+
+		private BiDiInterproceduralCFG<Unit, SootMethod> baseCFG;
+		private final List<String> mismatches = new ArrayList<>();
+		private int comparedUnits = 0;
+
+		@Override
+		protected BiDiInterproceduralCFG<Unit, SootMethod> getBaseCFG(boolean enableExceptions) {
+			baseCFG = super.getBaseCFG(enableExceptions);
+			return baseCFG;
+		}
+
+		@Override
+		public IInfoflowCFG buildBiDirICFG(CallgraphAlgorithm callgraphAlgorithm, boolean enableExceptions) {
+			IInfoflowCFG cfg = super.buildBiDirICFG(callgraphAlgorithm, enableExceptions);
+			for (QueueReader<MethodOrMethodContext> rdr = Scene.v().getReachableMethods().listener(); rdr
+					.hasNext();) {
+				SootMethod m = rdr.next().method();
+				compare(m, "callers", baseCFG.getCallersOf(m), cfg.getCallersOf(m), false);
+				if (!m.hasActiveBody())
+					continue;
+
+				for (Unit u : m.getActiveBody().getUnits()) {
+					comparedUnits++;
+					if (baseCFG.getMethodOf(u) != cfg.getMethodOf(u))
+						mismatches.add("method of " + u + ": expected " + baseCFG.getMethodOf(u) + " but was "
+								+ cfg.getMethodOf(u));
+					compare(u, "successors", baseCFG.getSuccsOf(u), cfg.getSuccsOf(u), true);
+					compare(u, "predecessors", baseCFG.getPredsOf(u), cfg.getPredsOf(u), true);
+					if (baseCFG.isCallStmt(u) != cfg.isCallStmt(u))
+						mismatches.add("call statement flag of " + u);
+					else if (baseCFG.isCallStmt(u)) {
+						compare(u, "callees", baseCFG.getCalleesOfCallAt(u), cfg.getCalleesOfCallAt(u), false);
+						compare(u, "return sites", baseCFG.getReturnSitesOfCallAt(u), cfg.getReturnSitesOfCallAt(u),
+								false);
+					}
+				}
+			}
+			return cfg;
+		}
+
+		private void compare(Object key, String query, Collection<?> expected, Collection<?> actual,
+				boolean ordered) {
+			boolean same = ordered ? new ArrayList<Object>(expected).equals(new ArrayList<Object>(actual))
+					: new HashSet<Object>(expected).equals(new HashSet<Object>(actual));
+			if (!same)
+				mismatches.add(query + " of " + key + ": expected " + expected + " but was " + actual);
+		}
+
+	}
+
+	@Test(timeout = 300000)
+	public void icfgSnapshotEquivalenceTest() {
+		ComparingICFGFactory icfgFactory = new ComparingICFGFactory();
+		IInfoflow infoflow = initSnapshotInfoflow(icfgFactory);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		epoints.add("<soot.jimple.infoflow.test.ExceptionTestCode: void exceptionControlFlowTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+
+		// Every query on every statement of the reachable methods must give
+		// the same answer as the wrapped ICFG
+		Assert.assertTrue(icfgFactory.comparedUnits > 0);
+		Assert.assertEquals(Collections.<String>emptyList(), icfgFactory.mismatches);
+		checkSnapshotInUse();
+	}
+
+	@Test(timeout = 300000)
+	public void icfgSnapshotNegativeTest() {
+		IInfoflow infoflow = initSnapshotInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void negativeTest()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		negativeCheckInfoflow(infoflow);
+		checkSnapshotInUse();
+	}
+
+}
@@ -0,0 +1,281 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.jimple.infoflow.InfoflowConfiguration.DataFlowSolver;
+import soot.jimple.infoflow.InfoflowConfiguration.JumpFunctionStorage;
+import soot.jimple.infoflow.solver.IInfoflowSolver;
+import soot.jimple.infoflow.solver.fastSolver.IFDSSolver;
+import soot.jimple.infoflow.solver.fastSolver.flowInsensitive.FlowInsensitiveSolver;
+import soot.jimple.infoflow.solver.jumpFunctions.IJumpFunctionStore;
+import soot.jimple.infoflow.solver.jumpFunctions.MapJumpFunctionStore;
+import soot.jimple.infoflow.solver.jumpFunctions.PrimitiveJumpFunctionStore;
+
+/**
+ * Tests for the different jump function stores of the IFDS solvers
+ */
+public class JumpFunctionStoreTests extends JUnitTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(JumpFunctionStoreTests.class);
+
+	/**
+	 * Data flow fact that is compared by value, so that equal facts can be
+	 * different objects
+	 */
+	private static class Fact {
+
+		private final int value;
+
+		public Fact(int value) {
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * value;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Fact && ((Fact) obj).value == value;
+		}
+
+	}
+
+	private void checkStoreSemantics(IJumpFunctionStore<Object, Fact> store) {
+		Object node = new Object();
+		Fact source = new Fact(1);
+		Fact target = new Fact(2);
+
+		Assert.assertNull(store.addFunction(source, node, target));
+		Assert.assertTrue(store.containsFunction(new Fact(1), node, new Fact(2)));
+		Assert.assertFalse(store.containsFunction(new Fact(1), node, new Fact(3)));
+		Assert.assertFalse(store.containsFunction(new Fact(1), new Object(), new Fact(2)));
+
+		// An equal jump function must give us the instance that was registered
+		// first
+		Assert.assertSame(target, store.addFunction(new Fact(1), node, new Fact(2)));
+		Assert.assertNull(store.addFunction(source, node, new Fact(3)));
+
+		store.clear();
+		Assert.assertFalse(store.containsFunction(source, node, target));
+		Assert.assertNull(store.addFunction(source, node, target));
+	}
+
+	@Test
+	public void mapStoreSemanticsTest() {
+		checkStoreSemantics(new MapJumpFunctionStore<Object, Fact>());
+	}
+
+	@Test
+	public void primitiveStoreSemanticsTest() {
+		checkStoreSemantics(new PrimitiveJumpFunctionStore<Object, Fact>(4, false));
+	}
+
+	@Test
+	public void offHeapStoreSemanticsTest() {
+		checkStoreSemantics(new PrimitiveJumpFunctionStore<Object, Fact>(4, true));
+	}
+
+	@Test
+	public void primitiveStoreGrowthTest() {
+		PrimitiveJumpFunctionStore<Object, Fact> store = new PrimitiveJumpFunctionStore<Object, Fact>(1, false);
+		List<Fact> facts = new ArrayList<>();
+		for (int i = 0; i < 200; i++)
+			facts.add(new Fact(i));
+		Object[] nodes = new Object[100];
+		for (int i = 0; i < nodes.length; i++)
+			nodes[i] = new Object();
+
+		for (Object node : nodes)
+			for (int i = 0; i < facts.size(); i++)
+				Assert.assertNull(store.addFunction(facts.get(0), node, facts.get(i)));
+		Assert.assertEquals(nodes.length * facts.size(), store.size());
+		for (Object node : nodes)
+			for (int i = 0; i < facts.size(); i++)
+				Assert.assertTrue(store.containsFunction(new Fact(0), node, new Fact(i)));
+	}
+
+	/**
+	 * Checks that the given store keeps its jump functions even if nobody else
+	 * references the facts anymore. Otherwise, the solver would process a jump
+	 * function again when the fact is derived anew, and might never terminate.
+	 *
+	 * @param store
+	 *            The store to check
+	 */
+	private void checkRetainsFacts(IJumpFunctionStore<Object, Fact> store) {
+		Object node = new Object();
+		Fact source = new Fact(-1);
+		List<WeakReference<Fact>> probes = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Fact target = new Fact(i);
+			store.addFunction(source, node, target);
+			probes.add(new WeakReference<>(target));
+		}
+
+		gc();
+		for (WeakReference<Fact> probe : probes)
+			Assert.assertNotNull(probe.get());
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertTrue(store.containsFunction(source, node, new Fact(i)));
+			Assert.assertSame(probes.get(i).get(), store.addFunction(source, node, new Fact(i)));
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void mapStoreRetainsFactsTest() {
+		checkRetainsFacts(new MapJumpFunctionStore<Object, Fact>());
+	}
+
+	@Test(timeout = 60000)
+	public void primitiveStoreRetainsFactsTest() {
+		PrimitiveJumpFunctionStore<Object, Fact> store = new PrimitiveJumpFunctionStore<Object, Fact>(4, false);
+		checkRetainsFacts(store);
+		Assert.assertEquals(1001, store.getFactCount());
+		Assert.assertEquals(1000, store.size());
+	}
+
+	private static void gc() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static long usedHeap() {
+		gc();
+		Runtime rt = Runtime.getRuntime();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	/**
+	 * Measures the heap that the given store retains per jump function. The
+	 * facts and nodes are kept alive by the caller, so they are not counted.
+	 *
+	 * @param store
+	 *            The store to fill
+	 * @param sourceFacts
+	 *            The facts to use at the start points
+	 * @param targetFacts
+	 *            The facts to use at the target statements
+	 * @param nodes
+	 *            The target statements
+	 * @return The number of bytes retained per jump function
+	 */
+	private static double measureBytesPerFunction(IJumpFunctionStore<Object, Fact> store, List<Fact> sourceFacts,
+			List<Fact> targetFacts, Object[] nodes) {
+		long before = usedHeap();
+		int count = 0;
+		for (Object node : nodes)
+			for (Fact source : sourceFacts)
+				for (Fact target : targetFacts) {
+					store.addFunction(source, node, target);
+					count++;
+				}
+		long after = usedHeap();
+
+		// Keep the store alive until after the measurement
+		Assert.assertTrue(store.containsFunction(sourceFacts.get(0), nodes[0], targetFacts.get(0)));
+		return (double) (after - before) / count;
+	}
+
+	@Test(timeout = 300000)
+	public void jumpFunctionFootprintTest() {
+		List<Fact> sourceFacts = new ArrayList<>();
+		List<Fact> targetFacts = new ArrayList<>();
+		for (int i = 0; i < 20; i++)
+			sourceFacts.add(new Fact(i));
+		for (int i = 0; i < 100; i++)
+			targetFacts.add(new Fact(1000 + i));
+		Object[] nodes = new Object[100];
+		for (int i = 0; i < nodes.length; i++)
+			nodes[i] = new Object();
+
+		double mapBytes = measureBytesPerFunction(new MapJumpFunctionStore<Object, Fact>(), sourceFacts, targetFacts,
+				nodes);
+		double primitiveBytes = measureBytesPerFunction(new PrimitiveJumpFunctionStore<Object, Fact>(4, false),
+				sourceFacts, targetFacts, nodes);
+		double offHeapBytes = measureBytesPerFunction(new PrimitiveJumpFunctionStore<Object, Fact>(4, true),
+				sourceFacts, targetFacts, nodes);
+		logger.info("Heap bytes per jump function: map {}, primitive {}, off-heap {}", mapBytes, primitiveBytes,
+				offHeapBytes);
+
+		// Two longs per slot at a load factor between 3/8 and 3/4. The map
+		// store needs a path edge and a map entry per jump function.
+		Assert.assertTrue(primitiveBytes < 48);
+		Assert.assertTrue(primitiveBytes < mapBytes);
+
+		// Off-heap, only the stripe objects remain on the heap
+		Assert.assertTrue(offHeapBytes < 4);
+	}
+
+
+	/**
+	 * Gets the store in which the forward solver of the given analysis kept its
+	 * jump functions, and checks that it is a primitive store
+	 */
+	private static PrimitiveJumpFunctionStore<?, ?> getPrimitiveStore(RecordingInfoflow infoflow) {
+		IInfoflowSolver solver = infoflow.getForwardSolver();
+		IJumpFunctionStore<?, ?> store;
+		if (solver instanceof FlowInsensitiveSolver)
+			store = ((FlowInsensitiveSolver<?, ?, ?>) solver).getJumpFunctionStore();
+		else
+			store = ((IFDSSolver<?, ?, ?>) solver).getJumpFunctionStore();
+		Assert.assertTrue(store instanceof PrimitiveJumpFunctionStore);
+		PrimitiveJumpFunctionStore<?, ?> primitiveStore = (PrimitiveJumpFunctionStore<?, ?>) store;
+		Assert.assertTrue(primitiveStore.size() > 0);
+		return primitiveStore;
+	}
+
+	@Test(timeout = 300000)
+	public void primitiveJumpFunctionsContextSensitivityTest1() {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setJumpFunctionStorage(JumpFunctionStorage.Primitive);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+		Assert.assertFalse(getPrimitiveStore(infoflow).isOffHeap());
+	}
+
+	@Test(timeout = 300000)
+	public void offHeapJumpFunctionsMultipleCallSiteTest1() {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setJumpFunctionStorage(JumpFunctionStorage.OffHeap);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void multipleCallSiteTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertTrue(getPrimitiveStore(infoflow).isOffHeap());
+	}
+
+	@Test(timeout = 300000)
+	public void offHeapJumpFunctionsFlowInsensitiveTest() {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setDataFlowSolver(DataFlowSolver.FlowInsensitive);
+		infoflow.getConfig().getSolverConfiguration().setJumpFunctionStorage(JumpFunctionStorage.OffHeap);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertTrue(infoflow.getForwardSolver() instanceof FlowInsensitiveSolver);
+		Assert.assertTrue(getPrimitiveStore(infoflow).isOffHeap());
+	}
+
+}
@@ -0,0 +1,72 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.InfoflowConfiguration.PathBuildingAlgorithm;
+import soot.jimple.infoflow.InfoflowConfiguration.PathReconstructionMode;
+import soot.jimple.infoflow.data.pathBuilders.IAbstractionPathBuilder;
+import soot.jimple.infoflow.data.pathBuilders.MemoizingPathBuilder;
+
+/**
+ * Tests for the path builder that memoizes the source summaries of shared
+ * predecessors
+ */
+public class MemoizingPathBuilderTests extends JUnitTests {
+
+	private RecordingPathBuilderFactory pathBuilderFactory;
+
+	private IInfoflow initMemoizingInfoflow(PathReconstructionMode mode) {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().getPathConfiguration().setPathBuildingAlgorithm(PathBuildingAlgorithm.Memoizing);
+		infoflow.getConfig().getPathConfiguration().setPathReconstructionMode(mode);
+		pathBuilderFactory = new RecordingPathBuilderFactory(infoflow.getConfig().getPathConfiguration());
+		infoflow.setPathBuilderFactory(pathBuilderFactory);
+		return infoflow;
+	}
+
+	private void checkMemoizingPathBuilder() {
+		Assert.assertFalse(pathBuilderFactory.getBuilders().isEmpty());
+		for (IAbstractionPathBuilder builder : pathBuilderFactory.getBuilders())
+			Assert.assertTrue(builder instanceof MemoizingPathBuilder);
+	}
+
+	@Test(timeout = 300000)
+	public void memoizingPathBuilderContextSensitivityTest1() {
+		IInfoflow infoflow = initMemoizingInfoflow(PathReconstructionMode.NoPaths);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+		checkMemoizingPathBuilder();
+	}
+
+	@Test(timeout = 300000)
+	public void memoizingPathBuilderMultipleExitTest1() {
+		IInfoflow infoflow = initMemoizingInfoflow(PathReconstructionMode.Fast);
+		infoflow.getConfig().getPathConfiguration().setPathBuildingParallelism(2);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void multipleExitTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		checkMemoizingPathBuilder();
+	}
+
+	@Test(timeout = 300000)
+	public void memoizingPathBuilderMultiSinkTest1() {
+		IInfoflow infoflow = initMemoizingInfoflow(PathReconstructionMode.Fast);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.OtherTestCode: void multiSinkTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 2);
+		checkMemoizingPathBuilder();
+	}
+
+}
@@ -0,0 +1,115 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.Unit;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager.PathDataErasureMode;
+import soot.jimple.infoflow.handlers.TaintPropagationHandler;
+import soot.jimple.infoflow.memory.IMemoryDegradable;
+import soot.jimple.infoflow.memory.MemoryDegradationStage;
+import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
+import soot.jimple.infoflow.solver.fastSolver.IFDSSolver;
+
+/**
+ * Tests for the stages in which the analysis trades precision or speed for
+ * memory when the heap runs full
+ */
+public class MemoryDegradationTests extends JUnitTests {
+
+	/**
+	 * Data flow analysis that takes the given degradation stage as soon as the
+	 * first edge is propagated, regardless of the memory consumption
+	 */
+	private static class DegradingInfoflow extends RecordingInfoflow {
+
+		private final RecordingMemoryManagerFactory memoryManagerFactory = new RecordingMemoryManagerFactory(0);
+
+		public DegradingInfoflow(final MemoryDegradationStage stage) {
+			setMemoryManagerFactory(memoryManagerFactory);
+
+			// Record all join point abstractions, so that the solver can still
+			// be limited
+			getConfig().getSolverConfiguration().setMaxJoinPointAbstractions(-1);
+			if (stage != null) {
+				setTaintPropagationHandler(new TaintPropagationHandler() {
+
+					private final AtomicBoolean degraded = new AtomicBoolean(false);
+
+					@Override
+					public void notifyFlowIn(Unit stmt, Abstraction taint, IInfoflowCFG cfg, FlowFunctionType type) {
+						if (degraded.compareAndSet(false, true))
+							getMemoryWatcher().forceDegradation(stage);
+					}
+
+					@Override
+					public Set<Abstraction> notifyFlowOut(Unit stmt, Abstraction d1, Abstraction incoming,
+							Set<Abstraction> outgoing, IInfoflowCFG cfg, FlowFunctionType type) {
+						return outgoing;
+					}
+
+				});
+			}
+		}
+
+	}
+
+	private DegradingInfoflow runDegraded(MemoryDegradationStage stage) {
+		DegradingInfoflow infoflow = new DegradingInfoflow(stage);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+
+		// Only the forced stage may show up in the results
+		if (stage == null)
+			Assert.assertFalse(infoflow.getResults().wasDegraded());
+		else {
+			Assert.assertTrue(infoflow.getResults().wasDegraded());
+			Assert.assertEquals(Collections.singletonList(stage), infoflow.getResults().getDegradationStages());
+		}
+		return infoflow;
+	}
+
+	@Test(timeout = 300000)
+	public void noDegradationTest() {
+		DegradingInfoflow infoflow = runDegraded(null);
+		Assert.assertEquals(-1, ((IFDSSolver<?, ?, ?>) infoflow.getForwardSolver()).getMaxJoinPointAbstractions());
+		for (FlowDroidMemoryManager manager : infoflow.memoryManagerFactory.getManagers())
+			Assert.assertEquals(PathDataErasureMode.EraseNothing, manager.getPathDataErasureMode());
+	}
+
+	@Test(timeout = 300000)
+	public void degradationErasePathDataTest() {
+		DegradingInfoflow infoflow = runDegraded(MemoryDegradationStage.ErasePathData);
+		Assert.assertFalse(infoflow.memoryManagerFactory.getManagers().isEmpty());
+		for (FlowDroidMemoryManager manager : infoflow.memoryManagerFactory.getManagers())
+			Assert.assertEquals(PathDataErasureMode.KeepOnlyContextData, manager.getPathDataErasureMode());
+	}
+
+	@Test(timeout = 300000)
+	public void degradationLimitJoinPointsTest() {
+		DegradingInfoflow infoflow = runDegraded(MemoryDegradationStage.LimitJoinPoints);
+		Assert.assertEquals(MemoryDegradationStage.DEGRADED_MAX_JOIN_POINT_ABSTRACTIONS,
+				((IFDSSolver<?, ?, ?>) infoflow.getForwardSolver()).getMaxJoinPointAbstractions());
+	}
+
+	@Test(timeout = 300000)
+	public void degradationDropSolverCachesTest() {
+		DegradingInfoflow infoflow = runDegraded(MemoryDegradationStage.DropSolverCaches);
+
+		// The caches are gone, so there is nothing left to drop
+		Assert.assertFalse(
+				((IMemoryDegradable) infoflow.getForwardSolver()).degrade(MemoryDegradationStage.DropSolverCaches));
+	}
+
+}
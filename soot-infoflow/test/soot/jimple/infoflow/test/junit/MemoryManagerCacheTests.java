@@ -0,0 +1,62 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager.PathDataErasureMode;
+
+/**
+ * Tests for the bounded abstraction caches of the memory manager
+ */
+public class MemoryManagerCacheTests extends JUnitTests {
+
+	@Test(timeout = 300000)
+	public void boundedMemoryManagerCachesListTest() {
+		Infoflow infoflow = (Infoflow) initInfoflow();
+		RecordingMemoryManagerFactory factory = new RecordingMemoryManagerFactory(16);
+		infoflow.setMemoryManagerFactory(factory);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ListTestCode: void concreteWriteReadPos1Test()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+
+		// The caches must really have been too small for this test case
+		Assert.assertFalse(factory.getManagers().isEmpty());
+		long misses = 0;
+		long evictions = 0;
+		for (FlowDroidMemoryManager manager : factory.getManagers()) {
+			Assert.assertEquals(16, manager.getCacheCapacity());
+			misses += manager.getCacheMissCount();
+			evictions += manager.getCacheEvictionCount();
+		}
+		Assert.assertTrue(misses > 16);
+		Assert.assertTrue(evictions > 0);
+	}
+
+	@Test
+	public void memoryManagerReclaimTest() {
+		// Large caches are halved down to the minimum capacity
+		FlowDroidMemoryManager manager = new FlowDroidMemoryManager(false, PathDataErasureMode.EraseNothing, 4096);
+		manager.reclaimMemory();
+		Assert.assertEquals(2048, manager.getCacheCapacity());
+		manager.reclaimMemory();
+		manager.reclaimMemory();
+		Assert.assertEquals(1024, manager.getCacheCapacity());
+
+		// Small caches must not grow
+		manager = new FlowDroidMemoryManager(false, PathDataErasureMode.EraseNothing, 16);
+		manager.reclaimMemory();
+		Assert.assertEquals(16, manager.getCacheCapacity());
+
+		// Unbounded caches stay unbounded
+		manager = new FlowDroidMemoryManager(false, PathDataErasureMode.EraseNothing, 0);
+		manager.reclaimMemory();
+		Assert.assertEquals(0, manager.getCacheCapacity());
+	}
+
+}
@@ -0,0 +1,87 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.Body;
+import soot.Local;
+import soot.RefLikeType;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.aliasing.MustAliasClasses;
+import soot.jimple.toolkits.pointer.LocalMustAliasAnalysis;
+import soot.jimple.toolkits.pointer.StrongLocalMustAliasAnalysis;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+
+/**
+ * Tests that the compact must-alias classes give the same answers as the
+ * local must-alias analysis they were built from
+ */
+public class MustAliasClassesTests extends JUnitTests {
+
+	/**
+	 * Compares the must-alias classes with the given analysis for all pairs of
+	 * locals at all statements of the given body
+	 *
+	 * @param lmaa
+	 *            The local must-alias analysis
+	 * @param classes
+	 *            The must-alias classes built from the analysis
+	 * @param body
+	 *            The body on which the analysis was run
+	 * @return The number of pairs of locals that must alias
+	 */
+	private int compareWithAnalysis(LocalMustAliasAnalysis lmaa, MustAliasClasses classes, Body body) {
+		List<Local> locals = new ArrayList<>();
+		for (Local l : body.getLocals())
+			if (l.getType() instanceof RefLikeType)
+				locals.add(l);
+
+		int aliases = 0;
+		for (Unit u : body.getUnits())
+			for (Local l1 : locals)
+				for (Local l2 : locals) {
+					boolean expected = lmaa.mustAlias(l1, (Stmt) u, l2, (Stmt) u);
+					Assert.assertEquals(l1 + " and " + l2 + " at " + u + " in " + body.getMethod(), expected,
+							classes.mustAlias(l1, l2, u));
+					if (expected)
+						aliases++;
+				}
+		return aliases;
+	}
+
+	@Test(timeout = 300000)
+	public void compareWithLocalMustAliasAnalysisTest() {
+		IInfoflow infoflow = initInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void simpleTest()>");
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void argumentTest()>");
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void testForLoop()>");
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void methodReturn()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+
+		int strongAliases = 0;
+		int aliases = 0;
+		for (SootMethod sm : Scene.v().getSootClass("soot.jimple.infoflow.test.HeapTestCode").getMethods()) {
+			if (!sm.hasActiveBody())
+				continue;
+			Body body = sm.getActiveBody();
+			ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body);
+
+			LocalMustAliasAnalysis strongLmaa = new StrongLocalMustAliasAnalysis(graph);
+			strongAliases += compareWithAnalysis(strongLmaa, new MustAliasClasses(strongLmaa, graph), body);
+
+			LocalMustAliasAnalysis lmaa = new LocalMustAliasAnalysis(graph);
+			aliases += compareWithAnalysis(lmaa, new MustAliasClasses(lmaa, graph), body);
+		}
+		Assert.assertTrue(strongAliases > 0);
+		Assert.assertTrue(aliases >= strongAliases);
+	}
+
+}
@@ -0,0 +1,177 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.infoflow.collect.ConsList;
+import soot.jimple.infoflow.collect.PersistentIntSet;
+
+/**
+ * Tests for the immutable collections that share their structure between
+ * versions
+ */
+public class PersistentCollectionsTests {
+
+	private static ConsList<String> listOf(String... elements) {
+		ConsList<String> list = null;
+		for (int i = elements.length - 1; i >= 0; i--)
+			list = ConsList.prepend(elements[i], list);
+		return list;
+	}
+
+	@Test
+	public void consListPrependTest() {
+		ConsList<String> tail = listOf("b", "c");
+		ConsList<String> list = ConsList.prepend("a", tail);
+		Assert.assertEquals(3, list.size());
+		Assert.assertEquals("a", list.getHead());
+		Assert.assertEquals("c", list.getLast());
+		Assert.assertSame(tail, list.getTail());
+		Assert.assertEquals(Arrays.asList("a", "b", "c"), list.toList());
+
+		// The original list is not affected
+		Assert.assertEquals(2, tail.size());
+		Assert.assertEquals(Arrays.asList("b", "c"), tail.toList());
+
+		ConsList<String> single = ConsList.prepend("x", null);
+		Assert.assertEquals(1, single.size());
+		Assert.assertNull(single.getTail());
+		Assert.assertEquals("x", single.getLast());
+	}
+
+	@Test
+	public void consListAppendTest() {
+		ConsList<String> single = ConsList.append(null, "a");
+		Assert.assertEquals(Collections.singletonList("a"), single.toList());
+
+		ConsList<String> list = listOf("a", "b");
+		ConsList<String> appended = ConsList.append(list, "c");
+		Assert.assertEquals(Arrays.asList("a", "b", "c"), appended.toList());
+		Assert.assertEquals("c", appended.getLast());
+		Assert.assertEquals(3, appended.size());
+		Assert.assertEquals(Arrays.asList("a", "b"), list.toList());
+		Assert.assertEquals(listOf("a", "b", "c"), appended);
+	}
+
+	@Test
+	public void consListIterationTest() {
+		ConsList<String> list = listOf("a", null, "c");
+		Iterator<String> it = list.iterator();
+		Assert.assertEquals("a", it.next());
+		Assert.assertNull(it.next());
+		Assert.assertTrue(it.hasNext());
+		Assert.assertEquals("c", it.next());
+		Assert.assertFalse(it.hasNext());
+		try {
+			it.next();
+			Assert.fail("Iterator must be exhausted");
+		} catch (NoSuchElementException ex) {
+			// expected
+		}
+		try {
+			list.iterator().remove();
+			Assert.fail("List must be immutable");
+		} catch (UnsupportedOperationException ex) {
+			// expected
+		}
+		Assert.assertEquals("[a, null, c]", list.toString());
+	}
+
+	@Test
+	public void consListEqualityTest() {
+		ConsList<String> list = listOf("a", "b", null);
+		ConsList<String> other = listOf("a", "b", null);
+		Assert.assertNotSame(list, other);
+		Assert.assertEquals(list, other);
+		Assert.assertEquals(list.hashCode(), other.hashCode());
+
+		// The hash code is the one of a java.util.List with the elements from
+		// the last one to the head
+		List<String> reverse = new ArrayList<>(list.toList());
+		Collections.reverse(reverse);
+		Assert.assertEquals(reverse.hashCode(), list.hashCode());
+
+		// Lists that share a tail are compared correctly
+		ConsList<String> tail = listOf("b", "c");
+		Assert.assertEquals(ConsList.prepend("a", tail), ConsList.prepend("a", tail));
+		Assert.assertNotEquals(ConsList.prepend("a", tail), ConsList.prepend("x", tail));
+
+		Assert.assertNotEquals(listOf("a", "b"), listOf("a", "c"));
+		Assert.assertNotEquals(listOf("a", "b"), listOf("b", "a"));
+		Assert.assertNotEquals(listOf("a", "b"), listOf("a", "b", "c"));
+		Assert.assertNotEquals(listOf("a", null), listOf("a", "b"));
+		Assert.assertNotEquals(listOf("a"), Collections.singletonList("a"));
+	}
+
+	@Test
+	public void persistentIntSetTest() {
+		PersistentIntSet set = PersistentIntSet.add(null, 0);
+		Assert.assertEquals(1, set.size());
+		Assert.assertTrue(set.contains(0));
+		Assert.assertFalse(set.contains(1));
+		Assert.assertFalse(set.contains(32));
+
+		// Adding an existing element does not create a new set
+		Assert.assertSame(set, PersistentIntSet.add(set, 0));
+
+		// Extreme values use all levels of the trie
+		PersistentIntSet extremes = PersistentIntSet.add(set, Integer.MIN_VALUE);
+		extremes = PersistentIntSet.add(extremes, Integer.MAX_VALUE);
+		extremes = PersistentIntSet.add(extremes, -1);
+		Assert.assertEquals(4, extremes.size());
+		for (int value : new int[] { 0, Integer.MIN_VALUE, Integer.MAX_VALUE, -1 })
+			Assert.assertTrue(extremes.contains(value));
+		Assert.assertFalse(extremes.contains(Integer.MAX_VALUE - 1));
+		Assert.assertFalse(extremes.contains(Integer.MIN_VALUE + 1));
+
+		// The original set is not affected
+		Assert.assertEquals(1, set.size());
+		Assert.assertFalse(set.contains(-1));
+	}
+
+	@Test
+	public void persistentIntSetRandomTest() {
+		Random rnd = new Random(42);
+		List<PersistentIntSet> versions = new ArrayList<>();
+		List<Set<Integer>> expected = new ArrayList<>();
+		PersistentIntSet set = null;
+		Set<Integer> reference = new HashSet<>();
+		for (int i = 0; i < 5000; i++) {
+			// Use a small range now and then, so that elements are added more
+			// than once
+			int value = i % 3 == 0 ? rnd.nextInt(64) : rnd.nextInt();
+			set = PersistentIntSet.add(set, value);
+			reference.add(value);
+			Assert.assertEquals(reference.size(), set.size());
+			if (i % 500 == 0) {
+				versions.add(set);
+				expected.add(new HashSet<>(reference));
+			}
+		}
+
+		// Every version still contains exactly the elements it had when it
+		// was created
+		for (int v = 0; v < versions.size(); v++) {
+			PersistentIntSet version = versions.get(v);
+			Set<Integer> elements = expected.get(v);
+			Assert.assertEquals(elements.size(), version.size());
+			for (int value : reference)
+				Assert.assertEquals(elements.contains(value), version.contains(value));
+			for (int i = 0; i < 1000; i++) {
+				int value = rnd.nextInt();
+				Assert.assertEquals(elements.contains(value), version.contains(value));
+			}
+		}
+	}
+
+}
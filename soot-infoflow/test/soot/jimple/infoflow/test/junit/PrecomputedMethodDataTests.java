@@ -0,0 +1,101 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.SootMethod;
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.InfoflowConfiguration.CallgraphAlgorithm;
+import soot.jimple.infoflow.InfoflowConfiguration.ImplicitFlowMode;
+import soot.jimple.infoflow.cfg.DefaultBiDiICFGFactory;
+import soot.jimple.infoflow.config.ConfigForTest;
+import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
+import soot.jimple.infoflow.solver.cfg.InfoflowCFG;
+
+/**
+ * Tests for computing the control flow graphs and the locals of all reachable
+ * methods before the solver starts
+ */
+public class PrecomputedMethodDataTests extends JUnitTests {
+
+	/**
+	 * ICFG factory that builds an ICFG which records the methods whose data has
+	 * been precomputed, together with whether the postdominators were computed
+	 * as well
+	 */
+	private static class RecordingICFGFactory extends DefaultBiDiICFGFactory {
+
+		private final ConcurrentMap<String, Boolean> precomputedMethods = new ConcurrentHashMap<>();
+
+		@Override
+		public IInfoflowCFG buildBiDirICFG(CallgraphAlgorithm callgraphAlgorithm, boolean enableExceptions) {
+			return new InfoflowCFG(getBaseCFG(enableExceptions)) {
+
+				@Override
+				protected void precomputeMethod(SootMethod method, boolean postdominators) {
+					super.precomputeMethod(method, postdominators);
+					precomputedMethods.put(method.getName(), postdominators);
+				}
+
+			};
+		}
+
+	}
+
+	private RecordingICFGFactory icfgFactory;
+
+	private Infoflow initPrecomputingInfoflow() {
+		icfgFactory = new RecordingICFGFactory();
+		Infoflow infoflow = new Infoflow("", false, icfgFactory);
+		infoflow.setSootConfig(new ConfigForTest());
+		infoflow.getConfig().getSolverConfiguration().setPrecomputeMethodData(true);
+		return infoflow;
+	}
+
+	@Test(timeout = 300000)
+	public void precomputedMethodDataContextSensitivityTest1() {
+		Infoflow infoflow = initPrecomputingInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+
+		// The entry point and its callee were prepared up front, without the
+		// postdominators that only implicit flows need
+		Assert.assertEquals(Boolean.FALSE, icfgFactory.precomputedMethods.get("contextSensitivityTest1"));
+		Assert.assertEquals(Boolean.FALSE, icfgFactory.precomputedMethods.get("id"));
+	}
+
+	@Test(timeout = 300000)
+	public void precomputedMethodDataImplicitFlowTest() {
+		Infoflow infoflow = initPrecomputingInfoflow();
+		infoflow.getConfig().setImplicitFlowMode(ImplicitFlowMode.AllImplicitFlows);
+		infoflow.getConfig().setInspectSinks(false);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ImplicitFlowTestCode: void simpleTest()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertEquals(Boolean.TRUE, icfgFactory.precomputedMethods.get("simpleTest"));
+	}
+
+	@Test(timeout = 300000)
+	public void noPrecomputedMethodDataTest() {
+		Infoflow infoflow = initPrecomputingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setPrecomputeMethodData(false);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+
+		// By default, the solver fills the caches on demand
+		Assert.assertTrue(icfgFactory.precomputedMethods.isEmpty());
+	}
+
+}
@@ -0,0 +1,128 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.InfoflowConfiguration.PathReconstructionMode;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.data.pathBuilders.IAbstractionPathBuilder;
+import soot.jimple.infoflow.data.pathBuilders.SpilledGraphPathBuilder;
+import soot.jimple.infoflow.handlers.TaintPropagationHandler;
+import soot.jimple.infoflow.results.ResultSinkInfo;
+import soot.jimple.infoflow.results.ResultSourceInfo;
+import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
+
+/**
+ * Tests for writing the predecessor graph to disk during the taint propagation
+ * and reconstructing the paths from there
+ */
+public class PredecessorGraphSpillTests extends JUnitTests {
+
+	private RecordingPathBuilderFactory pathBuilderFactory;
+
+	private IInfoflow initSpillingInfoflow() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().getPathConfiguration().setSpillPredecessorGraph(true);
+		infoflow.getConfig().getPathConfiguration().setPathReconstructionMode(PathReconstructionMode.Precise);
+		pathBuilderFactory = new RecordingPathBuilderFactory(infoflow.getConfig().getPathConfiguration());
+		infoflow.setPathBuilderFactory(pathBuilderFactory);
+		return infoflow;
+	}
+
+	private void checkSpilledGraphPathBuilder() {
+		Assert.assertFalse(pathBuilderFactory.getBuilders().isEmpty());
+		for (IAbstractionPathBuilder builder : pathBuilderFactory.getBuilders())
+			Assert.assertTrue(builder instanceof SpilledGraphPathBuilder);
+	}
+
+	@Test(timeout = 300000)
+	public void spilledPredecessorGraphContextSensitivityTest1() {
+		IInfoflow infoflow = initSpillingInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+		checkSpilledGraphPathBuilder();
+	}
+
+	/**
+	 * Taint propagation handler that counts the abstractions whose predecessor
+	 * is neither a source nor linked to its own predecessor anymore
+	 */
+	private static class DroppedLinkProbe implements TaintPropagationHandler {
+
+		private final AtomicInteger droppedLinks = new AtomicInteger();
+
+		@Override
+		public void notifyFlowIn(Unit stmt, Abstraction taint, IInfoflowCFG cfg, FlowFunctionType type) {
+			Abstraction pred = taint.getPredecessor();
+			if (pred != null && pred.getPredecessor() == null && pred.getSourceContext() == null)
+				droppedLinks.incrementAndGet();
+		}
+
+		@Override
+		public Set<Abstraction> notifyFlowOut(Unit stmt, Abstraction d1, Abstraction incoming,
+				Set<Abstraction> outgoing, IInfoflowCFG cfg, FlowFunctionType type) {
+			return outgoing;
+		}
+
+	}
+
+	/**
+	 * Gets the sink, the source, and the propagation path of every result. The
+	 * statements are compared by their text, because every run creates new
+	 * statement objects.
+	 */
+	private static Set<List<String>> getResultPaths(IInfoflow infoflow) {
+		Set<List<String>> paths = new HashSet<>();
+		for (ResultSinkInfo sinkInfo : infoflow.getResults().getResults().keySet())
+			for (ResultSourceInfo sourceInfo : infoflow.getResults().getResults().get(sinkInfo)) {
+				List<String> path = new ArrayList<>();
+				path.add(sinkInfo.getStmt().toString());
+				path.add(sourceInfo.getStmt().toString());
+				if (sourceInfo.getPath() != null)
+					for (Stmt stmt : sourceInfo.getPath())
+						path.add(stmt.toString());
+				paths.add(path);
+			}
+		return paths;
+	}
+
+	@Test(timeout = 300000)
+	public void spilledPredecessorGraphMultiPathTest() {
+		// Both sources reach the sink through the same variable, so one of the
+		// abstractions becomes a neighbor of the other one
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.MultiTestCode: void ifPathTestCode4()>");
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().getPathConfiguration().setPathReconstructionMode(PathReconstructionMode.Precise);
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		Set<List<String>> expected = getResultPaths(infoflow);
+		Assert.assertEquals(3, expected.size());
+
+		IInfoflow spillingInfoflow = initSpillingInfoflow();
+		DroppedLinkProbe probe = new DroppedLinkProbe();
+		((Infoflow) spillingInfoflow).setTaintPropagationHandler(probe);
+		spillingInfoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+
+		// The paths must be rebuilt from the spill, not from the heap
+		Assert.assertEquals(expected, getResultPaths(spillingInfoflow));
+		Assert.assertTrue(probe.droppedLinks.get() > 0);
+		checkSpilledGraphPathBuilder();
+	}
+
+}
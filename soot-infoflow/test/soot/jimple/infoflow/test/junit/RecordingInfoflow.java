@@ -0,0 +1,54 @@
+package soot.jimple.infoflow.test.junit;
+
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.cfg.BiDirICFGFactory;
+import soot.jimple.infoflow.config.ConfigForTest;
+import soot.jimple.infoflow.problems.InfoflowProblem;
+import soot.jimple.infoflow.solver.IInfoflowSolver;
+import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
+
+/**
+ * Data flow analysis for the test cases that keeps references to the executor
+ * and the forward solver of the last run, so that the tests can check which
+ * implementations were actually used
+ */
+public class RecordingInfoflow extends Infoflow {
+
+	private InterruptableExecutor executor;
+	private IInfoflowSolver forwardSolver;
+
+	public RecordingInfoflow() {
+		this(null);
+	}
+
+	public RecordingInfoflow(BiDirICFGFactory icfgFactory) {
+		super("", false, icfgFactory);
+		setSootConfig(new ConfigForTest());
+	}
+
+	@Override
+	protected IInfoflowSolver createForwardSolver(InterruptableExecutor executor, InfoflowProblem forwardProblem) {
+		this.executor = executor;
+		this.forwardSolver = super.createForwardSolver(executor, forwardProblem);
+		return forwardSolver;
+	}
+
+	/**
+	 * Gets the executor in which the forward solver propagated its edges
+	 * 
+	 * @return The executor of the forward solver
+	 */
+	public InterruptableExecutor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Gets the solver that computed the forward taint propagation
+	 * 
+	 * @return The forward solver
+	 */
+	public IInfoflowSolver getForwardSolver() {
+		return forwardSolver;
+	}
+
+}
@@ -0,0 +1,42 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import soot.Unit;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager;
+import soot.jimple.infoflow.data.FlowDroidMemoryManager.PathDataErasureMode;
+import soot.jimple.infoflow.solver.memory.DefaultMemoryManagerFactory;
+import soot.jimple.infoflow.solver.memory.IMemoryManager;
+
+/**
+ * Memory manager factory for the test cases that keeps a reference to the
+ * memory managers it creates
+ */
+public class RecordingMemoryManagerFactory extends DefaultMemoryManagerFactory {
+
+	private final List<FlowDroidMemoryManager> managers = new ArrayList<>();
+
+	public RecordingMemoryManagerFactory(int cacheCapacity) {
+		super(cacheCapacity);
+	}
+
+	@Override
+	public IMemoryManager<Abstraction, Unit> getMemoryManager(boolean tracingEnabled,
+			PathDataErasureMode erasePathData) {
+		IMemoryManager<Abstraction, Unit> manager = super.getMemoryManager(tracingEnabled, erasePathData);
+		managers.add((FlowDroidMemoryManager) manager);
+		return manager;
+	}
+
+	/**
+	 * Gets the memory managers that this factory has created so far
+	 * 
+	 * @return The memory managers created by this factory
+	 */
+	public List<FlowDroidMemoryManager> getManagers() {
+		return managers;
+	}
+
+}
@@ -0,0 +1,40 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import soot.jimple.infoflow.InfoflowConfiguration.PathConfiguration;
+import soot.jimple.infoflow.InfoflowManager;
+import soot.jimple.infoflow.data.pathBuilders.DefaultPathBuilderFactory;
+import soot.jimple.infoflow.data.pathBuilders.IAbstractionPathBuilder;
+import soot.jimple.infoflow.solver.executors.InterruptableExecutor;
+
+/**
+ * Path builder factory for the test cases that keeps a reference to the path
+ * builders it creates
+ */
+public class RecordingPathBuilderFactory extends DefaultPathBuilderFactory {
+
+	private final List<IAbstractionPathBuilder> builders = new ArrayList<>();
+
+	public RecordingPathBuilderFactory(PathConfiguration config) {
+		super(config);
+	}
+
+	@Override
+	public IAbstractionPathBuilder createPathBuilder(InfoflowManager manager, InterruptableExecutor executor) {
+		IAbstractionPathBuilder builder = super.createPathBuilder(manager, executor);
+		builders.add(builder);
+		return builder;
+	}
+
+	/**
+	 * Gets the path builders that this factory has created so far
+	 * 
+	 * @return The path builders created by this factory
+	 */
+	public List<IAbstractionPathBuilder> getBuilders() {
+		return builders;
+	}
+
+}
@@ -0,0 +1,85 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.InfoflowConfiguration.PathBuildingAlgorithm;
+import soot.jimple.infoflow.InfoflowConfiguration.PathReconstructionMode;
+import soot.jimple.infoflow.data.pathBuilders.IAbstractionPathBuilder;
+import soot.jimple.infoflow.data.pathBuilders.ShortestPathFirstPathBuilder;
+import soot.jimple.infoflow.results.ResultSinkInfo;
+import soot.jimple.infoflow.results.ResultSourceInfo;
+
+/**
+ * Tests for the path builder that reports the shortest paths from each source
+ * first
+ */
+public class ShortestPathFirstTests extends JUnitTests {
+
+	private RecordingPathBuilderFactory pathBuilderFactory;
+
+	private IInfoflow initShortestPathFirstInfoflow() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().getPathConfiguration().setPathBuildingAlgorithm(PathBuildingAlgorithm.ShortestPathFirst);
+		pathBuilderFactory = new RecordingPathBuilderFactory(infoflow.getConfig().getPathConfiguration());
+		infoflow.setPathBuilderFactory(pathBuilderFactory);
+		return infoflow;
+	}
+
+	private void checkShortestPathFirstBuilder() {
+		Assert.assertFalse(pathBuilderFactory.getBuilders().isEmpty());
+		for (IAbstractionPathBuilder builder : pathBuilderFactory.getBuilders())
+			Assert.assertTrue(builder instanceof ShortestPathFirstPathBuilder);
+	}
+
+	@Test(timeout = 300000)
+	public void shortestPathFirstContextSensitivityTest1() {
+		IInfoflow infoflow = initShortestPathFirstInfoflow();
+		infoflow.getConfig().getPathConfiguration().setPathReconstructionMode(PathReconstructionMode.Precise);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+		checkShortestPathFirstBuilder();
+
+		// The search must have reconstructed the full paths
+		for (ResultSinkInfo sinkInfo : infoflow.getResults().getResults().keySet())
+			for (ResultSourceInfo sourceInfo : infoflow.getResults().getResults().get(sinkInfo)) {
+				Assert.assertNotNull(sourceInfo.getPath());
+				Assert.assertTrue(sourceInfo.getPath().length > 0);
+			}
+	}
+
+	@Test(timeout = 300000)
+	public void shortestPathFirstMultiSinkTest1() {
+		IInfoflow infoflow = initShortestPathFirstInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.OtherTestCode: void multiSinkTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 2);
+		checkShortestPathFirstBuilder();
+	}
+
+	@Test(timeout = 300000)
+	public void shortestPathFirstMultipleSourcesTest() {
+		IInfoflow infoflow = initShortestPathFirstInfoflow();
+		infoflow.getConfig().getPathConfiguration().setMaxPathsPerSink(1);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.StringTestCode: void multipleSources()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		checkShortestPathFirstBuilder();
+
+		// The path limit applies to each source separately
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+		Assert.assertEquals(2, infoflow.getResults().numConnections());
+	}
+
+}
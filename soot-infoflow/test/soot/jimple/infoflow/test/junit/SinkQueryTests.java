@@ -0,0 +1,82 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.results.ResultSinkInfo;
+import soot.jimple.infoflow.sourcesSinks.manager.DefaultSourceSinkManager;
+
+/**
+ * Tests for demand-driven queries on single sink statements
+ */
+public class SinkQueryTests extends JUnitTests {
+
+	/**
+	 * Runs a full analysis on the given entry point and collects the sinks in
+	 * the program
+	 *
+	 * @param entryPoint
+	 *            The entry point to analyze
+	 * @return The data flow analysis
+	 */
+	private Infoflow runFullAnalysis(String entryPoint) {
+		Infoflow infoflow = (Infoflow) initInfoflow();
+		infoflow.getConfig().setLogSourcesAndSinks(true);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add(entryPoint);
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		return infoflow;
+	}
+
+	@Test(timeout = 300000)
+	public void multiSinkQueryTest() {
+		Infoflow infoflow = runFullAnalysis("<soot.jimple.infoflow.test.OtherTestCode: void multiSinkTest1()>");
+		checkInfoflow(infoflow, 2);
+
+		Set<Stmt> sinkStmts = new HashSet<>();
+		for (ResultSinkInfo sinkInfo : infoflow.getResults().getResults().keySet())
+			sinkStmts.add(sinkInfo.getStmt());
+		Assert.assertEquals(2, sinkStmts.size());
+
+		// Every query must only report the flow into the queried sink
+		for (Stmt sinkStmt : sinkStmts) {
+			infoflow.computeInfoflowForSink(sinkStmt, new DefaultSourceSinkManager(sources, sinks));
+			checkInfoflow(infoflow, 1);
+			Assert.assertEquals(sinkStmt, infoflow.getResults().getResults().keySet().iterator().next().getStmt());
+		}
+	}
+
+	@Test(timeout = 300000)
+	public void negativeSinkQueryTest() {
+		Infoflow infoflow = runFullAnalysis("<soot.jimple.infoflow.test.OverwriteTestCode: void varOverwrite()>");
+		negativeCheckInfoflow(infoflow);
+
+		Set<Stmt> sinkStmts = new HashSet<>(infoflow.getCollectedSinks());
+		Assert.assertEquals(2, sinkStmts.size());
+		for (Stmt sinkStmt : sinkStmts) {
+			infoflow.computeInfoflowForSink(sinkStmt, new DefaultSourceSinkManager(sources, sinks));
+			negativeCheckInfoflow(infoflow);
+		}
+	}
+
+	@Test(timeout = 300000)
+	public void repeatedSinkQueryTest() {
+		Infoflow infoflow = runFullAnalysis("<soot.jimple.infoflow.test.ListTestCode: void writeReadTest()>");
+		checkInfoflow(infoflow, 1);
+
+		// Queries on a warm Scene must return the same results every time
+		Stmt sinkStmt = infoflow.getResults().getResults().keySet().iterator().next().getStmt();
+		for (int i = 0; i < 3; i++) {
+			infoflow.computeInfoflowForSink(sinkStmt, new DefaultSourceSinkManager(sources, sinks));
+			checkInfoflow(infoflow, 1);
+		}
+	}
+
+}
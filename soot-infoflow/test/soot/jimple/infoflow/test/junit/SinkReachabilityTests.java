@@ -0,0 +1,116 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.Unit;
+import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.handlers.TaintPropagationHandler;
+import soot.jimple.infoflow.solver.cfg.IInfoflowCFG;
+
+/**
+ * Tests for not propagating taints into code from which no sink can be
+ * reached
+ */
+public class SinkReachabilityTests extends JUnitTests {
+
+	@Test(timeout = 300000)
+	public void sinkReachabilityMultiSinkTest1() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setSinkReachabilityPruning(true);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.OtherTestCode: void multiSinkTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 2);
+	}
+
+	@Test(timeout = 300000)
+	public void sinkReachabilityStaticTest() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setSinkReachabilityPruning(true);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.StaticTestCode: void static2Test()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+	}
+
+	@Test(timeout = 300000)
+	public void sinkReachabilityClinitTest1() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setSinkReachabilityPruning(true);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.StaticTestCode: void clinitTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+	}
+
+	/**
+	 * Taint propagation handler that records the names of all methods in which
+	 * a taint is processed
+	 */
+	private static class TaintedMethodProbe implements TaintPropagationHandler {
+
+		private final Set<String> taintedMethods = Collections
+				.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+		@Override
+		public void notifyFlowIn(Unit stmt, Abstraction taint, IInfoflowCFG cfg, FlowFunctionType type) {
+			if (!taint.getAccessPath().isEmpty())
+				taintedMethods.add(cfg.getMethodOf(stmt).getName());
+		}
+
+		@Override
+		public Set<Abstraction> notifyFlowOut(Unit stmt, Abstraction d1, Abstraction incoming,
+				Set<Abstraction> outgoing, IInfoflowCFG cfg, FlowFunctionType type) {
+			return outgoing;
+		}
+
+	}
+
+	@Test(timeout = 300000)
+	public void sinkReachabilityPrunedCalleeTest() {
+		// The callee is only entered after the sink
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.OtherTestCode: void sinkUnreachableTest()>");
+
+		IInfoflow infoflow = initInfoflow();
+		TaintedMethodProbe probe = new TaintedMethodProbe();
+		((Infoflow) infoflow).setTaintPropagationHandler(probe);
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(probe.taintedMethods.contains("copyWithoutLeak"));
+
+		IInfoflow pruningInfoflow = initInfoflow();
+		pruningInfoflow.getConfig().setSinkReachabilityPruning(true);
+		TaintedMethodProbe pruningProbe = new TaintedMethodProbe();
+		((Infoflow) pruningInfoflow).setTaintPropagationHandler(pruningProbe);
+		pruningInfoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(pruningInfoflow, 1);
+		Assert.assertTrue(pruningProbe.taintedMethods.contains("sinkUnreachableTest"));
+		Assert.assertFalse(pruningProbe.taintedMethods.contains("copyWithoutLeak"));
+	}
+
+	@Test(timeout = 300000)
+	public void sinkReachabilityAfterReturnTest() {
+		// The callee contains no sink, but its caller does after the call
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setSinkReachabilityPruning(true);
+		TaintedMethodProbe probe = new TaintedMethodProbe();
+		((Infoflow) infoflow).setTaintPropagationHandler(probe);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.OtherTestCode: void sinkAfterReturnTest()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertTrue(probe.taintedMethods.contains("passThrough"));
+	}
+
+}
@@ -0,0 +1,130 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import heros.solver.Pair;
+import soot.SootMethod;
+import soot.Type;
+import soot.VoidType;
+import soot.jimple.infoflow.InfoflowConfiguration.DataFlowSolver;
+import soot.jimple.infoflow.solver.IInfoflowSolver;
+import soot.jimple.infoflow.solver.profiling.FlowFunctionKind;
+import soot.jimple.infoflow.solver.profiling.SolverProfile;
+
+/**
+ * Tests for the instrumentation data that the IFDS solvers collect
+ */
+public class SolverProfileTests extends JUnitTests {
+
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 10000;
+
+	private static List<SootMethod> createMethods(int count) {
+		List<SootMethod> methods = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+			methods.add(new SootMethod("method" + i, Collections.<Type>emptyList(), VoidType.v()));
+		return methods;
+	}
+
+	@Test(timeout = 60000)
+	public void concurrentRecordingTest() throws InterruptedException {
+		final SolverProfile profile = new SolverProfile();
+		final List<SootMethod> methods = createMethods(10);
+
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			threads[t] = new Thread() {
+
+				@Override
+				public void run() {
+					for (int i = 0; i < ROUNDS; i++) {
+						// Method i gets i edges per round, so that all threads
+						// compete for the same counters
+						for (int m = 0; m < methods.size(); m++)
+							profile.recordEdges(methods.get(m), m);
+						profile.recordFlowFunction(FlowFunctionKind.Normal);
+						profile.recordTaintWrapperCall(2);
+						profile.recordAliasQuery();
+						profile.recordNeighborAddition();
+					}
+				}
+
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		// No update may get lost
+		for (int m = 0; m < methods.size(); m++)
+			Assert.assertEquals((long) THREADS * ROUNDS * m, profile.getEdgeCount(methods.get(m)));
+		Assert.assertEquals(THREADS * ROUNDS, profile.getFlowFunctionCount(FlowFunctionKind.Normal));
+		Assert.assertEquals(0, profile.getFlowFunctionCount(FlowFunctionKind.Call));
+		Assert.assertEquals(THREADS * ROUNDS, profile.getTaintWrapperCalls());
+		Assert.assertEquals(2 * THREADS * ROUNDS, profile.getTaintWrapperTime());
+		Assert.assertEquals(THREADS * ROUNDS, profile.getAliasQueries());
+		Assert.assertEquals(THREADS * ROUNDS, profile.getNeighborAdditions());
+
+		// The hot methods are the ones with the most edges
+		List<Pair<SootMethod, Long>> hotMethods = profile.getHotMethods(3);
+		Assert.assertEquals(3, hotMethods.size());
+		for (int i = 0; i < hotMethods.size(); i++) {
+			Assert.assertSame(methods.get(methods.size() - 1 - i), hotMethods.get(i).getO1());
+			Assert.assertEquals(profile.getEdgeCount(hotMethods.get(i).getO1()), (long) hotMethods.get(i).getO2());
+		}
+	}
+
+	@Test
+	public void resetTest() {
+		SolverProfile profile = new SolverProfile();
+		SootMethod method = createMethods(1).get(0);
+		profile.recordEdges(method, 5);
+		profile.recordFlowFunction(FlowFunctionKind.Return);
+		profile.recordAliasQuery();
+
+		profile.reset();
+		Assert.assertEquals(0, profile.getEdgeCount(method));
+		Assert.assertEquals(0, profile.getFlowFunctionCount(FlowFunctionKind.Return));
+		Assert.assertEquals(0, profile.getAliasQueries());
+		Assert.assertTrue(profile.getHotMethods(10).isEmpty());
+	}
+
+
+	private SolverProfile runProfiled(DataFlowSolver dataFlowSolver) {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setDataFlowSolver(dataFlowSolver);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+
+		// Every propagated edge is counted exactly once, even though the
+		// counters are updated from several threads
+		IInfoflowSolver solver = infoflow.getForwardSolver();
+		long propagationCount = solver.getPropagationCount();
+		Assert.assertTrue(propagationCount > 0);
+		long edges = 0;
+		for (Pair<SootMethod, Long> method : solver.getProfile().getHotMethods(Integer.MAX_VALUE))
+			edges += method.getO2();
+		Assert.assertEquals(propagationCount, edges);
+		return solver.getProfile();
+	}
+
+	@Test(timeout = 300000)
+	public void profileContextSensitivityTest1() {
+		SolverProfile profile = runProfiled(DataFlowSolver.ContextFlowSensitive);
+		Assert.assertTrue(profile.getFlowFunctionCount(FlowFunctionKind.Normal) > 0);
+		Assert.assertTrue(profile.getFlowFunctionCount(FlowFunctionKind.Call) > 0);
+	}
+
+	@Test(timeout = 300000)
+	public void profileFlowInsensitiveTest() {
+		runProfiled(DataFlowSolver.FlowInsensitive);
+	}
+
+}
@@ -0,0 +1,282 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import heros.solver.Pair;
+import soot.G;
+import soot.Local;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.jimple.Jimple;
+import soot.jimple.Stmt;
+import soot.jimple.infoflow.InfoflowConfiguration;
+import soot.jimple.infoflow.InfoflowConfiguration.PathConfiguration;
+import soot.jimple.infoflow.InfoflowConfiguration.PathReconstructionMode;
+import soot.jimple.infoflow.data.Abstraction;
+import soot.jimple.infoflow.data.AccessPath;
+import soot.jimple.infoflow.data.AccessPathFactory;
+import soot.jimple.infoflow.data.SourceContext;
+import soot.jimple.infoflow.data.SourceContextAndPath;
+
+/**
+ * Tests that the paths built from shared immutable lists are the same as the
+ * ones that the former implementation built from copied array lists
+ */
+public class SourceContextAndPathTests {
+
+	/**
+	 * The former implementation of {@link SourceContextAndPath}, which copies
+	 * its path and call stack on every extension
+	 */
+	private static class ListSourceContextAndPath extends SourceContext {
+
+		private List<Abstraction> path = null;
+		private List<Stmt> callStack = null;
+		private int neighborCounter = 0;
+
+		public ListSourceContextAndPath(AccessPath value, Stmt stmt) {
+			super(null, value, stmt, null);
+		}
+
+		public List<Stmt> getPath() {
+			if (path == null)
+				return Collections.<Stmt>emptyList();
+			List<Stmt> stmtPath = new ArrayList<>(this.path.size());
+			for (ListIterator<Abstraction> absIt = this.path.listIterator(path.size()); absIt.hasPrevious();) {
+				Abstraction abs = absIt.previous();
+				if (abs.getCurrentStmt() != null)
+					stmtPath.add(abs.getCurrentStmt());
+			}
+			return stmtPath;
+		}
+
+		public List<Abstraction> getAbstractionPath() {
+			if (path == null)
+				return null;
+			List<Abstraction> reversePath = new ArrayList<>(path);
+			Collections.reverse(reversePath);
+			return reversePath;
+		}
+
+		public ListSourceContextAndPath extendPath(Abstraction abs, PathConfiguration pathConfig) {
+			if (abs.getCurrentStmt() == null && abs.getCorrespondingCallSite() == null)
+				return this;
+			final boolean trackPath = pathConfig == null ? true
+					: pathConfig.getPathReconstructionMode().reconstructPaths();
+			if (abs.getCorrespondingCallSite() == null && !trackPath)
+				return this;
+
+			ListSourceContextAndPath scap = null;
+			if (trackPath && abs.getCurrentStmt() != null) {
+				if (this.path != null) {
+					for (Abstraction a : path) {
+						if (a == abs)
+							return null;
+						if (a.getNeighbors() != null && a.getNeighbors().contains(abs))
+							return null;
+						if (a.equals(abs)
+								&& a.getCurrentStmt() == abs.getCurrentStmt()
+								&& a.getCorrespondingCallSite() == abs.getCorrespondingCallSite())
+							return null;
+					}
+					Abstraction topAbs = path.get(path.size() - 1);
+					if (topAbs.equals(abs)
+							&& topAbs.getCorrespondingCallSite() != null
+							&& topAbs.getCorrespondingCallSite() == abs.getCorrespondingCallSite()
+							&& topAbs.getCurrentStmt() != abs.getCurrentStmt())
+						return null;
+				}
+
+				scap = clone();
+				if (scap.path == null)
+					scap.path = new ArrayList<Abstraction>();
+				scap.path.add(abs);
+				if (pathConfig != null
+						&& pathConfig.getMaxPathLength() > 0
+						&& scap.path.size() > pathConfig.getMaxPathLength())
+					return null;
+			}
+
+			if (abs.getCorrespondingCallSite() != null && abs.getCorrespondingCallSite() != abs.getCurrentStmt()) {
+				if (scap == null)
+					scap = this.clone();
+				if (scap.callStack == null)
+					scap.callStack = new ArrayList<Stmt>();
+				else if (pathConfig != null
+						&& pathConfig.getMaxCallStackSize() > 0
+						&& scap.callStack.size() >= pathConfig.getMaxCallStackSize())
+					return null;
+				scap.callStack.add(abs.getCorrespondingCallSite());
+			}
+
+			this.neighborCounter = abs.getNeighbors() == null ? 0 : abs.getNeighbors().size();
+			return scap == null ? this : scap;
+		}
+
+		public Pair<ListSourceContextAndPath, Stmt> popTopCallStackItem() {
+			if (callStack == null || callStack.isEmpty())
+				return null;
+			ListSourceContextAndPath scap = clone();
+			return new Pair<>(scap, scap.callStack.remove(scap.callStack.size() - 1));
+		}
+
+		public boolean isCallStackEmpty() {
+			return this.callStack == null || this.callStack.isEmpty();
+		}
+
+		@Override
+		public int hashCode() {
+			// The new implementation represents an empty call stack as null
+			final int prime = 31;
+			int result = super.hashCode();
+			if (!InfoflowConfiguration.getPathAgnosticResults())
+				result = prime * result + ((path == null) ? 0 : path.hashCode());
+			result = prime * result + (isCallStackEmpty() ? 0 : callStack.hashCode());
+			return result;
+		}
+
+		@Override
+		public ListSourceContextAndPath clone() {
+			final ListSourceContextAndPath scap = new ListSourceContextAndPath(accessPath, stmt);
+			if (path != null)
+				scap.path = new ArrayList<Abstraction>(this.path);
+			if (callStack != null)
+				scap.callStack = new ArrayList<Stmt>(callStack);
+			return scap;
+		}
+
+	}
+
+	private final Random rnd = new Random(42);
+	private final List<Abstraction> abstractions = new ArrayList<>();
+	private AccessPath sourceAp;
+	private Stmt sourceStmt;
+
+	@Before
+	public void setUp() {
+		G.reset();
+		SootClass node = new SootClass("Node");
+		Scene.v().addClass(node);
+		RefType nodeType = node.getType();
+		SootField next = new SootField("next", nodeType);
+		node.addField(next);
+
+		InfoflowConfiguration config = new InfoflowConfiguration();
+		AccessPathFactory factory = new AccessPathFactory(config);
+		Local a = Jimple.v().newLocal("a", nodeType);
+		Local b = Jimple.v().newLocal("b", nodeType);
+		List<AccessPath> aps = new ArrayList<>();
+		aps.add(factory.createAccessPath(a, true));
+		aps.add(factory.createAccessPath(b, true));
+		aps.add(factory.createAccessPath(a, new SootField[] { next }, true));
+
+		// Only a few statements, access paths and call sites, so that the
+		// paths contain many equal abstractions and run into loops
+		List<Stmt> stmts = new ArrayList<>();
+		for (int i = 0; i < 8; i++)
+			stmts.add(Jimple.v().newNopStmt());
+		List<Stmt> callSites = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+			callSites.add(Jimple.v().newNopStmt());
+
+		sourceAp = aps.get(0);
+		sourceStmt = stmts.get(0);
+		abstractions.add(new Abstraction(null, sourceAp, sourceStmt, null, false, false));
+		while (abstractions.size() < 60) {
+			Abstraction parent = abstractions.get(rnd.nextInt(abstractions.size()));
+			Stmt stmt = rnd.nextInt(8) == 0 ? null : stmts.get(rnd.nextInt(stmts.size()));
+			Abstraction abs = parent.deriveNewAbstraction(aps.get(rnd.nextInt(aps.size())), stmt);
+			if (abs == null || abs == parent)
+				continue;
+			switch (rnd.nextInt(4)) {
+			case 0:
+				abs.setCorrespondingCallSite(callSites.get(rnd.nextInt(callSites.size())));
+				break;
+			case 1:
+				abs.setCorrespondingCallSite(stmt);
+				break;
+			}
+			if (rnd.nextInt(5) == 0)
+				abs.addNeighbor(abstractions.get(rnd.nextInt(abstractions.size())));
+			abstractions.add(abs);
+		}
+	}
+
+	private void checkSame(ListSourceContextAndPath expected, SourceContextAndPath actual) {
+		Assert.assertEquals(expected.getPath(), actual.getPath());
+		Assert.assertEquals(expected.getAbstractionPath(), actual.getAbstractionPath());
+		Assert.assertEquals(expected.isCallStackEmpty(), actual.isCallStackEmpty());
+		Assert.assertEquals(expected.hashCode(), actual.hashCode());
+	}
+
+	private void checkRandomPaths(PathConfiguration pathConfig) {
+		for (int run = 0; run < 500; run++) {
+			ListSourceContextAndPath expected = new ListSourceContextAndPath(sourceAp, sourceStmt);
+			SourceContextAndPath actual = new SourceContextAndPath(null, sourceAp, sourceStmt);
+			for (int step = 0; step < 30; step++) {
+				if (rnd.nextInt(4) == 0) {
+					Pair<ListSourceContextAndPath, Stmt> expectedPop = expected.popTopCallStackItem();
+					Pair<SourceContextAndPath, Stmt> actualPop = actual.popTopCallStackItem();
+					if (expectedPop == null) {
+						Assert.assertNull(actualPop);
+						continue;
+					}
+					Assert.assertSame(expectedPop.getO2(), actualPop.getO2());
+					checkSame(expectedPop.getO1(), actualPop.getO1());
+					expected = expectedPop.getO1();
+					actual = actualPop.getO1();
+				} else {
+					Abstraction abs = abstractions.get(rnd.nextInt(abstractions.size()));
+					ListSourceContextAndPath expectedExt = expected.extendPath(abs, pathConfig);
+					SourceContextAndPath actualExt = actual.extendPath(abs, pathConfig);
+					Assert.assertEquals(expected.neighborCounter, actual.getNeighborCounter());
+
+					// The loop checks must reject the same extensions
+					if (expectedExt == null) {
+						Assert.assertNull(actualExt);
+						continue;
+					}
+					Assert.assertNotNull(actualExt);
+					checkSame(expectedExt, actualExt);
+
+					// Extending a path must not change the original one
+					checkSame(expected, actual);
+					expected = expectedExt;
+					actual = actualExt;
+				}
+			}
+		}
+	}
+
+	@Test
+	public void defaultPathTest() {
+		checkRandomPaths(null);
+	}
+
+	@Test
+	public void limitedPathTest() {
+		PathConfiguration pathConfig = new InfoflowConfiguration().getPathConfiguration();
+		pathConfig.setPathReconstructionMode(PathReconstructionMode.Precise);
+		pathConfig.setMaxPathLength(6);
+		pathConfig.setMaxCallStackSize(2);
+		checkRandomPaths(pathConfig);
+	}
+
+	@Test
+	public void noPathsTest() {
+		PathConfiguration pathConfig = new InfoflowConfiguration().getPathConfiguration();
+		pathConfig.setPathReconstructionMode(PathReconstructionMode.NoPaths);
+		checkRandomPaths(pathConfig);
+	}
+
+}
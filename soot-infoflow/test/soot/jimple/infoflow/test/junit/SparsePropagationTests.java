@@ -0,0 +1,72 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.infoflow.InfoflowConfiguration.PathReconstructionMode;
+import soot.jimple.infoflow.solver.fastSolver.IFDSSolver;
+
+/**
+ * Tests for propagating taints on locals directly to the next statements that
+ * use or overwrite the local
+ */
+public class SparsePropagationTests extends JUnitTests {
+
+	private RecordingInfoflow runOverwriteTest(String methodName, boolean sparse) {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setSparsePropagation(sparse);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.OverwriteTestCode: void " + methodName + "()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		return infoflow;
+	}
+
+	private static long getPropagationCount(RecordingInfoflow infoflow) {
+		return ((IFDSSolver<?, ?, ?>) infoflow.getForwardSolver()).getPropagationCount();
+	}
+
+	@Test(timeout = 300000)
+	public void sparseVarOverwriteTest() {
+		RecordingInfoflow dense = runOverwriteTest("varOverwrite", false);
+		RecordingInfoflow sparse = runOverwriteTest("varOverwrite", true);
+		negativeCheckInfoflow(dense);
+		negativeCheckInfoflow(sparse);
+
+		// The taint skips the statements that do not mention its local
+		Assert.assertTrue(getPropagationCount(sparse) < getPropagationCount(dense));
+	}
+
+	@Test(timeout = 300000)
+	public void sparseLoopTest() {
+		RecordingInfoflow infoflow = runOverwriteTest("loopOverwrite", true);
+		checkInfoflow(infoflow, 1);
+		Assert.assertEquals(1, infoflow.getResults().size());
+	}
+
+	@Test(timeout = 300000)
+	public void sparseOverwriteAliasTest() {
+		RecordingInfoflow infoflow = runOverwriteTest("overwriteAlias", true);
+		checkInfoflow(infoflow, 1);
+		Assert.assertEquals(1, infoflow.getResults().size());
+	}
+
+	@Test(timeout = 300000)
+	public void sparseWithPathReconstructionTest() {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setSparsePropagation(true);
+		infoflow.getConfig().getPathConfiguration().setPathReconstructionMode(PathReconstructionMode.Precise);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+
+		// The paths need every statement, so the option must have been dropped
+		Assert.assertFalse(infoflow.getConfig().getSolverConfiguration().getSparsePropagation());
+	}
+
+}
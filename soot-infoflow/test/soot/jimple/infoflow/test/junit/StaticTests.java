@@ -16,6 +16,7 @@ import java.util.List;
 import org.junit.Test;
 
 import soot.jimple.infoflow.IInfoflow;
+import soot.jimple.infoflow.InfoflowConfiguration.CodeEliminationMode;
 
 /**
  * contain tests which check taint propagation for static variables
@@ -58,6 +59,26 @@ public class StaticTests extends JUnitTests {
 		checkInfoflow(infoflow, 1);
 	}
 
+	@Test(timeout = 300000)
+	public void static2RemoveSideEffectFreeTest() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setCodeEliminationMode(CodeEliminationMode.RemoveSideEffectFreeCode);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.StaticTestCode: void static2Test()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+	}
+
+	@Test(timeout = 300000)
+	public void static4RemoveSideEffectFreeTest() {
+		IInfoflow infoflow = initInfoflow();
+		infoflow.getConfig().setCodeEliminationMode(CodeEliminationMode.RemoveSideEffectFreeCode);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.StaticTestCode: void static4Test()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+	}
+
 	@Test(timeout = 300000)
 	public void staticOverwriteTest() {
 		IInfoflow infoflow = initInfoflow();
@@ -0,0 +1,82 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import heros.solver.Pair;
+import soot.jimple.infoflow.Infoflow;
+import soot.jimple.infoflow.results.IResultsStreamConsumer;
+import soot.jimple.infoflow.results.ResultSinkInfo;
+import soot.jimple.infoflow.results.ResultSourceInfo;
+import soot.jimple.infoflow.results.StreamingResultsChannel;
+import soot.jimple.infoflow.results.StreamingResultsChannel.OverflowPolicy;
+import soot.jimple.infoflow.results.xml.InfoflowResultsReader;
+import soot.jimple.infoflow.results.xml.SerializedInfoflowResults;
+import soot.jimple.infoflow.results.xml.StreamingResultsSerializer;
+
+/**
+ * Tests for handing results to consumers while the analysis is still running
+ */
+public class StreamingResultsTests extends JUnitTests {
+
+	@Test(timeout = 300000)
+	public void streamingResultsMultiSinkTest1() {
+		final Set<Pair<ResultSourceInfo, ResultSinkInfo>> streamedResults = new HashSet<>();
+		StreamingResultsChannel channel = new StreamingResultsChannel(new IResultsStreamConsumer() {
+
+			@Override
+			public void onResult(ResultSourceInfo source, ResultSinkInfo sink) {
+				streamedResults.add(new Pair<>(source, sink));
+			}
+
+			@Override
+			public void onStreamClosed() {
+				//
+			}
+
+		}, 1, OverflowPolicy.Block);
+
+		Infoflow infoflow = (Infoflow) initInfoflow();
+		infoflow.getConfig().setIncrementalResultReporting(true);
+		infoflow.addResultsAvailableHandler(channel);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.OtherTestCode: void multiSinkTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		channel.close();
+
+		checkInfoflow(infoflow, 2);
+		Assert.assertEquals(0, channel.getDroppedResults());
+		Assert.assertEquals(infoflow.getResults().numConnections(), streamedResults.size());
+	}
+
+	@Test(timeout = 300000)
+	public void streamingResultsSerializerTest() throws IOException, XMLStreamException {
+		File resultFile = File.createTempFile("flowdroid-results", ".xml");
+		resultFile.deleteOnExit();
+		StreamingResultsSerializer serializer = new StreamingResultsSerializer(resultFile.getAbsolutePath());
+		StreamingResultsChannel channel = new StreamingResultsChannel(serializer, 16, OverflowPolicy.Block);
+
+		Infoflow infoflow = (Infoflow) initInfoflow();
+		infoflow.getConfig().setIncrementalResultReporting(true);
+		infoflow.addResultsAvailableHandler(channel);
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.OtherTestCode: void multiSinkTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		channel.close();
+
+		checkInfoflow(infoflow, 2);
+		SerializedInfoflowResults readResults = new InfoflowResultsReader()
+				.readResults(resultFile.getAbsolutePath());
+		Assert.assertEquals(infoflow.getResults().numConnections(), readResults.getResultCount());
+	}
+
+}
@@ -0,0 +1,63 @@
+package soot.jimple.infoflow.test.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import soot.jimple.infoflow.InfoflowConfiguration.SchedulingStrategy;
+import soot.jimple.infoflow.solver.executors.SetPoolExecutor;
+import soot.jimple.infoflow.solver.executors.WorkStealingExecutor;
+import soot.jimple.infoflow.solver.executors.WorkStealingQueue;
+
+/**
+ * Tests for running the solver on the work-stealing executor
+ */
+public class WorkStealingSchedulerTests extends JUnitTests {
+
+	private RecordingInfoflow initWorkStealingInfoflow() {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		infoflow.getConfig().getSolverConfiguration().setSchedulingStrategy(SchedulingStrategy.WorkStealing);
+		return infoflow;
+	}
+
+	@Test(timeout = 300000)
+	public void workStealingContextSensitivityTest1() {
+		RecordingInfoflow infoflow = initWorkStealingInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void contextSensitivityTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+		Assert.assertTrue(infoflow.getResults().isPathBetweenMethods(sink, sourceDeviceId));
+		Assert.assertFalse(infoflow.getResults().isPathBetweenMethods(sink, sourcePwd));
+
+		// The edges must really have been propagated on the per-worker deques
+		Assert.assertTrue(infoflow.getExecutor() instanceof WorkStealingExecutor);
+		Assert.assertTrue(infoflow.getExecutor().getQueue() instanceof WorkStealingQueue);
+		Assert.assertTrue(infoflow.getExecutor().getCompletedTaskCount() > 0);
+	}
+
+	@Test(timeout = 300000)
+	public void workStealingNegativeTest() {
+		RecordingInfoflow infoflow = initWorkStealingInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.HeapTestCode: void negativeTest()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		negativeCheckInfoflow(infoflow);
+		Assert.assertTrue(infoflow.getExecutor() instanceof WorkStealingExecutor);
+	}
+
+	@Test(timeout = 300000)
+	public void defaultSchedulerTest() {
+		RecordingInfoflow infoflow = new RecordingInfoflow();
+		List<String> epoints = new ArrayList<String>();
+		epoints.add("<soot.jimple.infoflow.test.ContextSensitivityTestCode: void multipleCallSiteTest1()>");
+		infoflow.computeInfoflow(appPath, libPath, epoints, sources, sinks);
+		checkInfoflow(infoflow, 1);
+
+		// Without the option, the solver keeps using the shared queue
+		Assert.assertTrue(infoflow.getExecutor() instanceof SetPoolExecutor);
+	}
+
+}